@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * The saved HTML pages in {@code src/jmh/resources/corpus}, each with the location it is parsed as coming from.
+ */
+final class Corpus {
+    static final String BLOG_ARTICLE = "blog-article";
+    static final String SHOP_LISTING = "shop-listing";
+    static final String NEWS_HOME = "news-home";
+
+    private Corpus() {
+    }
+
+    /**
+     * Returns the HTML of a saved page.
+     */
+    static String html(String page) {
+        try (InputStream in = Corpus.class.getResourceAsStream("/corpus/" + page + ".html")) {
+            if (in == null) {
+                throw new IllegalArgumentException("No saved page named " + page);
+            }
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the URL a saved page was saved from.
+     */
+    static String location(String page) {
+        switch (page) {
+            case BLOG_ARTICLE:
+                return "https://blog.example.com/2023/05/rebuilding-our-image-pipeline/";
+            case SHOP_LISTING:
+                return "https://shop.example.com/c/running-shoes";
+            case NEWS_HOME:
+                return "https://news.example.com/";
+            default:
+                throw new IllegalArgumentException("No saved page named " + page);
+        }
+    }
+
+    /**
+     * Returns the seed a crawl of the site of a saved page would start from.
+     */
+    static String domain(String page) {
+        String location = location(page);
+        return location.substring(0, location.indexOf('/', "https://".length()) + 1);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.crawler.CrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PermitCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.parser.StreamingHTMLParser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import testsupport.SyntheticSite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to crawl a whole {@link SyntheticSite} served on the loopback interface, which leaves out network
+ * latency and shows the overhead of the crawl engine itself: fetching, parsing, scheduling and writing results. The
+ * host scheduler is configured so that politeness never limits the rate. Each execution mode is measured with the
+ * DOM based {@link HTMLParser} and the {@link StreamingHTMLParser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CrawlBenchmark {
+
+    @Param({"pooled", "permit"})
+    public String execution;
+
+    @Param({"dom", "streaming"})
+    public String parser;
+
+    @Param({"500"})
+    public int pages;
+
+    private SyntheticSite site;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void startSite() throws IOException {
+        site = new SyntheticSite(pages, 4, 5).start();
+        directory = Files.createTempDirectory("crawl-benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopSite() throws IOException {
+        site.close();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public Map<String, Set<Image>> crawl() {
+        String seed = site.getSeed();
+        WebCrawler crawler = new WebCrawler(seed, newParser(seed), newExecution(),
+                new HostScheduler(16, 64, 10_000), new JsonResultSink(directory));
+        return crawler.crawl();
+    }
+
+    private Parser newParser(String seed) {
+        return "streaming".equals(parser) ? new StreamingHTMLParser(seed) : new HTMLParser(seed);
+    }
+
+    private CrawlExecution newExecution() {
+        return "permit".equals(execution)
+                ? new PermitCrawlExecution()
+                : new PooledCrawlExecution(WebCrawler.MAX_THREADS);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.util.image.HammingIndex;
+import com.github.kyleryxn.imagefinder.util.image.ImageFingerprints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a near-duplicate lookup in a {@link HammingIndex} of perceptual hashes against a linear scan of the same
+ * hashes. The hashes are generated in groups of four variants a few bits apart, like resized copies of the same image,
+ * and each lookup is a slightly changed copy of a hash in the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"4", "10"})
+    public int radius;
+
+    private long[] hashes;
+    private long[] queries;
+    private HammingIndex<Integer> index;
+
+    @Setup
+    public void createIndex() {
+        Random random = new Random(42);
+        hashes = new long[size];
+        index = new HammingIndex<>();
+        for (int i = 0; i < size; i++) {
+            hashes[i] = i % 4 == 0 ? random.nextLong() : flip(hashes[i - i % 4], random, 3);
+            index.add(hashes[i], i);
+        }
+
+        queries = new long[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = flip(hashes[random.nextInt(size)], random, 2);
+        }
+    }
+
+    @Benchmark
+    public void hammingIndex(Blackhole blackhole) {
+        for (long query : queries) {
+            blackhole.consume(index.search(query, radius));
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (long query : queries) {
+            int found = 0;
+            for (long hash : hashes) {
+                if (ImageFingerprints.distance(query, hash) <= radius) {
+                    found++;
+                }
+            }
+            blackhole.consume(found);
+        }
+    }
+
+    private static long flip(long hash, Random random, int bits) {
+        for (int i = 0; i < bits; i++) {
+            hash ^= 1L << random.nextInt(64);
+        }
+        return hash;
+    }
+}
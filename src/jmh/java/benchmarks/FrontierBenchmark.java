@@ -0,0 +1,82 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.crawler.Frontier;
+import com.github.kyleryxn.imagefinder.crawler.FrontierEntry;
+import com.github.kyleryxn.imagefinder.crawler.FrontierSpill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a frontier holding every entry in memory with one keeping a window of {@code window} entries in memory and
+ * spilling the rest to disk. {@code offerAndTake} adds every URL of a crawl, then takes and completes each of them, the
+ * way a crawl of a link-dense site builds up a frontier much larger than it crawls at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrontierBenchmark {
+
+    @Param({"memory", "spill"})
+    public String mode;
+
+    @Param({"200000"})
+    public int urlCount;
+
+    @Param({"4096"})
+    public int window;
+
+    private String[] urls;
+    private Path spillDirectory;
+
+    @Setup(Level.Trial)
+    public void createUrls() throws IOException {
+        urls = new String[urlCount];
+        for (int i = 0; i < urlCount; i++) {
+            urls[i] = "https://www.example.com/section-" + (i % 97) + "/article/" + i + "?ref=home";
+        }
+        spillDirectory = Files.createTempDirectory("frontier-benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSpill() throws IOException {
+        Files.deleteIfExists(spillDirectory);
+    }
+
+    @Benchmark
+    public int offerAndTake() throws Exception {
+        Frontier frontier = mode.equals("spill")
+                ? new Frontier(window, new FrontierSpill(spillDirectory))
+                : new Frontier(urlCount);
+        for (int i = 0; i < urlCount; i++) {
+            frontier.offer(urls[i], i / 10_000, 0, TimeUnit.MILLISECONDS);
+        }
+
+        int taken = 0;
+        FrontierEntry entry;
+        while ((entry = frontier.take()) != null) {
+            frontier.complete(entry);
+            taken++;
+        }
+        frontier.close();
+        return taken;
+    }
+}
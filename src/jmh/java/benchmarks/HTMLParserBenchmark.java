@@ -0,0 +1,70 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.StreamingHTMLParser;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link HTMLParser} on the saved pages of the corpus: {@code parseAndExtract} includes building the DOM
+ * with jsoup, {@code extract} only extracts the links, images and favicon from an already built DOM. {@code stream}
+ * extracts the same with the {@link StreamingHTMLParser}, straight from the text of the page; compare it with
+ * {@code parseAndExtract}, with {@code -prof gc} for the allocation per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HTMLParserBenchmark {
+
+    @Param({Corpus.BLOG_ARTICLE, Corpus.SHOP_LISTING, Corpus.NEWS_HOME})
+    public String page;
+
+    private String html;
+    private String location;
+    private HTMLParser parser;
+    private StreamingHTMLParser streamingParser;
+    private Document document;
+
+    @Setup
+    public void load() {
+        html = Corpus.html(page);
+        location = Corpus.location(page);
+        parser = new HTMLParser(Corpus.domain(page));
+        document = Jsoup.parse(html, location);
+        streamingParser = new StreamingHTMLParser(Corpus.domain(page));
+    }
+
+    @Benchmark
+    public ParsedPage parseAndExtract() {
+        return parser.parse(Jsoup.parse(html, location));
+    }
+
+    @Benchmark
+    public ParsedPage extract() {
+        return parser.parse(document);
+    }
+
+    @Benchmark
+    public ParsedPage stream() throws IOException {
+        return streamingParser.parse(new StringReader(html), location);
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.util.image.ImageFactory;
+import org.jsoup.Jsoup;
+import org.jsoup.select.Elements;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ImageFactory#createImage(Element)} for every img tag of a saved page of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageFactoryBenchmark {
+
+    @Param({Corpus.BLOG_ARTICLE, Corpus.SHOP_LISTING, Corpus.NEWS_HOME})
+    public String page;
+
+    private Elements images;
+
+    @Setup
+    public void load() {
+        images = Jsoup.parse(Corpus.html(page), Corpus.location(page)).select("img[src]");
+    }
+
+    @Benchmark
+    public void createImages(Blackhole blackhole) {
+        for (Element image : images) {
+            blackhole.consume(ImageFactory.createImage(image));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import com.github.kyleryxn.imagefinder.util.ResourceUtility;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing the results of a crawl to a temporary directory: {@code writeMapToJson} serializes the whole image
+ * map at the end of a crawl, {@code streamPages} writes the same results page by page through a {@link JsonResultSink}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceUtilityBenchmark {
+
+    @Param({"500"})
+    public int pages;
+
+    @Param({"20"})
+    public int imagesPerPage;
+
+    private Map<String, Set<Image>> images;
+    private Map<String, Set<String>> links;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void createResults() throws IOException {
+        directory = Files.createTempDirectory("resource-benchmark");
+        images = new HashMap<>();
+        links = new HashMap<>();
+
+        for (int page = 0; page < pages; page++) {
+            String url = "https://www.example.com/section-" + (page % 13) + "/article-" + page;
+            Set<Image> pageImages = new HashSet<>();
+            for (int k = 0; k < imagesPerPage; k++) {
+                String name = "photo-" + page + "-" + k + ".jpg";
+                pageImages.add(new Image(name, "example.com", false, false, "https://cdn.example.com/img/" + name));
+            }
+            pageImages.add(new Image("logo.png", "example.com", true, false, "https://www.example.com/logo.png"));
+
+            Set<String> pageLinks = new HashSet<>();
+            for (int k = 1; k <= 4; k++) {
+                pageLinks.add("https://www.example.com/section-" + (page % 13) + "/article-" + (page + k));
+            }
+
+            images.put(url, pageImages);
+            links.put(url, pageLinks);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public void writeMapToJson() {
+        ResourceUtility.writeMapToJson(directory, "images.json", images);
+    }
+
+    @Benchmark
+    public void streamPages() throws IOException {
+        try (JsonResultSink sink = new JsonResultSink(directory.resolve("stream"))) {
+            for (Map.Entry<String, Set<Image>> page : images.entrySet()) {
+                sink.writePage(page.getKey(), links.get(page.getKey()), page.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.crawler.BloomSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.CompactSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.ConcurrentSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.SeenSet;
+import com.github.kyleryxn.imagefinder.crawler.URLDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the seen set modes of the crawler. {@code claimAll} measures the time to claim every URL of a crawl once
+ * and then re-claim each of them, the way a crawl rediscovers the same links on many pages. The retained footprint and
+ * the false positive rate of each mode are printed when the trial ends; the footprint of {@link ConcurrentSeenSet} is
+ * not tracked, run with {@code -prof gc} to compare allocation instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeenSetBenchmark {
+
+    @Param({"exact", "compact", "bloom"})
+    public String mode;
+
+    @Param({"100000"})
+    public int urlCount;
+
+    private String[] urls;
+    private SeenSet last;
+
+    @Setup(Level.Trial)
+    public void createUrls() {
+        urls = new String[urlCount];
+        for (int i = 0; i < urlCount; i++) {
+            urls[i] = "https://www.example.com/section-" + (i % 97) + "/article/" + i + "?ref=home";
+        }
+    }
+
+    @Benchmark
+    public int claimAll() {
+        SeenSet seen = newSeenSet();
+        int claimed = 0;
+        for (String url : urls) {
+            if (seen.claim(url)) {
+                claimed++;
+            }
+        }
+        for (String url : urls) {
+            if (seen.claim(url)) {
+                claimed++;
+            }
+        }
+        last = seen;
+        return claimed;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n%s: %d of %d URLs claimed, %d bytes, estimated false positive rate %.6f%n",
+                mode, last.size(), urlCount, last.getMemoryBytes(), last.getEstimatedFalsePositiveRate());
+    }
+
+    private SeenSet newSeenSet() {
+        switch (mode) {
+            case "compact":
+                return new CompactSeenSet(new URLDictionary());
+            case "bloom":
+                return new BloomSeenSet(BloomSeenSet.DEFAULT_INITIAL_CAPACITY, BloomSeenSet.DEFAULT_FALSE_POSITIVE_RATE);
+            default:
+                return new ConcurrentSeenSet();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package benchmarks;
+
+import com.github.kyleryxn.imagefinder.util.image.ImageUtility;
+import com.github.kyleryxn.imagefinder.util.url.URLNormalizer;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the URL checks that run for every anchor and img tag of every page, each against the list based
+ * implementation it replaced (the {@code legacy} methods, kept here as the baseline). Each benchmark processes the
+ * same mix of 1000 absolute page, image, document and script URLs; run with {@code -prof gc} to compare allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class URLUtilityBenchmark {
+    private static final String[] SAMPLES = {
+            "https://www.example.com/blog/2023/05/some-article-title",
+            "https://www.example.com/images/header-logo.png",
+            "https://www.example.com/files/annual-report.pdf",
+            "https://www.example.com/search?q=images&page=2",
+            "https://cdn.example.com/assets/app.min.js",
+            "https://www.example.com/about/team/",
+            "https://www.example.com/photos/IMG_0042.JPG?w=640",
+            "HTTPS://WWW.Example.com:443/docs/../guide/./intro.html",
+            "https://www.example.com/products/widget#reviews",
+            "https://www.example.com/static/icons/favicon.ico"
+    };
+
+    private String[] urls;
+
+    @Setup
+    public void createUrls() {
+        urls = new String[1000];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = SAMPLES[i % SAMPLES.length];
+        }
+    }
+
+    @Benchmark
+    public void isValidLinkToCrawl(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(URLUtility.isValidLinkToCrawl(url));
+        }
+    }
+
+    @Benchmark
+    public void isValidLinkToCrawlLegacy(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(legacyIsValidLinkToCrawl(url));
+        }
+    }
+
+    @Benchmark
+    public void isValidImageExtension(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(ImageUtility.isValidImageExtension(url));
+        }
+    }
+
+    @Benchmark
+    public void isValidImageExtensionLegacy(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(legacyIsValidImageExtension(url));
+        }
+    }
+
+    @Benchmark
+    public void trimURL(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(URLUtility.trimURL(url));
+        }
+    }
+
+    @Benchmark
+    public void trimURLLegacy(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(legacyTrimURL(url));
+        }
+    }
+
+    @Benchmark
+    public void getDomain(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(URLUtility.getDomain(url));
+        }
+    }
+
+    @Benchmark
+    public void getDomainLegacy(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(legacyGetDomain(url));
+        }
+    }
+
+    @Benchmark
+    public void normalize(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(URLNormalizer.normalize(url));
+        }
+    }
+
+    private static boolean legacyIsValidLinkToCrawl(String url) {
+        List<String> invalidExtensions = Arrays.asList(
+                "#", "javascript:", "mailto:", "tel:", ".pdf",
+                ".jpg", ".jpeg", ".png", ".gif", ".ico", ".svg",
+                ".doc", ".docx", ".csv", ".xlsx", ".ppt", ".pptx",
+                ".zip", ".rar", ".mp3", ".wav", ".ogg", ".mp4", ".avi", ".mov",
+                ".xml", ".json", ".js", ".css", ".txt");
+
+        for (String invalidExtension : invalidExtensions) {
+            if (url.startsWith(invalidExtension) || url.endsWith(invalidExtension)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean legacyIsValidImageExtension(String url) {
+        List<String> validImageExtensions = Arrays.asList(".gif", ".ico", ".jpg", ".jpeg", ".png", ".svg");
+
+        for (String extension : validImageExtensions) {
+            if (url.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String legacyTrimURL(String url) {
+        int queryIndex = url.indexOf('?');
+        if (queryIndex != -1) {
+            url = url.substring(0, queryIndex);
+        }
+        int fragmentIndex = url.indexOf('#');
+        if (fragmentIndex != -1) {
+            url = url.substring(0, fragmentIndex);
+        }
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+
+    private static String legacyGetDomain(String url) {
+        try {
+            String domain = new URI(url).getHost();
+            return domain == null ? null : domain.replace("www.", "");
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -1,17 +1,75 @@
 package com.github.kyleryxn.imagefinder.controller;
 
-import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
-import com.github.kyleryxn.imagefinder.model.Image;
-import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
+import com.github.kyleryxn.imagefinder.model.CrawlMetricsSnapshot;
+import com.github.kyleryxn.imagefinder.model.CrawlProgress;
+import com.github.kyleryxn.imagefinder.model.ImagePage;
+import com.github.kyleryxn.imagefinder.service.CrawlJob;
+import com.github.kyleryxn.imagefinder.service.CrawlJobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
 
-@Controller
+/**
+ * JSON API for crawl jobs. A crawl is submitted with {@code POST /api/crawls?url=...}, which answers 202 (Accepted)
+ * with the progress of the new job straight away. Clients then poll {@code GET /api/crawls/{id}} for progress and
+ * fetch the images found so far, one page at a time, from {@code GET /api/crawls/{id}/images}. The latency, status
+ * and throughput metrics of the crawl are available from {@code GET /api/crawls/{id}/metrics}.
+ */
+@RestController
+@RequestMapping("/api/crawls")
 public class CrawlerController {
+    public static final int MAX_PAGE_SIZE = 500;
 
+    private final CrawlJobService jobService;
 
+    public CrawlerController(CrawlJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<CrawlProgress> submit(@RequestParam("url") String url) {
+        try {
+            CrawlJob job = jobService.submit(url);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.getProgress());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CrawlProgress> progress(@PathVariable("id") String id) {
+        CrawlJob job = jobService.getJob(id);
+        return job != null ? ResponseEntity.ok(job.getProgress()) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/metrics")
+    public ResponseEntity<CrawlMetricsSnapshot> metrics(@PathVariable("id") String id) {
+        CrawlJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CrawlMetricsSnapshot metrics = job.getMetrics();
+        return metrics != null ? ResponseEntity.ok(metrics) : ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/images")
+    public ResponseEntity<ImagePage> images(@PathVariable("id") String id,
+                                            @RequestParam(value = "page", defaultValue = "0") int page,
+                                            @RequestParam(value = "size", defaultValue = "50") int size) {
+        CrawlJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return ResponseEntity.ok(job.getImages(Math.max(page, 0), pageSize));
+    }
 }
@@ -1,59 +1,66 @@
 package com.github.kyleryxn.imagefinder.controller;
 
-import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
-import com.github.kyleryxn.imagefinder.model.Image;
-import com.github.kyleryxn.imagefinder.util.url.HTTPClient;
+import com.github.kyleryxn.imagefinder.model.ImagePage;
+import com.github.kyleryxn.imagefinder.service.CrawlJob;
+import com.github.kyleryxn.imagefinder.service.CrawlJobService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller
 public class HomeController {
-    private boolean showMessage = false;
+    public static final int PAGE_SIZE = 50;
 
-    @GetMapping("/")
-    public String welcome(Model model) {
-        model.addAttribute("showMessage", showMessage);
-        model.addAttribute("message", "");
-        return "index";
+    private final CrawlJobService jobService;
+
+    public HomeController(CrawlJobService jobService) {
+        this.jobService = jobService;
     }
 
-    @PostMapping("/crawl")
-    public String getImages(@RequestParam("url") String url, Model model) {
-        HTTPClient client = new HTTPClient();
-        model.addAttribute("url", url);
-
-        showMessage = !showMessage;
-
-        // Check incoming url
-        boolean flag = client.checkURL(url).isValid();
-        String message = client.getMessage();
-        System.out.println(message);
-
-        if (flag) {
-            // Start the crawler
-            Set<Image> images = new WebCrawler(url).crawl().values()
-                    .stream()
-                    .flatMap(Set::stream)
-                    .collect(Collectors.toSet());
-
-            model.addAttribute("images", images);
-            model.addAttribute("showMessage", showMessage);
-            model.addAttribute("message", message);
-        } else {
-            model.addAttribute("images", new HashSet<Image>());
-            model.addAttribute("showMessage", showMessage);
-            model.addAttribute("message", "");
+    @GetMapping("/")
+    public String welcome(@RequestParam(value = "job", required = false) String jobId,
+                          @RequestParam(value = "page", defaultValue = "0") int page, Model model) {
+        CrawlJob job = jobService.getJob(jobId);
+
+        if (job == null) {
+            model.addAttribute("showMessage", jobId != null);
+            model.addAttribute("message", jobId != null ? "Crawl not found" : "");
+            model.addAttribute("images", Collections.emptyList());
+            return "index";
         }
 
+        model.addAttribute("job", job.getId());
+        model.addAttribute("url", job.getUrl());
+        model.addAttribute("running", !job.isFinished());
+        model.addAttribute("progress", job.getProgress());
+        model.addAttribute("showMessage", true);
+        model.addAttribute("message", job.getProgress().getMessage());
+
+        ImagePage images = job.getImages(Math.max(page, 0), PAGE_SIZE);
+        model.addAttribute("imagePage", images);
+        model.addAttribute("images", images.getImages());
+
         return "index";
     }
 
-
+    @PostMapping("/crawl")
+    public String getImages(@RequestParam("url") String url, Model model, RedirectAttributes redirectAttributes) {
+        try {
+            CrawlJob job = jobService.submit(url);
+            redirectAttributes.addAttribute("job", job.getId());
+            return "redirect:/";
+        } catch (RejectedExecutionException e) {
+            model.addAttribute("url", url);
+            model.addAttribute("showMessage", true);
+            model.addAttribute("message", "Too many crawls are running, please try again later");
+            model.addAttribute("images", Collections.emptyList());
+            return "index";
+        }
+    }
 }
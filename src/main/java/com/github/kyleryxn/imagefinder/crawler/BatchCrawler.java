@@ -0,0 +1,389 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Crawls many seeds at once on one shared pool of worker threads, instead of a pool per {@link WebCrawler}. Every
+ * seed is still a crawl of its own, with its own frontier, seen set, results and output directory, so the results of
+ * one seed never mix with those of another, and each can be waited for on its own. The seeds share the pool and the
+ * {@link HostScheduler}, so seeds on the same host are held to the same politeness limits.
+ * <p>
+ * Workers take the next entry from the seeds in weighted round-robin order: a seed of weight w gets up to w entries
+ * in a row before the next seed with an entry waiting gets its turn, so a seed with a large frontier cannot starve the
+ * others. The pool only starts as many workers as there is work for, at most {@link WebCrawler#MAX_THREADS} per seed
+ * being crawled, up to the size of the pool, and they stop once no seed is left.
+ * <p>
+ * A worker only takes an entry once it has a slot of the {@link HostScheduler} for its host, without waiting for one:
+ * a seed whose host is at its concurrency limit or backing off, for example after a 429 with Retry-After, passes its
+ * turn instead of holding workers the other seeds could use. Workers with nothing to take check again when a page
+ * finishes, or after a short wait when only time can free a host.
+ */
+public class BatchCrawler implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchCrawler.class);
+    private static final long IDLE_WAIT_MILLIS = 50;
+
+    private final int threads;
+    private final Path outputDirectory;
+    private final Function<String, Parser> parserFactory;
+    private final HostScheduler scheduler = new HostScheduler();
+    private final ThreadPoolManager executorService;
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    // Seeds being crawled, in round-robin order, and the workers taking their entries; guarded by 'lock'
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final List<Seed> seeds = new ArrayList<>();
+    private int cursor;
+    private int workers;
+
+    /**
+     * Constructor for creating a BatchCrawler that parses pages with an {@link HTMLParser}.
+     *
+     * @param threads the size of the shared pool, that is the number of pages fetched at once across all seeds.
+     * @param outputDirectory the directory the results of each seed are written to, in a directory of their own.
+     */
+    public BatchCrawler(int threads, Path outputDirectory) {
+        this(threads, outputDirectory, HTMLParser::new);
+    }
+
+    /**
+     * Constructor for creating a BatchCrawler.
+     *
+     * @param threads the size of the shared pool, that is the number of pages fetched at once across all seeds.
+     * @param outputDirectory the directory the results of each seed are written to, in a directory of their own.
+     * @param parserFactory creates the parser of a seed from the seed URL.
+     */
+    public BatchCrawler(int threads, Path outputDirectory, Function<String, Parser> parserFactory) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+
+        this.threads = threads;
+        this.outputDirectory = outputDirectory;
+        this.parserFactory = parserFactory;
+        this.executorService = new ThreadPoolManager(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        this.executorService.allowCoreThreadTimeOut(true);
+        this.executorService.setThreadFactory(r -> {
+            Thread thread = new Thread(r, "batch-crawler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts crawling a seed with a weight of 1.
+     *
+     * @param seed the seed URL.
+     * @return a future completed with the images of the seed once its crawl is finished.
+     */
+    public CompletableFuture<ConcurrentMap<String, Set<Image>>> submit(String seed) {
+        return submit(seed, 1);
+    }
+
+    /**
+     * Starts crawling a seed. Its results are written to a directory named after its submission order and domain.
+     *
+     * @param seed the seed URL.
+     * @param weight the number of entries of the seed taken in a row on its turn.
+     * @return a future completed with the images of the seed once its crawl is finished.
+     */
+    public CompletableFuture<ConcurrentMap<String, Set<Image>>> submit(String seed, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+
+        String directory = String.format("%04d-%s", submitted.getAndIncrement(), URLUtility.getDomain(seed));
+        WebCrawler crawler = new WebCrawler(seed, parserFactory.apply(seed), new SeedExecution(weight), scheduler,
+                new JsonResultSink(outputDirectory.resolve(directory)));
+        return crawler.crawlAsync();
+    }
+
+    /**
+     * Crawls the given seeds with a weight of 1 each and waits until all of them are finished.
+     *
+     * @param seeds the seed URLs.
+     * @param onSeedFinished called with each seed and its images as soon as the crawl of that seed is finished, on the
+     *                       thread that finished it, or {@code null}.
+     * @return the images of each seed, in the order of the seeds.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Map<String, ConcurrentMap<String, Set<Image>>> crawlAll(Collection<String> seeds,
+            BiConsumer<String, ConcurrentMap<String, Set<Image>>> onSeedFinished) throws InterruptedException {
+        Map<String, CompletableFuture<ConcurrentMap<String, Set<Image>>>> futures = new LinkedHashMap<>();
+        for (String seed : seeds) {
+            CompletableFuture<ConcurrentMap<String, Set<Image>>> future = submit(seed);
+            if (onSeedFinished != null) {
+                future = future.whenComplete((images, e) -> {
+                    if (images != null) {
+                        onSeedFinished.accept(seed, images);
+                    }
+                });
+            }
+            futures.put(seed, future);
+        }
+
+        Map<String, ConcurrentMap<String, Set<Image>>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<ConcurrentMap<String, Set<Image>>>> entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                LOGGER.error("Crawl of {} failed: {}", entry.getKey(), e.getCause().toString());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of seeds being crawled.
+     *
+     * @return the number of active seeds.
+     */
+    public int getActiveSeedCount() {
+        lock.lock();
+        try {
+            return seeds.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of workers running.
+     *
+     * @return the number of workers.
+     */
+    public int getWorkerCount() {
+        lock.lock();
+        try {
+            return workers;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the workers. Crawls that have not finished are abandoned.
+     */
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+
+    private void register(Seed seed) {
+        lock.lock();
+        try {
+            seeds.add(seed);
+            int wanted = Math.min(threads, seeds.size() * WebCrawler.MAX_THREADS);
+            while (workers < wanted) {
+                workers++;
+                executorService.execute(this::work);
+            }
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unregister(Seed seed) {
+        lock.lock();
+        try {
+            int index = seeds.indexOf(seed);
+            if (index >= 0) {
+                seeds.remove(index);
+                if (index < cursor) {
+                    cursor--;
+                }
+            }
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs on the workers: crawls the entries handed out by {@link #next()} until no seed is left. A worker leaving
+     * any other way, interrupted or by an error thrown from a crawl, counts itself out on the way, so later seeds still
+     * get workers started for them.
+     */
+    private void work() {
+        boolean countedOut = false;
+        try {
+            Turn turn;
+            while ((turn = next()) != null) {
+                Frontier frontier = turn.seed.context.getFrontier();
+                try {
+                    new Crawl(turn.entry, turn.seed.context, turn.host).run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Failed to crawl {}: {}", turn.entry.getUrl(), e.toString());
+                } finally {
+                    frontier.complete(turn.entry);
+                    signalWork();
+                }
+            }
+            countedOut = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!countedOut) {
+                lock.lock();
+                try {
+                    workers--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the next entry in weighted round-robin order, along with a slot for its host, waiting while no seed has an
+     * entry queued whose host is free.
+     *
+     * @return the entry, its seed and its host slot, or {@code null} once no seed is left, in which case the worker has
+     *         been counted out.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private Turn next() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (seeds.isEmpty()) {
+                    workers--;
+                    return null;
+                }
+
+                for (int i = 0; i < seeds.size(); i++) {
+                    if (cursor >= seeds.size()) {
+                        cursor = 0;
+                    }
+
+                    Seed seed = seeds.get(cursor);
+                    Turn turn = poll(seed);
+                    if (turn != null) {
+                        if (--seed.credits == 0) {
+                            seed.credits = seed.weight;
+                            cursor++;
+                        }
+                        return turn;
+                    }
+
+                    // Nothing queued or the host is not free; the seed starts its next turn afresh
+                    seed.credits = seed.weight;
+                    cursor++;
+                }
+
+                // New entries are only added and slots only released by running crawls, which signal when they finish;
+                // hosts backing off or out of tokens become free with time
+                workAvailable.await(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next entry of a seed if a slot for its host can be taken without waiting.
+     *
+     * @return the entry, its seed and its host slot, or {@code null} if nothing is queued or the host is not free.
+     */
+    private Turn poll(Seed seed) {
+        String[] host = new String[1];
+        FrontierEntry entry = seed.context.getFrontier()
+                .pollIf(e -> (host[0] = seed.context.getScheduler().tryAcquire(e.getUrl())) != null);
+        return entry != null ? new Turn(seed, entry, host[0]) : null;
+    }
+
+    private void signalWork() {
+        lock.lock();
+        try {
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A seed being crawled, with its turn in the round-robin.
+     */
+    private static final class Seed {
+        private final CrawlContext context;
+        private final int weight;
+
+        // Entries left in the current turn; guarded by the lock of the batch
+        private int credits;
+
+        private Seed(CrawlContext context, int weight) {
+            this.context = context;
+            this.weight = weight;
+            this.credits = weight;
+        }
+    }
+
+    /**
+     * An entry handed to a worker, with the seed it belongs to and the slot taken for its host.
+     */
+    private static final class Turn {
+        private final Seed seed;
+        private final FrontierEntry entry;
+        private final String host;
+
+        private Turn(Seed seed, FrontierEntry entry, String host) {
+            this.seed = seed;
+            this.entry = entry;
+            this.host = host;
+        }
+    }
+
+    /**
+     * {@link CrawlExecution} of one seed of the batch, which adds the seed to the round-robin of the shared workers
+     * until its frontier reports that its crawl is finished.
+     */
+    private final class SeedExecution implements CrawlExecution {
+        private final int weight;
+        private Seed seed;
+
+        private SeedExecution(int weight) {
+            this.weight = weight;
+        }
+
+        @Override
+        public void start(CrawlContext context) {
+            seed = new Seed(context, weight);
+            context.getFrontier().getCompletion().whenComplete((v, e) -> unregister(seed));
+            register(seed);
+        }
+
+        @Override
+        public void shutdownNow() {
+            if (seed != null) {
+                unregister(seed);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Probabilistic {@link SeenSet} backed by a scalable Bloom filter, for crawls whose URLs no longer fit in memory even
+ * in a {@link CompactSeenSet}. It stores a few bits per URL instead of the URL itself, at the price of false
+ * positives: an unseen URL is occasionally reported as claimed and is then never crawled. URLs are never crawled twice.
+ * <p>
+ * The filter starts with a single Bloom filter sized for the initial capacity. Each time the newest filter is full, a
+ * filter with twice the capacity and half the false positive rate is added, so the overall false positive rate stays
+ * below the configured rate however many URLs are claimed (the rates of the filters form a geometric series).
+ */
+public class BloomSeenSet implements SeenSet {
+    public static final int DEFAULT_INITIAL_CAPACITY = 1 << 16;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.001;
+
+    // Growth of the capacity and tightening of the false positive rate per added filter; the capacity stops growing at
+    // MAX_CAPACITY, where a filter takes a few GB, and later filters get the same capacity
+    private static final int GROWTH = 2;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final double TIGHTENING = 0.5;
+
+    private final List<Filter> filters = new ArrayList<>();
+    private final double falsePositiveRate;
+    private int size;
+
+    /**
+     * Constructor for creating a BloomSeenSet with the default capacity and false positive rate.
+     */
+    public BloomSeenSet() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Constructor for creating a BloomSeenSet.
+     *
+     * @param initialCapacity the number of URLs the first filter is sized for.
+     * @param falsePositiveRate the upper bound of the overall false positive rate, between 0 and 1.
+     * @throws IllegalArgumentException if the capacity or the false positive rate is out of range.
+     */
+    public BloomSeenSet(int initialCapacity, double falsePositiveRate) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Initial capacity must be positive: " + initialCapacity);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+
+        this.falsePositiveRate = falsePositiveRate;
+
+        // The first filter gets half the budget, so the sum over all filters stays below the configured rate
+        filters.add(new Filter(initialCapacity, falsePositiveRate * (1 - TIGHTENING)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean claim(String url) {
+        long h1 = hash(url, 0x9E3779B97F4A7C15L);
+        long h2 = hash(url, 0xC2B2AE3D27D4EB4FL) | 1;
+
+        synchronized (this) {
+            if (mightContain(h1, h2)) {
+                return false;
+            }
+
+            Filter current = filters.get(filters.size() - 1);
+            if (current.count >= current.capacity) {
+                int capacity = (int) Math.min(MAX_CAPACITY, (long) current.capacity * GROWTH);
+                current = new Filter(capacity, current.falsePositiveRate * TIGHTENING);
+                filters.add(current);
+            }
+
+            current.add(h1, h2);
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * May return {@code true} for a URL that was never claimed, see {@link #getEstimatedFalsePositiveRate()}.
+     */
+    @Override
+    public boolean contains(String url) {
+        long h1 = hash(url, 0x9E3779B97F4A7C15L);
+        long h2 = hash(url, 0xC2B2AE3D27D4EB4FL) | 1;
+
+        synchronized (this) {
+            return mightContain(h1, h2);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Counts successful claims only, so URLs rejected as false positives are not included.
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getMemoryBytes() {
+        long bytes = 0;
+        for (Filter filter : filters) {
+            bytes += 8L * filter.bits.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Estimated from the number of URLs each filter holds, using the standard Bloom filter approximation.
+     */
+    @Override
+    public synchronized double getEstimatedFalsePositiveRate() {
+        double none = 1;
+        for (Filter filter : filters) {
+            none *= 1 - filter.estimatedFalsePositiveRate();
+        }
+        return 1 - none;
+    }
+
+    /**
+     * Returns the configured upper bound of the false positive rate.
+     *
+     * @return the configured false positive rate.
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    private boolean mightContain(long h1, long h2) {
+        for (Filter filter : filters) {
+            if (filter.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 64-bit hash of the characters of the string, mixed with the finalizer of MurmurHash3. Hashing the chars
+     * directly avoids encoding the URL to bytes on every claim.
+     */
+    private static long hash(String value, long seed) {
+        long h = seed ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * A plain Bloom filter addressed by double hashing: probe i sets bit {@code h1 + i * h2} modulo the bit count.
+     */
+    private static final class Filter {
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final int capacity;
+        private final double falsePositiveRate;
+        private int count;
+
+        private Filter(int capacity, double falsePositiveRate) {
+            // Optimal sizing for n entries at rate p: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 probes
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new long[(int) Math.max(1, (optimalBits + 63) >>> 6)];
+            this.bitCount = 64L * bits.length;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        private void add(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = (combined & Long.MAX_VALUE) % bitCount;
+                bits[(int) (index >>> 6)] |= 1L << index;
+                combined += h2;
+            }
+            count++;
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = (combined & Long.MAX_VALUE) % bitCount;
+                if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                    return false;
+                }
+                combined += h2;
+            }
+            return true;
+        }
+
+        private double estimatedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashCount * count / bitCount), hashCount);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import java.util.Arrays;
+
+/**
+ * {@link SeenSet} implementation that keeps one bit per URL id of a {@link URLDictionary}. The URL strings live only
+ * in the dictionary, which the seen set shares with the {@link CompactSitemap}, so a claimed URL costs a single bit
+ * on top of its dictionary entry instead of a hash map node, a key reference and a boxed value.
+ */
+public class CompactSeenSet implements SeenSet {
+    private final URLDictionary dictionary;
+    private long[] bits = new long[16];
+    private int size;
+
+    /**
+     * Constructor for creating a CompactSeenSet object.
+     *
+     * @param dictionary the dictionary mapping URLs to ids.
+     */
+    public CompactSeenSet(URLDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean claim(String url) {
+        int id = dictionary.intern(url);
+        int word = id >>> 6;
+        long mask = 1L << id;
+
+        synchronized (this) {
+            if (word >= bits.length) {
+                bits = Arrays.copyOf(bits, Math.max(bits.length * 2, word + 1));
+            }
+
+            if ((bits[word] & mask) != 0) {
+                return false;
+            }
+
+            bits[word] |= mask;
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(String url) {
+        int id = dictionary.idOf(url);
+        if (id < 0) {
+            return false;
+        }
+
+        synchronized (this) {
+            int word = id >>> 6;
+            return word < bits.length && (bits[word] & (1L << id)) != 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Includes the dictionary, although it is shared with the sitemap.
+     */
+    @Override
+    public long getMemoryBytes() {
+        long bitBytes;
+        synchronized (this) {
+            bitBytes = 8L * bits.length;
+        }
+        return bitBytes + dictionary.getMemoryBytes();
+    }
+
+    /**
+     * Returns the dictionary mapping URLs to ids.
+     *
+     * @return the URL dictionary.
+     */
+    public URLDictionary getDictionary() {
+        return dictionary;
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The sitemap of a crawl, stored as an adjacency list in compressed sparse row (CSR) form: the links of all pages are
+ * URL ids of a {@link URLDictionary} appended to one int array, and each page is a row pointing at its range of that
+ * array. A link costs four bytes no matter how many pages link to the same URL.
+ * <p>
+ * Pages are appended in the order they are crawled. If a page is recorded again, its new row replaces the old one,
+ * which stays in the arrays unused. The {@code Map} view used to export the sitemap is only built by {@link #toMap()}.
+ * All methods are thread safe.
+ * <p>
+ * A sitemap created with {@link #pagesOnly(URLDictionary)} records the crawled pages but none of their links, for
+ * crawls whose distinct URLs do not fit in memory: it then grows with the number of pages crawled rather than with
+ * the number of URLs discovered, and the links of each page are only available from the {@code ResultSink}.
+ */
+public class CompactSitemap {
+    private final URLDictionary dictionary;
+    private final boolean keepLinks;
+
+    // Row r holds page pages[r], whose links are edges[rowStart[r]] up to edges[rowStart[r + 1]]
+    private int[] pages = new int[256];
+    private int[] rowStart = new int[257];
+    private int[] edges = new int[4096];
+    private int rows;
+
+    // Current row of each page id, or -1 if the page has not been recorded
+    private int[] rowOfPage = new int[0];
+    private int size;
+    private int edgeCount;
+
+    /**
+     * Constructor for creating a CompactSitemap object.
+     *
+     * @param dictionary the dictionary mapping URLs to ids, usually shared with the {@link CompactSeenSet}.
+     */
+    public CompactSitemap(URLDictionary dictionary) {
+        this(dictionary, true);
+    }
+
+    private CompactSitemap(URLDictionary dictionary, boolean keepLinks) {
+        this.dictionary = dictionary;
+        this.keepLinks = keepLinks;
+    }
+
+    /**
+     * Creates a sitemap that records the crawled pages without their links, which {@link #toMap()} reports as empty.
+     *
+     * @param dictionary the dictionary mapping the URLs of the crawled pages to ids.
+     * @return the sitemap.
+     */
+    public static CompactSitemap pagesOnly(URLDictionary dictionary) {
+        return new CompactSitemap(dictionary, false);
+    }
+
+    /**
+     * Records the links found on a crawled page, replacing any links recorded for it before. A sitemap created with
+     * {@link #pagesOnly(URLDictionary)} records the page only.
+     *
+     * @param url the URL of the crawled page.
+     * @param links the links found on the page.
+     */
+    public void put(String url, Collection<String> links) {
+        // Intern outside the lock; the dictionary has its own
+        int page = dictionary.intern(url);
+        int[] ids = new int[keepLinks ? links.size() : 0];
+        int count = 0;
+        if (keepLinks) {
+            for (String link : links) {
+                ids[count++] = dictionary.intern(link);
+            }
+        }
+
+        synchronized (this) {
+            ensureCapacity(count);
+
+            int row = rows++;
+            int start = rowStart[row];
+            System.arraycopy(ids, 0, edges, start, count);
+            pages[row] = page;
+            rowStart[row + 1] = start + count;
+
+            if (page >= rowOfPage.length) {
+                int length = rowOfPage.length;
+                rowOfPage = Arrays.copyOf(rowOfPage, Math.max(length * 2, page + 1));
+                Arrays.fill(rowOfPage, length, rowOfPage.length, -1);
+            }
+
+            int previous = rowOfPage[page];
+            if (previous < 0) {
+                size++;
+            } else {
+                edgeCount -= rowStart[previous + 1] - rowStart[previous];
+            }
+            rowOfPage[page] = row;
+            edgeCount += count;
+        }
+    }
+
+    /**
+     * Checks if the page with the given URL has been recorded.
+     *
+     * @param url the URL of the page.
+     * @return {@code true} if the page has been recorded, {@code false} otherwise.
+     */
+    public boolean contains(String url) {
+        int page = dictionary.idOf(url);
+        synchronized (this) {
+            return page >= 0 && page < rowOfPage.length && rowOfPage[page] >= 0;
+        }
+    }
+
+    /**
+     * Returns the number of recorded pages.
+     *
+     * @return the number of pages.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the total number of links of all recorded pages.
+     *
+     * @return the number of links.
+     */
+    public synchronized int getLinkCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the approximate heap footprint of the sitemap, not counting the shared dictionary.
+     *
+     * @return the size of the backing arrays in bytes.
+     */
+    public synchronized long getMemoryBytes() {
+        return 4L * (pages.length + rowStart.length + edges.length + rowOfPage.length);
+    }
+
+    /**
+     * Builds a map of every recorded page URL to the set of links found on it. The map is a copy, decoded from the
+     * dictionary on every call, and meant for exporting the results once the crawl is finished.
+     *
+     * @return the map of page URLs to their links.
+     */
+    public Map<String, Set<String>> toMap() {
+        int[] pageIds;
+        int[] starts;
+        int[] links;
+        int[] current;
+        int count;
+
+        synchronized (this) {
+            pageIds = pages;
+            starts = rowStart;
+            links = edges;
+            current = Arrays.copyOf(rowOfPage, rowOfPage.length);
+            count = rows;
+        }
+
+        // Recorded rows are never modified and grown arrays are copies, so the rows can be decoded outside the lock
+        Map<String, Set<String>> map = new HashMap<>();
+        for (int row = 0; row < count; row++) {
+            int page = pageIds[row];
+            if (current[page] != row) {
+                continue;
+            }
+
+            Set<String> children = new LinkedHashSet<>();
+            for (int i = starts[row]; i < starts[row + 1]; i++) {
+                children.add(dictionary.get(links[i]));
+            }
+            map.put(dictionary.get(page), children);
+        }
+
+        return map;
+    }
+
+    private void ensureCapacity(int linkCount) {
+        if (rows == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+            rowStart = Arrays.copyOf(rowStart, pages.length + 1);
+        }
+
+        int needed = rowStart[rows] + linkCount;
+        if (needed > edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(edges.length * 2, needed));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SeenSet} implementation backed by a concurrent key set of {@link ConcurrentHashMap}. Claiming relies on the
+ * atomic {@link Set#add(Object)} of the key set, so no additional locking is needed.
+ */
+public class ConcurrentSeenSet implements SeenSet {
+    private final Set<String> urls = ConcurrentHashMap.newKeySet();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean claim(String url) {
+        return urls.add(url);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(String url) {
+        return urls.contains(url);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return urls.size();
+    }
+}
@@ -1,92 +1,244 @@
 package com.github.kyleryxn.imagefinder.crawler;
 
 import com.github.kyleryxn.imagefinder.model.Image;
-import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.util.image.ImageProber;
+import com.github.kyleryxn.imagefinder.util.image.ImageUtility;
 import com.github.kyleryxn.imagefinder.util.url.URLUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
- * Represents each crawl of a web crawler.
+ * Represents each crawl of a web crawler: the visit of a single {@link FrontierEntry}.
  */
 public class Crawl implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(Crawl.class);
+    private static final long BACK_PRESSURE_MILLIS = 1000;
+    private static final int MAX_RETRIES = 2;
 
-    private final String domain;
-    private final ConcurrentMap<String, Set<String>> sitemap;
-    private final ConcurrentMap<String, Boolean> visitedLinks;
-    private final ConcurrentMap<String, Set<Image>> images;
-    private final ThreadPoolManager executorService;
-    private final Parser parser;
+    private final FrontierEntry entry;
+    private final CrawlContext context;
+    private final String host;
 
     /**
-     * Constructor for creating a Crawl object.
+     * Constructor for creating a Crawl object, which waits for a slot of the {@link HostScheduler} before fetching.
      *
-     * @param domain the URL to be crawled.
-     * @param sitemap the map for storing list of pages of the domain that meet certain criteria. See {@link URLUtility} for more information regarding the criteria.
-     * @param visitedLinks the map for tracking visited links.
-     * @param images the map for storing {@link Image} objects.
-     * @param executorService the executor service for submitting crawl tasks.
-     * @param parser the parser for extracting information from web pages.
+     * @param entry the frontier entry holding the URL to be crawled.
+     * @param context the state shared by the crawl, including the sitemap (see {@link URLUtility} for the criteria
+     *                links have to meet), the seen set, the frontier and the map for storing {@link Image} objects.
      */
-    public Crawl(String domain, ConcurrentMap<String, Set<String>> sitemap, ConcurrentMap<String, Boolean> visitedLinks,
-                 ConcurrentMap<String, Set<Image>> images, ThreadPoolManager executorService, Parser parser) {
-        this.domain = domain;
-        this.sitemap = sitemap;
-        this.visitedLinks = visitedLinks;
-        this.images = images;
-        this.executorService = executorService;
-        this.parser = parser;
+    public Crawl(FrontierEntry entry, CrawlContext context) {
+        this(entry, context, null);
+    }
+
+    /**
+     * Constructor for creating a Crawl object that fetches within a slot already taken from the
+     * {@link HostScheduler}, see {@link HostScheduler#tryAcquire(String)}. The crawl releases the slot.
+     *
+     * @param entry the frontier entry holding the URL to be crawled.
+     * @param context the state shared by the crawl.
+     * @param host the host the slot was taken for, or {@code null} to wait for a slot before fetching.
+     */
+    public Crawl(FrontierEntry entry, CrawlContext context, String host) {
+        this.entry = entry;
+        this.context = context;
+        this.host = host;
     }
 
     /**
      * {@link Runnable} implementation for crawling the web page associated with the URL.
-     * Extracts links, updates sitemap, and processes child links.
+     * Fetches and parses the page once, records its links and images, and adds unseen child links to the frontier.
      */
     @Override
     public void run() {
+        CrawlMetrics metrics = context.getMetrics();
+        metrics.pageStarted();
+        try {
+            crawl();
+        } finally {
+            metrics.pageFinished();
+        }
+    }
+
+    private void crawl() {
+        String url = entry.getUrl();
+
         // Log that the crawler is visiting the current url
-        LOGGER.info("visiting {} ", domain);
+        LOGGER.info("visiting {} ", url);
+
+        // Fetch and parse the current URL exactly once; links and images come from the same document
+        ParsedPage page;
+        try {
+            page = fetch(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
 
-        // Get the set of links from the current URL using the parser
-        Set<String> links = parser.getChildren(domain);
+        // The host asked us to come back later; the scheduler already holds the host back
+        if (isRetryable(page.getStatusCode()) && entry.getAttempts() < MAX_RETRIES) {
+            LOGGER.info("retrying {} later, status {}", url, page.getStatusCode());
+            context.getFrontier().retry(entry);
+            return;
+        }
 
         // Add the current URL and its associated hrefs to the sitemap
-        sitemap.put(domain, links);
+        context.getSitemap().put(url, page.getLinks());
+
+        // Images whose URL does not tell if they are images are kept only if their content is
+        List<Image> unchecked = page.getImages().stream()
+                .filter(image -> !image.isFavicon() && ImageUtility.needsTypeCheck(image.getUrl()))
+                .collect(Collectors.toList());
+
+        // Record the images of the page and stream its results out as soon as it is done, or once its images have
+        // been probed
+        ImageProber prober = context.getImageProber();
+        if (prober == null && unchecked.isEmpty()) {
+            record(url, page.getLinks(), page.getImages());
+        } else {
+            ParsedPage done = page;
+            CompletableFuture<Void> probed = prober != null
+                    ? prober.probeAll(page.getImages())
+                    : context.getTypeProber().probeAll(unchecked);
+            probed.thenRun(() -> {
+                Set<Image> images = done.getImages();
+                for (Image image : unchecked) {
+                    if (!ImageUtility.isImage(image.getMetadata())) {
+                        LOGGER.debug("dropping {}, not an image", image.getUrl());
+                        images.remove(image);
+                    }
+                }
+                record(url, done.getLinks(), images);
+            });
+        }
 
         // Process each link
-        links.forEach(this::processLink);
+        try {
+            long waitMillis = BACK_PRESSURE_MILLIS;
+            for (String link : page.getLinks()) {
+                if (!processLink(link, waitMillis)) {
+                    // The frontier stayed full; don't hold this worker back again for the remaining links
+                    waitMillis = 0;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
-     * Process a link by checking if it has been visited, updating maps, and submitting new crawl tasks.
+     * Adds the images of a page to the images map, writes the results of the page to the sink and records the page in
+     * the checkpoint, if any.
      *
-     * @param url the link to be processed.
+     * @param url the URL of the page.
+     * @param links the links found on the page.
+     * @param images the images found on the page.
+     */
+    private void record(String url, Set<String> links, Set<Image> images) {
+        context.getImages().put(url, images);
+        context.getSink().writePage(url, links, images);
+
+        CrawlCheckpoint checkpoint = context.getCheckpoint();
+        if (checkpoint != null) {
+            checkpoint.crawled(url, entry.getDepth(), links, images);
+        }
+    }
+
+    /**
+     * Fetches and parses the given URL within a slot of the {@link HostScheduler}, taking one unless the crawl was
+     * given one, and reports the outcome back to it.
+     *
+     * @param url the URL to fetch.
+     * @return the parsed page.
+     * @throws InterruptedException if interrupted while waiting for the host.
+     */
+    private ParsedPage fetch(String url) throws InterruptedException {
+        HostScheduler scheduler = context.getScheduler();
+        String host = this.host != null ? this.host : scheduler.acquire(url);
+        long start = System.nanoTime();
+        ParsedPage page = null;
+
+        try {
+            page = context.getParser().parse(url);
+            return page;
+        } finally {
+            long latency = System.nanoTime() - start;
+            if (page != null) {
+                scheduler.release(host, page.getStatusCode(), latency, page.getRetryAfter());
+                context.getMetrics().recordPage(host, page.getStatusCode(), latency, page.getTimings());
+            } else {
+                scheduler.release(host, 0, latency, null);
+                context.getMetrics().recordPage(host, 0, latency, null);
+            }
+        }
+    }
+
+    /**
+     * Checks if a response status asks the client to retry the request later.
+     *
+     * @param statusCode the HTTP status code.
+     * @return {@code true} for 429 (Too Many Requests) and 503 (Service Unavailable), {@code false} otherwise.
      */
-    private void processLink(String url) {
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 503;
+    }
 
-        // Put if absent: if the link is not present in visitedLinks, add it with the value false
-        visitedLinks.putIfAbsent(url, false);
+    /**
+     * Process a link found on the page of this crawl, see {@link #schedule(CrawlContext, String, int, long)}.
+     *
+     * @param url the link to be processed.
+     * @param waitMillis how long to wait for space in the frontier, in milliseconds.
+     * @return {@code false} if the link was dropped because the frontier is full, {@code true} otherwise.
+     * @throws InterruptedException if interrupted while waiting for space in the frontier.
+     */
+    private boolean processLink(String url, long waitMillis) throws InterruptedException {
+        return schedule(context, url, entry.getDepth() + 1, waitMillis);
+    }
 
-        // If the link has not been visited yet
-        if (!visitedLinks.get(url)) {
+    /**
+     * Schedules a discovered URL by claiming it in the seen set and, if this call claimed it, adding it to the frontier,
+     * unless it belongs to another crawler, which it is forwarded to, or robots.txt disallows it.
+     *
+     * @param context the state shared by the crawl.
+     * @param url the URL to be scheduled.
+     * @param depth the depth of the URL.
+     * @param waitMillis how long to wait for space in the frontier, in milliseconds.
+     * @return {@code false} if the URL was dropped because the frontier is full, {@code true} otherwise.
+     * @throws InterruptedException if interrupted while waiting for space in the frontier.
+     */
+    static boolean schedule(CrawlContext context, String url, int depth, long waitMillis) throws InterruptedException {
 
-            // Mark the link as visited by updating its value to true
-            visitedLinks.put(url, true);
+        // Only the first crawl to claim a link schedules it
+        if (!context.getSeenSet().claim(url)) {
+            return true;
+        }
 
-            // Get the set of images on the page for the link
-            Set<Image> imagesOnPage = parser.getImageObjects(url);
+        // Links of another part of the URL space are crawled by the crawler of that part
+        LinkRouter router = context.getLinkRouter();
+        if (router != null && !router.isLocal(url)) {
+            router.forward(url, depth);
+            return true;
+        }
 
-            // Add the link and its associated images to the images map
-            images.put(url, imagesOnPage);
+        RobotsCache robots = context.getRobots();
+        if (robots != null && !robots.isAllowed(url)) {
+            LOGGER.debug("robots.txt disallows {}", url);
+            return true;
+        }
 
-            // Create a new crawl task for the link and submit it to the executor service
-            // **** This effectively keeps the crawler going ****
-            Crawl crawl = new Crawl(url, sitemap, visitedLinks, images, executorService, parser);
-            executorService.submit(crawl);
+        boolean added = context.getFrontier().offer(url, depth, waitMillis, TimeUnit.MILLISECONDS);
+        if (!added) {
+            LOGGER.warn("frontier full, dropping {}", url);
+        } else if (context.getCheckpoint() != null) {
+            context.getCheckpoint().queued(url, depth);
         }
+
+        return added;
     }
 }
@@ -0,0 +1,536 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Checkpoint of a crawl, so a crawl cut short by a restart of the JVM can be resumed without fetching the pages it
+ * already crawled again. The checkpoint is an append-only file of one JSON record per line in the given directory:
+ * the seed of the crawl, every URL added to the {@link Frontier} with its depth, and every crawled page with its
+ * links and images. Replaying the file gives the crawled pages, the seen URLs, and the frontier: the URLs added but
+ * not crawled, together with the links of crawled pages that were never added, which a restart can leave behind.
+ * <p>
+ * The crawl never waits for the file. Records are handed to a writer thread of the checkpoint through an unbounded
+ * queue, so recording a page costs a queue insertion; the writer appends them in batches and forces them to disk
+ * every flush interval, which bounds what a crash can lose. Records superseded by later ones, the frontier records of
+ * crawled pages, are dropped by compaction: once they make up more than a third of the file, the writer rewrites it
+ * from the file itself, which it alone writes, so compaction needs no snapshot of the live crawl either. The file is
+ * rewritten to a temporary file, which atomically replaces it once complete; if compaction fails, the writer keeps
+ * appending to the old file as if it had not been tried.
+ */
+public class CrawlCheckpoint implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrawlCheckpoint.class);
+    public static final String FILE_NAME = "checkpoint.ndjson";
+    public static final long DEFAULT_FLUSH_MILLIS = 1000;
+
+    private static final String SEED = "seed";
+    private static final String QUEUED = "queued";
+    private static final String PAGE = "page";
+    private static final Record STOP = new Record(null, null, 0, null, null);
+
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private final Path file;
+    private final long flushMillis;
+    private final LinkedBlockingQueue<Record> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    // The state of the crawl as loaded from the file
+    private String seed;
+    private final Map<String, Page> completed = new LinkedHashMap<>();
+    private final List<FrontierEntry> pending = new ArrayList<>();
+
+    // Owned by the writer thread once it has started
+    private FileOutputStream out;
+    private Writer writer;
+    private long lines;
+    private long superseded;
+
+    private CrawlCheckpoint(Path file, long flushMillis) {
+        this.file = file;
+        this.flushMillis = flushMillis;
+        this.writerThread = new Thread(this::write, "crawl-checkpoint");
+        this.writerThread.setDaemon(true);
+    }
+
+    /**
+     * Opens the checkpoint stored in the given directory with the {@link #DEFAULT_FLUSH_MILLIS}, creating the
+     * directory and an empty checkpoint if needed.
+     *
+     * @param directory the directory holding the checkpoint file.
+     * @return the opened checkpoint, which must be closed once the crawl is finished.
+     * @throws IOException if the checkpoint cannot be read or opened for writing.
+     */
+    public static CrawlCheckpoint open(Path directory) throws IOException {
+        return open(directory, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * Opens the checkpoint stored in the given directory, creating the directory and an empty checkpoint if needed.
+     *
+     * @param directory the directory holding the checkpoint file.
+     * @param flushMillis how often records are forced to disk, in milliseconds.
+     * @return the opened checkpoint, which must be closed once the crawl is finished.
+     * @throws IOException if the checkpoint cannot be read or opened for writing.
+     */
+    public static CrawlCheckpoint open(Path directory, long flushMillis) throws IOException {
+        if (flushMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + flushMillis);
+        }
+
+        Files.createDirectories(directory);
+        CrawlCheckpoint checkpoint = new CrawlCheckpoint(directory.resolve(FILE_NAME), flushMillis);
+        checkpoint.load();
+        checkpoint.writerThread.start();
+        return checkpoint;
+    }
+
+    /**
+     * Returns the seed of the checkpointed crawl.
+     *
+     * @return the seed URL, or {@code null} if the checkpoint is empty.
+     */
+    public String getSeed() {
+        return seed;
+    }
+
+    /**
+     * Checks if the checkpoint holds a crawl to resume.
+     *
+     * @return {@code true} if the checkpoint holds the seed of a crawl, {@code false} if it is empty.
+     */
+    public boolean isResumable() {
+        return seed != null;
+    }
+
+    /**
+     * Returns the pages the checkpointed crawl had crawled when the checkpoint was opened, in the order they were
+     * crawled.
+     *
+     * @return the crawled pages.
+     */
+    public Collection<Page> getCompletedPages() {
+        return Collections.unmodifiableCollection(completed.values());
+    }
+
+    /**
+     * Returns the frontier of the checkpointed crawl when the checkpoint was opened, in the order the URLs were added.
+     *
+     * @return the entries still to be crawled.
+     */
+    public List<FrontierEntry> getPendingEntries() {
+        return Collections.unmodifiableList(pending);
+    }
+
+    /**
+     * Records the seed of a new crawl. Does nothing if the checkpoint already holds a crawl.
+     *
+     * @param url the seed URL.
+     */
+    public void begin(String url) {
+        if (seed == null) {
+            seed = url;
+            enqueue(new Record(SEED, url, 0, null, null));
+        }
+    }
+
+    /**
+     * Records a URL added to the frontier.
+     *
+     * @param url the URL.
+     * @param depth the depth of the URL.
+     */
+    public void queued(String url, int depth) {
+        enqueue(new Record(QUEUED, url, depth, null, null));
+    }
+
+    /**
+     * Records a crawled page with its links and images. The sets must not change afterwards.
+     *
+     * @param url the URL of the page.
+     * @param depth the depth of the page.
+     * @param links the links found on the page.
+     * @param images the images found on the page.
+     */
+    public void crawled(String url, int depth, Set<String> links, Set<Image> images) {
+        enqueue(new Record(PAGE, url, depth, links, images));
+    }
+
+    /**
+     * Writes the records recorded so far, compacts the file if it holds any superseded records, and stops the writer.
+     * Records after closing are dropped.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        queue.add(STOP);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the checkpoint", e);
+        }
+    }
+
+    private void enqueue(Record record) {
+        if (!closed) {
+            queue.add(record);
+        }
+    }
+
+    /**
+     * Loads the state of the crawl, and adds the links of crawled pages that were never added to the frontier to it,
+     * at one level below the page they were found on.
+     */
+    private void load() throws IOException {
+        Map<String, Integer> queuedDepths = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            endWithNewline();
+            replay(file, record -> {
+                lines++;
+                if (SEED.equals(record.type)) {
+                    seed = record.url;
+                } else if (QUEUED.equals(record.type)) {
+                    queuedDepths.putIfAbsent(record.url, record.depth);
+                } else if (PAGE.equals(record.type)) {
+                    completed.put(record.url, new Page(record));
+                }
+            });
+        }
+
+        Set<String> seen = new HashSet<>(queuedDepths.keySet());
+        if (seed != null) {
+            // Links back to the seed arrive trimmed; the crawl claims that form along with the seed
+            seen.add(seed);
+            seen.add(URLUtility.trimURL(seed));
+        }
+        List<Record> discovered = new ArrayList<>();
+        for (Page page : completed.values()) {
+            for (String link : page.links) {
+                if (!completed.containsKey(link) && seen.add(link)) {
+                    queuedDepths.put(link, page.depth + 1);
+                    discovered.add(new Record(QUEUED, link, page.depth + 1, null, null));
+                }
+            }
+        }
+
+        long sequence = 0;
+        for (Map.Entry<String, Integer> entry : queuedDepths.entrySet()) {
+            if (!completed.containsKey(entry.getKey())) {
+                pending.add(new FrontierEntry(entry.getKey(), entry.getValue(), sequence++));
+            }
+        }
+        superseded = lines - completed.size() - pending.size() - (seed != null ? 1 : 0) + discovered.size();
+
+        openWriter();
+        for (Record record : discovered) {
+            append(record);
+        }
+        writer.flush();
+
+        if (seed != null) {
+            LOGGER.info("Loaded checkpoint of {} from '{}': {} pages crawled, {} pending", seed, file,
+                    completed.size(), pending.size());
+        }
+    }
+
+    /**
+     * Runs on the writer thread: appends queued records in batches and forces them to disk every flush interval.
+     */
+    private void write() {
+        List<Record> batch = new ArrayList<>();
+        long lastSync = System.nanoTime();
+        boolean running = true;
+
+        while (running) {
+            try {
+                Record first = queue.poll(flushMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+                running = false;
+            }
+
+            try {
+                for (Record record : batch) {
+                    if (record == STOP) {
+                        running = false;
+                        break;
+                    }
+                    append(record);
+                }
+                batch.clear();
+
+                if (!running || System.nanoTime() - lastSync >= TimeUnit.MILLISECONDS.toNanos(flushMillis)) {
+                    sync();
+                    lastSync = System.nanoTime();
+                    if (running ? superseded * 3 > lines : superseded > 0) {
+                        compact();
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.error("Cannot write checkpoint : {}", e.getMessage());
+                batch.clear();
+            }
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOGGER.error("Cannot close checkpoint : {}", e.getMessage());
+        }
+    }
+
+    private void append(Record record) throws IOException {
+        writer.write(gson.toJson(record));
+        writer.write('\n');
+        lines++;
+        if (PAGE.equals(record.type)) {
+            // The page supersedes the record that added it to the frontier
+            superseded++;
+        }
+    }
+
+    private void sync() throws IOException {
+        writer.flush();
+        out.getChannel().force(false);
+    }
+
+    /**
+     * Rewrites the file with the seed, the crawled pages and the URLs added but not crawled, reading it twice: once
+     * for the URLs of the crawled pages, once to copy the records still needed. The rewritten file stays open for
+     * appending while it is moved over the old one, and only then replaces the writer, so a failure at any step leaves
+     * the old file and writer in place. Called after {@link #sync()}, so the old file holds every record.
+     */
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        FileOutputStream tempOut = null;
+        try {
+            long kept = rewrite(temp);
+
+            // The open stream follows the file it was opened on when that file is moved
+            tempOut = new FileOutputStream(temp.toFile(), true);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Writer old = writer;
+            out = tempOut;
+            writer = new BufferedWriter(new OutputStreamWriter(tempOut, StandardCharsets.UTF_8));
+            tempOut = null;
+            closeQuietly(old);
+
+            LOGGER.debug("Compacted checkpoint from {} to {} records", lines, kept);
+            lines = kept;
+            superseded = 0;
+        } finally {
+            if (tempOut != null) {
+                closeQuietly(tempOut);
+            }
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete '{}' : {}", temp, e.getMessage());
+            }
+        }
+    }
+
+    private long rewrite(Path temp) throws IOException {
+        Set<String> crawled = new HashSet<>();
+        replay(file, record -> {
+            if (PAGE.equals(record.type)) {
+                crawled.add(record.url);
+            }
+        });
+
+        Set<String> kept = new HashSet<>();
+        long[] count = new long[1];
+        IOException[] failure = new IOException[1];
+        try (FileOutputStream tempOut = new FileOutputStream(temp.toFile());
+             Writer tempWriter = new BufferedWriter(new OutputStreamWriter(tempOut, StandardCharsets.UTF_8))) {
+            replay(file, record -> {
+                // Pages are kept once, and URLs added to the frontier only if they were never crawled
+                boolean keep = SEED.equals(record.type)
+                        || (PAGE.equals(record.type) ? kept.add(PAGE + record.url)
+                        : !crawled.contains(record.url) && kept.add(record.url));
+                if (keep && failure[0] == null) {
+                    try {
+                        tempWriter.write(gson.toJson(record));
+                        tempWriter.write('\n');
+                        count[0]++;
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            tempWriter.flush();
+            tempOut.getChannel().force(false);
+        }
+        return count[0];
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.error("Cannot close checkpoint : {}", e.getMessage());
+        }
+    }
+
+    private void openWriter() throws IOException {
+        out = new FileOutputStream(file.toFile(), true);
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Terminates a partial last line left by a crash, so the next record does not run into it.
+     */
+    private void endWithNewline() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long length = raf.length();
+            if (length > 0) {
+                raf.seek(length - 1);
+                if (raf.read() != '\n') {
+                    raf.write('\n');
+                }
+            }
+        }
+    }
+
+    private static void replay(Path file, Consumer<Record> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                Record record;
+                try {
+                    record = gson.fromJson(line, Record.class);
+                } catch (JsonParseException e) {
+                    // A crash can leave a partial line behind
+                    LOGGER.warn("Skipping corrupt checkpoint record : {}", e.getMessage());
+                    continue;
+                }
+                if (record != null && record.type != null && record.url != null) {
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * A page crawled by the checkpointed crawl.
+     */
+    public static final class Page {
+        private final String url;
+        private final int depth;
+        private final Set<String> links;
+        private final Set<Image> images;
+
+        private Page(Record record) {
+            this.url = record.url;
+            this.depth = record.depth;
+            this.links = record.links != null ? record.links : Collections.emptySet();
+            this.images = record.images != null ? record.images : new HashSet<>();
+        }
+
+        /**
+         * Returns the URL of the page.
+         *
+         * @return the URL of the page.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Returns the depth of the page.
+         *
+         * @return the number of links followed from the seed to reach the page.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Returns the links found on the page.
+         *
+         * @return the links of the page.
+         */
+        public Set<String> getLinks() {
+            return links;
+        }
+
+        /**
+         * Returns the images found on the page.
+         *
+         * @return a mutable {@link Set} of the images of the page.
+         */
+        public Set<Image> getImages() {
+            return images;
+        }
+    }
+
+    /**
+     * One line of the checkpoint file.
+     */
+    private static final class Record {
+        private final String type;
+        private final String url;
+        private final int depth;
+        private final Set<String> links;
+        private final Set<Image> images;
+
+        private Record(String type, String url, int depth, Set<String> links, Set<Image> images) {
+            this.type = type;
+            this.url = url;
+            this.depth = depth;
+            this.links = links;
+            this.images = images;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.PageCache;
+import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.util.ResultSink;
+import com.github.kyleryxn.imagefinder.util.image.ImageProber;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the state shared by every {@link Crawl} and {@link CrawlWorker} of a single crawl: the seed URL, the parser,
+ * the {@link SeenSet}, the {@link Frontier}, the {@link HostScheduler}, the maps the results are collected in and the
+ * {@link ResultSink} they are streamed to.
+ */
+public class CrawlContext {
+    private static final int TYPE_PROBE_THREADS = 4;
+    private static final int TYPE_PROBE_PER_HOST_LIMIT = 2;
+    private static final int TYPE_PROBE_HEADER_BYTES = 1024;
+
+    private final String domain;
+    private final Parser parser;
+    private final SeenSet seenSet;
+    private final Frontier frontier;
+    private final HostScheduler scheduler;
+    private final ResultSink sink;
+
+    // The sitemap
+    private final CompactSitemap sitemap;
+
+    // Timers and counters of the crawl
+    private final CrawlMetrics metrics;
+
+    // Optional stage probing the metadata of the images found
+    private volatile ImageProber imageProber;
+
+    // Optional log the crawl is checkpointed to
+    private volatile CrawlCheckpoint checkpoint;
+
+    // Optional router sending the links of other parts of the URL space to the crawlers of those parts
+    private volatile LinkRouter linkRouter;
+
+    // Optional robots.txt rules every link is checked against
+    private volatile RobotsCache robots;
+
+    // Optional cache of pages from earlier crawls the parser reads from, closed when the crawl finishes
+    private volatile PageCache pageCache;
+
+    // Checks the content type of images whose URL does not tell it, when no image prober is set; it only starts
+    // threads once it is used
+    private final ImageProber typeProber = new ImageProber(HttpFetcher.getDefault(), TYPE_PROBE_THREADS,
+            TYPE_PROBE_PER_HOST_LIMIT, TYPE_PROBE_HEADER_BYTES);
+
+    // All the images gathered from the site, no duplicates
+    // The url the image is gathered from serves as the key
+    private final ConcurrentMap<String, Set<Image>> images = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for creating a CrawlContext object with a sitemap backed by its own {@link URLDictionary}.
+     *
+     * @param domain the seed URL of the crawl.
+     * @param parser the parser for extracting information from web pages.
+     * @param seenSet the set of URLs already discovered.
+     * @param frontier the frontier of URLs waiting to be crawled.
+     * @param scheduler the politeness scheduler every fetch goes through.
+     * @param sink the sink each crawled page is written to.
+     */
+    public CrawlContext(String domain, Parser parser, SeenSet seenSet, Frontier frontier, HostScheduler scheduler,
+                        ResultSink sink) {
+        this(domain, parser, seenSet, frontier, scheduler, sink, new CompactSitemap(new URLDictionary()));
+    }
+
+    /**
+     * Constructor for creating a CrawlContext object.
+     *
+     * @param domain the seed URL of the crawl.
+     * @param parser the parser for extracting information from web pages.
+     * @param seenSet the set of URLs already discovered.
+     * @param frontier the frontier of URLs waiting to be crawled.
+     * @param scheduler the politeness scheduler every fetch goes through.
+     * @param sink the sink each crawled page is written to.
+     * @param sitemap the sitemap the links of each page are recorded in.
+     */
+    public CrawlContext(String domain, Parser parser, SeenSet seenSet, Frontier frontier, HostScheduler scheduler,
+                        ResultSink sink, CompactSitemap sitemap) {
+        this.domain = domain;
+        this.parser = parser;
+        this.seenSet = seenSet;
+        this.frontier = frontier;
+        this.scheduler = scheduler;
+        this.sink = sink;
+        this.sitemap = sitemap;
+        this.metrics = new CrawlMetrics(frontier::size);
+    }
+
+    /**
+     * Returns the seed URL of the crawl.
+     *
+     * @return the seed URL of the crawl.
+     */
+    public String getDomain() {
+        return domain;
+    }
+
+    /**
+     * Returns the parser for extracting information from web pages.
+     *
+     * @return the parser.
+     */
+    public Parser getParser() {
+        return parser;
+    }
+
+    /**
+     * Returns the set of URLs already discovered.
+     *
+     * @return the seen set.
+     */
+    public SeenSet getSeenSet() {
+        return seenSet;
+    }
+
+    /**
+     * Returns the frontier of URLs waiting to be crawled.
+     *
+     * @return the frontier.
+     */
+    public Frontier getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * Returns the politeness scheduler every fetch goes through.
+     *
+     * @return the host scheduler.
+     */
+    public HostScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns the sink each crawled page is written to.
+     *
+     * @return the result sink.
+     */
+    public ResultSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Returns the sitemap of crawled URLs and the links found on them.
+     *
+     * @return the sitemap.
+     */
+    public CompactSitemap getSitemap() {
+        return sitemap;
+    }
+
+    /**
+     * Returns the timers and counters of the crawl.
+     *
+     * @return the metrics.
+     */
+    public CrawlMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the prober filling in the metadata of the images found.
+     *
+     * @return the image prober, or {@code null} if images are not probed.
+     */
+    public ImageProber getImageProber() {
+        return imageProber;
+    }
+
+    /**
+     * Sets the prober filling in the metadata of the images found. Must be set before the crawl starts.
+     *
+     * @param imageProber the image prober, or {@code null} to not probe images.
+     */
+    public void setImageProber(ImageProber imageProber) {
+        this.imageProber = imageProber;
+    }
+
+    /**
+     * Returns the checkpoint the crawled pages and the URLs added to the frontier are recorded in.
+     *
+     * @return the checkpoint, or {@code null} if the crawl is not checkpointed.
+     */
+    public CrawlCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Sets the checkpoint the crawled pages and the URLs added to the frontier are recorded in. Must be set before the
+     * crawl starts.
+     *
+     * @param checkpoint the checkpoint, or {@code null} to not checkpoint the crawl.
+     */
+    public void setCheckpoint(CrawlCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Returns the router deciding which links are crawled here and forwarding the others.
+     *
+     * @return the link router, or {@code null} if every link is crawled here.
+     */
+    public LinkRouter getLinkRouter() {
+        return linkRouter;
+    }
+
+    /**
+     * Sets the router deciding which links are crawled here and forwarding the others. Must be set before the crawl
+     * starts.
+     *
+     * @param linkRouter the link router, or {@code null} to crawl every link here.
+     */
+    public void setLinkRouter(LinkRouter linkRouter) {
+        this.linkRouter = linkRouter;
+    }
+
+    /**
+     * Returns the robots.txt rules of the hosts of the crawl, which every link is checked against.
+     *
+     * @return the robots cache, or {@code null} if robots.txt is not consulted.
+     */
+    public RobotsCache getRobots() {
+        return robots;
+    }
+
+    /**
+     * Sets the robots.txt rules of the hosts of the crawl, which every link is checked against. Must be set before the
+     * crawl starts.
+     *
+     * @param robots the robots cache, or {@code null} to not consult robots.txt.
+     */
+    public void setRobots(RobotsCache robots) {
+        this.robots = robots;
+    }
+
+    /**
+     * Returns the cache of pages from earlier crawls the parser of the crawl reads from and writes to.
+     *
+     * @return the page cache, or {@code null} if pages are always fetched in full.
+     */
+    public PageCache getPageCache() {
+        return pageCache;
+    }
+
+    /**
+     * Sets the cache of pages from earlier crawls the parser of the crawl reads from and writes to, to be closed when
+     * the crawl finishes. Must be set before the crawl starts.
+     *
+     * @param pageCache the page cache, or {@code null} if pages are always fetched in full.
+     */
+    public void setPageCache(PageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * Returns the prober checking the content type of images whose URL has no image extension, see
+     * {@link com.github.kyleryxn.imagefinder.util.image.ImageUtility#needsTypeCheck(String)}. It is only used when no
+     * image prober is set, which checks them anyway.
+     *
+     * @return the type prober.
+     */
+    public ImageProber getTypeProber() {
+        return typeProber;
+    }
+
+    /**
+     * Returns the map of crawled URLs to the {@link Image} objects found on them.
+     *
+     * @return the images map.
+     */
+    public ConcurrentMap<String, Set<Image>> getImages() {
+        return images;
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+/**
+ * Interface for the execution mode of a crawl, that is how the entries of a {@link Frontier} are turned into running
+ * {@link Crawl} tasks and how many of them run at once. Every entry taken from the frontier must be completed with
+ * {@link Frontier#complete(FrontierEntry)} once its crawl has run, whatever the outcome.
+ *
+ * @see PooledCrawlExecution
+ * @see PermitCrawlExecution
+ */
+public interface CrawlExecution {
+
+    /**
+     * Starts crawling the entries of the frontier of the given context without waiting for the crawl to finish.
+     * The execution releases its threads on its own once the frontier reports that the crawl is finished.
+     *
+     * @param context the state shared by the crawl.
+     */
+    void start(CrawlContext context);
+
+    /**
+     * Attempts to stop all running crawl tasks, for example when the caller waiting for the crawl is interrupted.
+     */
+    void shutdownNow();
+}
@@ -0,0 +1,247 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import com.github.kyleryxn.imagefinder.model.CrawlMetricsSnapshot;
+import com.github.kyleryxn.imagefinder.model.LatencySummary;
+import com.github.kyleryxn.imagefinder.model.PageTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Telemetry of a single crawl: a {@link LatencyHistogram} per {@link Phase} of fetching a page, counters by HTTP
+ * status, bytes fetched and pages per host, plus the live depth of the frontier and the number of pages being crawled.
+ * Every recording method is safe to call from any number of workers at once. The metrics can be read as a
+ * {@link CrawlMetricsSnapshot} or over JMX once {@link #register(String)} has been called.
+ */
+public class CrawlMetrics implements CrawlMetricsMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrawlMetrics.class);
+    private static final String DOMAIN = "com.github.kyleryxn.imagefinder";
+    private static final AtomicLong registrations = new AtomicLong();
+
+    /**
+     * The phases of crawling a page that are timed. {@link #PAGE} covers the whole fetch and parse of a page,
+     * including phases that are not measured separately, such as a cached page being revalidated. {@link #CONNECT}
+     * includes the DNS lookup, which the JDK HTTP client performs while connecting without timing it.
+     */
+    public enum Phase {
+        CONNECT, FIRST_BYTE, DOWNLOAD, PARSE, EXTRACT, PAGE
+    }
+
+    private final IntSupplier frontierDepth;
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+    private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> hostCounts = new ConcurrentHashMap<>();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private volatile long startNanos = System.nanoTime();
+    private volatile long endNanos;
+    private ObjectName objectName;
+
+    /**
+     * Constructor for CrawlMetrics.
+     *
+     * @param frontierDepth the source of the number of URLs waiting to be crawled.
+     */
+    public CrawlMetrics(IntSupplier frontierDepth) {
+        this.frontierDepth = frontierDepth;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Restarts the clock of the crawl, from which throughput is computed.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        endNanos = 0;
+    }
+
+    /**
+     * Stops the clock of the crawl, so throughput no longer decreases once the crawl is finished.
+     */
+    public void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the start of crawling a page.
+     */
+    public void pageStarted() {
+        activeWorkers.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of crawling a page, whatever its outcome.
+     */
+    public void pageFinished() {
+        activeWorkers.decrementAndGet();
+    }
+
+    /**
+     * Records the outcome of fetching and parsing a page.
+     *
+     * @param host the host the page was fetched from.
+     * @param statusCode the HTTP status code of the response, or 0 if no response was received.
+     * @param pageNanos how long fetching and parsing the page took, in nanoseconds.
+     * @param timings the timings of the phases of the fetch, or {@code null} if they were not measured.
+     */
+    public void recordPage(String host, int statusCode, long pageNanos, PageTimings timings) {
+        pages.increment();
+        statusCounts.computeIfAbsent(statusCode, s -> new LongAdder()).increment();
+        hostCounts.computeIfAbsent(host != null ? host : "", h -> new LongAdder()).increment();
+        phases.get(Phase.PAGE).record(pageNanos);
+
+        if (timings != null) {
+            bytes.add(timings.getBytes());
+            phases.get(Phase.CONNECT).record(timings.getConnectNanos());
+            phases.get(Phase.FIRST_BYTE).record(timings.getFirstByteNanos());
+            phases.get(Phase.DOWNLOAD).record(timings.getDownloadNanos());
+            phases.get(Phase.PARSE).record(timings.getParseNanos());
+            phases.get(Phase.EXTRACT).record(timings.getExtractNanos());
+        }
+    }
+
+    /**
+     * Returns the latency histogram of a phase.
+     *
+     * @param phase the phase.
+     * @return the histogram of the phase, in nanoseconds.
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Returns the current metrics of the crawl.
+     *
+     * @return a snapshot of the metrics.
+     */
+    public CrawlMetricsSnapshot snapshot() {
+        return new CrawlMetricsSnapshot(getElapsedMillis(), getPagesCrawled(), getPagesPerSecond(), getBytesFetched(),
+                getFrontierDepth(), getActiveWorkers(), getStatusCounts(), getHostRates(), getPhaseLatencies());
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        long end = endNanos;
+        return ((end != 0 ? end : System.nanoTime()) - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public long getPagesCrawled() {
+        return pages.sum();
+    }
+
+    @Override
+    public double getPagesPerSecond() {
+        return rate(pages.sum());
+    }
+
+    @Override
+    public long getBytesFetched() {
+        return bytes.sum();
+    }
+
+    @Override
+    public int getFrontierDepth() {
+        return frontierDepth.getAsInt();
+    }
+
+    @Override
+    public int getActiveWorkers() {
+        return activeWorkers.get();
+    }
+
+    @Override
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getHostRates() {
+        Map<String, Double> rates = new TreeMap<>();
+        hostCounts.forEach((host, count) -> rates.put(host, rate(count.sum())));
+        return rates;
+    }
+
+    @Override
+    public Map<String, LatencySummary> getPhaseLatencies() {
+        Map<String, LatencySummary> latencies = new LinkedHashMap<>();
+        phases.forEach((phase, histogram) -> latencies.put(phase.name().toLowerCase(Locale.ROOT),
+                histogram.summarize()));
+        return latencies;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under the type {@code CrawlMetrics}, named after the seed
+     * of the crawl. Failing to register is logged and otherwise ignored.
+     *
+     * @param seed the seed URL of the crawl.
+     */
+    public synchronized void register(String seed) {
+        if (objectName != null) {
+            return;
+        }
+
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=CrawlMetrics,seed=" + ObjectName.quote(String.valueOf(seed))
+                    + ",id=" + registrations.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            LOGGER.warn("Cannot register crawl metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were registered.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Cannot unregister crawl metrics: {}", e.getMessage());
+        }
+        objectName = null;
+    }
+
+    /**
+     * Returns the name the metrics are registered under.
+     *
+     * @return the object name, or {@code null} if the metrics are not registered.
+     */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    private double rate(long count) {
+        long millis = getElapsedMillis();
+        return millis <= 0 ? 0 : count * 1000.0 / millis;
+    }
+}
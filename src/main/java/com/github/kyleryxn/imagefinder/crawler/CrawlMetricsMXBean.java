@@ -0,0 +1,30 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import com.github.kyleryxn.imagefinder.model.LatencySummary;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link CrawlMetrics}, registered with the platform MBean server while a crawl runs so it
+ * can be watched from JConsole, VisualVM or any other JMX client.
+ */
+public interface CrawlMetricsMXBean {
+
+    long getElapsedMillis();
+
+    long getPagesCrawled();
+
+    double getPagesPerSecond();
+
+    long getBytesFetched();
+
+    int getFrontierDepth();
+
+    int getActiveWorkers();
+
+    Map<Integer, Long> getStatusCounts();
+
+    Map<String, Double> getHostRates();
+
+    Map<String, LatencySummary> getPhaseLatencies();
+}
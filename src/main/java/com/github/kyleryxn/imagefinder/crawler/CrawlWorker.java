@@ -0,0 +1,47 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-lived worker that repeatedly pulls the next {@link FrontierEntry} from the {@link Frontier} of a crawl and
+ * runs a {@link Crawl} for it. A worker stops as soon as no entries are queued or in flight, that is the moment the
+ * last outstanding page of the crawl has been crawled.
+ */
+public class CrawlWorker implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrawlWorker.class);
+
+    private final CrawlContext context;
+
+    /**
+     * Constructor for creating a CrawlWorker object.
+     *
+     * @param context the state shared by the crawl.
+     */
+    public CrawlWorker(CrawlContext context) {
+        this.context = context;
+    }
+
+    /**
+     * {@link Runnable} implementation that crawls frontier entries until the crawl is finished.
+     */
+    @Override
+    public void run() {
+        Frontier frontier = context.getFrontier();
+
+        try {
+            FrontierEntry entry;
+            while ((entry = frontier.take()) != null) {
+                try {
+                    new Crawl(entry, context).run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Failed to crawl {}: {}", entry.getUrl(), e.toString());
+                } finally {
+                    frontier.complete(entry);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Bounded priority queue of {@link FrontierEntry} objects waiting to be crawled. Entries are handed out by depth, then
+ * by discovery order. When the frontier is full, producers are held back until a worker takes an entry or the given
+ * timeout elapses, at which point the entry is dropped and counted instead of growing the queue without bound.
+ * <p>
+ * The frontier also keeps exact count of the entries in flight, that is queued or taken but not yet completed. A
+ * crawl adds the links it discovers before it completes its own entry, so the count only drops to zero once the last
+ * outstanding page has been crawled, at which point the crawl is finished and {@link #getCompletion()} completes.
+ * <p>
+ * A frontier created with a {@link FrontierSpill} never holds producers back nor drops entries. Its capacity is the
+ * size of a window kept in memory; once the window is full, entries go to the spill on disk instead, and so does
+ * every later entry until the spill is empty again, which keeps them in discovery order. When the window drops below
+ * half its capacity, it is refilled from the spill in one batch. The order across the window and the spill is by
+ * discovery, which a breadth-first crawl discovers by depth, give or take the pages crawled at the same time.
+ */
+public class Frontier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Frontier.class);
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    private final int capacity;
+    private final FrontierSpill spill;
+    private final PriorityQueue<FrontierEntry> queue = new PriorityQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    // Entries queued or taken but not yet completed; guarded by 'lock'
+    private int inFlight;
+
+    /**
+     * Constructor for creating a Frontier with the {@link #DEFAULT_CAPACITY}.
+     */
+    public Frontier() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for creating a Frontier with a custom capacity.
+     *
+     * @param capacity the maximum number of entries held at once.
+     */
+    public Frontier(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Constructor for creating a Frontier that spills the entries beyond its capacity to disk.
+     *
+     * @param capacity the maximum number of entries held in memory at once.
+     * @param spill the spill the other entries are stored in, or {@code null} to hold producers back instead.
+     */
+    public Frontier(int capacity, FrontierSpill spill) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Frontier capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.spill = spill;
+    }
+
+    /**
+     * Adds a URL to the frontier, waiting up to the given time for space to become available. With a spill, the URL is
+     * added at once, to the spill if the memory window is full.
+     *
+     * @param url the URL to be crawled.
+     * @param depth the depth of the URL.
+     * @param timeout how long to wait for space before giving up.
+     * @param unit the time unit of the timeout.
+     * @return {@code true} if the URL was added, {@code false} if it was dropped because the frontier stayed full.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean offer(String url, int depth, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (spill != null && (queue.size() >= capacity || !spill.isEmpty())) {
+                return spill(new FrontierEntry(url, depth, sequence.getAndIncrement()));
+            }
+
+            while (queue.size() >= capacity) {
+                if (nanos <= 0L) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+
+            queue.add(new FrontierEntry(url, depth, sequence.getAndIncrement()));
+            inFlight++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an entry back to the frontier for another attempt, for example after the host asked the crawler to retry
+     * later. The new entry is in flight before the original is completed, so the crawl cannot finish in between.
+     * Retries are not subject to the capacity, since they replace an entry that was already accounted for.
+     *
+     * @param entry the entry to retry, which must still be in flight.
+     */
+    public void retry(FrontierEntry entry) {
+        lock.lock();
+        try {
+            queue.add(new FrontierEntry(entry.getUrl(), entry.getDepth(), sequence.getAndIncrement(), entry.getAttempts() + 1));
+            inFlight++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the next entry to be crawled, waiting up to the given time for one to become available.
+     * Every entry returned must be passed to {@link #complete(FrontierEntry)} once it has been crawled.
+     *
+     * @param timeout how long to wait for an entry.
+     * @param unit the time unit of the timeout.
+     * @return the next entry, or {@code null} if none became available in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public FrontierEntry poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            refill();
+            while (queue.isEmpty()) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+                refill();
+            }
+
+            FrontierEntry entry = queue.poll();
+            notFull.signal();
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the next entry to be crawled without waiting, if there is one and it meets the given
+     * condition. The condition is tested with the frontier locked, so it must not wait. Every entry returned must be
+     * passed to {@link #complete(FrontierEntry)} once it has been crawled.
+     *
+     * @param condition the condition the next entry must meet to be taken.
+     * @return the next entry, or {@code null} if none is queued or it does not meet the condition.
+     */
+    public FrontierEntry pollIf(Predicate<? super FrontierEntry> condition) {
+        lock.lock();
+        try {
+            refill();
+            FrontierEntry entry = queue.peek();
+            if (entry == null || !condition.test(entry)) {
+                return null;
+            }
+
+            queue.poll();
+            notFull.signal();
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the next entry to be crawled, waiting as long as other entries are still in flight and may
+     * add new ones. Every entry returned must be passed to {@link #complete(FrontierEntry)} once it has been crawled.
+     *
+     * @return the next entry, or {@code null} once no entries are queued or in flight, meaning the crawl is finished.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public FrontierEntry take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            refill();
+            while (queue.isEmpty()) {
+                if (inFlight == 0) {
+                    return null;
+                }
+                notEmpty.await();
+                refill();
+            }
+
+            FrontierEntry entry = queue.poll();
+            notFull.signal();
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks an entry taken from the frontier as crawled. When it was the last entry in flight, all waiting workers are
+     * released and {@link #getCompletion()} completes.
+     *
+     * @param entry the entry that has been crawled.
+     */
+    public void complete(FrontierEntry entry) {
+        decrementInFlight("cannot complete " + entry);
+    }
+
+    /**
+     * Holds the frontier open by counting one more entry in flight, so that {@link #getCompletion()} does not complete
+     * while nothing is queued, for example while URLs may still arrive from another node of a cluster. Workers waiting
+     * in {@link #take()} keep waiting during the hold. Every hold must be ended with {@link #release()}.
+     */
+    public void hold() {
+        lock.lock();
+        try {
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a hold taken with {@link #hold()}. When nothing else is in flight, the crawl is finished as if its last entry
+     * had been completed.
+     */
+    public void release() {
+        decrementInFlight("cannot release");
+    }
+
+    private void decrementInFlight(String action) {
+        boolean finished;
+        lock.lock();
+        try {
+            if (inFlight == 0) {
+                throw new IllegalStateException("No entries in flight, " + action);
+            }
+
+            finished = --inFlight == 0;
+            if (finished) {
+                notEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Complete outside the lock, dependent actions run on this thread
+        if (finished) {
+            completion.complete(null);
+        }
+    }
+
+    /**
+     * Returns a future that completes once no entries are queued or in flight. If the frontier never receives an
+     * entry, the future completes on the first call to {@link #finishIfIdle()}.
+     *
+     * @return the completion future of the frontier.
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Completes {@link #getCompletion()} if no entries are queued or in flight, for example when the seed URL could
+     * not be added at all.
+     */
+    public void finishIfIdle() {
+        boolean finished;
+        lock.lock();
+        try {
+            finished = inFlight == 0;
+            if (finished) {
+                notEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (finished) {
+            completion.complete(null);
+        }
+    }
+
+    /**
+     * Returns the number of entries queued or taken but not yet completed.
+     *
+     * @return the number of entries in flight.
+     */
+    public int getInFlightCount() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries waiting in the frontier, in memory or spilled to disk.
+     *
+     * @return the number of waiting entries.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, queue.size() + (spill != null ? spill.size() : 0));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries waiting in the spill on disk.
+     *
+     * @return the number of spilled entries, 0 for a frontier without a spill.
+     */
+    public long getSpilledCount() {
+        lock.lock();
+        try {
+            return spill != null ? spill.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the spill of the frontier, if any, with the entries still in it. The frontier cannot be used afterwards.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (spill != null) {
+                spill.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an entry to the spill; called with the lock held.
+     *
+     * @return {@code true} if the entry was added, {@code false} if it was dropped because it could not be written.
+     */
+    private boolean spill(FrontierEntry entry) {
+        try {
+            spill.append(entry);
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.error("Cannot spill {} : {}", entry.getUrl(), e.getMessage());
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        inFlight++;
+        notEmpty.signal();
+        return true;
+    }
+
+    /**
+     * Moves a batch of entries from the spill back to memory once the window is less than half full; called with the
+     * lock held.
+     */
+    private void refill() {
+        if (spill != null && queue.size() < capacity / 2 + 1 && !spill.isEmpty()) {
+            spill.drainTo(queue, capacity - queue.size());
+            notEmpty.signalAll();
+        }
+    }
+
+    /**
+     * Returns the maximum number of entries held at once.
+     *
+     * @return the capacity of the frontier.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Checks if the entries beyond the capacity go to a {@link FrontierSpill} instead of being held back or dropped.
+     *
+     * @return {@code true} if the frontier has a spill, {@code false} otherwise.
+     */
+    public boolean hasSpill() {
+        return spill != null;
+    }
+
+    /**
+     * Returns the number of URLs dropped because the frontier stayed full.
+     *
+     * @return the number of dropped URLs.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
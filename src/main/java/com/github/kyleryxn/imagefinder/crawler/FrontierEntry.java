@@ -0,0 +1,103 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+/**
+ * Represents a URL waiting in the {@link Frontier} to be crawled. Entries are ordered by depth first, so pages closer
+ * to the seed are crawled before deeper ones, and then by the order in which they were discovered.
+ */
+public class FrontierEntry implements Comparable<FrontierEntry> {
+    private final String url;
+    private final int depth;
+    private final long sequence;
+    private final int attempts;
+
+    /**
+     * Constructor for a FrontierEntry that has not been attempted before.
+     *
+     * @param url the URL to be crawled.
+     * @param depth the number of links followed from the seed to reach the URL.
+     * @param sequence the discovery order of the URL within its frontier.
+     */
+    public FrontierEntry(String url, int depth, long sequence) {
+        this(url, depth, sequence, 0);
+    }
+
+    /**
+     * Constructor for FrontierEntry.
+     *
+     * @param url the URL to be crawled.
+     * @param depth the number of links followed from the seed to reach the URL.
+     * @param sequence the discovery order of the URL within its frontier.
+     * @param attempts the number of earlier attempts to crawl the URL.
+     */
+    public FrontierEntry(String url, int depth, long sequence, int attempts) {
+        this.url = url;
+        this.depth = depth;
+        this.sequence = sequence;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Returns the URL to be crawled.
+     *
+     * @return the URL to be crawled.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the number of links followed from the seed to reach the URL.
+     *
+     * @return the depth of the URL.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the discovery order of the URL within its frontier.
+     *
+     * @return the discovery order of the URL.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the number of earlier attempts to crawl the URL.
+     *
+     * @return the number of earlier attempts.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Compares this entry with another entry by depth, then by discovery order.
+     *
+     * @param o the entry to be compared.
+     * @return a negative integer, zero, or a positive integer as this entry should be crawled before, together with,
+     *         or after the given entry.
+     */
+    @Override
+    public int compareTo(FrontierEntry o) {
+        int byDepth = Integer.compare(depth, o.depth);
+        return byDepth != 0 ? byDepth : Long.compare(sequence, o.sequence);
+    }
+
+    /**
+     * Overrides the toString() method of {@link Object}.
+     * Returns a string representation of the FrontierEntry object.
+     *
+     * @return a string representation of the FrontierEntry object.
+     */
+    @Override
+    public String toString() {
+        return "FrontierEntry{" +
+                "url='" + url + '\'' +
+                ", depth=" + depth +
+                ", sequence=" + sequence +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+/**
+ * First-in, first-out queue of {@link FrontierEntry} objects stored in memory-mapped segment files, for the entries
+ * a {@link Frontier} cannot hold in memory. Entries are appended to the last segment and read from the first; a
+ * segment is created when the last one is full and deleted once it has been read, so the disk used follows the
+ * number of entries spilled. The heap used does not: an entry is bytes in a mapped file, which the operating system
+ * writes out and reads back as it needs, and only a small object per segment stays on the heap.
+ * <p>
+ * A deleted file keeps its disk space for as long as it is mapped, and Java only unmaps a file once its buffer is
+ * garbage collected, which may be long after. Segments are therefore unmapped explicitly before they are deleted,
+ * through the cleaner of the buffer on Java 8 and {@code sun.misc.Unsafe#invokeCleaner} on later versions. On a JVM
+ * offering neither, the disk space of a deleted segment is only released once its buffer is collected.
+ * <p>
+ * Each entry is stored as the length of its UTF-8 encoded URL, the URL, its depth, its sequence and its attempts.
+ * The segment files are not meant to outlive the crawl and are deleted when the spill is closed. This class is not
+ * thread-safe; the frontier guards it with its lock.
+ */
+public class FrontierSpill implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FrontierSpill.class);
+    public static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+
+    // Length of the URL, depth, sequence and attempts
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+
+    // Unmaps a buffer at once, or null if this JVM offers no way to
+    private static final Unmapper UNMAPPER = findUnmapper();
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private byte[] scratch = new byte[256];
+    private long size;
+    private int segmentCount;
+
+    /**
+     * Constructor for creating a FrontierSpill with the {@link #DEFAULT_SEGMENT_BYTES}.
+     *
+     * @param directory the directory the segment files are created in, created if it does not exist.
+     * @throws IOException if the directory cannot be created.
+     */
+    public FrontierSpill(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Constructor for creating a FrontierSpill.
+     *
+     * @param directory the directory the segment files are created in, created if it does not exist.
+     * @param segmentBytes the size of each segment file, in bytes.
+     * @throws IOException if the directory cannot be created.
+     */
+    public FrontierSpill(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < 1024) {
+            throw new IllegalArgumentException("Segments must hold at least 1024 bytes: " + segmentBytes);
+        }
+
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Appends an entry.
+     *
+     * @param entry the entry to append.
+     * @throws IOException if a new segment file cannot be created.
+     * @throws IllegalArgumentException if the entry does not fit in a segment.
+     */
+    public void append(FrontierEntry entry) throws IOException {
+        byte[] url = entry.getUrl().getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_BYTES + url.length;
+        if (length > segmentBytes) {
+            throw new IllegalArgumentException("URL too long to spill: " + url.length + " bytes");
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.writer.remaining() < length) {
+            tail = newSegment();
+        }
+
+        tail.writer.putInt(url.length)
+                .put(url)
+                .putInt(entry.getDepth())
+                .putLong(entry.getSequence())
+                .putInt(entry.getAttempts());
+        size++;
+    }
+
+    /**
+     * Removes and returns the oldest entry.
+     *
+     * @return the oldest entry, or {@code null} if the spill is empty.
+     */
+    public FrontierEntry poll() {
+        Segment head = segments.peekFirst();
+        while (head != null && head.reader.position() == head.writer.position()) {
+            if (head == segments.peekLast()) {
+                // Fully read, but still being written to; start it over instead of creating another one
+                head.writer.clear();
+                head.reader.clear();
+                return null;
+            }
+            delete(segments.pollFirst());
+            head = segments.peekFirst();
+        }
+        if (head == null) {
+            return null;
+        }
+
+        ByteBuffer reader = head.reader;
+        int length = reader.getInt();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        reader.get(scratch, 0, length);
+        String url = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        int depth = reader.getInt();
+        long sequence = reader.getLong();
+        int attempts = reader.getInt();
+
+        size--;
+        return new FrontierEntry(url, depth, sequence, attempts);
+    }
+
+    /**
+     * Removes up to the given number of the oldest entries and adds them to a collection.
+     *
+     * @param target the collection to add the entries to.
+     * @param max the maximum number of entries to move.
+     * @return the number of entries moved.
+     */
+    public int drainTo(Collection<? super FrontierEntry> target, int max) {
+        int moved = 0;
+        FrontierEntry entry;
+        while (moved < max && (entry = poll()) != null) {
+            target.add(entry);
+            moved++;
+        }
+        return moved;
+    }
+
+    /**
+     * Returns the number of entries spilled and not read yet.
+     *
+     * @return the number of entries.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Checks if every spilled entry has been read.
+     *
+     * @return {@code true} if the spill is empty, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of segment files in use.
+     *
+     * @return the number of segments.
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Drops the entries not read yet and deletes the segment files.
+     */
+    @Override
+    public void close() {
+        while (!segments.isEmpty()) {
+            delete(segments.pollFirst());
+        }
+        size = 0;
+    }
+
+    private Segment newSegment() throws IOException {
+        Path file = directory.resolve(String.format("frontier-%06d.seg", segmentCount++));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            Segment segment = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            segments.addLast(segment);
+            return segment;
+        }
+    }
+
+    private void delete(Segment segment) {
+        // Nothing refers to the segment anymore, so its mapping can go before it is collected
+        unmap(segment.writer);
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            // Some platforms refuse to delete a file that is still mapped
+            LOGGER.debug("Cannot delete frontier segment {} : {}", segment.file, e.getMessage());
+            segment.file.toFile().deleteOnExit();
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER == null) {
+            return;
+        }
+
+        try {
+            UNMAPPER.unmap(buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Cannot unmap frontier segment : {}", e.toString());
+        }
+    }
+
+    private static Unmapper findUnmapper() {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return buffer -> invokeCleaner.invoke(unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not available, try the Java 8 way
+        }
+
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                Object bufferCleaner = cleaner.invoke(buffer);
+                if (bufferCleaner != null) {
+                    clean.invoke(bufferCleaner);
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Cannot unmap frontier segments on this JVM : {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Releases the mapping of a buffer.
+     */
+    private interface Unmapper {
+        void unmap(MappedByteBuffer buffer) throws ReflectiveOperationException;
+    }
+
+    /**
+     * A segment file, with a write position and a read position over the same mapping.
+     */
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer writer;
+        private final ByteBuffer reader;
+
+        private Segment(Path file, MappedByteBuffer writer) {
+            this.file = file;
+            this.writer = writer;
+            this.reader = writer.duplicate();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Politeness scheduler that sits between the {@link Frontier} and the fetcher. Every fetch acquires a slot for the host
+ * of its URL first and releases it with the outcome of the fetch afterwards. Per host, the scheduler enforces:
+ * <ul>
+ *     <li>a token bucket limiting the number of requests per second,</li>
+ *     <li>a concurrency cap, adapted AIMD-style: raised by one per window of successful fetches and halved when the host
+ *     answers slowly, with an error status or not at all,</li>
+ *     <li>the Retry-After header of 429 and 503 responses, with exponential back-off when the header is missing,</li>
+ *     <li>a minimum spacing between requests when a Crawl-delay is set.</li>
+ * </ul>
+ */
+public class HostScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HostScheduler.class);
+    public static final int DEFAULT_INITIAL_CONCURRENCY = 2;
+    public static final int DEFAULT_MAX_CONCURRENCY = 10;
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 20.0;
+    public static final long MAX_BACKOFF_MILLIS = 60_000L;
+
+    private static final long DEFAULT_BACKOFF_MILLIS = 1_000L;
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double SLOW_LATENCY_FACTOR = 3.0;
+    private static final long MIN_SLOW_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MIN_DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int initialConcurrency;
+    private final int maxConcurrency;
+    private final double requestsPerSecond;
+    private final ConcurrentMap<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for creating a HostScheduler with the default limits.
+     */
+    public HostScheduler() {
+        this(DEFAULT_INITIAL_CONCURRENCY, DEFAULT_MAX_CONCURRENCY, DEFAULT_REQUESTS_PER_SECOND);
+    }
+
+    /**
+     * Constructor for creating a HostScheduler with custom limits.
+     *
+     * @param initialConcurrency the number of concurrent fetches per host to start with.
+     * @param maxConcurrency the upper bound the concurrency per host may grow to.
+     * @param requestsPerSecond the maximum number of requests per second per host.
+     */
+    public HostScheduler(int initialConcurrency, int maxConcurrency, double requestsPerSecond) {
+        if (initialConcurrency <= 0 || maxConcurrency < initialConcurrency || requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid host limits: initial=" + initialConcurrency
+                    + ", max=" + maxConcurrency + ", rate=" + requestsPerSecond);
+        }
+
+        this.initialConcurrency = initialConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * Waits until the host of the given URL may be fetched and takes a slot for it. Every successful call must be
+     * followed by {@link #release(String, int, long, String)} with the returned host.
+     *
+     * @param url the URL about to be fetched.
+     * @return the host the slot was taken for.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public String acquire(String url) throws InterruptedException {
+        String host = URLUtility.getAuthority(url);
+        stateOf(host).acquire();
+        return host;
+    }
+
+    /**
+     * Takes a slot for the host of the given URL if it may be fetched right now, without waiting. Every successful call
+     * must be followed by {@link #release(String, int, long, String)} with the returned host.
+     *
+     * @param url the URL about to be fetched.
+     * @return the host the slot was taken for, or {@code null} if the host is at its concurrency limit, backing off
+     *         or out of tokens.
+     */
+    public String tryAcquire(String url) {
+        String host = URLUtility.getAuthority(url);
+        return stateOf(host).tryAcquire() ? host : null;
+    }
+
+    /**
+     * Releases the slot taken for a host and adapts the limits of the host to the outcome of the fetch.
+     *
+     * @param host the host returned by {@link #acquire(String)} or {@link #tryAcquire(String)}.
+     * @param statusCode the HTTP status code of the response, or 0 if no response was received.
+     * @param latencyNanos how long the fetch took, in nanoseconds.
+     * @param retryAfter the value of the Retry-After response header, or {@code null} if there was none.
+     */
+    public void release(String host, int statusCode, long latencyNanos, String retryAfter) {
+        stateOf(host).release(statusCode, latencyNanos, retryAfter);
+    }
+
+    /**
+     * Sets the minimum time between the start of two requests to the given host, as announced by robots.txt.
+     *
+     * @param host the host, as returned by {@link URLUtility#getAuthority(String)}.
+     * @param delayMillis the crawl delay in milliseconds.
+     */
+    public void setCrawlDelay(String host, long delayMillis) {
+        stateOf(host).setCrawlDelay(TimeUnit.MILLISECONDS.toNanos(delayMillis));
+    }
+
+    /**
+     * Returns the current concurrency limit of the given host.
+     *
+     * @param host the host, as returned by {@link URLUtility#getAuthority(String)}.
+     * @return the number of fetches currently allowed at once for the host.
+     */
+    public int getConcurrencyLimit(String host) {
+        return stateOf(host).currentLimit();
+    }
+
+    /**
+     * Returns the number of hosts the scheduler has seen.
+     *
+     * @return the number of hosts.
+     */
+    public int getHostCount() {
+        return hosts.size();
+    }
+
+    /**
+     * Parses the value of a Retry-After header, given either in seconds or as an HTTP date. The delay is capped at the
+     * longest back-off of the scheduler, so a host cannot park itself for the rest of the crawl.
+     *
+     * @param value the header value.
+     * @return the delay in milliseconds, at most {@link #MAX_BACKOFF_MILLIS}, or -1 if the value is missing or cannot be
+     *         parsed.
+     */
+    public static long parseRetryAfter(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+
+        String trimmed = value.trim();
+        try {
+            return clamp(TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed)));
+        } catch (NumberFormatException ignored) {
+            // Not delta-seconds, try an HTTP date
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return clamp(date.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            LOGGER.debug("Unparseable Retry-After '{}'", trimmed);
+            return -1;
+        }
+    }
+
+    private static long clamp(long delayMillis) {
+        return Math.max(0, Math.min(MAX_BACKOFF_MILLIS, delayMillis));
+    }
+
+    private HostState stateOf(String host) {
+        return hosts.computeIfAbsent(host, h -> new HostState());
+    }
+
+    /**
+     * Limits and statistics of a single host. All fields are guarded by the lock of the state.
+     */
+    private final class HostState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private double limit = initialConcurrency;
+        private int active;
+        private double tokens = 1;
+        private long lastRefillNanos = System.nanoTime();
+        private long blockedUntilNanos = lastRefillNanos;
+        private long crawlDelayNanos;
+        private long lastStartNanos;
+        private boolean started;
+        private long minLatencyNanos = Long.MAX_VALUE;
+        private long lastDecreaseNanos = lastRefillNanos - MIN_DECREASE_INTERVAL_NANOS;
+        private int consecutiveFailures;
+
+        private void acquire() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (true) {
+                    long wait = take();
+                    if (wait == 0) {
+                        return;
+                    } else if (wait == Long.MAX_VALUE) {
+                        changed.await();
+                    } else {
+                        changed.awaitNanos(wait);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean tryAcquire() {
+            lock.lock();
+            try {
+                return take() == 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Takes a slot if the host may be fetched now; called with the lock held.
+         *
+         * @return 0 if the slot was taken, otherwise how long to wait before trying again, in nanoseconds, or
+         *         {@code Long.MAX_VALUE} if only a released slot can make room.
+         */
+        private long take() {
+            long now = System.nanoTime();
+            refill(now);
+
+            if (active >= (int) limit) {
+                return Long.MAX_VALUE;
+            }
+
+            long wait = blockedUntilNanos - now;
+            if (started) {
+                wait = Math.max(wait, lastStartNanos + crawlDelayNanos - now);
+            }
+            if (tokens < 1) {
+                wait = Math.max(wait, (long) ((1 - tokens) / requestsPerSecond * 1e9));
+            }
+
+            if (wait > 0) {
+                return wait;
+            }
+
+            tokens -= 1;
+            active++;
+            lastStartNanos = now;
+            started = true;
+            return 0;
+        }
+
+        private void release(int statusCode, long latencyNanos, String retryAfter) {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                active--;
+
+                if (statusCode == 429 || statusCode == 503) {
+                    // The origin asked us to slow down
+                    long backOffMillis = parseRetryAfter(retryAfter);
+                    if (backOffMillis < 0) {
+                        backOffMillis = Math.min(MAX_BACKOFF_MILLIS, DEFAULT_BACKOFF_MILLIS << Math.min(consecutiveFailures, 16));
+                    }
+                    blockedUntilNanos = Math.max(blockedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(backOffMillis));
+                    consecutiveFailures++;
+                    decrease(now);
+                } else if (statusCode == 0 || statusCode >= 500) {
+                    consecutiveFailures++;
+                    decrease(now);
+                } else {
+                    consecutiveFailures = 0;
+                    minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+                    long slowNanos = Math.max(MIN_SLOW_LATENCY_NANOS, (long) (minLatencyNanos * SLOW_LATENCY_FACTOR));
+                    if (latencyNanos > slowNanos) {
+                        decrease(now);
+                    } else {
+                        // Additive increase: about one more slot per window of 'limit' successful fetches
+                        limit = Math.min(maxConcurrency, limit + 1 / limit);
+                    }
+                }
+
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void decrease(long now) {
+            // Fetches that were already in flight report the same congestion, only react to it once
+            if (now - lastDecreaseNanos >= MIN_DECREASE_INTERVAL_NANOS) {
+                limit = Math.max(1, limit * DECREASE_FACTOR);
+                lastDecreaseNanos = now;
+            }
+        }
+
+        private void refill(long now) {
+            double burst = Math.max(1, requestsPerSecond);
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * requestsPerSecond);
+            lastRefillNanos = now;
+        }
+
+        private void setCrawlDelay(long delayNanos) {
+            lock.lock();
+            try {
+                crawlDelayNanos = delayNanos;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int currentLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+/**
+ * Interface for splitting the URLs of a crawl between several crawlers, each crawling its own part of the URL space.
+ * A {@link Crawl} asks the router for every link it claims: links of its own part go to its frontier as usual, the
+ * others are forwarded to the crawler they belong to instead of being crawled.
+ *
+ * @see com.github.kyleryxn.imagefinder.crawler.cluster.ClusterNode
+ */
+public interface LinkRouter {
+
+    /**
+     * Checks if the given URL belongs to the part of the URL space crawled here.
+     *
+     * @param url the URL to check.
+     * @return {@code true} if the URL is crawled here, {@code false} if it belongs to another crawler.
+     */
+    boolean isLocal(String url);
+
+    /**
+     * Hands a URL of another part of the URL space to the crawler it belongs to. Called once for each URL, by the
+     * crawl that claimed it.
+     *
+     * @param url the URL to forward.
+     * @param depth the depth of the URL.
+     */
+    void forward(String url, int depth);
+}
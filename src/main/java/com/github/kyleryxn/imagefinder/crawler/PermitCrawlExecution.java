@@ -0,0 +1,170 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CrawlExecution} that runs every {@link Crawl} on its own thread and limits the number of pages fetched at once
+ * with a configurable number of permits instead of a pool size. A single dispatcher thread takes entries from the
+ * {@link Frontier} whenever a permit is free and hands them to the task executor.
+ * <p>
+ * On a Java runtime with virtual threads the tasks run on virtual threads, so thousands of fetches blocked on the
+ * network cost little more than their sockets. On older runtimes the tasks fall back to a cached pool of platform
+ * threads, which still removes the fixed pool limit but costs one thread stack per permit in use.
+ */
+public class PermitCrawlExecution implements CrawlExecution {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PermitCrawlExecution.class);
+    public static final int DEFAULT_PERMITS = 256;
+
+    private final int permits;
+    private final Semaphore semaphore;
+    private final ExecutorService taskExecutor = newPerTaskExecutor();
+    private volatile Thread dispatcher;
+
+    /**
+     * Constructor for creating a PermitCrawlExecution object with {@link #DEFAULT_PERMITS} permits.
+     */
+    public PermitCrawlExecution() {
+        this(DEFAULT_PERMITS);
+    }
+
+    /**
+     * Constructor for creating a PermitCrawlExecution object.
+     *
+     * @param permits the maximum number of pages fetched at once.
+     */
+    public PermitCrawlExecution(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Permit count must be positive: " + permits);
+        }
+
+        this.permits = permits;
+        this.semaphore = new Semaphore(permits);
+    }
+
+    /**
+     * Starts the dispatcher thread, which stops as soon as nothing is queued or in flight.
+     *
+     * @param context the state shared by the crawl.
+     */
+    @Override
+    public void start(CrawlContext context) {
+        Thread thread = new Thread(() -> dispatch(context), "crawl-dispatcher");
+        dispatcher = thread;
+        thread.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdownNow() {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        taskExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the maximum number of pages fetched at once.
+     *
+     * @return the number of permits.
+     */
+    public int getPermits() {
+        return permits;
+    }
+
+    /**
+     * Returns the number of crawl tasks currently running.
+     *
+     * @return the number of permits in use.
+     */
+    public int getActiveCount() {
+        return permits - semaphore.availablePermits();
+    }
+
+    /**
+     * Takes entries from the frontier and submits a crawl task for each one, holding a permit per running task.
+     *
+     * @param context the state shared by the crawl.
+     */
+    private void dispatch(CrawlContext context) {
+        Frontier frontier = context.getFrontier();
+
+        try {
+            while (true) {
+                // Acquire the permit first so an entry is never held while waiting for one
+                semaphore.acquire();
+
+                FrontierEntry entry = frontier.take();
+                if (entry == null) {
+                    semaphore.release();
+                    break;
+                }
+
+                try {
+                    taskExecutor.execute(() -> runCrawl(entry, context));
+                } catch (RejectedExecutionException e) {
+                    semaphore.release();
+                    frontier.complete(entry);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            taskExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Runs the crawl of a single entry, then completes the entry and releases its permit.
+     *
+     * @param entry the entry to crawl.
+     * @param context the state shared by the crawl.
+     */
+    private void runCrawl(FrontierEntry entry, CrawlContext context) {
+        try {
+            new Crawl(entry, context).run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to crawl {}: {}", entry.getUrl(), e.toString());
+        } finally {
+            context.getFrontier().complete(entry);
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Creates the executor that starts a new thread per task. Uses virtual threads when the runtime provides
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up reflectively so the project still builds for
+     * Java 8, and a cached pool of daemon platform threads otherwise.
+     *
+     * @return the per-task executor.
+     */
+    private static ExecutorService newPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("virtual threads unavailable, using platform threads");
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "crawl-task-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CrawlExecution} that runs a fixed number of {@link CrawlWorker} objects on a {@link ThreadPoolManager}.
+ * The number of pages fetched at once equals the number of threads in the pool.
+ */
+public class PooledCrawlExecution implements CrawlExecution {
+    private final int threads;
+
+    // Manager to handle all the threads
+    private final ThreadPoolManager executorService;
+
+    /**
+     * Constructor for creating a PooledCrawlExecution object.
+     *
+     * @param threads the number of worker threads.
+     */
+    public PooledCrawlExecution(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+
+        this.threads = threads;
+        this.executorService = new ThreadPoolManager(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Starts one {@link CrawlWorker} per thread. Each worker stops as soon as nothing is queued or in flight.
+     *
+     * @param context the state shared by the crawl.
+     */
+    @Override
+    public void start(CrawlContext context) {
+        for (int i = 0; i < threads; i++) {
+            executorService.execute(new CrawlWorker(context));
+        }
+        executorService.shutdown();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdownNow() {
+        executorService.shutdownNow();
+    }
+}
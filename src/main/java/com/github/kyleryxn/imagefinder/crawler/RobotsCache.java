@@ -0,0 +1,129 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import com.github.kyleryxn.imagefinder.util.url.FetchResponse;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.github.kyleryxn.imagefinder.util.url.RobotsRules;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches the robots.txt file of each host a crawl visits, once, and keeps its compiled {@link RobotsRules} for the
+ * rest of the crawl. The first URL of a host fetches the file and every other caller asking for the same host waits
+ * for that fetch instead of starting its own. The Crawl-delay of a host, if any, is passed on to the
+ * {@link HostScheduler}, capped at {@link #MAX_CRAWL_DELAY_MILLIS}.
+ * <p>
+ * A host without a robots.txt file (a 4xx response) may be crawled in full. A host whose file cannot be fetched is
+ * crawled in full as well; RFC 9309 asks to crawl nothing in that case, but a single failed request would then end
+ * the crawl of the site, so the failure is logged instead.
+ */
+public class RobotsCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RobotsCache.class);
+    public static final long MAX_CRAWL_DELAY_MILLIS = 30_000;
+
+    private final HttpFetcher fetcher;
+    private final HostScheduler scheduler;
+    private final ConcurrentMap<String, CompletableFuture<RobotsRules>> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong disallowed = new AtomicLong();
+
+    /**
+     * Constructor for creating a RobotsCache that fetches with the shared {@link HttpFetcher}.
+     *
+     * @param scheduler the scheduler the crawl delays of the hosts are set on, or {@code null} to ignore them.
+     */
+    public RobotsCache(HostScheduler scheduler) {
+        this(HttpFetcher.getDefault(), scheduler);
+    }
+
+    /**
+     * Constructor for creating a RobotsCache.
+     *
+     * @param fetcher the fetcher used to retrieve the robots.txt files.
+     * @param scheduler the scheduler the crawl delays of the hosts are set on, or {@code null} to ignore them.
+     */
+    public RobotsCache(HttpFetcher fetcher, HostScheduler scheduler) {
+        this.fetcher = fetcher;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Checks if the robots.txt file of the host of the given URL allows crawling it, fetching the file first if this
+     * is the first URL of the host. Disallowed URLs are counted.
+     *
+     * @param url the absolute URL to check.
+     * @return {@code true} if the URL may be crawled, {@code false} otherwise.
+     */
+    public boolean isAllowed(String url) {
+        if (getRules(url).isAllowed(url)) {
+            return true;
+        }
+
+        disallowed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the rules of the host of the given URL, fetching its robots.txt file if this is the first URL of the
+     * host.
+     *
+     * @param url an absolute URL of the host.
+     * @return the rules of the host.
+     */
+    public RobotsRules getRules(String url) {
+        String host = URLUtility.getAuthority(url);
+        CompletableFuture<RobotsRules> rules = hosts.get(host);
+        if (rules == null) {
+            CompletableFuture<RobotsRules> fetching = new CompletableFuture<>();
+            rules = hosts.putIfAbsent(host, fetching);
+            if (rules == null) {
+                rules = fetching;
+                fetching.complete(fetch(url, host));
+            }
+        }
+        return rules.join();
+    }
+
+    /**
+     * Returns the number of URLs found disallowed so far.
+     *
+     * @return the number of disallowed URLs.
+     */
+    public long getDisallowedCount() {
+        return disallowed.get();
+    }
+
+    private RobotsRules fetch(String url, String host) {
+        int scheme = url.indexOf("://");
+        String robotsUrl = (scheme > 0 ? url.substring(0, scheme) : "http") + "://" + host + "/robots.txt";
+
+        RobotsRules rules;
+        try (FetchResponse response = fetcher.get(robotsUrl)) {
+            if (response.isSuccessful()) {
+                String charset = response.getCharset();
+                rules = RobotsRules.parse(new InputStreamReader(response.getBody(),
+                        charset != null ? charset : StandardCharsets.UTF_8.name()));
+            } else {
+                if (response.getStatusCode() >= 500) {
+                    LOGGER.warn("{} answered {}, crawling without rules", robotsUrl, response.getStatusCode());
+                }
+                rules = RobotsRules.allowAll();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot fetch {}, crawling without rules: {}", robotsUrl, e.getMessage());
+            rules = RobotsRules.allowAll();
+        }
+
+        if (scheduler != null && rules.getCrawlDelayMillis() > 0) {
+            scheduler.setCrawlDelay(host, Math.min(rules.getCrawlDelayMillis(), MAX_CRAWL_DELAY_MILLIS));
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+/**
+ * Interface for the set of URLs the crawler has already discovered. A URL is claimed exactly once: the first caller
+ * to claim it wins and is responsible for scheduling it, every later claim of the same URL is rejected. This replaces
+ * separate check-then-put steps, which let two threads schedule the same URL under contention.
+ */
+public interface SeenSet {
+
+    /**
+     * Atomically claims the given URL.
+     *
+     * @param url the URL to claim.
+     * @return {@code true} if this call claimed the URL, {@code false} if it was already claimed.
+     */
+    boolean claim(String url);
+
+    /**
+     * Checks if the given URL has been claimed.
+     *
+     * @param url the URL to check.
+     * @return {@code true} if the URL has been claimed, {@code false} otherwise.
+     */
+    boolean contains(String url);
+
+    /**
+     * Returns the number of claimed URLs.
+     *
+     * @return the number of claimed URLs.
+     */
+    int size();
+
+    /**
+     * Returns the approximate heap footprint of the set.
+     *
+     * @return the size in bytes, or -1 if the implementation does not track it.
+     */
+    default long getMemoryBytes() {
+        return -1;
+    }
+
+    /**
+     * Returns the estimated probability that {@link #claim(String)} rejects a URL that was never claimed.
+     *
+     * @return the estimated false positive rate, 0 for exact implementations.
+     */
+    default double getEstimatedFalsePositiveRate() {
+        return 0;
+    }
+}
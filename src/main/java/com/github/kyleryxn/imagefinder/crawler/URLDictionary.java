@@ -0,0 +1,178 @@
+package com.github.kyleryxn.imagefinder.crawler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Assigns each distinct URL of a crawl a dense int id, so that the {@link CompactSeenSet} and the
+ * {@link CompactSitemap} can refer to URLs by id instead of holding their own copies of every URL string.
+ * <p>
+ * Each URL is stored exactly once, as UTF-8 bytes appended to a single shared byte array, which avoids the object
+ * header, array header and reference that a {@link String} per URL would cost. Ids are looked up through an
+ * open-addressing hash table of int slots with linear probing, so there are no per-entry node objects either.
+ * All methods are thread safe.
+ */
+public class URLDictionary {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_BYTES = 64 * 1024;
+
+    // Slot value is id + 1, so 0 marks an empty slot
+    private int[] table = new int[INITIAL_CAPACITY];
+
+    // Per id: start offset in bytes, with offsets[id + 1] as its end, and the hash of the URL
+    private int[] offsets = new int[INITIAL_CAPACITY + 1];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private byte[] bytes = new byte[INITIAL_BYTES];
+    private int size;
+
+    /**
+     * Returns the id of the given URL, assigning it the next free id if it has not been seen before.
+     *
+     * @param url the URL to intern.
+     * @return the id of the URL.
+     */
+    public synchronized int intern(String url) {
+        byte[] encoded = url.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(encoded);
+
+        int slot = find(encoded, hash);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+
+        int id = append(encoded, hash);
+        table[slot] = id + 1;
+
+        // Keep the table at most half full so probe sequences stay short
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the id of the given URL without interning it.
+     *
+     * @param url the URL to look up.
+     * @return the id of the URL, or -1 if it has not been interned.
+     */
+    public synchronized int idOf(String url) {
+        byte[] encoded = url.getBytes(StandardCharsets.UTF_8);
+        return table[find(encoded, hash(encoded))] - 1;
+    }
+
+    /**
+     * Returns the URL with the given id. A new string is decoded on every call, so callers on hot paths should keep
+     * working with ids.
+     *
+     * @param id the id of the URL.
+     * @return the URL.
+     * @throws IndexOutOfBoundsException if no URL has the given id.
+     */
+    public synchronized String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No URL with id " + id);
+        }
+        return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of interned URLs, which is also the next id to be assigned.
+     *
+     * @return the number of interned URLs.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the approximate heap footprint of the dictionary.
+     *
+     * @return the size of the backing arrays in bytes.
+     */
+    public synchronized long getMemoryBytes() {
+        return bytes.length + 4L * (table.length + offsets.length + hashes.length);
+    }
+
+    /**
+     * Returns the slot holding the given URL, or the empty slot where it would be inserted.
+     */
+    private int find(byte[] encoded, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+
+        while (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if (hashes[id] == hash && matches(id, encoded)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private boolean matches(int id, byte[] encoded) {
+        int start = offsets[id];
+        int length = offsets[id + 1] - start;
+        if (length != encoded.length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int append(byte[] encoded, int hash) {
+        int id = size;
+        if (id == hashes.length) {
+            int capacity = hashes.length * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            offsets = Arrays.copyOf(offsets, capacity + 1);
+        }
+
+        int start = offsets[id];
+        int end = start + encoded.length;
+        if (end > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, end));
+        }
+
+        System.arraycopy(encoded, 0, bytes, start, encoded.length);
+        offsets[id + 1] = end;
+        hashes[id] = hash;
+        size++;
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id + 1;
+        }
+
+        table = rehashed;
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, with a final mix so that the low bits used for the slot index are well spread.
+     */
+    private static int hash(byte[] encoded) {
+        int h = 0x811c9dc5;
+        for (byte b : encoded) {
+            h ^= b;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,22 +1,37 @@
 package com.github.kyleryxn.imagefinder.crawler;
 
+import com.github.kyleryxn.imagefinder.model.CrawlMetricsSnapshot;
 import com.github.kyleryxn.imagefinder.model.Image;
 import com.github.kyleryxn.imagefinder.model.Statistic;
 import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.PageCache;
 import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.parser.StreamingHTMLParser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
 import com.github.kyleryxn.imagefinder.util.ResourceUtility;
+import com.github.kyleryxn.imagefinder.util.ResultSink;
+import com.github.kyleryxn.imagefinder.util.image.ImageDuplicateIndex;
+import com.github.kyleryxn.imagefinder.util.image.ImageProber;
 import com.github.kyleryxn.imagefinder.util.url.HTTPClient;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.github.kyleryxn.imagefinder.util.url.SitemapReader;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a web crawler that visits URLs and extracts information like links and images
@@ -24,27 +39,21 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class WebCrawler {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebCrawler.class);
-    private static final int MAX_THREADS = 10;
-    private static final long MAX_IDLE_TIME = 10_000_000_000L; // 10s
+    public static final int MAX_THREADS = 10;
+    private static final long IMAGE_PROBE_TIMEOUT_SECONDS = 60;
+    private static final long SITEMAP_BACK_PRESSURE_MILLIS = 1000;
 
-    // Manager to handle all the threads
-    private final ThreadPoolManager executorService = new ThreadPoolManager(MAX_THREADS, MAX_THREADS, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    // How the frontier entries are run, a fixed pool by default
+    private final CrawlExecution execution;
 
     // The seed url
     private final String domain;
 
-    // The sitemap
-    private final ConcurrentMap<String, Set<String>> sitemap = new ConcurrentHashMap<>();
+    // State shared by all workers: seen set, frontier, sitemap and images
+    private final CrawlContext context;
 
-    // Map containing already visited urls
-    private final ConcurrentMap<String, Boolean> visitedLinks = new ConcurrentHashMap<>();
-
-    // All the images gathered from the site, no duplicates
-    // The url the image is gathered from serves as the key
-    private final ConcurrentMap<String, Set<Image>> images = new ConcurrentHashMap<>();
-
-    // Parser instance
-    private final Parser parser;
+    // Optional reader of the sitemaps the frontier is seeded from
+    private SitemapReader sitemapReader;
 
     private long startTime;
 
@@ -58,80 +67,548 @@ public class WebCrawler {
     }
 
     /**
-     * Constructor for creating a WebCrawler object with the domain and a custom parser.
+     * Constructor for creating a WebCrawler object with the domain and an {@link HTMLParser} that keeps the pages it
+     * fetches in the {@link PageCache} stored in the given directory. Pages cached by an earlier crawl are requested
+     * conditionally and not parsed again if the server reports them unchanged. The cache is closed when the crawl
+     * finishes.
+     *
+     * @param domain the seed URL to start crawling.
+     * @param pageCacheDirectory the directory of the page cache, shared by the crawls of the same seed only.
+     * @throws IOException if the page cache cannot be opened.
+     */
+    public WebCrawler(String domain, Path pageCacheDirectory) throws IOException {
+        this(domain, PageCache.open(pageCacheDirectory));
+    }
+
+    private WebCrawler(String domain, PageCache pageCache) {
+        this(domain, new HTMLParser(domain, HttpFetcher.getDefault(), pageCache));
+        setPageCache(pageCache);
+    }
+
+    /**
+     * Constructor for creating a WebCrawler object with the domain and a custom parser, for example a
+     * {@link StreamingHTMLParser} that extracts links and images without building a DOM.
      *
      * @param domain the seed URL to start crawling.
      * @param parser the parser for extracting information from web pages.
      */
     public WebCrawler(String domain, Parser parser) {
+        this(domain, parser, new PooledCrawlExecution(MAX_THREADS));
+    }
+
+    /**
+     * Constructor for creating a WebCrawler object with the domain, a custom parser and a custom execution mode,
+     * for example a {@link PermitCrawlExecution} that limits concurrency by permits instead of a pool size.
+     *
+     * @param domain the seed URL to start crawling.
+     * @param parser the parser for extracting information from web pages.
+     * @param execution the execution mode that runs the crawl tasks.
+     */
+    public WebCrawler(String domain, Parser parser, CrawlExecution execution) {
+        this(domain, parser, execution, new HostScheduler());
+    }
+
+    /**
+     * Constructor for creating a WebCrawler object with the domain, a custom parser, a custom execution mode and a
+     * custom politeness scheduler.
+     *
+     * @param domain the seed URL to start crawling.
+     * @param parser the parser for extracting information from web pages.
+     * @param execution the execution mode that runs the crawl tasks.
+     * @param scheduler the scheduler enforcing the per-host rate and concurrency limits.
+     */
+    public WebCrawler(String domain, Parser parser, CrawlExecution execution, HostScheduler scheduler) {
+        this(domain, parser, execution, scheduler, new JsonResultSink(Paths.get(ResourceUtility.FILE_PATH)));
+    }
+
+    /**
+     * Constructor for creating a WebCrawler object with the domain, a custom parser, a custom execution mode, a
+     * custom politeness scheduler and a custom result sink, for example a {@link JsonResultSink} writing gzip
+     * compressed files to another directory.
+     *
+     * @param domain the seed URL to start crawling.
+     * @param parser the parser for extracting information from web pages.
+     * @param execution the execution mode that runs the crawl tasks.
+     * @param scheduler the scheduler enforcing the per-host rate and concurrency limits.
+     * @param sink the sink the results of each page are streamed to; closed when the crawl finishes.
+     */
+    public WebCrawler(String domain, Parser parser, CrawlExecution execution, HostScheduler scheduler, ResultSink sink) {
+        this(domain, parser, execution, scheduler, sink, new CompactSeenSet(new URLDictionary()));
+    }
+
+    /**
+     * Constructor for creating a WebCrawler object with the domain, a custom parser, a custom execution mode, a
+     * custom politeness scheduler, a custom result sink and a custom seen set, for example a {@link BloomSeenSet}
+     * for crawls too large to remember every URL exactly. With a Bloom seen set, the sitemap of the crawl records the
+     * crawled pages but not their links, which are only written to the sink, so the heap grows with the number of
+     * pages crawled and their images, which {@link #crawl()} returns, and no longer with the number of URLs found.
+     *
+     * @param domain the seed URL to start crawling.
+     * @param parser the parser for extracting information from web pages.
+     * @param execution the execution mode that runs the crawl tasks.
+     * @param scheduler the scheduler enforcing the per-host rate and concurrency limits.
+     * @param sink the sink the results of each page are streamed to; closed when the crawl finishes.
+     * @param seenSet the set of URLs already discovered.
+     */
+    public WebCrawler(String domain, Parser parser, CrawlExecution execution, HostScheduler scheduler, ResultSink sink,
+                      SeenSet seenSet) {
+        this(domain, parser, execution, scheduler, sink, seenSet, new Frontier());
+    }
+
+    /**
+     * Constructor for creating a WebCrawler object with the domain, a custom parser, a custom execution mode, a
+     * custom politeness scheduler, a custom result sink, a custom seen set and a custom frontier, for example one
+     * with a {@link FrontierSpill} for sites with more pending URLs than fit in memory.
+     *
+     * @param domain the seed URL to start crawling.
+     * @param parser the parser for extracting information from web pages.
+     * @param execution the execution mode that runs the crawl tasks.
+     * @param scheduler the scheduler enforcing the per-host rate and concurrency limits.
+     * @param sink the sink the results of each page are streamed to; closed when the crawl finishes.
+     * @param seenSet the set of URLs already discovered.
+     * @param frontier the frontier of URLs waiting to be crawled; closed when the crawl finishes.
+     */
+    public WebCrawler(String domain, Parser parser, CrawlExecution execution, HostScheduler scheduler, ResultSink sink,
+                      SeenSet seenSet, Frontier frontier) {
+        // Links are normalized when they are found, so the seed has to be to match them
+        String seed = URLUtility.normalizeURL(domain);
         HTTPClient client = new HTTPClient();
-        String message = client.checkURL(domain).getMessage();
+        String message = client.checkURL(seed).getMessage();
         System.out.println(message);
 
         if (client.isValid())
-            this.domain = domain;
+            this.domain = seed;
         else
             this.domain = null;
 
-        this.parser = parser;
+        this.execution = execution;
+
+        // A compact seen set shares its dictionary with the sitemap, so each URL is stored once; a Bloom seen set is
+        // used when the URLs do not fit in memory, so the links of each page are only streamed to the sink
+        CompactSitemap sitemap;
+        if (seenSet instanceof CompactSeenSet) {
+            sitemap = new CompactSitemap(((CompactSeenSet) seenSet).getDictionary());
+        } else if (seenSet instanceof BloomSeenSet) {
+            sitemap = CompactSitemap.pagesOnly(new URLDictionary());
+        } else {
+            sitemap = new CompactSitemap(new URLDictionary());
+        }
+        this.context = new CrawlContext(this.domain, parser, seenSet, frontier, scheduler, sink, sitemap);
     }
 
     /**
      * Starts the web crawling process from the seed URL and waits until all crawling tasks are completed.
+     * Returns the moment the last outstanding page has been crawled, see {@link #crawlAsync()}.
      *
      * @return the map of URLs and their associated images gathered from the crawled web pages.
      */
     public ConcurrentMap<String, Set<Image>> crawl() {
+        try {
+            return crawlAsync().get();
+        } catch (InterruptedException e) {
+            LOGGER.error(e.toString());
+            execution.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("Crawl failed: {}", e.getCause().toString());
+        }
 
-        // Add seed url to 'visitedLinks' map
-        visitedLinks.put(domain, true);
-
-        // Crawl seed page first
-        executorService.submit(new Crawl(domain, sitemap, visitedLinks, images, executorService, parser));
+        return context.getImages();
+    }
 
+    /**
+     * Starts the web crawling process from the seed URL without waiting for it to finish. The seed is added to the
+     * {@link Frontier} and the {@link CrawlExecution} runs its entries; the frontier counts every page
+     * queued or in progress, so the crawl is known to be finished exactly when that count drops to zero.
+     *
+     * @return a future completed with the map of URLs and their associated images once the crawl is finished.
+     */
+    public CompletableFuture<ConcurrentMap<String, Set<Image>>> crawlAsync() {
         startTime = System.currentTimeMillis();
+        context.getMetrics().start();
+        context.getMetrics().register(domain);
+        Frontier frontier = context.getFrontier();
 
-        // Loop continues as long as there are threads in the queue
-        // Or if the difference between the current time and the last execution time
-        // of 'poolManager' is less than 'MAX_IDLE_TIME' in nanoseconds
-        while (true) {
-            try {
-                Thread.sleep(1000);
-                long idleNano = System.nanoTime() - executorService.getLastExecutionTime();
-                if (executorService.getQueue().size() == 0 && idleNano >= MAX_IDLE_TIME) {
-                    executorService.shutdown();
-                    boolean terminated = executorService.awaitTermination(10, TimeUnit.SECONDS);
-                    if (terminated) {
-                        LOGGER.info("terminating executor service");
-                        break;
-                    }
+        // Claim the seed url and add it to the frontier, unless it belongs to another crawler; links back to the seed
+        // arrive trimmed, so claim that form too
+        context.getSeenSet().claim(domain);
+        context.getSeenSet().claim(URLUtility.trimURL(domain));
+        CrawlCheckpoint checkpoint = context.getCheckpoint();
+        try {
+            if (checkpoint != null && checkpoint.isResumable()) {
+                resume(checkpoint);
+            } else if (context.getLinkRouter() == null || context.getLinkRouter().isLocal(domain)) {
+                frontier.offer(domain, 0, 0, TimeUnit.MILLISECONDS);
+                if (checkpoint != null) {
+                    checkpoint.begin(domain);
+                    checkpoint.queued(domain, 0);
                 }
-            } catch (InterruptedException e) {
-                LOGGER.error(e.toString());
-                break;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        CompletableFuture<ConcurrentMap<String, Set<Image>>> result = frontier.getCompletion().thenApply(v -> finish());
+
+        // The crawl cannot finish before the sitemaps are read, even if the seed is crawled first
+        if (sitemapReader != null && domain != null) {
+            frontier.hold();
+            Thread seeder = new Thread(this::seedFromSitemaps, "sitemap-seeder");
+            seeder.setDaemon(true);
+            seeder.start();
         }
 
-        // Create JSON records
-        ResourceUtility.writeMapToJson("images.json", images);
-        ResourceUtility.writeMapToJson("sitemap.json", sitemap);
+        // Start the execution; it releases its threads as soon as nothing is queued or in flight
+        execution.start(context);
+        frontier.finishIfIdle();
+
+        return result;
+    }
+
+    /**
+     * Adds the pages listed by the sitemaps of the seed host to the frontier, at depth 1, while the crawl runs. The
+     * sitemaps are those listed by robots.txt, when it is consulted, or else "/sitemap.xml". Pages outside the domain of
+     * the parser, already claimed or disallowed are skipped like links found on a page are. Ends the hold on the
+     * frontier taken by {@link #crawlAsync()}.
+     */
+    private void seedFromSitemaps() {
+        Frontier frontier = context.getFrontier();
+        try {
+            RobotsCache robots = context.getRobots();
+            List<String> sitemaps = robots != null ? robots.getRules(domain).getSitemaps() : Collections.emptyList();
+            if (sitemaps.isEmpty()) {
+                int scheme = domain.indexOf("://");
+                sitemaps = Collections.singletonList(domain.substring(0, scheme + 3)
+                        + URLUtility.getAuthority(domain) + "/sitemap.xml");
+            }
+
+            String parserDomain = URLUtility.normalizeURL(context.getParser().getDomain());
+            int read = sitemapReader.read(sitemaps, loc -> {
+                if (!URLUtility.isValidLinkToCrawl(loc)) {
+                    return;
+                }
+                String url = URLUtility.trimURL(URLUtility.normalizeURL(loc));
+                if (!URLUtility.isInDomain(url, parserDomain)) {
+                    return;
+                }
+                try {
+                    Crawl.schedule(context, url, 1, SITEMAP_BACK_PRESSURE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while seeding from sitemaps", e);
+                }
+            });
+            LOGGER.info("Read {} URLs from the sitemaps of {}", read, domain);
+        } catch (RuntimeException e) {
+            LOGGER.error("Seeding from sitemaps failed: {}", e.toString());
+        } finally {
+            frontier.release();
+        }
+    }
+
+    /**
+     * Restores the state of a checkpointed crawl: the pages it crawled are recorded and written to the sink again
+     * without being fetched, and the URLs it had not crawled yet are added to the frontier.
+     *
+     * @param checkpoint the checkpoint to resume from.
+     * @throws InterruptedException if interrupted while adding the URLs to the frontier.
+     */
+    private void resume(CrawlCheckpoint checkpoint) throws InterruptedException {
+        SeenSet seenSet = context.getSeenSet();
+        for (CrawlCheckpoint.Page page : checkpoint.getCompletedPages()) {
+            seenSet.claim(page.getUrl());
+            page.getLinks().forEach(seenSet::claim);
+            context.getSitemap().put(page.getUrl(), page.getLinks());
+            context.getImages().put(page.getUrl(), page.getImages());
+            context.getSink().writePage(page.getUrl(), page.getLinks(), page.getImages());
+        }
+
+        // Nothing is running yet, so waiting for space in the frontier would wait forever. setCheckpoint made sure the
+        // frontier can take every entry; one that is dropped anyway is left unclaimed, so a link can still add it
+        int dropped = 0;
+        for (FrontierEntry entry : checkpoint.getPendingEntries()) {
+            if (context.getFrontier().offer(entry.getUrl(), entry.getDepth(), 0, TimeUnit.MILLISECONDS)) {
+                seenSet.claim(entry.getUrl());
+            } else {
+                dropped++;
+            }
+        }
+
+        LOGGER.info("Resuming crawl from checkpoint: {} pages crawled, {} pending, {} dropped",
+                checkpoint.getCompletedPages().size(), checkpoint.getPendingEntries().size(), dropped);
+    }
+
+    /**
+     * Writes the results of a finished crawl and returns the images gathered.
+     *
+     * @return the map of URLs and their associated images gathered from the crawled web pages.
+     */
+    private ConcurrentMap<String, Set<Image>> finish() {
+        LOGGER.info("crawl finished");
+        awaitImageProbes();
+        closeCheckpoint();
+        closePageCache();
+        context.getFrontier().close();
+        context.getMetrics().stop();
+        context.getMetrics().unregister();
+
+        // Pages were streamed to the sink while crawling; only the statistics are left
         printStats();
+        try {
+            context.getSink().close();
+        } catch (IOException e) {
+            LOGGER.error("Cannot close result sink : {}", e.getMessage());
+        }
 
-        return images;
+        return context.getImages();
+    }
+
+    /**
+     * Returns the sitemap of the crawl as a map of crawled URLs to the links found on them. The map is built from the
+     * compact sitemap on every call, so it is best requested once the crawl is finished.
+     *
+     * @return the map of crawled URLs and their links.
+     */
+    public Map<String, Set<String>> getSitemap() {
+        return context.getSitemap().toMap();
+    }
+
+    /**
+     * Returns the seed URL of the crawl, normalized like the links found on its pages, see
+     * {@link URLUtility#normalizeURL(String)}.
+     *
+     * @return the seed URL, or {@code null} if the URL was found to be invalid.
+     */
+    public String getDomain() {
+        return domain;
+    }
+
+    /**
+     * Returns the number of pages crawled so far. Safe to call while the crawl is running.
+     *
+     * @return the number of crawled pages.
+     */
+    public int getVisitedCount() {
+        return context.getSitemap().size();
+    }
+
+    /**
+     * Returns the number of URLs waiting in the frontier. Safe to call while the crawl is running.
+     *
+     * @return the number of queued URLs.
+     */
+    public int getQueueDepth() {
+        return context.getFrontier().size();
+    }
+
+    /**
+     * Returns the number of images found so far, counted once per page they were found on. Safe to call while the
+     * crawl is running.
+     *
+     * @return the number of images found.
+     */
+    public int getImageCount() {
+        return context.getImages().values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Returns the map of URLs and their associated images gathered so far. Safe to read while the crawl is running.
+     *
+     * @return the live map of URLs and their images.
+     */
+    public ConcurrentMap<String, Set<Image>> getImages() {
+        return context.getImages();
+    }
+
+    /**
+     * Returns the live metrics of the crawl: throughput, status counts, bytes fetched, frontier depth, active workers,
+     * per-host rates and the latency distribution of each phase of fetching a page. While the crawl runs, the same
+     * metrics are also registered over JMX as {@link CrawlMetricsMXBean}.
+     *
+     * @return a snapshot of the metrics of the crawl.
+     */
+    public CrawlMetricsSnapshot getMetrics() {
+        return context.getMetrics().snapshot();
+    }
+
+    /**
+     * Enables probing the images found by the crawl for their dimensions, size, MIME type and format, see
+     * {@link ImageProber}. The results of a page are written once its images have been probed, and the crawl finishes
+     * once all probes have. The prober is closed when the crawl finishes. A prober created with an
+     * {@link ImageDuplicateIndex} also clusters duplicate images into that index.
+     *
+     * @param prober the prober to use for this crawl, or {@code null} to not probe images.
+     */
+    public void setImageProber(ImageProber prober) {
+        context.setImageProber(prober);
+    }
+
+    /**
+     * Checkpoints the crawl to the given log, see {@link CrawlCheckpoint}. If the checkpoint already holds a crawl of
+     * the same seed, the crawl resumes it: the pages it crawled are not fetched again, and it continues with the URLs
+     * it had not crawled yet. The checkpoint is closed when the crawl finishes, and then holds the finished crawl, which
+     * a later crawl with the same checkpoint returns without fetching any page.
+     * <p>
+     * The URLs a resumed crawl had not crawled yet are all added to the {@link Frontier} before any page is fetched,
+     * so a frontier without a {@link FrontierSpill} must be able to hold all of them.
+     *
+     * @param checkpoint the checkpoint to use for this crawl, or {@code null} to not checkpoint it.
+     * @throws IllegalArgumentException if the checkpoint holds a crawl of another seed, or more URLs not crawled yet
+     *                                  than the frontier can hold.
+     */
+    public void setCheckpoint(CrawlCheckpoint checkpoint) {
+        if (checkpoint != null && checkpoint.isResumable()) {
+            if (!URLUtility.normalizeURL(checkpoint.getSeed()).equals(domain)) {
+                throw new IllegalArgumentException("Checkpoint belongs to a crawl of " + checkpoint.getSeed());
+            }
+
+            Frontier frontier = context.getFrontier();
+            int pending = checkpoint.getPendingEntries().size();
+            if (!frontier.hasSpill() && pending > frontier.getCapacity()) {
+                throw new IllegalArgumentException("Checkpoint holds " + pending + " pending URLs, more than the "
+                        + "frontier capacity of " + frontier.getCapacity() + "; use a larger frontier or a spill");
+            }
+        }
+
+        context.setCheckpoint(checkpoint);
+    }
+
+    /**
+     * Splits the crawl with other crawlers: only the links the router reports as local are crawled here, including the
+     * seed, and the others are forwarded through it. The crawlers the links are forwarded to are responsible for
+     * holding their {@link Frontier} open until no more links can arrive, see {@link Frontier#hold()}.
+     *
+     * @param router the router to use for this crawl, or {@code null} to crawl every link here.
+     */
+    public void setLinkRouter(LinkRouter router) {
+        context.setLinkRouter(router);
+    }
+
+    /**
+     * Checks every link against the robots.txt file of its host before it is added to the frontier, see
+     * {@link RobotsCache}, and spaces the requests to a host by its Crawl-delay. The seed itself is always crawled.
+     *
+     * @param robots the robots cache to use for this crawl, or {@code null} to not consult robots.txt.
+     */
+    public void setRobots(RobotsCache robots) {
+        context.setRobots(robots);
+    }
+
+    /**
+     * Seeds the frontier with the pages listed by the sitemaps of the seed host as soon as the crawl starts, so deep
+     * pages are reached without crawling every page leading to them. See {@link #seedFromSitemaps()}.
+     *
+     * @param reader the reader to read the sitemaps with, or {@code null} to only follow links.
+     */
+    public void setSitemapReader(SitemapReader reader) {
+        this.sitemapReader = reader;
+    }
+
+    /**
+     * Hands the {@link PageCache} the parser of this crawl was created with over to the crawl, which closes it when it
+     * finishes, compacting it if needed. See {@link HTMLParser#HTMLParser(String, HttpFetcher, PageCache)}.
+     *
+     * @param pageCache the page cache of the parser, or {@code null} if pages are always fetched in full.
+     */
+    public void setPageCache(PageCache pageCache) {
+        context.setPageCache(pageCache);
+    }
+
+    private void closePageCache() {
+        PageCache pageCache = context.getPageCache();
+        if (pageCache == null) {
+            return;
+        }
+
+        LOGGER.info("Pages cached: {}", pageCache.size());
+        try {
+            pageCache.close();
+        } catch (IOException e) {
+            LOGGER.error("Cannot close page cache : {}", e.getMessage());
+        }
+    }
+
+    private void closeCheckpoint() {
+        CrawlCheckpoint checkpoint = context.getCheckpoint();
+        if (checkpoint == null) {
+            return;
+        }
+
+        try {
+            checkpoint.close();
+        } catch (IOException e) {
+            LOGGER.error("Cannot close checkpoint : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for the probes of the image prober, if any, and of the type prober, so the results of every page are
+     * written before the sink is closed, and closes the probers. The clusters of duplicate images found by the image
+     * prober are written to the sink.
+     */
+    private void awaitImageProbes() {
+        ImageProber typeProber = context.getTypeProber();
+        awaitIdle(typeProber);
+        if (typeProber.getProbedCount() > 0) {
+            LOGGER.info("Image types checked: {}, failed: {}", typeProber.getProbedCount(),
+                    typeProber.getFailedCount());
+        }
+
+        ImageProber prober = context.getImageProber();
+        if (prober == null) {
+            return;
+        }
+
+        awaitIdle(prober);
+        LOGGER.info("Images probed: {}, failed: {}", prober.getProbedCount(), prober.getFailedCount());
+
+        ImageDuplicateIndex index = prober.getDuplicateIndex();
+        if (index != null) {
+            List<List<Image>> clusters = index.getClusters();
+            LOGGER.info("Images fingerprinted: {}, duplicate clusters: {}", index.size(), clusters.size());
+            context.getSink().writeDuplicates(clusters);
+        }
+    }
+
+    private static void awaitIdle(ImageProber prober) {
+        try {
+            if (!prober.awaitIdle(IMAGE_PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Image probes still running after {} seconds, dropping the rest",
+                        IMAGE_PROBE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            prober.close();
+        }
     }
 
     private void printStats() {
-        long totalTime = (System.currentTimeMillis() - startTime) / 1000; // Total time in seconds
-        double crawlingSpeed = (double) visitedLinks.size() / totalTime;
+        // Measured in milliseconds, so crawls shorter than a second still get a finite speed
+        long totalMillis = Math.max(1, System.currentTimeMillis() - startTime);
+        long totalTime = totalMillis / 1000; // Total time in seconds
+        int visited = context.getSitemap().size();
+        int images = context.getImages().size();
+        double crawlingSpeed = visited * 1000.0 / totalMillis;
 
         DecimalFormat df = new DecimalFormat("0.00");
         df.setRoundingMode(RoundingMode.UP);
 
-        LOGGER.info("Visited links: {}", visitedLinks.size());
-        LOGGER.info("Images extracted: {}", images.size());
+        LOGGER.info("Visited links: {}", visited);
+        LOGGER.info("Images extracted: {}", images);
+        LOGGER.info("Links dropped (frontier full): {}", context.getFrontier().getDroppedCount());
         LOGGER.info("Total Time (seconds): {}", /*TimeUnit.SECONDS.toMinutes(totalTime)*/ totalTime);
         LOGGER.info("Average Crawling Speed (pages/second): {}", crawlingSpeed);
 
-        ResourceUtility.writeStatsToJson(new Statistic(images.size(), visitedLinks.size(), totalTime, df.format(crawlingSpeed)));
+        CrawlMetrics metrics = context.getMetrics();
+        LOGGER.info("Bytes fetched: {}, responses by status: {}", metrics.getBytesFetched(), metrics.getStatusCounts());
+        metrics.getPhaseLatencies().forEach((phase, latency) -> LOGGER.info("Latency of {}: {}", phase, latency));
+
+        SeenSet seenSet = context.getSeenSet();
+        LOGGER.info("Seen set: {} URLs, {} bytes, estimated false positive rate {}", seenSet.size(),
+                seenSet.getMemoryBytes(), seenSet.getEstimatedFalsePositiveRate());
+
+        context.getSink().writeStatistic(new Statistic(images, visited, totalTime, df.format(crawlingSpeed),
+                seenSet.getMemoryBytes(), seenSet.getEstimatedFalsePositiveRate()));
     }
 }
@@ -0,0 +1,801 @@
+package com.github.kyleryxn.imagefinder.crawler.cluster;
+
+import com.github.kyleryxn.imagefinder.crawler.CompactSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.CrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.Frontier;
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.LinkRouter;
+import com.github.kyleryxn.imagefinder.crawler.SeenSet;
+import com.github.kyleryxn.imagefinder.crawler.URLDictionary;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.util.ResultSink;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A node of a clustered crawl. The nodes of a cluster split the URL space between them by consistent hashing, see
+ * {@link HashRing} and {@link Partitioning}, and each crawls its own part with a {@link WebCrawler} of its own. Links
+ * a node finds in another part are forwarded to the node of that part, in batches, over plain TCP connections between
+ * the nodes; no broker is involved, so the nodes can run in separate JVMs or in one JVM over the loopback interface.
+ * A message whose lengths are negative or above {@link #MAX_LINK_BYTES} for a link, or {@link #MAX_RESULT_BYTES} for a
+ * result, is rejected and its connection dropped before anything is allocated for it.
+ * <p>
+ * A node runs out of work long before the crawl is finished, since other nodes may still forward it links, so each
+ * node holds its {@link Frontier} open until node 0, the coordinator, finds the whole cluster done. It probes every
+ * node for whether it is idle and for the number of links it has sent and received, and declares the crawl finished
+ * after two rounds in a row in which every node was idle, all links sent had been received and nothing changed in
+ * between; a link in transit or a node that woke up in between would show in the counts. The nodes then finish their
+ * crawls and send their results to the coordinator, which merges them.
+ * <p>
+ * Usage: create a node per member, bound to its own address, let every node {@link #join(List)} the list of
+ * addresses of all members, in the same order on every node, and start a {@link #crawl} of the same seed on each.
+ */
+public class ClusterNode implements LinkRouter, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterNode.class);
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int MAX_LINK_BYTES = 1024 * 1024;
+    public static final int MAX_RESULT_BYTES = 256 * 1024 * 1024;
+    private static final int COORDINATOR = 0;
+    private static final long FLUSH_MILLIS = 20;
+    private static final long PROBE_MILLIS = 50;
+    private static final long CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    // Message types; each message starts with its type and the id of its sender
+    private static final byte LINKS = 1;
+    private static final byte PROBE = 2;
+    private static final byte STATUS = 3;
+    private static final byte STOP = 4;
+    private static final byte RESULT = 5;
+
+    private final int id;
+    private final Partitioning partitioning;
+    private final int batchSize;
+    private final ServerSocket server;
+    private final CompletableFuture<ClusterResult> result = new CompletableFuture<>();
+
+    // Set once by join()
+    private volatile HashRing ring;
+    private volatile Peer[] peers;
+
+    // The crawl of this node, its counts, and the links waiting to be sent or to be crawled; guarded by 'lock'
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchFull = lock.newCondition();
+    private List<Link>[] outgoing;
+    private final List<Link> early = new ArrayList<>();
+    private Frontier frontier;
+    private SeenSet seenSet;
+    private boolean started;
+    private boolean stopping;
+    private int buffered;
+    private long sent;
+    private long received;
+
+    // Coordinator only: the probe round in progress and the results of the nodes
+    private volatile Round round;
+    private final Map<Integer, ClusterResult> results = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+    private final List<Thread> threads = new ArrayList<>();
+
+    /**
+     * Constructor for creating a ClusterNode that partitions by URL, with the {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @param id the id of the node, its index in the list of members.
+     * @param address the address to listen on for the other nodes; port 0 picks a free port.
+     * @throws IOException if the address cannot be bound.
+     */
+    public ClusterNode(int id, InetSocketAddress address) throws IOException {
+        this(id, address, Partitioning.URL, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor for creating a ClusterNode. Every node of a cluster must use the same partitioning.
+     *
+     * @param id the id of the node, its index in the list of members.
+     * @param address the address to listen on for the other nodes; port 0 picks a free port.
+     * @param partitioning how the URL space is split between the nodes.
+     * @param batchSize the number of links sent to a node at once; smaller batches are sent after a short delay.
+     * @throws IOException if the address cannot be bound.
+     */
+    public ClusterNode(int id, InetSocketAddress address, Partitioning partitioning, int batchSize) throws IOException {
+        if (id < 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid node id or batch size: " + id + ", " + batchSize);
+        }
+
+        this.id = id;
+        this.partitioning = partitioning;
+        this.batchSize = batchSize;
+        this.server = new ServerSocket();
+        this.server.bind(address);
+        start("accept", this::accept);
+    }
+
+    /**
+     * Returns the address the node listens on, to be given to the other nodes.
+     *
+     * @return the address of the node.
+     */
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+    }
+
+    /**
+     * Returns the id of the node.
+     *
+     * @return the id of the node.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Joins the cluster made of the given members. Connections to the other nodes are opened when first needed.
+     *
+     * @param members the addresses of all the nodes, this one included, indexed by node id.
+     * @throws IllegalArgumentException if the id of this node is not in the list.
+     * @throws IllegalStateException if the node has already joined.
+     */
+    @SuppressWarnings("unchecked")
+    public void join(List<InetSocketAddress> members) {
+        if (id >= members.size()) {
+            throw new IllegalArgumentException("Node " + id + " is not one of " + members.size() + " members");
+        }
+
+        lock.lock();
+        try {
+            if (peers != null) {
+                throw new IllegalStateException("Node " + id + " has already joined");
+            }
+
+            Peer[] connections = new Peer[members.size()];
+            outgoing = new List[members.size()];
+            for (int node = 0; node < members.size(); node++) {
+                connections[node] = new Peer(members.get(node));
+                outgoing[node] = new ArrayList<>();
+            }
+            ring = new HashRing(members.size());
+            peers = connections;
+        } finally {
+            lock.unlock();
+        }
+
+        start("flush", this::flushLoop);
+        if (id == COORDINATOR) {
+            start("coordinator", this::coordinate);
+        }
+    }
+
+    /**
+     * Starts crawling the part of the URL space of this node, from the same seed as the other nodes. Only the node the
+     * seed belongs to crawls it; the others start once links are forwarded to them.
+     *
+     * @param seed the seed URL of the crawl.
+     * @param parser the parser for extracting information from web pages.
+     * @param execution the execution mode that runs the crawl tasks of this node.
+     * @param scheduler the scheduler enforcing the per-host rate and concurrency limits of this node.
+     * @param sink the sink the results of the pages crawled by this node are streamed to.
+     * @return a future completed once the whole cluster is finished: on the coordinator with the merged results of
+     *         every node, on the other nodes with the results of their own part.
+     * @throws IllegalStateException if the node has not joined or already crawls.
+     */
+    public CompletableFuture<ClusterResult> crawl(String seed, Parser parser, CrawlExecution execution,
+            HostScheduler scheduler, ResultSink sink) {
+        if (ring == null) {
+            throw new IllegalStateException("Node " + id + " has not joined a cluster");
+        }
+
+        SeenSet claimed = new CompactSeenSet(new URLDictionary());
+        Frontier local = new Frontier();
+
+        // Released once the coordinator finds the whole cluster finished
+        local.hold();
+
+        WebCrawler crawler = new WebCrawler(seed, parser, execution, scheduler, sink, claimed, local);
+        crawler.setLinkRouter(this);
+
+        lock.lock();
+        try {
+            if (frontier != null) {
+                throw new IllegalStateException("Node " + id + " already crawls");
+            }
+            frontier = local;
+            seenSet = claimed;
+            early.forEach(this::enqueue);
+            early.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        crawler.crawlAsync().whenComplete((images, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+                return;
+            }
+            ClusterResult own = new ClusterResult(images, crawler.getSitemap());
+            if (id == COORDINATOR) {
+                addResult(COORDINATOR, own);
+            } else {
+                sendResult(own);
+                result.complete(own);
+            }
+        });
+
+        // Only counted as idle once the seed is in the frontier, so the cluster cannot finish before it starts
+        lock.lock();
+        try {
+            started = true;
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the given URL belongs to the part of the URL space of this node.
+     *
+     * @param url the URL to check.
+     * @return {@code true} if this node crawls the URL, {@code false} otherwise.
+     */
+    @Override
+    public boolean isLocal(String url) {
+        return ring.nodeFor(partitioning.keyOf(url)) == id;
+    }
+
+    /**
+     * Queues a URL to be sent to the node it belongs to with the next batch.
+     *
+     * @param url the URL to forward.
+     * @param depth the depth of the URL.
+     */
+    @Override
+    public void forward(String url, int depth) {
+        int node = ring.nodeFor(partitioning.keyOf(url));
+        lock.lock();
+        try {
+            outgoing[node].add(new Link(url, depth));
+            buffered++;
+            if (outgoing[node].size() >= batchSize) {
+                batchFull.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of links this node has sent to the other nodes.
+     *
+     * @return the number of links sent.
+     */
+    public long getSentCount() {
+        lock.lock();
+        try {
+            return sent;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of links this node has received from the other nodes.
+     *
+     * @return the number of links received.
+     */
+    public long getReceivedCount() {
+        lock.lock();
+        try {
+            return received;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the node and closes its connections. A crawl that has not finished is abandoned, and its future is
+     * cancelled.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        result.cancel(false);
+        try {
+            server.close();
+        } catch (IOException e) {
+            LOGGER.debug("Cannot close node {} : {}", id, e.getMessage());
+        }
+
+        Peer[] connections = peers;
+        if (connections != null) {
+            for (Peer peer : connections) {
+                peer.close();
+            }
+        }
+        synchronized (threads) {
+            threads.forEach(Thread::interrupt);
+        }
+    }
+
+    private void start(String name, Runnable task) {
+        Thread thread = new Thread(task, "cluster-node-" + id + "-" + name);
+        thread.setDaemon(true);
+        synchronized (threads) {
+            threads.add(thread);
+        }
+        thread.start();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                start("reader", () -> read(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    LOGGER.error("Node {} stopped accepting connections: {}", id, e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the messages of one connection until it is closed.
+     */
+    private void read(Socket socket) {
+        try (Socket connection = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()))) {
+            while (!closed) {
+                byte type = in.readByte();
+                int from = in.readInt();
+                switch (type) {
+                    case LINKS:
+                        int count = in.readInt();
+                        if (count < 0) {
+                            throw new IOException("Invalid link count " + count + " from node " + from);
+                        }
+                        List<Link> links = new ArrayList<>(Math.min(count, DEFAULT_BATCH_SIZE));
+                        for (int i = 0; i < count; i++) {
+                            links.add(new Link(readString(in, MAX_LINK_BYTES), in.readInt()));
+                        }
+                        receive(links);
+                        break;
+                    case PROBE:
+                        reportStatus(in.readInt());
+                        break;
+                    case STATUS:
+                        Round current = round;
+                        int number = in.readInt();
+                        boolean idle = in.readBoolean();
+                        long linksSent = in.readLong();
+                        long linksReceived = in.readLong();
+                        if (current != null && current.number == number) {
+                            current.add(idle, linksSent, linksReceived);
+                        }
+                        break;
+                    case STOP:
+                        stop();
+                        break;
+                    case RESULT:
+                        addResult(from, decode(readString(in, MAX_RESULT_BYTES)));
+                        break;
+                    default:
+                        throw new IOException("Unknown message type " + type + " from node " + from);
+                }
+            }
+        } catch (EOFException e) {
+            // The other node closed the connection
+        } catch (IOException | JsonParseException e) {
+            if (!closed) {
+                LOGGER.error("Node {} dropped a connection: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Adds the links received from another node to the frontier, or keeps them until this node starts crawling.
+     */
+    private void receive(List<Link> links) {
+        lock.lock();
+        try {
+            if (frontier == null) {
+                early.addAll(links);
+            } else {
+                links.forEach(this::enqueue);
+            }
+            received += links.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a link to the frontier if no other crawl of this node has; called with the lock held.
+     */
+    private void enqueue(Link link) {
+        if (!seenSet.claim(link.url)) {
+            return;
+        }
+
+        try {
+            if (!frontier.offer(link.url, link.depth, 0, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("frontier full, dropping {}", link.url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the links waiting for each node, every {@link #FLUSH_MILLIS} or as soon as a batch is full.
+     */
+    private void flushLoop() {
+        while (!closed) {
+            lock.lock();
+            try {
+                batchFull.await(FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            for (int node = 0; node < peers.length; node++) {
+                flush(node);
+            }
+        }
+    }
+
+    private void flush(int node) {
+        List<Link> batch;
+        lock.lock();
+        try {
+            if (outgoing[node].isEmpty()) {
+                return;
+            }
+            batch = outgoing[node];
+            outgoing[node] = new ArrayList<>();
+            buffered -= batch.size();
+            sent += batch.size();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            peers[node].send(out -> {
+                out.writeInt(batch.size());
+                for (Link link : batch) {
+                    writeString(out, link.url);
+                    out.writeInt(link.depth);
+                }
+            }, LINKS);
+        } catch (IOException e) {
+            // Uncounted, or the cluster would wait for them forever
+            LOGGER.error("Node {} cannot send {} links to node {}: {}", id, batch.size(), node, e.getMessage());
+            lock.lock();
+            try {
+                sent -= batch.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Probes the nodes until the whole cluster is finished, then stops them; runs on the coordinator.
+     */
+    private void coordinate() {
+        Round previous = null;
+        int number = 0;
+        try {
+            while (!closed) {
+                Thread.sleep(PROBE_MILLIS);
+
+                Round current = new Round(++number, peers.length);
+                round = current;
+                for (int node = 0; node < peers.length; node++) {
+                    if (node != COORDINATOR) {
+                        sendOrLog(node, PROBE, out -> out.writeInt(current.number));
+                    }
+                }
+                Status own = status();
+                current.add(own.idle, own.sent, own.received);
+
+                if (!current.await(CONNECT_TIMEOUT_MILLIS)) {
+                    previous = null;
+                    continue;
+                }
+                if (current.isFinished() && current.isSameAs(previous)) {
+                    break;
+                }
+                previous = current;
+            }
+        } catch (InterruptedException e) {
+            return;
+        }
+
+        LOGGER.info("Cluster finished after {} probe rounds", number);
+        for (int node = 0; node < peers.length; node++) {
+            if (node != COORDINATOR) {
+                sendOrLog(node, STOP, out -> { });
+            }
+        }
+        stop();
+    }
+
+    private void reportStatus(int number) {
+        if (peers == null) {
+            // Not joined yet; the coordinator probes again
+            return;
+        }
+
+        Status own = status();
+        sendOrLog(COORDINATOR, STATUS, out -> {
+            out.writeInt(number);
+            out.writeBoolean(own.idle);
+            out.writeLong(own.sent);
+            out.writeLong(own.received);
+        });
+    }
+
+    /**
+     * Returns whether the node is idle, that is crawling, with nothing queued or in flight beyond the hold and no link
+     * waiting to be sent, along with its counts, all read at once.
+     */
+    private Status status() {
+        lock.lock();
+        try {
+            boolean idle = started && !stopping && buffered == 0 && frontier.getInFlightCount() == 1;
+            return new Status(idle, sent, received);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the hold on the frontier, which finishes the crawl of this node.
+     */
+    private void stop() {
+        Frontier held;
+        lock.lock();
+        try {
+            if (stopping || frontier == null) {
+                return;
+            }
+            stopping = true;
+            held = frontier;
+        } finally {
+            lock.unlock();
+        }
+
+        held.release();
+    }
+
+    private void sendResult(ClusterResult own) {
+        Payload payload = new Payload(own.getImages(), own.getSitemap());
+        sendOrLog(COORDINATOR, RESULT, out -> writeString(out, gson.toJson(payload)));
+    }
+
+    private void addResult(int node, ClusterResult partial) {
+        results.put(node, partial);
+        if (results.size() == peers.length) {
+            result.complete(ClusterResult.merge(results.values()));
+        }
+    }
+
+    private void sendOrLog(int node, byte type, MessageBody body) {
+        try {
+            peers[node].send(body, type);
+        } catch (IOException e) {
+            LOGGER.error("Node {} cannot reach node {}: {}", id, node, e.getMessage());
+        }
+    }
+
+    private static ClusterResult decode(String json) {
+        Payload payload = gson.fromJson(json, Payload.class);
+        return new ClusterResult(payload.images, payload.sitemap);
+    }
+
+    // Strings are written as their UTF-8 length and bytes, since writeUTF is limited to 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // The length comes from the other node, so it is checked before anything is allocated for it
+    private static String readString(DataInputStream in, int maxBytes) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxBytes) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the body of a message, after its type and sender.
+     */
+    private interface MessageBody {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * The outgoing connection to another node, opened when first used and reopened after a failure.
+     */
+    private final class Peer {
+        private final InetSocketAddress address;
+        private Socket socket;
+        private DataOutputStream out;
+
+        private Peer(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        private synchronized void send(MessageBody body, byte type) throws IOException {
+            try {
+                DataOutputStream stream = connect();
+                stream.writeByte(type);
+                stream.writeInt(id);
+                body.write(stream);
+                stream.flush();
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Connects to the node, retrying while it may still be starting.
+         */
+        private DataOutputStream connect() throws IOException {
+            if (out != null) {
+                return out;
+            }
+
+            long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+            while (true) {
+                Socket attempt = new Socket();
+                try {
+                    attempt.setTcpNoDelay(true);
+                    attempt.connect(address, (int) CONNECT_TIMEOUT_MILLIS);
+                    socket = attempt;
+                    out = new DataOutputStream(new BufferedOutputStream(attempt.getOutputStream()));
+                    return out;
+                } catch (IOException e) {
+                    attempt.close();
+                    if (closed || System.currentTimeMillis() >= deadline) {
+                        throw e;
+                    }
+                }
+
+                try {
+                    Thread.sleep(PROBE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while connecting to " + address);
+                }
+            }
+        }
+
+        private synchronized void close() {
+            out = null;
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Cannot close connection to {} : {}", address, e.getMessage());
+                }
+                socket = null;
+            }
+        }
+    }
+
+    /**
+     * A probe round of the coordinator, summing the status reported by each node.
+     */
+    private static final class Round {
+        private final int number;
+        private final CountDownLatch replies;
+        private boolean idle = true;
+        private long sent;
+        private long received;
+
+        private Round(int number, int peers) {
+            this.number = number;
+            this.replies = new CountDownLatch(peers);
+        }
+
+        private void add(boolean nodeIdle, long nodeSent, long nodeReceived) {
+            synchronized (this) {
+                idle &= nodeIdle;
+                sent += nodeSent;
+                received += nodeReceived;
+            }
+            replies.countDown();
+        }
+
+        private boolean await(long millis) throws InterruptedException {
+            return replies.await(millis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized boolean isFinished() {
+            return idle && sent == received;
+        }
+
+        private synchronized boolean isSameAs(Round other) {
+            return other != null && other.isFinished() && other.sent == sent && other.received == received;
+        }
+    }
+
+    /**
+     * Whether a node is idle, with its counts.
+     */
+    private static final class Status {
+        private final boolean idle;
+        private final long sent;
+        private final long received;
+
+        private Status(boolean idle, long sent, long received) {
+            this.idle = idle;
+            this.sent = sent;
+            this.received = received;
+        }
+    }
+
+    /**
+     * A link forwarded between nodes.
+     */
+    private static final class Link {
+        private final String url;
+        private final int depth;
+
+        private Link(String url, int depth) {
+            this.url = url;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * The results of a node as sent to the coordinator.
+     */
+    private static final class Payload {
+        private final Map<String, Set<Image>> images;
+        private final Map<String, Set<String>> sitemap;
+
+        private Payload(Map<String, Set<Image>> images, Map<String, Set<String>> sitemap) {
+            this.images = images;
+            this.sitemap = sitemap;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.kyleryxn.imagefinder.crawler.cluster;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The results of a clustered crawl, or of the part of it crawled by one node: the images found on each crawled page
+ * and the links found on it.
+ */
+public class ClusterResult {
+    private final ConcurrentMap<String, Set<Image>> images;
+    private final Map<String, Set<String>> sitemap;
+
+    /**
+     * Constructor for creating a ClusterResult.
+     *
+     * @param images the map of crawled URLs to the images found on them.
+     * @param sitemap the map of crawled URLs to the links found on them.
+     */
+    public ClusterResult(Map<String, Set<Image>> images, Map<String, Set<String>> sitemap) {
+        this.images = new ConcurrentHashMap<>(images);
+        this.sitemap = new HashMap<>(sitemap);
+    }
+
+    /**
+     * Merges the results of the nodes of a cluster. The nodes crawl disjoint sets of pages, so a page is only found
+     * in one of them.
+     *
+     * @param results the results of each node.
+     * @return the results of the whole crawl.
+     */
+    public static ClusterResult merge(Collection<ClusterResult> results) {
+        Map<String, Set<Image>> images = new HashMap<>();
+        Map<String, Set<String>> sitemap = new HashMap<>();
+        for (ClusterResult result : results) {
+            images.putAll(result.images);
+            sitemap.putAll(result.sitemap);
+        }
+        return new ClusterResult(images, sitemap);
+    }
+
+    /**
+     * Returns the map of crawled URLs to the {@link Image} objects found on them.
+     *
+     * @return the images map.
+     */
+    public ConcurrentMap<String, Set<Image>> getImages() {
+        return images;
+    }
+
+    /**
+     * Returns the map of crawled URLs to the links found on them.
+     *
+     * @return the sitemap.
+     */
+    public Map<String, Set<String>> getSitemap() {
+        return sitemap;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.kyleryxn.imagefinder.crawler.cluster;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring assigning keys to the nodes of a cluster. Each node is placed on the ring at a number of
+ * points, its virtual nodes, and a key belongs to the node of the first point at or after the hash of the key. When a
+ * node joins or leaves, only the keys next to its points change owner, about one in every node count, instead of
+ * nearly all of them as with a hash modulo the node count; the virtual nodes even out the share of each node.
+ * <p>
+ * The hash is a 64-bit FNV-1a over the characters of the key followed by the MurmurHash3 finalizer, so it is the same
+ * in every JVM and every node computes the same owner for a key without asking the others.
+ */
+public class HashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+    private final int nodes;
+
+    /**
+     * Constructor for creating a HashRing with the {@link #DEFAULT_VIRTUAL_NODES}.
+     *
+     * @param nodes the number of nodes, numbered from 0.
+     */
+    public HashRing(int nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Constructor for creating a HashRing.
+     *
+     * @param nodes the number of nodes, numbered from 0.
+     * @param virtualNodes the number of points of each node on the ring.
+     */
+    public HashRing(int nodes, int virtualNodes) {
+        if (nodes <= 0 || virtualNodes <= 0) {
+            throw new IllegalArgumentException("Node and virtual node counts must be positive: " + nodes + ", "
+                    + virtualNodes);
+        }
+
+        this.nodes = nodes;
+        for (int node = 0; node < nodes; node++) {
+            for (int point = 0; point < virtualNodes; point++) {
+                // On a collision, the lower node keeps the point
+                ring.putIfAbsent(hash("node-" + node + "#" + point), node);
+            }
+        }
+    }
+
+    /**
+     * Returns the node the given key belongs to.
+     *
+     * @param key the key.
+     * @return the number of the node.
+     */
+    public int nodeFor(String key) {
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Returns the number of nodes on the ring.
+     *
+     * @return the number of nodes.
+     */
+    public int getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Hashes a key to a point on the ring.
+     *
+     * @param key the key.
+     * @return the 64-bit hash of the key.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        // FNV-1a alone spreads keys that only differ in their last characters poorly
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
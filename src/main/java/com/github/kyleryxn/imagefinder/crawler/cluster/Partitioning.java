@@ -0,0 +1,40 @@
+package com.github.kyleryxn.imagefinder.crawler.cluster;
+
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+
+/**
+ * How the URL space of a clustered crawl is split between the nodes, that is which part of a URL is hashed onto the
+ * {@link HashRing}.
+ */
+public enum Partitioning {
+
+    /**
+     * Every URL of a host is crawled by the same node, so the politeness limits of the host are enforced by a single
+     * {@link com.github.kyleryxn.imagefinder.crawler.HostScheduler}. Only spreads a crawl that covers many hosts.
+     */
+    HOST {
+        @Override
+        public String keyOf(String url) {
+            return URLUtility.getAuthority(url);
+        }
+    },
+
+    /**
+     * The URLs are spread across the nodes one by one, which spreads the crawl of a single site. Each node then
+     * enforces the politeness limits of the site on its own, so the site sees the limits times the node count.
+     */
+    URL {
+        @Override
+        public String keyOf(String url) {
+            return url;
+        }
+    };
+
+    /**
+     * Returns the part of the given URL that decides its node.
+     *
+     * @param url the URL.
+     * @return the key of the URL on the ring.
+     */
+    public abstract String keyOf(String url);
+}
@@ -0,0 +1,97 @@
+package com.github.kyleryxn.imagefinder.model;
+
+import java.util.Map;
+
+/**
+ * Represents the metrics of a crawl at one moment: throughput, volume, the state of the frontier and the workers, the
+ * responses by HTTP status, the rate of each host and the latency distribution of each phase of fetching a page.
+ */
+public class CrawlMetricsSnapshot {
+    private final long elapsedMillis;
+    private final long pagesCrawled;
+    private final double pagesPerSecond;
+    private final long bytesFetched;
+    private final int frontierDepth;
+    private final int activeWorkers;
+    private final Map<Integer, Long> statusCounts;
+    private final Map<String, Double> hostRates;
+    private final Map<String, LatencySummary> phaseLatencies;
+
+    /**
+     * Constructor for CrawlMetricsSnapshot.
+     *
+     * @param elapsedMillis the time since the crawl started, in milliseconds.
+     * @param pagesCrawled the number of pages fetched, whatever their status.
+     * @param pagesPerSecond the average number of pages fetched per second.
+     * @param bytesFetched the number of decompressed body bytes read.
+     * @param frontierDepth the number of URLs waiting to be crawled.
+     * @param activeWorkers the number of pages being crawled right now.
+     * @param statusCounts the number of pages per HTTP status code, 0 counting pages without a response.
+     * @param hostRates the average number of pages fetched per second, per host.
+     * @param phaseLatencies the latency distribution of each phase, by phase name.
+     */
+    public CrawlMetricsSnapshot(long elapsedMillis, long pagesCrawled, double pagesPerSecond, long bytesFetched,
+                                int frontierDepth, int activeWorkers, Map<Integer, Long> statusCounts,
+                                Map<String, Double> hostRates, Map<String, LatencySummary> phaseLatencies) {
+        this.elapsedMillis = elapsedMillis;
+        this.pagesCrawled = pagesCrawled;
+        this.pagesPerSecond = pagesPerSecond;
+        this.bytesFetched = bytesFetched;
+        this.frontierDepth = frontierDepth;
+        this.activeWorkers = activeWorkers;
+        this.statusCounts = statusCounts;
+        this.hostRates = hostRates;
+        this.phaseLatencies = phaseLatencies;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getPagesCrawled() {
+        return pagesCrawled;
+    }
+
+    public double getPagesPerSecond() {
+        return pagesPerSecond;
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched;
+    }
+
+    public int getFrontierDepth() {
+        return frontierDepth;
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers;
+    }
+
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public Map<String, Double> getHostRates() {
+        return hostRates;
+    }
+
+    public Map<String, LatencySummary> getPhaseLatencies() {
+        return phaseLatencies;
+    }
+
+    @Override
+    public String toString() {
+        return "CrawlMetricsSnapshot{" +
+                "elapsedMillis=" + elapsedMillis +
+                ", pagesCrawled=" + pagesCrawled +
+                ", pagesPerSecond=" + pagesPerSecond +
+                ", bytesFetched=" + bytesFetched +
+                ", frontierDepth=" + frontierDepth +
+                ", activeWorkers=" + activeWorkers +
+                ", statusCounts=" + statusCounts +
+                ", hostRates=" + hostRates +
+                ", phaseLatencies=" + phaseLatencies +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.kyleryxn.imagefinder.model;
+
+/**
+ * Represents a snapshot of the progress of a crawl job, as reported to clients polling for it.
+ */
+public class CrawlProgress {
+    private final String id;
+    private final String url;
+    private final String status;
+    private final int pagesVisited;
+    private final int queueDepth;
+    private final int imagesFound;
+    private final long elapsedMillis;
+    private final String message;
+
+    /**
+     * Constructor for CrawlProgress.
+     *
+     * @param id the id of the crawl job.
+     * @param url the seed URL of the crawl.
+     * @param status the status of the crawl job.
+     * @param pagesVisited the number of pages crawled so far.
+     * @param queueDepth the number of URLs waiting to be crawled.
+     * @param imagesFound the number of images found so far.
+     * @param elapsedMillis the time the crawl has been running, in milliseconds.
+     * @param message a human readable description of the status.
+     */
+    public CrawlProgress(String id, String url, String status, int pagesVisited, int queueDepth, int imagesFound,
+                         long elapsedMillis, String message) {
+        this.id = id;
+        this.url = url;
+        this.status = status;
+        this.pagesVisited = pagesVisited;
+        this.queueDepth = queueDepth;
+        this.imagesFound = imagesFound;
+        this.elapsedMillis = elapsedMillis;
+        this.message = message;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getPagesVisited() {
+        return pagesVisited;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getImagesFound() {
+        return imagesFound;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "CrawlProgress{" +
+                "id='" + id + '\'' +
+                ", url='" + url + '\'' +
+                ", status='" + status + '\'' +
+                ", pagesVisited=" + pagesVisited +
+                ", queueDepth=" + queueDepth +
+                ", imagesFound=" + imagesFound +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
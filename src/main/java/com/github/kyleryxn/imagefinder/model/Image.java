@@ -3,10 +3,13 @@ package com.github.kyleryxn.imagefinder.model;
 
 import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
 
+import java.util.Objects;
+
 /**
  * Represents an image object with properties such as name, domain, URL, and flags indicating if it is a logo or a favicon.
  * This class implements the {@link Comparable} interface to allow for sorting images based on their names. This class
  * is used as a model in the {@link WebCrawler} application for representing images found during web crawling.
+ * Two images are equal if they have the same URL, so a set holds each image file once however often a page shows it.
  *
  * @author Kyle Schoenhardt
  * @version 1.0.2
@@ -18,6 +21,9 @@ public class Image implements Comparable<Image> {
     private final boolean isFavicon;
     private final String url;
 
+    // Filled in by the image prober once the header of the file has been read, if probing is enabled
+    private volatile ImageMetadata metadata;
+
     /**
      * Constructor for Image.
      *
@@ -80,6 +86,35 @@ public class Image implements Comparable<Image> {
         return url;
     }
 
+    /**
+     * Returns the dimensions, size, MIME type and format of the image, as probed from the image file.
+     *
+     * @return the metadata of the image, or {@code null} if the image has not been probed.
+     */
+    public ImageMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Sets the metadata of the image once it has been probed.
+     *
+     * @param metadata the metadata of the image.
+     */
+    public void setMetadata(ImageMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * Returns a copy of the image with the same metadata, whose metadata can be set without changing this image.
+     *
+     * @return the copy of the image.
+     */
+    public Image copy() {
+        Image copy = new Image(name, domain, isLogo, isFavicon, url);
+        copy.metadata = metadata;
+        return copy;
+    }
+
     /**
      * Overrides the toString() method of {@link Object}.
      * Returns a string representation of the Image object.
@@ -94,9 +129,38 @@ public class Image implements Comparable<Image> {
                 ", isLogo=" + isLogo +
                 ", isFavicon=" + isFavicon +
                 ", url='" + url + '\'' +
+                ", metadata=" + metadata +
                 '}';
     }
 
+    /**
+     * Checks if the given object is an Image with the same URL as this one. The name and flags are not compared, as
+     * they describe where the image was found rather than the image itself.
+     *
+     * @param o the object to compare with.
+     * @return {@code true} if the object is an Image with the same URL, {@code false} otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Image)) {
+            return false;
+        }
+        return Objects.equals(url, ((Image) o).url);
+    }
+
+    /**
+     * Returns a hash code based on the URL of the image, consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code of the image.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(url);
+    }
+
     /**
      * Compares this Image object with another Image object based on their names.
      * Implements the compareTo() method of the {@link Comparable} interface.
@@ -0,0 +1,116 @@
+package com.github.kyleryxn.imagefinder.model;
+
+/**
+ * Represents what is known about an image file without downloading it: its dimensions, decoded from the header bytes
+ * of the file, its size in bytes and its MIME type, taken from the response headers, and its format. Unknown values
+ * are -1 for numbers and {@code null} for strings.
+ */
+public class ImageMetadata {
+    private final int width;
+    private final int height;
+    private final long byteSize;
+    private final String mimeType;
+    private final String format;
+    private final String contentHash;
+    private final Long perceptualHash;
+
+    /**
+     * Constructor for ImageMetadata.
+     *
+     * @param width the width of the image in pixels, or -1 if unknown.
+     * @param height the height of the image in pixels, or -1 if unknown.
+     * @param byteSize the size of the image file in bytes, or -1 if unknown.
+     * @param mimeType the MIME type of the image, or {@code null} if unknown.
+     * @param format the format of the image, such as "png" or "jpeg", or {@code null} if it was not recognized.
+     */
+    public ImageMetadata(int width, int height, long byteSize, String mimeType, String format) {
+        this(width, height, byteSize, mimeType, format, null, null);
+    }
+
+    /**
+     * Constructor for ImageMetadata with the fingerprints of the image file.
+     *
+     * @param width the width of the image in pixels, or -1 if unknown.
+     * @param height the height of the image in pixels, or -1 if unknown.
+     * @param byteSize the size of the image file in bytes, or -1 if unknown.
+     * @param mimeType the MIME type of the image, or {@code null} if unknown.
+     * @param format the format of the image, such as "png" or "jpeg", or {@code null} if it was not recognized.
+     * @param contentHash the hex SHA-256 of the image file, or {@code null} if the file was not downloaded.
+     * @param perceptualHash the difference hash of the image, or {@code null} if its pixels could not be decoded.
+     */
+    public ImageMetadata(int width, int height, long byteSize, String mimeType, String format, String contentHash,
+                         Long perceptualHash) {
+        this.width = width;
+        this.height = height;
+        this.byteSize = byteSize;
+        this.mimeType = mimeType;
+        this.format = format;
+        this.contentHash = contentHash;
+        this.perceptualHash = perceptualHash;
+    }
+
+    /**
+     * Returns a copy of this metadata with the given size and MIME type, keeping the values of this metadata where
+     * the given ones are unknown.
+     *
+     * @param byteSize the size of the image file in bytes, or -1 if unknown.
+     * @param mimeType the MIME type of the image, or {@code null} if unknown.
+     * @return the combined metadata.
+     */
+    public ImageMetadata withFileInfo(long byteSize, String mimeType) {
+        return new ImageMetadata(width, height, byteSize >= 0 ? byteSize : this.byteSize,
+                mimeType != null ? mimeType : this.mimeType, format, contentHash, perceptualHash);
+    }
+
+    /**
+     * Returns a copy of this metadata with the given fingerprints.
+     *
+     * @param contentHash the hex SHA-256 of the image file.
+     * @param perceptualHash the difference hash of the image, or {@code null} if its pixels could not be decoded.
+     * @return the combined metadata.
+     */
+    public ImageMetadata withFingerprints(String contentHash, Long perceptualHash) {
+        return new ImageMetadata(width, height, byteSize, mimeType, format, contentHash, perceptualHash);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public Long getPerceptualHash() {
+        return perceptualHash;
+    }
+
+    @Override
+    public String toString() {
+        return "ImageMetadata{" +
+                "width=" + width +
+                ", height=" + height +
+                ", byteSize=" + byteSize +
+                ", mimeType='" + mimeType + '\'' +
+                ", format='" + format + '\'' +
+                ", contentHash='" + contentHash + '\'' +
+                ", perceptualHash=" + (perceptualHash != null ? Long.toHexString(perceptualHash) : null) +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.kyleryxn.imagefinder.model;
+
+import java.util.List;
+
+/**
+ * Represents one page of the images found by a crawl job, for clients paging through large results.
+ */
+public class ImagePage {
+    private final List<Image> images;
+    private final int page;
+    private final int size;
+    private final int totalImages;
+
+    /**
+     * Constructor for ImagePage.
+     *
+     * @param images the images on this page.
+     * @param page the zero-based index of this page.
+     * @param size the maximum number of images per page.
+     * @param totalImages the total number of images across all pages.
+     */
+    public ImagePage(List<Image> images, int page, int size, int totalImages) {
+        this.images = images;
+        this.page = page;
+        this.size = size;
+        this.totalImages = totalImages;
+    }
+
+    public List<Image> getImages() {
+        return images;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTotalImages() {
+        return totalImages;
+    }
+
+    public int getTotalPages() {
+        return size == 0 ? 0 : (totalImages + size - 1) / size;
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+
+    public boolean hasNext() {
+        return page + 1 < getTotalPages();
+    }
+}
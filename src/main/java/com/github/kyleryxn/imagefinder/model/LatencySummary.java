@@ -0,0 +1,63 @@
+package com.github.kyleryxn.imagefinder.model;
+
+/**
+ * Represents the distribution of the latencies recorded for one phase of a crawl, in milliseconds.
+ */
+public class LatencySummary {
+    private final long count;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p90Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    /**
+     * Constructor for LatencySummary.
+     *
+     * @param count the number of latencies recorded.
+     * @param meanMillis the mean latency.
+     * @param p50Millis the median latency.
+     * @param p90Millis the 90th percentile latency.
+     * @param p99Millis the 99th percentile latency.
+     * @param maxMillis the highest latency.
+     */
+    public LatencySummary(long count, double meanMillis, double p50Millis, double p90Millis, double p99Millis,
+                          double maxMillis) {
+        this.count = count;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP90Millis() {
+        return p90Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms",
+                count, meanMillis, p50Millis, p90Millis, p99Millis, maxMillis);
+    }
+}
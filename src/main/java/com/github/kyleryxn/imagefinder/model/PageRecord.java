@@ -0,0 +1,156 @@
+package com.github.kyleryxn.imagefinder.model;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Represents what is remembered about a page between crawls: the validators needed to ask the server whether the page
+ * changed (ETag and Last-Modified) and the links and images extracted from it. When the server answers a conditional
+ * request with 304 (Not Modified), the extraction results are reused instead of re-parsing.
+ * <p>
+ * A crawl filters the images of a page and fills in their metadata, so the record keeps copies of the links and images
+ * it is created with and hands out new copies in {@link #toParsedPage(int, String)}; nothing a crawl does to a page
+ * changes what is cached for the next one.
+ */
+public class PageRecord {
+    private final String url;
+    private final String etag;
+    private final String lastModified;
+    private final Set<String> links;
+    private final Set<Image> images;
+    private final Image favicon;
+    private final long fetchedAt;
+
+    /**
+     * Constructor for PageRecord.
+     *
+     * @param url the URL of the page.
+     * @param etag the value of the ETag response header, or {@code null} if there was none.
+     * @param lastModified the value of the Last-Modified response header, or {@code null} if there was none.
+     * @param links the links found on the page.
+     * @param images the images found on the page, including the favicon if there is one.
+     * @param favicon the favicon of the page, or {@code null} if the page does not declare one.
+     * @param fetchedAt the time the page was fetched, in milliseconds since the epoch.
+     */
+    public PageRecord(String url, String etag, String lastModified, Set<String> links, Set<Image> images,
+                      Image favicon, long fetchedAt) {
+        this.url = url;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.links = links != null ? new LinkedHashSet<>(links) : null;
+        this.images = images != null ? copyOf(images) : null;
+        this.favicon = favicon != null ? copyOf(favicon, this.images) : null;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Creates the {@link ParsedPage} for a response that confirmed this record is still current.
+     *
+     * @param statusCode the HTTP status code of the response, usually 304 (Not Modified).
+     * @param retryAfter the value of the Retry-After response header, or {@code null} if there was none.
+     * @return the page with the cached links, images and favicon.
+     */
+    public ParsedPage toParsedPage(int statusCode, String retryAfter) {
+        Set<String> cachedLinks = links != null ? new LinkedHashSet<>(links) : new LinkedHashSet<>();
+        Set<Image> cachedImages = images != null ? copyOf(images) : new LinkedHashSet<>();
+        Image cachedFavicon = favicon != null ? copyOf(favicon, cachedImages) : null;
+        return new ParsedPage(url, cachedLinks, cachedImages, cachedFavicon, statusCode, retryAfter);
+    }
+
+    /**
+     * Checks if the record holds a validator the server can use to answer a conditional request.
+     *
+     * @return {@code true} if an ETag or Last-Modified value is known, {@code false} otherwise.
+     */
+    public boolean hasValidator() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Returns the URL of the page.
+     *
+     * @return the URL of the page.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the value of the ETag response header.
+     *
+     * @return the ETag, or {@code null} if there was none.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Returns the value of the Last-Modified response header.
+     *
+     * @return the Last-Modified value, or {@code null} if there was none.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the links found on the page.
+     *
+     * @return an unmodifiable view of the links found on the page.
+     */
+    public Set<String> getLinks() {
+        return links != null ? Collections.unmodifiableSet(links) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the images found on the page, including the favicon if there is one. The images are those of the record,
+     * use {@link #toParsedPage(int, String)} to get copies that may be changed.
+     *
+     * @return an unmodifiable view of the images found on the page.
+     */
+    public Set<Image> getImages() {
+        return images != null ? Collections.unmodifiableSet(images) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the favicon of the page.
+     *
+     * @return the favicon, or {@code null} if the page does not declare one.
+     */
+    public Image getFavicon() {
+        return favicon;
+    }
+
+    /**
+     * Returns the time the page was fetched.
+     *
+     * @return the fetch time in milliseconds since the epoch.
+     */
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    private static Set<Image> copyOf(Set<Image> images) {
+        Set<Image> copies = new LinkedHashSet<>();
+        for (Image image : images) {
+            copies.add(image.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Returns the copy of the favicon among the given copied images, so both refer to the same object again, or a new
+     * copy if it is not among them.
+     */
+    private static Image copyOf(Image favicon, Set<Image> copies) {
+        if (copies != null) {
+            for (Image image : copies) {
+                if (image.equals(favicon)) {
+                    return image;
+                }
+            }
+        }
+        return favicon.copy();
+    }
+}
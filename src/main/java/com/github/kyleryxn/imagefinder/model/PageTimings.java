@@ -0,0 +1,71 @@
+package com.github.kyleryxn.imagefinder.model;
+
+/**
+ * Represents how long each phase of fetching and parsing a single page took. The body of a page is parsed while it is
+ * downloaded, so the download time is the time spent waiting for and reading body bytes, and the parse time the rest
+ * of the time spent building the document. All times are in nanoseconds.
+ */
+public class PageTimings {
+    private final long connectNanos;
+    private final long firstByteNanos;
+    private final long downloadNanos;
+    private final long parseNanos;
+    private final long extractNanos;
+    private final long bytes;
+
+    /**
+     * Constructor for PageTimings.
+     *
+     * @param connectNanos the time spent establishing the connection, including the DNS lookup and the TLS handshake.
+     * @param firstByteNanos the time from sending the request until the response status was received.
+     * @param downloadNanos the time spent reading the body.
+     * @param parseNanos the time spent building the document from the body, not counting the reads.
+     * @param extractNanos the time spent extracting links and images from the document.
+     * @param bytes the number of decompressed body bytes read.
+     */
+    public PageTimings(long connectNanos, long firstByteNanos, long downloadNanos, long parseNanos, long extractNanos,
+                       long bytes) {
+        this.connectNanos = connectNanos;
+        this.firstByteNanos = firstByteNanos;
+        this.downloadNanos = downloadNanos;
+        this.parseNanos = parseNanos;
+        this.extractNanos = extractNanos;
+        this.bytes = bytes;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    public long getDownloadNanos() {
+        return downloadNanos;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public long getExtractNanos() {
+        return extractNanos;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "PageTimings{" +
+                "connectNanos=" + connectNanos +
+                ", firstByteNanos=" + firstByteNanos +
+                ", downloadNanos=" + downloadNanos +
+                ", parseNanos=" + parseNanos +
+                ", extractNanos=" + extractNanos +
+                ", bytes=" + bytes +
+                '}';
+    }
+}
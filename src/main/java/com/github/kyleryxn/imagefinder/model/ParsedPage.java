@@ -0,0 +1,171 @@
+package com.github.kyleryxn.imagefinder.model;
+
+import com.github.kyleryxn.imagefinder.parser.Parser;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Represents the result of fetching and parsing a single web page exactly once. Holds the links, the images and the
+ * favicon extracted from the same parsed document, so callers never have to download a page a second time to get
+ * at a different part of it. This class is produced by {@link Parser#parse(String)}.
+ */
+public class ParsedPage {
+    private final String url;
+    private final Set<String> links;
+    private final Set<Image> images;
+    private final Image favicon;
+    private final int statusCode;
+    private final String retryAfter;
+    private final PageTimings timings;
+
+    /**
+     * Constructor for a ParsedPage that was retrieved with status 200 ({@code HTTP_OK}).
+     *
+     * @param url the URL of the page.
+     * @param links the links found on the page.
+     * @param images the images found on the page, including the favicon if there is one.
+     * @param favicon the favicon of the page, or {@code null} if the page does not declare one.
+     */
+    public ParsedPage(String url, Set<String> links, Set<Image> images, Image favicon) {
+        this(url, links, images, favicon, 200, null);
+    }
+
+    /**
+     * Constructor for ParsedPage.
+     *
+     * @param url the URL of the page.
+     * @param links the links found on the page.
+     * @param images the images found on the page, including the favicon if there is one.
+     * @param favicon the favicon of the page, or {@code null} if the page does not declare one.
+     * @param statusCode the HTTP status code of the response, or 0 if no response was received.
+     * @param retryAfter the value of the Retry-After response header, or {@code null} if there was none.
+     */
+    public ParsedPage(String url, Set<String> links, Set<Image> images, Image favicon, int statusCode, String retryAfter) {
+        this(url, links, images, favicon, statusCode, retryAfter, null);
+    }
+
+    /**
+     * Constructor for ParsedPage with the timings of fetching and parsing the page.
+     *
+     * @param url the URL of the page.
+     * @param links the links found on the page.
+     * @param images the images found on the page, including the favicon if there is one.
+     * @param favicon the favicon of the page, or {@code null} if the page does not declare one.
+     * @param statusCode the HTTP status code of the response, or 0 if no response was received.
+     * @param retryAfter the value of the Retry-After response header, or {@code null} if there was none.
+     * @param timings how long each phase of fetching and parsing took, or {@code null} if not measured.
+     */
+    public ParsedPage(String url, Set<String> links, Set<Image> images, Image favicon, int statusCode, String retryAfter,
+                      PageTimings timings) {
+        this.url = url;
+        this.links = links;
+        this.images = images;
+        this.favicon = favicon;
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+        this.timings = timings;
+    }
+
+    /**
+     * Creates an empty ParsedPage for a URL that could not be fetched at all.
+     *
+     * @param url the URL of the page.
+     * @return a ParsedPage without links, images or favicon and with status code 0.
+     */
+    public static ParsedPage empty(String url) {
+        return empty(url, 0, null);
+    }
+
+    /**
+     * Creates an empty ParsedPage for a URL whose response could not be parsed, for example an error status.
+     *
+     * @param url the URL of the page.
+     * @param statusCode the HTTP status code of the response, or 0 if no response was received.
+     * @param retryAfter the value of the Retry-After response header, or {@code null} if there was none.
+     * @return a ParsedPage without links, images or favicon.
+     */
+    public static ParsedPage empty(String url, int statusCode, String retryAfter) {
+        return new ParsedPage(url, Collections.emptySet(), Collections.emptySet(), null, statusCode, retryAfter);
+    }
+
+    /**
+     * Returns the URL of the page.
+     *
+     * @return the URL of the page.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the links found on the page.
+     *
+     * @return the links found on the page.
+     */
+    public Set<String> getLinks() {
+        return links;
+    }
+
+    /**
+     * Returns the images found on the page, including the favicon if there is one.
+     *
+     * @return the images found on the page.
+     */
+    public Set<Image> getImages() {
+        return images;
+    }
+
+    /**
+     * Returns the favicon of the page.
+     *
+     * @return the favicon of the page, or {@code null} if the page does not declare one.
+     */
+    public Image getFavicon() {
+        return favicon;
+    }
+
+    /**
+     * Returns the HTTP status code of the response.
+     *
+     * @return the HTTP status code, or 0 if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the value of the Retry-After response header.
+     *
+     * @return the Retry-After value, or {@code null} if there was none.
+     */
+    public String getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Returns how long each phase of fetching and parsing the page took.
+     *
+     * @return the timings of the page, or {@code null} if they were not measured.
+     */
+    public PageTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Overrides the toString() method of {@link Object}.
+     * Returns a string representation of the ParsedPage object.
+     *
+     * @return a string representation of the ParsedPage object.
+     */
+    @Override
+    public String toString() {
+        return "ParsedPage{" +
+                "url='" + url + '\'' +
+                ", links=" + links.size() +
+                ", images=" + images.size() +
+                ", favicon=" + favicon +
+                ", statusCode=" + statusCode +
+                '}';
+    }
+}
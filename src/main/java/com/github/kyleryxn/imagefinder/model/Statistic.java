@@ -5,12 +5,21 @@ public class Statistic {
     private final int numVisitedLinks;
     private final long totalSeconds;
     private final String pagesPerSecond;
+    private final long seenSetBytes;
+    private final double seenSetFalsePositiveRate;
 
     public Statistic(int numImagesExtracted, int numVisitedLinks, long totalSeconds, String pagesPerSecond) {
+        this(numImagesExtracted, numVisitedLinks, totalSeconds, pagesPerSecond, -1, 0);
+    }
+
+    public Statistic(int numImagesExtracted, int numVisitedLinks, long totalSeconds, String pagesPerSecond,
+                     long seenSetBytes, double seenSetFalsePositiveRate) {
         this.numImagesExtracted = numImagesExtracted;
         this.numVisitedLinks = numVisitedLinks;
         this.totalSeconds = totalSeconds;
         this.pagesPerSecond = pagesPerSecond;
+        this.seenSetBytes = seenSetBytes;
+        this.seenSetFalsePositiveRate = seenSetFalsePositiveRate;
     }
 
     public int getNumImagesExtracted() {
@@ -29,6 +38,14 @@ public class Statistic {
         return pagesPerSecond;
     }
 
+    public long getSeenSetBytes() {
+        return seenSetBytes;
+    }
+
+    public double getSeenSetFalsePositiveRate() {
+        return seenSetFalsePositiveRate;
+    }
+
     @Override
     public String toString() {
         return "Statistic{" +
@@ -36,6 +53,8 @@ public class Statistic {
                 ", numVisitedLinks=" + numVisitedLinks +
                 ", totalSeconds=" + totalSeconds +
                 ", pagesPerSecond=" + pagesPerSecond +
+                ", seenSetBytes=" + seenSetBytes +
+                ", seenSetFalsePositiveRate=" + seenSetFalsePositiveRate +
                 '}';
     }
 }
@@ -1,20 +1,29 @@
 package com.github.kyleryxn.imagefinder.parser;
 
 import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.PageRecord;
+import com.github.kyleryxn.imagefinder.model.PageTimings;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
 import com.github.kyleryxn.imagefinder.util.image.ImageFactory;
-import com.github.kyleryxn.imagefinder.util.image.ImageUtility;
-import com.github.kyleryxn.imagefinder.util.url.HTTPClient;
+import com.github.kyleryxn.imagefinder.util.image.ImageCandidates;
+import com.github.kyleryxn.imagefinder.util.url.FetchResponse;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.github.kyleryxn.imagefinder.util.url.URLResolver;
+import com.github.kyleryxn.imagefinder.util.url.URLStatus;
 import com.github.kyleryxn.imagefinder.util.url.URLUtility;
-import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -27,14 +36,41 @@ public class HTMLParser implements Parser {
     private static final Logger LOGGER = LoggerFactory.getLogger(HTMLParser.class);
 
     private final String domain;
+    private final HttpFetcher fetcher;
+    private final PageCache cache;
 
     /**
-     * Constructs an HTMLParser object with the specified domain.
+     * Constructs an HTMLParser object with the specified domain and the shared {@link HttpFetcher}.
      *
      * @param domain the domain to be used for parsing.
      */
     public HTMLParser(String domain) {
-        this.domain = domain;
+        this(domain, HttpFetcher.getDefault());
+    }
+
+    /**
+     * Constructs an HTMLParser object with the specified domain and fetcher.
+     *
+     * @param domain the domain to be used for parsing.
+     * @param fetcher the fetcher used to retrieve pages.
+     */
+    public HTMLParser(String domain, HttpFetcher fetcher) {
+        this(domain, fetcher, null);
+    }
+
+    /**
+     * Constructs an HTMLParser object with the specified domain, fetcher and {@link PageCache}. Pages found in the
+     * cache are requested conditionally and, if the server reports them unchanged, not parsed again.
+     *
+     * @param domain the domain to be used for parsing.
+     * @param fetcher the fetcher used to retrieve pages.
+     * @param cache the cache of pages from earlier crawls, or {@code null} to always fetch pages in full.
+     */
+    public HTMLParser(String domain, HttpFetcher fetcher, PageCache cache) {
+        // Links are normalized before they are checked against the domain, so the domain has to be as well
+        this.domain = URLUtility.normalizeURL(domain);
+        this.fetcher = fetcher;
+        this.cache = cache;
     }
 
     /**
@@ -47,6 +83,73 @@ public class HTMLParser implements Parser {
         return this.domain;
     }
 
+    /**
+     * Fetches the document at the given URL once and extracts its links, images and favicon from the same DOM.
+     * The response body is streamed from the {@link HttpFetcher} straight into the parser. With a {@link PageCache},
+     * the request is conditional and a 304 (Not Modified) response reuses the cached extraction results.
+     *
+     * @param url the URL of the page to parse.
+     * @return the {@link ParsedPage} extracted from the page, or an empty page if retrieval fails.
+     */
+    @Override
+    public ParsedPage parse(String url) {
+        PageRecord cached = cache != null ? cache.get(url) : null;
+
+        try (FetchResponse response = fetcher.get(url, conditionalHeaders(cached))) {
+            int statusCode = response.getStatusCode();
+            String retryAfter = response.getHeader("Retry-After");
+
+            if (statusCode == URLStatus.NOT_MODIFIED.getStatusCode() && cached != null) {
+                return cached.toParsedPage(statusCode, retryAfter);
+            }
+
+            if (!response.isSuccessful() || !isHtml(response)) {
+                return ParsedPage.empty(url, statusCode, retryAfter);
+            }
+
+            long start = System.nanoTime();
+            Document document = Jsoup.parse(response.getBody(), response.getCharset(), response.getUrl());
+            long parsed = System.nanoTime();
+            ParsedPage page = parse(document);
+            long extracted = System.nanoTime();
+
+            if (cache != null) {
+                cache.put(new PageRecord(url, response.getHeader("ETag"), response.getHeader("Last-Modified"),
+                        page.getLinks(), page.getImages(), page.getFavicon(), System.currentTimeMillis()));
+            }
+
+            // The body is read while it is parsed; what the reads did not take is parsing
+            long readNanos = response.getReadNanos();
+            PageTimings timings = new PageTimings(response.getConnectNanos(),
+                    response.getFirstByteNanos(), readNanos, Math.max(0, parsed - start - readNanos),
+                    extracted - parsed, response.getBytesRead());
+
+            return new ParsedPage(url, page.getLinks(), page.getImages(), page.getFavicon(), statusCode, retryAfter,
+                    timings);
+        } catch (IOException e) {
+            LOGGER.error("Failed to retrieve HTML document {}", e.getMessage());
+            return ParsedPage.empty(url);
+        }
+    }
+
+    /**
+     * Extracts the links, images and favicon of a document that has already been parsed, for example one read from
+     * disk. Relative URLs are resolved against the location of the document.
+     *
+     * @param document the parsed document.
+     * @return the {@link ParsedPage} extracted from the document, with the location of the document as its URL.
+     */
+    public ParsedPage parse(Document document) {
+        Image favicon = extractFavicon(document);
+        Set<Image> images = extractImages(document);
+
+        if (favicon != null) {
+            images.add(favicon);
+        }
+
+        return new ParsedPage(document.location(), extractLinks(document), images, favicon);
+    }
+
     /**
      * Retrieves the children URLs of the given URL.
      *
@@ -55,19 +158,7 @@ public class HTMLParser implements Parser {
      */
     @Override
     public Set<String> getChildren(String url) {
-        Document document = getDoc(url);
-
-        if (document != null) {
-            return document.select("a")
-                    .stream()
-                    .map(e -> e.attr("abs:href"))
-                    .filter(URLUtility::isValidLinkToCrawl)
-                    .filter(l -> URLUtility.isInDomain(l, domain))
-                    .map(URLUtility::trimURL)
-                    .collect(Collectors.toSet());
-        }
-
-        return new HashSet<>();
+        return parse(url).getLinks();
     }
 
     /**
@@ -78,18 +169,10 @@ public class HTMLParser implements Parser {
      */
     @Override
     public Set<String> getImageLinks(String url) {
-        Document document = getDoc(url);
-
-        if (document != null) {
-            return document.select("img[src]").stream()
-                    .map(link -> link.attr("abs:src"))
-                    .filter(img -> !img.startsWith("data:"))
-                    .filter(ImageUtility::isValidImageExtension)
-                    .collect(Collectors.toSet());
-
-        }
-
-        return new HashSet<>();
+        return parse(url).getImages().stream()
+                .filter(image -> !image.isFavicon())
+                .map(Image::getUrl)
+                .collect(Collectors.toSet());
     }
 
     /**
@@ -100,43 +183,96 @@ public class HTMLParser implements Parser {
      */
     @Override
     public Set<Image> getImageObjects(String url) {
-        Set<Image> images = new HashSet<>();
-        Document document = getDoc(url);
+        return parse(url).getImages();
+    }
+
+    /**
+     * Extracts the crawlable links within the domain from an already parsed document.
+     *
+     * @param document the parsed document.
+     * @return a {@link Set} of normalized and trimmed links found in the document.
+     */
+    private Set<String> extractLinks(Document document) {
+        return document.select("a")
+                .stream()
+                .map(e -> e.attr("abs:href"))
+                .filter(URLUtility::isValidLinkToCrawl)
+                .map(URLUtility::normalizeURL)
+                .filter(l -> URLUtility.isInDomain(l, domain))
+                .map(URLUtility::trimURL)
+                .collect(Collectors.toSet());
+    }
 
-        if (document != null) {
-            Elements imgTags = document.select("img[src]");
-            Element favicon = document.head().select("link[rel=icon], link[rel^=shortcut], link[rel^=apple-touch-icon]").first();
+    /**
+     * Extracts the {@link Image} objects of an already parsed document, from its img tags, picture elements, style
+     * attributes and og:image or twitter:image meta tags, in one traversal; see {@link ImageCandidates}.
+     *
+     * @param document the parsed document.
+     * @return a mutable {@link Set} of images found in the document.
+     */
+    private Set<Image> extractImages(Document document) {
+        ImageCandidates candidates = new ImageCandidates(URLResolver.toBase(document.baseUri()));
+        NodeTraversor.traverse(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof Element) {
+                    Element element = (Element) node;
+                    candidates.startTag(element.normalName(),
+                            name -> element.hasAttr(name) ? element.attr(name) : null);
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+                if (node instanceof Element) {
+                    candidates.endTag(((Element) node).normalName());
+                }
+            }
+        }, document);
+        return candidates.getImages();
+    }
 
-            images = imgTags.parallelStream()
-                    .filter(img -> !img.absUrl("src").startsWith("data:"))
-                    .filter(img -> ImageUtility.isValidImageExtension(img.absUrl("src")))
-                    .map(ImageFactory::createImage)
-                    .collect(Collectors.toSet());
+    /**
+     * Extracts the favicon declared in the head of an already parsed document.
+     *
+     * @param document the parsed document.
+     * @return the favicon {@link Image}, or {@code null} if the document does not declare one.
+     */
+    private Image extractFavicon(Document document) {
+        Element favicon = document.head().select("link[rel=icon], link[rel^=shortcut], link[rel^=apple-touch-icon]").first();
 
-            Optional.ofNullable(favicon)
-                    .map(ImageFactory::createImage)
-                    .ifPresent(images::add);
+        return Optional.ofNullable(favicon)
+                .map(ImageFactory::createImage)
+                .orElse(null);
+    }
 
-            return images;
+    /**
+     * Builds the headers that make a request conditional on the page having changed since it was cached.
+     * @param cached the cached record of the page, or {@code null} if it has not been cached.
+     * @return the If-None-Match and If-Modified-Since headers known for the page.
+     */
+    private static Map<String, String> conditionalHeaders(PageRecord cached) {
+        if (cached == null || !cached.hasValidator()) {
+            return Collections.emptyMap();
         }
 
-        return images;
+        Map<String, String> headers = new HashMap<>();
+        if (cached.getEtag() != null) {
+            headers.put("If-None-Match", cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            headers.put("If-Modified-Since", cached.getLastModified());
+        }
+        return headers;
     }
 
     /**
-     * Retrieves the HTML document from the given URL using {@link Jsoup} library.
-     * @param url the URL from which to retrieve the HTML document.
-     * @return the {@link Document} object representing the HTML document, or null if retrieval fails.
+     * Checks if the response declares an HTML media type, or none at all.
+     * @param response the response to check.
+     * @return {@code true} if the response can be parsed as HTML, {@code false} otherwise.
      */
-    private Document getDoc(String url) {
-        try {
-            Connection connection = Jsoup.connect(url)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/111.0.4044.113 Safari/5370.36 Brave/5035")
-                    .timeout(5000);
-            return connection.get();
-        } catch (IOException e) {
-            LOGGER.error("Failed to retrieve HTML document {}", e.getMessage());
-            return null;
-        }
+    private static boolean isHtml(FetchResponse response) {
+        String mediaType = response.getMediaType();
+        return mediaType.isEmpty() || mediaType.contains("html");
     }
 }
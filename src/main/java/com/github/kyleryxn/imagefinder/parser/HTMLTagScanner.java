@@ -0,0 +1,315 @@
+package com.github.kyleryxn.imagefinder.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull scanner over the tags of an HTML document, read from a {@link Reader} through a fixed buffer without building a
+ * tree. Each call to {@link #next()} moves to the next start or end tag; text, comments, doctypes and processing
+ * instructions are skipped, as is the content of elements whose content is not markup, such as script and style, so
+ * a link written in a script is not mistaken for one on the page.
+ * <p>
+ * Tag names are lowercased. Only the attributes passed to the constructor are turned into strings, on any tag; the
+ * others are skipped over, and character references in values are not decoded. Attribute values
+ * follow the tokenizer rules of HTML: double quoted, single quoted or unquoted, and a repeated attribute keeps its
+ * first value. This class is not thread-safe.
+ */
+final class HTMLTagScanner {
+    private static final String[] RAW_TEXT_ELEMENTS = {
+            "iframe", "noembed", "noframes", "script", "style", "textarea", "title", "xmp"
+    };
+
+    private final Reader reader;
+    private final String[] capturedAttributes;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private final StringBuilder text = new StringBuilder(64);
+    private String tagName;
+    private boolean endTag;
+    private String[] names = new String[8];
+    private String[] values = new String[8];
+    private int attributeCount;
+
+    /**
+     * Constructor for HTMLTagScanner.
+     *
+     * @param reader the document to scan.
+     * @param capturedAttributes the lowercase names of the attributes that are read.
+     */
+    HTMLTagScanner(Reader reader, String... capturedAttributes) {
+        this.reader = reader;
+        this.capturedAttributes = capturedAttributes;
+    }
+
+    /**
+     * Moves to the next tag of the document.
+     *
+     * @return {@code true} if a tag was found, {@code false} at the end of the document.
+     * @throws IOException if the document cannot be read.
+     */
+    boolean next() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c != '<') {
+                continue;
+            }
+
+            c = read();
+            if (c == '!') {
+                skipMarkupDeclaration();
+            } else if (c == '?') {
+                skipUntil('>');
+            } else if (c == '/') {
+                c = read();
+                if (isLetter(c)) {
+                    readTag(c, true);
+                    return true;
+                }
+                // "</" not followed by a name is a bogus comment
+                if (c != '>') {
+                    skipUntil('>');
+                }
+            } else if (isLetter(c)) {
+                readTag(c, false);
+                if (!endTag && isRawText(tagName)) {
+                    skipRawText(tagName);
+                }
+                return true;
+            } else if (c != -1) {
+                // A '<' that does not open a tag is text
+                unread();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lowercase name of the current tag.
+     *
+     * @return the tag name.
+     */
+    String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * Checks if the current tag is an end tag.
+     *
+     * @return {@code true} for an end tag, {@code false} for a start tag.
+     */
+    boolean isEndTag() {
+        return endTag;
+    }
+
+    /**
+     * Returns the value of an attribute of the current tag, if it is one of the captured attributes.
+     *
+     * @param name the lowercase name of the attribute.
+     * @return the raw value of the attribute, an empty string if it has none, or {@code null} if the tag does not have
+     *         the attribute or it is not captured.
+     */
+    String getAttribute(String name) {
+        for (int i = 0; i < attributeCount; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    private void readTag(int first, boolean end) throws IOException {
+        text.setLength(0);
+        int c = first;
+        while (c != -1 && !isWhitespace(c) && c != '/' && c != '>') {
+            text.append(Character.toLowerCase((char) c));
+            c = read();
+        }
+        tagName = text.toString();
+        endTag = end;
+        attributeCount = 0;
+
+        while (c != -1 && c != '>') {
+            if (isWhitespace(c) || c == '/') {
+                c = read();
+                continue;
+            }
+            c = readAttribute(c, !end);
+        }
+    }
+
+    /**
+     * Reads one attribute starting at its first character and returns the character after it.
+     */
+    private int readAttribute(int first, boolean startTag) throws IOException {
+        text.setLength(0);
+        int c = first;
+        // A '=' at the start of a name is part of it
+        do {
+            text.append(Character.toLowerCase((char) c));
+            c = read();
+        } while (c != -1 && !isWhitespace(c) && c != '/' && c != '>' && c != '=');
+        String name = startTag ? capturedName() : null;
+        boolean capture = name != null;
+
+        c = skipWhitespace(c);
+        if (c != '=') {
+            store(name, "");
+            return c;
+        }
+
+        c = skipWhitespace(read());
+        text.setLength(0);
+        if (c == '"' || c == '\'') {
+            int quote = c;
+            while ((c = read()) != -1 && c != quote) {
+                if (capture) {
+                    text.append((char) c);
+                }
+            }
+            store(name, capture ? text.toString() : null);
+            return c == -1 ? -1 : read();
+        }
+
+        while (c != -1 && !isWhitespace(c) && c != '>') {
+            if (capture) {
+                text.append((char) c);
+            }
+            c = read();
+        }
+        store(name, capture ? text.toString() : null);
+        return c;
+    }
+
+    private void store(String name, String value) {
+        if (name == null || getAttribute(name) != null) {
+            return;
+        }
+        if (attributeCount == names.length) {
+            names = Arrays.copyOf(names, attributeCount * 2);
+            values = Arrays.copyOf(values, attributeCount * 2);
+        }
+        names[attributeCount] = name;
+        values[attributeCount++] = value;
+    }
+
+    /**
+     * Skips a comment, which ends at the first "-->", or a doctype or other declaration, which ends at the first '>'.
+     */
+    private void skipMarkupDeclaration() throws IOException {
+        int c = read();
+        if (c != '-') {
+            if (c != '>') {
+                skipUntil('>');
+            }
+            return;
+        }
+        c = read();
+        if (c != '-') {
+            if (c != '>') {
+                skipUntil('>');
+            }
+            return;
+        }
+
+        int dashes = 0;
+        while ((c = read()) != -1) {
+            if (c == '>' && dashes >= 2) {
+                return;
+            }
+            dashes = c == '-' ? dashes + 1 : 0;
+        }
+    }
+
+    /**
+     * Skips the content of a raw text element up to and including its end tag, matched case-insensitively.
+     */
+    private void skipRawText(String name) throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c != '<' || (c = read()) != '/') {
+                if (c == '<') {
+                    unread();
+                }
+                continue;
+            }
+
+            int matched = 0;
+            while (matched < name.length() && (c = read()) != -1
+                    && Character.toLowerCase((char) c) == name.charAt(matched)) {
+                matched++;
+            }
+            if (matched == name.length()) {
+                c = read();
+                if (isWhitespace(c) || c == '/' || c == '>') {
+                    if (c != '>') {
+                        skipUntil('>');
+                    }
+                    return;
+                }
+            }
+            if (c == '<') {
+                unread();
+            }
+        }
+    }
+
+    private void skipUntil(char end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && c != end);
+    }
+
+    private int skipWhitespace(int c) throws IOException {
+        while (isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    /**
+     * Returns the captured attribute whose name was just read into the text buffer, without creating a string.
+     */
+    private String capturedName() {
+        for (String attribute : capturedAttributes) {
+            if (attribute.length() == text.length() && attribute.contentEquals(text)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isRawText(String name) {
+        return Arrays.binarySearch(RAW_TEXT_ELEMENTS, name) >= 0;
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Steps back over the character just read, which is always still in the buffer.
+     */
+    private void unread() {
+        position--;
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.kyleryxn.imagefinder.parser;
+
+import com.github.kyleryxn.imagefinder.model.PageRecord;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Persistent cache of {@link PageRecord} objects, keyed by URL, that survives between crawls. The cache is stored as
+ * an append-only file of one JSON record per line in the given directory: every update is appended, and when the file
+ * is loaded later records override earlier ones for the same URL. Once the file holds more than twice as many lines as
+ * there are pages, {@link #close()} rewrites it with only the current records.
+ * <p>
+ * {@link HTMLParser} consults the cache to send If-None-Match and If-Modified-Since headers, and reuses the cached
+ * links and images when the server answers with 304 (Not Modified).
+ */
+public class PageCache implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageCache.class);
+    public static final String FILE_NAME = "pages.ndjson";
+    private static final int FLUSH_INTERVAL = 100;
+
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private final Path file;
+    private final ConcurrentMap<String, PageRecord> records = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private BufferedWriter writer;
+    private long lines;
+    private int unflushed;
+
+    private PageCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the cache stored in the given directory, creating the directory and an empty cache if needed.
+     *
+     * @param directory the directory holding the cache file.
+     * @return the opened cache, which must be closed once the crawl is finished.
+     * @throws IOException if the cache cannot be read or opened for writing.
+     */
+    public static PageCache open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        PageCache cache = new PageCache(directory.resolve(FILE_NAME));
+        cache.load();
+        cache.writer = Files.newBufferedWriter(cache.file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return cache;
+    }
+
+    /**
+     * Returns the cached record for the given URL.
+     *
+     * @param url the URL of the page.
+     * @return the cached record, or {@code null} if the page has not been cached.
+     */
+    public PageRecord get(String url) {
+        return records.get(url);
+    }
+
+    /**
+     * Stores a record, replacing any earlier record for the same URL, and appends it to the cache file.
+     *
+     * @param record the record to store.
+     */
+    public void put(PageRecord record) {
+        records.put(record.getUrl(), record);
+        String json = gson.toJson(record);
+
+        synchronized (writeLock) {
+            try {
+                writer.write(json);
+                writer.newLine();
+                lines++;
+
+                if (++unflushed >= FLUSH_INTERVAL) {
+                    writer.flush();
+                    unflushed = 0;
+                }
+            } catch (IOException e) {
+                LOGGER.error("Cannot write page cache : {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached pages.
+     *
+     * @return the number of cached pages.
+     */
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * Rewrites the cache file so that it holds exactly one line per cached page.
+     *
+     * @throws IOException if the file cannot be rewritten.
+     */
+    public void compact() throws IOException {
+        synchronized (writeLock) {
+            writer.close();
+
+            Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (PageRecord record : records.values()) {
+                    out.write(gson.toJson(record));
+                    out.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            lines = records.size();
+            unflushed = 0;
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Flushes pending records, compacting the file first if it has grown to more than twice the number of pages.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            if (lines > 2L * records.size()) {
+                compact();
+            }
+            writer.close();
+        }
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                lines++;
+                try {
+                    PageRecord record = gson.fromJson(line, PageRecord.class);
+                    if (record != null && record.getUrl() != null) {
+                        records.put(record.getUrl(), record);
+                    }
+                } catch (JsonParseException e) {
+                    // A crash can leave a partial last line behind
+                    LOGGER.warn("Skipping corrupt page cache record : {}", e.getMessage());
+                }
+            }
+        }
+
+        LOGGER.info("Loaded {} cached pages from '{}'", records.size(), file);
+    }
+}
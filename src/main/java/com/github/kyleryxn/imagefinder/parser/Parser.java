@@ -3,6 +3,7 @@ package com.github.kyleryxn.imagefinder.parser;
 
 
 import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
 
 import java.util.Set;
 
@@ -18,6 +19,14 @@ public interface Parser {
      */
     String getDomain();
 
+    /**
+     * Fetch and parse the content at the given URL once, extracting its links, images and favicon from the same document.
+     *
+     * @param url the URL of the content to parse.
+     * @return the {@link ParsedPage} holding everything extracted from the content, never {@code null}.
+     */
+    ParsedPage parse(String url);
+
     /**
      * Get the {@link Set} of child URLs (links) found in the parsed content.
      *
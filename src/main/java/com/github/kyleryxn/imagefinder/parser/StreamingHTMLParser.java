@@ -0,0 +1,308 @@
+package com.github.kyleryxn.imagefinder.parser;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.PageTimings;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.util.image.ImageFactory;
+import com.github.kyleryxn.imagefinder.util.image.ImageCandidates;
+import com.github.kyleryxn.imagefinder.util.url.FetchResponse;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.github.kyleryxn.imagefinder.util.url.URLResolver;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * StreamingHTMLParser is an implementation of the {@link Parser} interface that extracts the same links, images and
+ * favicon as {@link HTMLParser} without building a DOM. The response body is decoded and scanned tag by tag as it is
+ * read, by an {@link HTMLTagScanner} that only creates strings for the attributes that can name a link or an image,
+ * so the memory used per page no longer grows with the size of the page but only with what is extracted from it.
+ * Images are collected by an {@link ImageCandidates}, like {@link HTMLParser} does.
+ * <p>
+ * Relative URLs are resolved like jsoup does, against the first base tag with an href, or else against the URL of
+ * the page; a base tag only applies to the tags after it, which in valid HTML are all of them. The favicon is taken
+ * from the first icon link before the body starts. Pages are always fetched in full, as no {@link PageCache} is
+ * supported. The charset is taken from the Content-Type header, a byte order mark, or a meta tag within the first
+ * 1024 bytes, in that order, defaulting to UTF-8.
+ */
+public class StreamingHTMLParser implements Parser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingHTMLParser.class);
+    private static final int CHARSET_PRESCAN_BYTES = 1024;
+    private static final Pattern META_CHARSET = Pattern.compile(
+            "<meta[^>]+charset\\s*=\\s*[\"']?\\s*([A-Za-z0-9._:-]+)", Pattern.CASE_INSENSITIVE);
+
+    private static final String[] CAPTURED_ATTRIBUTES = capturedAttributes();
+
+    // Elements that may appear in the head; any other start tag starts the body
+    private static final Set<String> HEAD_ELEMENTS = new HashSet<>(Arrays.asList(
+            "html", "head", "base", "link", "meta", "noscript", "script", "style", "template", "title"));
+
+    private final String domain;
+    private final HttpFetcher fetcher;
+
+    /**
+     * Constructs a StreamingHTMLParser object with the specified domain and the shared {@link HttpFetcher}.
+     *
+     * @param domain the domain to be used for parsing.
+     */
+    public StreamingHTMLParser(String domain) {
+        this(domain, HttpFetcher.getDefault());
+    }
+
+    /**
+     * Constructs a StreamingHTMLParser object with the specified domain and fetcher.
+     *
+     * @param domain the domain to be used for parsing.
+     * @param fetcher the fetcher used to retrieve pages.
+     */
+    public StreamingHTMLParser(String domain, HttpFetcher fetcher) {
+        // Links are normalized before they are checked against the domain, so the domain has to be as well
+        this.domain = URLUtility.normalizeURL(domain);
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Retrieves the domain associated with this object.
+     *
+     * @return the domain associated with this object.
+     */
+    @Override
+    public String getDomain() {
+        return this.domain;
+    }
+
+    /**
+     * Fetches the document at the given URL and extracts its links, images and favicon while the body is read.
+     *
+     * @param url the URL of the page to parse.
+     * @return the {@link ParsedPage} extracted from the page, or an empty page if retrieval fails.
+     */
+    @Override
+    public ParsedPage parse(String url) {
+        try (FetchResponse response = fetcher.get(url)) {
+            int statusCode = response.getStatusCode();
+            String retryAfter = response.getHeader("Retry-After");
+
+            String mediaType = response.getMediaType();
+            if (!response.isSuccessful() || !(mediaType.isEmpty() || mediaType.contains("html"))) {
+                return ParsedPage.empty(url, statusCode, retryAfter);
+            }
+
+            long start = System.nanoTime();
+            ParsedPage page = parse(open(response.getBody(), response.getCharset()), response.getUrl());
+            long extracted = System.nanoTime();
+
+            // Scanning and extracting are one pass; what the reads did not take is reported as parsing
+            long readNanos = response.getReadNanos();
+            PageTimings timings = new PageTimings(response.getConnectNanos(),
+                    response.getFirstByteNanos(), readNanos, Math.max(0, extracted - start - readNanos), 0,
+                    response.getBytesRead());
+
+            return new ParsedPage(url, page.getLinks(), page.getImages(), page.getFavicon(), statusCode, retryAfter,
+                    timings);
+        } catch (IOException e) {
+            LOGGER.error("Failed to retrieve HTML document {}", e.getMessage());
+            return ParsedPage.empty(url);
+        }
+    }
+
+    /**
+     * Extracts the links, images and favicon of a document read from the given reader, for example one read from
+     * disk. Relative URLs are resolved against the location of the document, or its base tag.
+     *
+     * @param html the document.
+     * @param location the URL of the document.
+     * @return the {@link ParsedPage} extracted from the document, with the location of the document as its URL.
+     * @throws IOException if the document cannot be read.
+     */
+    public ParsedPage parse(Reader html, String location) throws IOException {
+        HTMLTagScanner scanner = new HTMLTagScanner(html, CAPTURED_ATTRIBUTES);
+        ImageCandidates.Attributes attributes = name -> unescape(scanner.getAttribute(name));
+        Set<String> links = new HashSet<>();
+        URL base = URLResolver.toBase(location);
+        ImageCandidates candidates = new ImageCandidates(base);
+        Image favicon = null;
+        boolean faviconFound = false;
+        boolean inHead = true;
+        boolean baseFound = false;
+
+        while (scanner.next()) {
+            String tag = scanner.getTagName();
+            if (scanner.isEndTag()) {
+                inHead &= !tag.equals("head");
+                candidates.endTag(tag);
+                continue;
+            }
+            inHead &= HEAD_ELEMENTS.contains(tag);
+
+            switch (tag) {
+                case "a":
+                    addLink(links, URLResolver.resolve(base, attributes.get("href")));
+                    break;
+                case "link":
+                    if (inHead && !faviconFound && isIcon(scanner.getAttribute("rel"))) {
+                        // Like the first match of a selector: an icon link without an href still ends the search
+                        faviconFound = true;
+                        String href = attributes.get("href");
+                        favicon = href != null ? ImageFactory.createFavicon(URLResolver.resolve(base, href)) : null;
+                    }
+                    break;
+                case "base":
+                    String href = attributes.get("href");
+                    if (!baseFound && href != null) {
+                        baseFound = true;
+                        base = URLResolver.toBase(URLResolver.resolve(URLResolver.toBase(location), href));
+                        candidates.setBase(base);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            // An image tag is an img tag misspelled, which HTML parsers, jsoup included, correct
+            candidates.startTag(tag, attributes);
+        }
+
+        Set<Image> images = candidates.getImages();
+        if (favicon != null) {
+            images.add(favicon);
+        }
+        return new ParsedPage(location, links, images, favicon);
+    }
+
+    /**
+     * Retrieves the children URLs of the given URL.
+     *
+     * @param url the URL to retrieve children URLs from.
+     * @return a {@link Set} of children URLs.
+     */
+    @Override
+    public Set<String> getChildren(String url) {
+        return parse(url).getLinks();
+    }
+
+    /**
+     * Retrieves the image links from the specified URL.
+     *
+     * @param url the URL to retrieve image links from.
+     * @return a {@link Set} of image links retrieved from the specified URL.
+     */
+    @Override
+    public Set<String> getImageLinks(String url) {
+        return parse(url).getImages().stream()
+                .filter(image -> !image.isFavicon())
+                .map(Image::getUrl)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Retrieves a {@link Set} of {@link Image} objects from the specified URL.
+     *
+     * @param url the URL to retrieve Image objects from.
+     * @return a Set of Image objects retrieved from the specified URL.
+     */
+    @Override
+    public Set<Image> getImageObjects(String url) {
+        return parse(url).getImages();
+    }
+
+    private void addLink(Set<String> links, String link) {
+        if (!URLUtility.isValidLinkToCrawl(link)) {
+            return;
+        }
+
+        String normalized = URLUtility.normalizeURL(link);
+        if (URLUtility.isInDomain(normalized, domain)) {
+            links.add(URLUtility.trimURL(normalized));
+        }
+    }
+
+    /**
+     * Checks if a rel attribute marks an icon the way the favicon selector of {@link HTMLParser} does: "icon", or
+     * starting with "shortcut" or "apple-touch-icon", ignoring case.
+     */
+    private static boolean isIcon(String rel) {
+        if (rel == null) {
+            return false;
+        }
+
+        String value = rel.trim();
+        return value.equalsIgnoreCase("icon")
+                || value.regionMatches(true, 0, "shortcut", 0, 8)
+                || value.regionMatches(true, 0, "apple-touch-icon", 0, 16);
+    }
+
+    private static String[] capturedAttributes() {
+        String[] attributes = Arrays.copyOf(ImageCandidates.ATTRIBUTES, ImageCandidates.ATTRIBUTES.length + 2);
+        attributes[attributes.length - 2] = "href";
+        attributes[attributes.length - 1] = "rel";
+        return attributes;
+    }
+
+    private static String unescape(String value) {
+        if (value == null || value.indexOf('&') < 0) {
+            return value;
+        }
+        return org.jsoup.parser.Parser.unescapeEntities(value, true);
+    }
+
+    /**
+     * Opens a reader over the body in the charset of the response, or else the one declared by a byte order mark or
+     * meta tag in the first bytes of the body.
+     */
+    private static Reader open(InputStream body, String declared) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(body, 8192);
+        Charset charset = declared != null ? forName(declared) : null;
+        if (charset == null) {
+            in.mark(CHARSET_PRESCAN_BYTES);
+            byte[] prefix = new byte[CHARSET_PRESCAN_BYTES];
+            int length = 0;
+            int n;
+            while (length < prefix.length && (n = in.read(prefix, length, prefix.length - length)) != -1) {
+                length += n;
+            }
+            in.reset();
+            charset = sniff(prefix, length);
+        }
+        return new InputStreamReader(in, charset);
+    }
+
+    private static Charset sniff(byte[] prefix, int length) {
+        if (length >= 3 && (prefix[0] & 0xFF) == 0xEF && (prefix[1] & 0xFF) == 0xBB && (prefix[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && (prefix[0] & 0xFF) == 0xFE && (prefix[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (length >= 2 && (prefix[0] & 0xFF) == 0xFF && (prefix[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+
+        Matcher meta = META_CHARSET.matcher(new String(prefix, 0, length, StandardCharsets.ISO_8859_1));
+        Charset charset = meta.find() ? forName(meta.group(1)) : null;
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    private static Charset forName(String name) {
+        try {
+            return Charset.forName(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
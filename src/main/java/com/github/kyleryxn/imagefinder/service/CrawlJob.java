@@ -0,0 +1,195 @@
+package com.github.kyleryxn.imagefinder.service;
+
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.CrawlMetricsSnapshot;
+import com.github.kyleryxn.imagefinder.model.CrawlProgress;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ImagePage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents a crawl submitted to the {@link CrawlJobService}. A job is queued, then running, then either completed
+ * or failed. While it runs, its progress and the images found so far are read live from its {@link WebCrawler}.
+ */
+public class CrawlJob {
+
+    /**
+     * The lifecycle states of a crawl job.
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String url;
+    private final long submittedAt = System.currentTimeMillis();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile WebCrawler crawler;
+    private volatile List<Image> results;
+    private volatile String message = "Waiting for a free crawler";
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    /**
+     * Constructor for CrawlJob.
+     *
+     * @param id the id of the job.
+     * @param url the seed URL to crawl.
+     */
+    CrawlJob(String id, String url) {
+        this.id = id;
+        this.url = url;
+    }
+
+    /**
+     * Returns the id of the job.
+     *
+     * @return the job id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the seed URL of the job.
+     *
+     * @return the seed URL.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the status of the job.
+     *
+     * @return the job status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the job has completed or failed.
+     *
+     * @return {@code true} if the job is finished, {@code false} if it is queued or running.
+     */
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * Returns the time the job finished.
+     *
+     * @return the finish time in milliseconds since the epoch, or 0 if the job has not finished.
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Returns a snapshot of the progress of the job.
+     *
+     * @return the current progress.
+     */
+    public CrawlProgress getProgress() {
+        WebCrawler current = crawler;
+        int visited = current != null ? current.getVisitedCount() : 0;
+        int queued = current != null ? current.getQueueDepth() : 0;
+        int found = results != null ? results.size() : (current != null ? current.getImageCount() : 0);
+
+        long elapsed = 0;
+        if (startedAt > 0) {
+            elapsed = (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+        }
+
+        return new CrawlProgress(id, url, status.name(), visited, queued, found, elapsed, message);
+    }
+
+    /**
+     * Returns the metrics of the crawl run by the job, live while it runs and final once it has finished.
+     *
+     * @return a snapshot of the crawl metrics, or {@code null} if the job has not started a crawl, for example because
+     *         it is still queued or was answered from the cache.
+     */
+    public CrawlMetricsSnapshot getMetrics() {
+        WebCrawler current = crawler;
+        return current != null ? current.getMetrics() : null;
+    }
+
+    /**
+     * Returns one page of the images found by the job. While the job is running, the page is taken from the images
+     * found so far.
+     *
+     * @param page the zero-based index of the page.
+     * @param size the maximum number of images per page.
+     * @return the requested page of images.
+     */
+    public ImagePage getImages(int page, int size) {
+        List<Image> all = results;
+        if (all == null) {
+            WebCrawler current = crawler;
+            all = current != null ? distinct(current.getImages().values()) : Collections.emptyList();
+        }
+
+        int from = (int) Math.min((long) page * size, all.size());
+        int to = Math.min(from + size, all.size());
+        return new ImagePage(new ArrayList<>(all.subList(from, to)), page, size, all.size());
+    }
+
+    void started(WebCrawler crawler) {
+        this.crawler = crawler;
+        this.startedAt = System.currentTimeMillis();
+        this.status = Status.RUNNING;
+        this.message = "Crawling " + url;
+    }
+
+    void completed(Collection<Set<Image>> images) {
+        this.results = Collections.unmodifiableList(distinct(images));
+        this.finishedAt = System.currentTimeMillis();
+        this.message = "Found " + results.size() + " images on " + url;
+        this.status = Status.COMPLETED;
+    }
+
+    void cached(List<Image> images) {
+        this.results = images;
+        this.startedAt = System.currentTimeMillis();
+        this.finishedAt = startedAt;
+        this.message = "Found " + images.size() + " images on " + url + " (cached result)";
+        this.status = Status.COMPLETED;
+    }
+
+    List<Image> getResults() {
+        return results;
+    }
+
+    void failed(String reason) {
+        if (startedAt == 0) {
+            startedAt = System.currentTimeMillis();
+        }
+        this.results = Collections.emptyList();
+        this.finishedAt = System.currentTimeMillis();
+        this.message = reason;
+        this.status = Status.FAILED;
+    }
+
+    /**
+     * Flattens the images of all pages, keeping the first image found for each image URL.
+     */
+    private static List<Image> distinct(Collection<Set<Image>> images) {
+        Map<String, Image> byUrl = new LinkedHashMap<>();
+        for (Set<Image> onPage : images) {
+            for (Image image : onPage) {
+                byUrl.putIfAbsent(image.getUrl(), image);
+            }
+        }
+        return new ArrayList<>(byUrl.values());
+    }
+}
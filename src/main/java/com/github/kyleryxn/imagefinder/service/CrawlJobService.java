@@ -0,0 +1,329 @@
+package com.github.kyleryxn.imagefinder.service;
+
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.RobotsCache;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.PageCache;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.github.kyleryxn.imagefinder.util.url.SitemapReader;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs crawls in the background on behalf of web clients. Submitting a crawl returns a {@link CrawlJob} immediately;
+ * the crawl itself runs on a bounded job executor, so servlet threads are never tied up for the duration of a crawl
+ * and the number of crawls running at once stays fixed no matter how many users submit. When both the running slots
+ * and the waiting queue are full, new submissions are rejected.
+ * <p>
+ * Each job writes its streamed results to its own directory under {@link #DEFAULT_OUTPUT_DIR}, so concurrent jobs
+ * never write to the same files. Finished jobs are kept for polling until more than {@link #MAX_RETAINED_JOBS} exist;
+ * the oldest are then evicted and their result directories deleted.
+ * <p>
+ * All jobs share one {@link HostScheduler}, so two jobs crawling the same host together stay within the politeness
+ * limits of that host rather than each getting limits of their own.
+ * <p>
+ * Results of completed crawls are kept in a {@link CrawlResultCache}, so submitting a seed URL that was crawled recently
+ * completes at once without crawling the site again. Submitting a seed URL that is already being crawled returns the
+ * job of that crawl instead of starting a second one. Seed URLs are normalized first, so different spellings of the
+ * same address, such as {@code http://Example.com} and {@code http://example.com/}, are the same seed.
+ * <p>
+ * Once its result has expired, a seed URL is crawled again with conditional requests: each seed keeps a
+ * {@link PageCache} of its own under {@link #DEFAULT_PAGE_CACHE_DIR}, so pages that did not change since the last crawl
+ * of the seed are answered with 304 (Not Modified) and not downloaded or parsed again.
+ */
+@Service
+public class CrawlJobService implements DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrawlJobService.class);
+    public static final int MAX_CONCURRENT_JOBS = 4;
+    public static final int MAX_QUEUED_JOBS = 16;
+    public static final int MAX_RETAINED_JOBS = 100;
+    public static final Path DEFAULT_OUTPUT_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "imagefinder", "jobs");
+    public static final Path DEFAULT_PAGE_CACHE_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "imagefinder",
+            "pages");
+
+    private final ConcurrentMap<String, CrawlJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final Path outputDir;
+    private final Path pageCacheDir;
+    private final CrawlResultCache cache;
+    private final HostScheduler scheduler;
+
+    // Queued and running jobs by seed URL, guarded by itself
+    private final Map<String, CrawlJob> active = new HashMap<>();
+
+    /**
+     * Constructor for creating a CrawlJobService with the default limits and output directory.
+     */
+    public CrawlJobService() {
+        this(MAX_CONCURRENT_JOBS, MAX_QUEUED_JOBS, DEFAULT_OUTPUT_DIR, new CrawlResultCache(), DEFAULT_PAGE_CACHE_DIR);
+    }
+
+    /**
+     * Constructor for creating a CrawlJobService with custom limits, which always fetches pages in full.
+     *
+     * @param maxConcurrentJobs the number of crawls running at once.
+     * @param maxQueuedJobs the number of crawls waiting for a free slot before submissions are rejected.
+     * @param outputDir the directory the per-job result directories are created in.
+     * @param cache the cache of recent crawl results.
+     */
+    public CrawlJobService(int maxConcurrentJobs, int maxQueuedJobs, Path outputDir, CrawlResultCache cache) {
+        this(maxConcurrentJobs, maxQueuedJobs, outputDir, cache, null);
+    }
+
+    /**
+     * Constructor for creating a CrawlJobService with custom limits and page cache directory.
+     *
+     * @param maxConcurrentJobs the number of crawls running at once.
+     * @param maxQueuedJobs the number of crawls waiting for a free slot before submissions are rejected.
+     * @param outputDir the directory the per-job result directories are created in.
+     * @param cache the cache of recent crawl results.
+     * @param pageCacheDir the directory the per-seed page caches are kept in, or {@code null} to always fetch pages in
+     *                     full.
+     */
+    public CrawlJobService(int maxConcurrentJobs, int maxQueuedJobs, Path outputDir, CrawlResultCache cache,
+                           Path pageCacheDir) {
+        this(maxConcurrentJobs, maxQueuedJobs, outputDir, cache, pageCacheDir, new HostScheduler());
+    }
+
+    /**
+     * Constructor for creating a CrawlJobService with custom limits, page cache directory and host scheduler.
+     *
+     * @param maxConcurrentJobs the number of crawls running at once.
+     * @param maxQueuedJobs the number of crawls waiting for a free slot before submissions are rejected.
+     * @param outputDir the directory the per-job result directories are created in.
+     * @param cache the cache of recent crawl results.
+     * @param pageCacheDir the directory the per-seed page caches are kept in, or {@code null} to always fetch pages in
+     *                     full.
+     * @param scheduler the scheduler shared by all jobs to limit the request rate per host.
+     */
+    public CrawlJobService(int maxConcurrentJobs, int maxQueuedJobs, Path outputDir, CrawlResultCache cache,
+                           Path pageCacheDir, HostScheduler scheduler) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs), r -> new Thread(r, "crawl-job-" + count.incrementAndGet()));
+        this.outputDir = outputDir;
+        this.pageCacheDir = pageCacheDir;
+        this.cache = cache;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Submits a crawl of the given seed URL. If the seed URL is already being crawled, the job of that crawl is
+     * returned, and if it was crawled recently, the returned job is already completed with the cached result. Both are
+     * looked up by the normalized seed URL, which is also the URL the job crawls.
+     *
+     * @param url the seed URL to crawl.
+     * @return the job crawling the seed URL.
+     * @throws RejectedExecutionException if too many crawls are already running or waiting.
+     */
+    public CrawlJob submit(String url) {
+        String seed = normalizeSeed(url);
+        CrawlJob job;
+
+        synchronized (active) {
+            CrawlJob running = active.get(seed);
+            if (running != null) {
+                return running;
+            }
+
+            job = new CrawlJob(UUID.randomUUID().toString(), seed);
+            List<Image> cached = cache.get(seed);
+            if (cached != null) {
+                job.cached(cached);
+                jobs.put(job.getId(), job);
+            } else {
+                jobs.put(job.getId(), job);
+                try {
+                    executor.execute(() -> run(job));
+                } catch (RejectedExecutionException e) {
+                    jobs.remove(job.getId());
+                    throw e;
+                }
+                active.put(seed, job);
+            }
+        }
+
+        evictFinishedJobs();
+        return job;
+    }
+
+    /**
+     * Returns the job with the given id.
+     *
+     * @param id the job id.
+     * @return the job, or {@code null} if no such job exists or it has been evicted.
+     */
+    public CrawlJob getJob(String id) {
+        return id != null ? jobs.get(id) : null;
+    }
+
+    /**
+     * Returns the ids of all retained jobs.
+     *
+     * @return the job ids.
+     */
+    public Set<String> getJobIds() {
+        return jobs.keySet();
+    }
+
+    /**
+     * Stops all running crawls and rejects further submissions. Called by Spring when the context is closed.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void run(CrawlJob job) {
+        String url = job.getUrl();
+
+        try {
+            // The crawler checks the seed URL and leaves its domain unset if the URL cannot be crawled
+            PageCache pages = openPageCache(url);
+            WebCrawler crawler = new WebCrawler(url, new HTMLParser(url, HttpFetcher.getDefault(), pages),
+                    new PooledCrawlExecution(WebCrawler.MAX_THREADS), scheduler,
+                    new JsonResultSink(outputDir.resolve(job.getId())));
+            crawler.setPageCache(pages);
+            if (crawler.getDomain() == null) {
+                closePageCache(pages);
+                job.failed("Cannot crawl '" + url + "'");
+                return;
+            }
+            crawler.setRobots(new RobotsCache(scheduler));
+            crawler.setSitemapReader(new SitemapReader());
+
+            job.started(crawler);
+
+            job.completed(crawler.crawl().values());
+            cache.put(url, job.getResults());
+        } catch (RuntimeException e) {
+            LOGGER.error("Crawl job {} failed: {}", job.getId(), e.toString());
+            job.failed("Crawl failed: " + e.getMessage());
+        } finally {
+            // The result is cached before the job stops being active, so a new submission finds one or the other
+            synchronized (active) {
+                active.remove(url, job);
+            }
+        }
+    }
+
+    /**
+     * Opens the page cache of the given seed URL, in a directory named after the seed, so the crawls of one seed never
+     * share a cache file with those of another, which may be running at the same time.
+     *
+     * @return the page cache, or {@code null} if page caching is disabled or the cache cannot be opened.
+     */
+    private PageCache openPageCache(String seed) {
+        if (pageCacheDir == null) {
+            return null;
+        }
+
+        Path directory = pageCacheDir.resolve(UUID.nameUUIDFromBytes(seed.getBytes(StandardCharsets.UTF_8)).toString());
+        try {
+            return PageCache.open(directory);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot open page cache '{}', fetching pages in full: {}", directory, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void closePageCache(PageCache pages) {
+        if (pages == null) {
+            return;
+        }
+
+        try {
+            pages.close();
+        } catch (IOException e) {
+            LOGGER.error("Cannot close page cache : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Normalizes the given seed URL, giving it a root path if it has none, so every spelling of an address maps to the
+     * same running job, cached result and page cache.
+     */
+    private static String normalizeSeed(String url) {
+        String seed = URLUtility.normalizeURL(url.trim());
+
+        int schemeEnd = seed.indexOf("://");
+        if (schemeEnd <= 0) {
+            return seed;
+        }
+
+        int pathStart = schemeEnd + 3;
+        while (pathStart < seed.length() && seed.charAt(pathStart) != '/' && seed.charAt(pathStart) != '?') {
+            pathStart++;
+        }
+        if (pathStart == seed.length() || seed.charAt(pathStart) == '?') {
+            return seed.substring(0, pathStart) + '/' + seed.substring(pathStart);
+        }
+        return seed;
+    }
+
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - MAX_RETAINED_JOBS;
+        if (excess <= 0) {
+            return;
+        }
+
+        List<String> evicted = jobs.values().stream()
+                .filter(CrawlJob::isFinished)
+                .sorted(Comparator.comparingLong(CrawlJob::getFinishedAt))
+                .limit(excess)
+                .map(CrawlJob::getId)
+                .collect(Collectors.toList());
+
+        for (String id : evicted) {
+            if (jobs.remove(id) != null) {
+                deleteResults(outputDir.resolve(id));
+            }
+        }
+    }
+
+    /**
+     * Deletes the result directory of an evicted job, which no one can poll anymore.
+     */
+    private static void deleteResults(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+
+        // Delete the deepest paths first, so every directory is empty by the time it is deleted
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot delete results '{}': {}", directory, e.getMessage());
+        }
+    }
+}
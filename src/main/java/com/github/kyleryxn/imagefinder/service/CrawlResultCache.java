@@ -0,0 +1,154 @@
+package com.github.kyleryxn.imagefinder.service;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory cache of finished crawl results, keyed by seed URL. Entries expire after a fixed time to live, and the
+ * least recently used entries are evicted once either the number of entries or their estimated size in bytes exceeds
+ * its limit. A result larger than the byte limit on its own is never cached.
+ */
+public class CrawlResultCache {
+    public static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // Rough per-object overheads of an Image and its three strings on a 64-bit JVM
+    private static final int IMAGE_OVERHEAD_BYTES = 32;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // Access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * Constructor for creating a CrawlResultCache with the default limits.
+     */
+    public CrawlResultCache() {
+        this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructor for creating a CrawlResultCache.
+     *
+     * @param ttlMillis how long a result is served from the cache, in milliseconds.
+     * @param maxEntries the maximum number of cached results.
+     * @param maxBytes the maximum estimated size of all cached results, in bytes.
+     */
+    public CrawlResultCache(long ttlMillis, int maxEntries, long maxBytes) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached result for the given seed URL.
+     *
+     * @param seed the seed URL of the crawl.
+     * @return the cached images, or {@code null} if there is no result or it has expired.
+     */
+    public synchronized List<Image> get(String seed) {
+        Entry entry = entries.get(seed);
+        if (entry == null) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() - entry.createdAt >= ttlMillis) {
+            remove(seed);
+            return null;
+        }
+
+        return entry.images;
+    }
+
+    /**
+     * Caches the result of a crawl, replacing any earlier result for the same seed URL.
+     *
+     * @param seed the seed URL of the crawl.
+     * @param images the images found by the crawl.
+     */
+    public synchronized void put(String seed, List<Image> images) {
+        remove(seed);
+
+        long bytes = estimateSize(images);
+        if (bytes > maxBytes || maxEntries <= 0) {
+            return;
+        }
+
+        entries.put(seed, new Entry(Collections.unmodifiableList(images), bytes, System.currentTimeMillis()));
+        totalBytes += bytes;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || totalBytes > maxBytes) {
+            totalBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Removes the cached result for the given seed URL.
+     *
+     * @param seed the seed URL of the crawl.
+     */
+    public synchronized void invalidate(String seed) {
+        remove(seed);
+    }
+
+    /**
+     * Returns the number of cached results, including expired results that have not been removed yet.
+     *
+     * @return the number of cached results.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated size of all cached results.
+     *
+     * @return the estimated size in bytes.
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void remove(String seed) {
+        Entry removed = entries.remove(seed);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+        }
+    }
+
+    private static long estimateSize(List<Image> images) {
+        long bytes = 0;
+        for (Image image : images) {
+            bytes += IMAGE_OVERHEAD_BYTES + sizeOf(image.getName()) + sizeOf(image.getDomain()) + sizeOf(image.getUrl());
+        }
+        return bytes;
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    private static final class Entry {
+        private final List<Image> images;
+        private final long bytes;
+        private final long createdAt;
+
+        private Entry(List<Image> images, long bytes, long createdAt) {
+            this.images = images;
+            this.bytes = bytes;
+            this.createdAt = createdAt;
+        }
+    }
+}
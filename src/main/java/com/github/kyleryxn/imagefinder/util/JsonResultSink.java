@@ -0,0 +1,209 @@
+package com.github.kyleryxn.imagefinder.util;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.Statistic;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link ResultSink} that streams results as newline-delimited JSON (NDJSON) using a Gson {@link JsonWriter}. Each
+ * crawled page appends one compact line to {@code images.ndjson} and one to {@code sitemap.ndjson} in the output
+ * directory, and the statistics are written to {@code stats.json} when the crawl finishes, along with the clusters of
+ * duplicate images to {@code duplicates.json} if the crawl fingerprinted its images. Every line is flushed as it
+ * is written, so the results of all pages crawled so far are on disk even if the JVM dies mid-crawl.
+ * <p>
+ * In gzip mode the page files are written as {@code images.ndjson.gz} and {@code sitemap.ndjson.gz}, using sync
+ * flushes so each line is still durable before the file is complete.
+ */
+public class JsonResultSink implements ResultSink {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonResultSink.class);
+    private static final Type IMAGE_SET_TYPE = new TypeToken<Set<Image>>() {}.getType();
+    private static final Type LINK_SET_TYPE = new TypeToken<Set<String>>() {}.getType();
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private final Path directory;
+    private final boolean gzip;
+    private LineWriter images;
+    private LineWriter sitemap;
+    private boolean closed;
+
+    /**
+     * Constructor for creating a JsonResultSink that writes plain NDJSON files.
+     *
+     * @param directory the directory the result files are written to, created if it does not exist.
+     */
+    public JsonResultSink(Path directory) {
+        this(directory, false);
+    }
+
+    /**
+     * Constructor for creating a JsonResultSink.
+     *
+     * @param directory the directory the result files are written to, created if it does not exist.
+     * @param gzip whether the page files are gzip compressed.
+     */
+    public JsonResultSink(Path directory, boolean gzip) {
+        this.directory = directory;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Returns the directory the result files are written to.
+     *
+     * @return the output directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void writePage(String url, Set<String> links, Set<Image> imagesOnPage) {
+        if (closed) {
+            LOGGER.warn("Result sink closed, dropping results of {}", url);
+            return;
+        }
+
+        try {
+            if (images == null) {
+                open();
+            }
+
+            images.writeLine(url, "images", imagesOnPage, IMAGE_SET_TYPE);
+            sitemap.writeLine(url, "links", links, LINK_SET_TYPE);
+        } catch (IOException e) {
+            LOGGER.error("Cannot write results of {} : {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeStatistic(Statistic statistic) {
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(directory.resolve("stats.json"), StandardCharsets.UTF_8)) {
+                gson.toJson(statistic, writer);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Cannot write file : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeDuplicates(List<List<Image>> clusters) {
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(directory.resolve("duplicates.json"), StandardCharsets.UTF_8)) {
+                gson.toJson(clusters, writer);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Cannot write file : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+
+        if (images != null) {
+            try {
+                images.close();
+            } finally {
+                sitemap.close();
+            }
+            LOGGER.info("Crawl results have been written to '{}'", directory);
+        }
+    }
+
+    /**
+     * Opens both result files, or neither: if the second cannot be opened, the first is closed again, so the next page
+     * tries again and closing the sink has nothing to close.
+     */
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        LineWriter imagesWriter = new LineWriter(directory.resolve(fileName("images")), gzip);
+        try {
+            sitemap = new LineWriter(directory.resolve(fileName("sitemap")), gzip);
+        } catch (IOException | RuntimeException e) {
+            try {
+                imagesWriter.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        images = imagesWriter;
+    }
+
+    private String fileName(String name) {
+        return gzip ? name + ".ndjson.gz" : name + ".ndjson";
+    }
+
+    /**
+     * Writes one JSON object per line to a plain or gzip compressed file.
+     */
+    private static final class LineWriter {
+        private final Writer writer;
+        private final JsonWriter json;
+
+        private LineWriter(Path file, boolean gzip) throws IOException {
+            OutputStream out = Files.newOutputStream(file);
+            if (gzip) {
+                try {
+                    out = new GZIPOutputStream(out, true);
+                } catch (IOException e) {
+                    out.close();
+                    throw e;
+                }
+            }
+
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.json = new JsonWriter(writer);
+            this.json.setLenient(true); // One top-level value per line
+            this.json.setHtmlSafe(false);
+        }
+
+        private void writeLine(String url, String name, Set<?> values, Type type) throws IOException {
+            json.beginObject();
+            json.name("url").value(url);
+            json.name(name);
+            gson.toJson(values, type, json);
+            json.endObject();
+            writer.write('\n');
+            json.flush();
+        }
+
+        private void close() throws IOException {
+            json.close();
+        }
+    }
+}
@@ -7,52 +7,69 @@ import com.google.gson.GsonBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Utility class for writing a {@link Map} of {@link String} paired with a {@link Set} of type {@link Image} to a JSON file using {@link Gson} library.
+ * For writing results while a crawl is still running, see {@link JsonResultSink}.
  */
 public class ResourceUtility {
     private static final Logger LOGGER = LoggerFactory.getLogger(ResourceUtility.class);
-    private static final String FILE_PATH = "src/main/webapp/WEB-INF/";
+    public static final String FILE_PATH = "src/main/webapp/WEB-INF/";
     private static final Gson gson = new GsonBuilder()
             .disableHtmlEscaping()
             .setPrettyPrinting()
             .create();
 
     /**
-     * Writes a {@link Map} of Strings to Sets of Images to a JSON file.
+     * Writes a {@link Map} of Strings to Sets of Images to a JSON file in the default directory ({@link #FILE_PATH}).
      *
      * @param map the Map of Strings to Sets of T to be written to JSON
      * @see Set
      * @see Image
      */
     public static <T> void writeMapToJson(String filename, Map<String, Set<T>> map) {
-        String json = gson.toJson(map);
+        writeMapToJson(Paths.get(FILE_PATH), filename, map);
+    }
 
-        try (Writer writer = new FileWriter(FILE_PATH + filename);
-             BufferedWriter bufferedWriter = new BufferedWriter(writer)) {
+    /**
+     * Writes a {@link Map} of Strings to Sets of Images to a JSON file in the given directory. The JSON is streamed to
+     * the file as it is generated rather than built as one String first.
+     *
+     * @param directory the directory to write the file to.
+     * @param map the Map of Strings to Sets of T to be written to JSON
+     * @see Set
+     * @see Image
+     */
+    public static <T> void writeMapToJson(Path directory, String filename, Map<String, Set<T>> map) {
+        Path file = directory.resolve(filename);
 
-            bufferedWriter.write(json);
-            System.out.println("Image map data has been written to '" + FILE_PATH + filename + "'");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(map, writer);
+            System.out.println("Image map data has been written to '" + file + "'");
         } catch (IOException e) {
             LOGGER.error("Cannot write file : {}", e.getMessage());
         }
     }
 
+    /**
+     * Writes the crawl statistics to {@code stats.json} in the default directory ({@link #FILE_PATH}).
+     *
+     * @param statistics the crawl statistics.
+     */
     public static void writeStatsToJson(Statistic statistics) {
-        String json = gson.toJson(statistics);
-
-        try (Writer writer = new FileWriter(FILE_PATH + "stats.json");
-             BufferedWriter bufferedWriter = new BufferedWriter(writer)) {
+        Path file = Paths.get(FILE_PATH, "stats.json");
 
-            bufferedWriter.write(json);
-            System.out.println("Statistics data has been written to '" + FILE_PATH + "stats.json" + "'");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(statistics, writer);
+            System.out.println("Statistics data has been written to '" + file + "'");
         } catch (IOException e) {
             LOGGER.error("Cannot write file : {}", e.getMessage());
         }
@@ -0,0 +1,50 @@
+package com.github.kyleryxn.imagefinder.util;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.Statistic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interface for the destination of crawl results. Pages are written one at a time as soon as they have been crawled,
+ * so results never have to be held and serialized all at once and survive a crawl that is cut short.
+ * Implementations must allow {@link #writePage(String, Set, Set)} to be called from several threads at once.
+ */
+public interface ResultSink extends Closeable {
+
+    /**
+     * Writes the results of a single crawled page.
+     *
+     * @param url the URL of the page.
+     * @param links the links found on the page.
+     * @param images the images found on the page.
+     */
+    void writePage(String url, Set<String> links, Set<Image> images);
+
+    /**
+     * Writes the statistics of a finished crawl.
+     *
+     * @param statistic the crawl statistics.
+     */
+    void writeStatistic(Statistic statistic);
+
+    /**
+     * Writes the clusters of duplicate images found by a crawl that fingerprints its images. Sinks that do not keep
+     * duplicates ignore them.
+     *
+     * @param clusters the clusters of duplicate images, each holding at least two images.
+     */
+    default void writeDuplicates(List<List<Image>> clusters) {
+    }
+
+    /**
+     * Flushes and closes the sink. No pages can be written afterwards.
+     *
+     * @throws IOException if flushing or closing fails.
+     */
+    @Override
+    void close() throws IOException;
+}
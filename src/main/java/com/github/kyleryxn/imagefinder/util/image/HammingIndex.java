@@ -0,0 +1,147 @@
+package com.github.kyleryxn.imagefinder.util.image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A multi-index hash of 64-bit hashes under the Hamming distance, for finding every hash within a given distance of
+ * another without comparing it against all of them. Each hash is split into four 16-bit chunks, and each chunk is filed
+ * in a table of its own, indexed directly by the value of the chunk. Two hashes at most {@code radius} bits apart
+ * differ in at most {@code radius / 4} bits in at least one of their chunks, so a search only has to look at the
+ * table entries within that distance of each chunk of the query, then check the full distance of what it finds there.
+ * <p>
+ * For the small radii used to find near-duplicate images a search only checks a small share of the hashes: 17 of the
+ * 65536 values of each chunk for a radius of 4 to 7, and 137 for a radius of 8 to 11, about 1% of the index. A BK-tree was
+ * measured to be slower than a linear scan for hashes of this length, as nearly every node is about 32 bits from the
+ * query and little of the tree can be pruned. This class is not thread-safe.
+ *
+ * @param <T> the type of the values stored with the hashes.
+ */
+public class HammingIndex<T> {
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = ImageFingerprints.HASH_BITS / CHUNKS;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private final int[][][] tables = new int[CHUNKS][1 << CHUNK_BITS][];
+    private final int[][] tableSizes = new int[CHUNKS][1 << CHUNK_BITS];
+    private long[] hashes = new long[1024];
+    private Object[] values = new Object[1024];
+    private int size;
+
+    /**
+     * Adds a value under the given hash.
+     *
+     * @param hash the hash of the value.
+     * @param value the value.
+     */
+    public void add(long hash, T value) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        hashes[size] = hash;
+        values[size] = value;
+
+        for (int c = 0; c < CHUNKS; c++) {
+            int chunk = chunk(hash, c);
+            int[] bucket = tables[c][chunk];
+            int count = tableSizes[c][chunk];
+            if (bucket == null) {
+                bucket = tables[c][chunk] = new int[2];
+            } else if (count == bucket.length) {
+                bucket = tables[c][chunk] = Arrays.copyOf(bucket, count * 2);
+            }
+            bucket[count] = size;
+            tableSizes[c][chunk] = count + 1;
+        }
+        size++;
+    }
+
+    /**
+     * Returns the values whose hashes are within the given Hamming distance of the given hash.
+     *
+     * @param hash the hash to search around.
+     * @param radius the maximum Hamming distance, inclusive.
+     * @return the values found, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> search(long hash, int radius) {
+        List<Object> found = new ArrayList<>();
+        int chunkRadius = Math.min(CHUNK_BITS, radius / CHUNKS);
+
+        for (int c = 0; c < CHUNKS; c++) {
+            int chunk = chunk(hash, c);
+            // Every value of the chunk within chunkRadius bits: flip each combination of up to chunkRadius bits
+            int[] flips = new int[chunkRadius];
+            for (int bits = 0; bits <= chunkRadius; bits++) {
+                for (int i = 0; i < bits; i++) {
+                    flips[i] = i;
+                }
+                do {
+                    int key = chunk;
+                    for (int i = 0; i < bits; i++) {
+                        key ^= 1 << flips[i];
+                    }
+                    collect(hash, radius, chunkRadius, c, key, found);
+                } while (nextCombination(flips, bits));
+            }
+        }
+        return (List<T>) found;
+    }
+
+    /**
+     * Returns the number of values in the index.
+     *
+     * @return the number of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void collect(long hash, int radius, int chunkRadius, int table, int key, List<Object> found) {
+        int[] bucket = tables[table][key];
+        int count = tableSizes[table][key];
+        for (int i = 0; i < count; i++) {
+            int id = bucket[i];
+            long candidate = hashes[id];
+            if (ImageFingerprints.distance(hash, candidate) <= radius && firstMatchingTable(hash, candidate,
+                    chunkRadius) == table) {
+                found.add(values[id]);
+            }
+        }
+    }
+
+    /**
+     * Returns the first table in which the candidate is found by a search for the hash, so a candidate close to the
+     * hash in several chunks is reported by one table only.
+     */
+    private static int firstMatchingTable(long hash, long candidate, int chunkRadius) {
+        for (int c = 0; c < CHUNKS; c++) {
+            if (Integer.bitCount(chunk(hash, c) ^ chunk(candidate, c)) <= chunkRadius) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Advances to the next combination of {@code bits} distinct bit positions in increasing order.
+     */
+    private static boolean nextCombination(int[] flips, int bits) {
+        for (int i = bits - 1; i >= 0; i--) {
+            if (flips[i] < CHUNK_BITS - bits + i) {
+                flips[i]++;
+                for (int j = i + 1; j < bits; j++) {
+                    flips[j] = flips[j - 1] + 1;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int chunk(long hash, int index) {
+        return (int) (hash >>> (index * CHUNK_BITS)) & CHUNK_MASK;
+    }
+}
@@ -0,0 +1,354 @@
+package com.github.kyleryxn.imagefinder.util.image;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.util.url.URLResolver;
+
+import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Collects the images of a page from the tags of the page, fed to it one by one in document order by a parser, so
+ * that every source of images is found in the same single pass:
+ * <ul>
+ *     <li>img tags: the largest candidate of srcset or data-srcset, else the lazy-loading data-src, data-lazy-src or
+ *     data-original, else src,</li>
+ *     <li>picture elements: the largest candidate of their source tags and their img tag, as one image,</li>
+ *     <li>style attributes of any tag: the URLs of a background or background-image declaration, and</li>
+ *     <li>meta tags: the og:image and twitter:image of the page.</li>
+ * </ul>
+ * Only one image is taken per img tag or picture element, rather than every resolution of it, so a page written for
+ * high density screens does not multiply the results. The largest candidate is the one with the largest width
+ * descriptor, or else the largest density descriptor.
+ * <p>
+ * Candidates with an image extension are kept, those with the extension of a known non-image resource are dropped,
+ * and those with neither are kept too, to be checked by the type of their content, see
+ * {@link ImageUtility#needsTypeCheck(String)}. Images are unique by URL, the first tag found naming them.
+ */
+public class ImageCandidates {
+
+    /**
+     * Reads the attributes of the current tag.
+     */
+    public interface Attributes {
+
+        /**
+         * Returns the value of an attribute, with character references decoded.
+         *
+         * @param name the lowercase name of the attribute.
+         * @return the value, or {@code null} if the tag does not have the attribute.
+         */
+        String get(String name);
+    }
+
+    public static final String[] ATTRIBUTES = {
+            "src", "srcset", "data-src", "data-srcset", "data-lazy-src", "data-original", "alt", "style",
+            "property", "name", "content"
+    };
+
+    private static final String[] LAZY_SOURCES = {"data-src", "data-lazy-src", "data-original"};
+
+    private final Set<Image> images = new LinkedHashSet<>();
+    private URL base;
+
+    // The best candidate of the picture element being read, if any
+    private boolean inPicture;
+    private String pictureUrl;
+    private double pictureScore;
+    private String pictureAlt;
+
+    /**
+     * Constructor for ImageCandidates.
+     *
+     * @param base the URL relative URLs are resolved against, or {@code null} to only accept absolute URLs.
+     */
+    public ImageCandidates(URL base) {
+        this.base = base;
+    }
+
+    /**
+     * Changes the URL relative URLs of the following tags are resolved against, for a base tag.
+     *
+     * @param base the new base URL.
+     */
+    public void setBase(URL base) {
+        this.base = base;
+    }
+
+    /**
+     * Collects the candidates of a start tag.
+     *
+     * @param tag the lowercase name of the tag.
+     * @param attributes the attributes of the tag.
+     */
+    public void startTag(String tag, Attributes attributes) {
+        switch (tag) {
+            case "img":
+            case "image":
+                addImg(attributes);
+                break;
+            case "picture":
+                inPicture = true;
+                pictureUrl = null;
+                pictureScore = -1;
+                pictureAlt = null;
+                break;
+            case "source":
+                if (inPicture) {
+                    offerToPicture(attributes.get("srcset"), attributes.get("data-srcset"), null);
+                }
+                break;
+            case "meta":
+                addMeta(attributes);
+                break;
+            default:
+                break;
+        }
+
+        String style = attributes.get("style");
+        if (style != null) {
+            addBackgrounds(style);
+        }
+    }
+
+    /**
+     * Ends the element of an end tag, which adds the image of a picture element.
+     *
+     * @param tag the lowercase name of the tag.
+     */
+    public void endTag(String tag) {
+        if (tag.equals("picture") && inPicture) {
+            inPicture = false;
+            if (pictureUrl != null) {
+                add(pictureUrl, pictureAlt);
+            }
+        }
+    }
+
+    /**
+     * Returns the images collected so far. A picture element that was never closed is added first.
+     *
+     * @return a mutable {@link Set} of images, in the order they were found.
+     */
+    public Set<Image> getImages() {
+        endTag("picture");
+        return images;
+    }
+
+    private void addImg(Attributes attributes) {
+        String alt = attributes.get("alt");
+        String src = attributes.get("src");
+        if (src != null && (src.isEmpty() || src.startsWith("data:"))) {
+            // A placeholder while the real source is loaded lazily
+            src = null;
+        }
+        for (String lazy : LAZY_SOURCES) {
+            String value = attributes.get(lazy);
+            if (value != null && !value.isEmpty()) {
+                src = value;
+                break;
+            }
+        }
+
+        if (inPicture) {
+            // The fallback of the picture, which it replaces when no source is larger
+            offerToPicture(attributes.get("srcset"), attributes.get("data-srcset"), src);
+            if (pictureAlt == null) {
+                pictureAlt = alt;
+            }
+            return;
+        }
+
+        String best = largest(attributes.get("data-srcset"), largest(attributes.get("srcset"), null));
+        if (best == null) {
+            best = src;
+        }
+        if (best != null) {
+            add(best, alt);
+        }
+    }
+
+    private void offerToPicture(String srcset, String lazySrcset, String src) {
+        for (String set : new String[]{srcset, lazySrcset}) {
+            Candidate candidate = Candidate.largestOf(set);
+            if (candidate != null && candidate.score > pictureScore) {
+                pictureUrl = candidate.url;
+                pictureScore = candidate.score;
+            }
+        }
+        if (src != null && pictureUrl == null) {
+            pictureUrl = src;
+            pictureScore = 0;
+        }
+    }
+
+    private void addMeta(Attributes attributes) {
+        String property = attributes.get("property");
+        if (property == null) {
+            property = attributes.get("name");
+        }
+        if (property == null) {
+            return;
+        }
+
+        switch (property.trim().toLowerCase(Locale.ROOT)) {
+            case "og:image":
+            case "og:image:url":
+            case "og:image:secure_url":
+            case "twitter:image":
+            case "twitter:image:src":
+                String content = attributes.get("content");
+                if (content != null) {
+                    add(content.trim(), null);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds the URLs of url() functions in background and background-image declarations of a style attribute.
+     */
+    private void addBackgrounds(String style) {
+        String lower = style.toLowerCase(Locale.ROOT);
+        int declaration = lower.indexOf("background");
+        while (declaration >= 0) {
+            int end = lower.indexOf(';', declaration);
+            if (end < 0) {
+                end = lower.length();
+            }
+
+            int function = lower.indexOf("url(", declaration);
+            while (function >= 0 && function < end) {
+                int close = lower.indexOf(')', function);
+                if (close < 0) {
+                    return;
+                }
+                String url = unquote(style.substring(function + 4, close).trim());
+                if (!url.isEmpty()) {
+                    add(url, null);
+                }
+                function = lower.indexOf("url(", close);
+            }
+            declaration = lower.indexOf("background", end);
+        }
+    }
+
+    private void add(String value, String alt) {
+        if (value.startsWith("data:")) {
+            return;
+        }
+
+        String url = URLResolver.resolve(base, value);
+        if (url.isEmpty() || !(url.startsWith("http:") || url.startsWith("https:"))
+                || !(ImageUtility.isValidImageExtension(url) || ImageUtility.needsTypeCheck(url))) {
+            return;
+        }
+
+        Image image = ImageFactory.createImage(url, alt);
+        if (image != null) {
+            images.add(image);
+        }
+    }
+
+    /**
+     * Returns the URL of the largest candidate of a srcset, or the given fallback if it has none or it is larger.
+     */
+    private static String largest(String srcset, String fallback) {
+        Candidate candidate = Candidate.largestOf(srcset);
+        return candidate != null ? candidate.url : fallback;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1).trim();
+        }
+        return value;
+    }
+
+    /**
+     * A candidate of a srcset: a URL and a score, its width descriptor, or its density descriptor scaled far below any
+     * width, so width descriptors win when a srcset mixes both. A candidate without a descriptor has a density of 1.
+     */
+    private static final class Candidate {
+        private static final double DENSITY_SCALE = 1e-3;
+
+        private final String url;
+        private final double score;
+
+        private Candidate(String url, double score) {
+            this.url = url;
+            this.score = score;
+        }
+
+        /**
+         * Parses a srcset the way browsers do: a URL runs up to whitespace, a trailing comma ends it without a
+         * descriptor, and a descriptor runs up to the next comma.
+         */
+        private static Candidate largestOf(String srcset) {
+            if (srcset == null) {
+                return null;
+            }
+
+            Candidate best = null;
+            int i = 0;
+            int length = srcset.length();
+            while (i < length) {
+                while (i < length && (Character.isWhitespace(srcset.charAt(i)) || srcset.charAt(i) == ',')) {
+                    i++;
+                }
+                int start = i;
+                while (i < length && !Character.isWhitespace(srcset.charAt(i))) {
+                    i++;
+                }
+                if (start == i) {
+                    break;
+                }
+
+                int urlEnd = i;
+                String descriptor = "";
+                if (srcset.charAt(urlEnd - 1) == ',') {
+                    while (urlEnd > start && srcset.charAt(urlEnd - 1) == ',') {
+                        urlEnd--;
+                    }
+                } else {
+                    int comma = srcset.indexOf(',', i);
+                    int descriptorEnd = comma < 0 ? length : comma;
+                    descriptor = srcset.substring(i, descriptorEnd).trim();
+                    i = descriptorEnd;
+                }
+
+                if (urlEnd > start) {
+                    double score = score(descriptor);
+                    if (score >= 0 && (best == null || score > best.score)) {
+                        best = new Candidate(srcset.substring(start, urlEnd), score);
+                    }
+                }
+            }
+            return best;
+        }
+
+        private static double score(String descriptor) {
+            if (descriptor.isEmpty()) {
+                return DENSITY_SCALE;
+            }
+
+            char unit = Character.toLowerCase(descriptor.charAt(descriptor.length() - 1));
+            try {
+                double value = Double.parseDouble(descriptor.substring(0, descriptor.length() - 1));
+                if (unit == 'w') {
+                    return value;
+                }
+                if (unit == 'x') {
+                    return value * DENSITY_SCALE;
+                }
+            } catch (NumberFormatException e) {
+                // An invalid descriptor makes the candidate invalid
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.kyleryxn.imagefinder.util.image;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups images that show the same picture into clusters, in three stages of increasing cost:
+ * <ol>
+ *     <li>images with a URL already in the index are ignored,</li>
+ *     <li>images whose content hash is already in the index join the cluster of that file, and</li>
+ *     <li>other images join the clusters of every image whose perceptual hash is within {@link #getMaxDistance()}
+ *     bits of theirs, found through a {@link HammingIndex}.</li>
+ * </ol>
+ * The fingerprints are taken from the {@link ImageMetadata} of the images, which an {@link ImageProber} created with
+ * this index fills in. Clusters are kept in a union-find, so near-duplicates link transitively: a chain of slightly
+ * different images ends up in one cluster even if its ends are further apart than the maximum distance.
+ * <p>
+ * All methods are synchronized, so the probes of a crawl can add images concurrently.
+ */
+public class ImageDuplicateIndex {
+    public static final int DEFAULT_MAX_DISTANCE = 10;
+
+    private final int maxDistance;
+    private final Map<String, Integer> urls = new HashMap<>();
+    private final Map<String, Integer> contentHashes = new HashMap<>();
+    private final HammingIndex<Integer> perceptualHashes = new HammingIndex<>();
+    private final List<Image> images = new ArrayList<>();
+    private int[] parents = new int[1024];
+
+    /**
+     * Constructor for creating an ImageDuplicateIndex with the {@link #DEFAULT_MAX_DISTANCE}.
+     */
+    public ImageDuplicateIndex() {
+        this(DEFAULT_MAX_DISTANCE);
+    }
+
+    /**
+     * Constructor for creating an ImageDuplicateIndex.
+     *
+     * @param maxDistance the number of bits in which the perceptual hashes of two near-duplicates may differ.
+     */
+    public ImageDuplicateIndex(int maxDistance) {
+        if (maxDistance < 0 || maxDistance > ImageFingerprints.HASH_BITS) {
+            throw new IllegalArgumentException("Maximum distance must be between 0 and " + ImageFingerprints.HASH_BITS);
+        }
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Adds an image to the index and links it to its duplicates.
+     *
+     * @param image the image, with its fingerprints in its metadata.
+     * @return {@code true} if the image was added, {@code false} if its URL is already in the index or it has no
+     *         content hash.
+     */
+    public synchronized boolean add(Image image) {
+        ImageMetadata metadata = image.getMetadata();
+        if (metadata == null || metadata.getContentHash() == null || urls.containsKey(image.getUrl())) {
+            return false;
+        }
+
+        int id = images.size();
+        images.add(image);
+        urls.put(image.getUrl(), id);
+        if (id == parents.length) {
+            parents = Arrays.copyOf(parents, id * 2);
+        }
+        parents[id] = id;
+
+        Integer identical = contentHashes.putIfAbsent(metadata.getContentHash(), id);
+        if (identical != null) {
+            // The same file under another URL; its perceptual hash is already indexed
+            union(id, identical);
+            return true;
+        }
+
+        Long hash = metadata.getPerceptualHash();
+        if (hash != null) {
+            for (int similar : perceptualHashes.search(hash, maxDistance)) {
+                union(id, similar);
+            }
+            perceptualHashes.add(hash, id);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the images in the index whose perceptual hashes are within the maximum distance of the given one.
+     *
+     * @param perceptualHash the perceptual hash to search around.
+     * @return the similar images, in no particular order.
+     */
+    public synchronized List<Image> findSimilar(long perceptualHash) {
+        List<Image> similar = new ArrayList<>();
+        for (int id : perceptualHashes.search(perceptualHash, maxDistance)) {
+            similar.add(images.get(id));
+        }
+        return similar;
+    }
+
+    /**
+     * Returns the clusters of duplicate images, each holding at least two images.
+     *
+     * @return the clusters, largest first, each in the order its images were added.
+     */
+    public synchronized List<List<Image>> getClusters() {
+        Map<Integer, List<Image>> clusters = new LinkedHashMap<>();
+        for (int id = 0; id < images.size(); id++) {
+            clusters.computeIfAbsent(find(id), root -> new ArrayList<>()).add(images.get(id));
+        }
+
+        List<List<Image>> duplicates = new ArrayList<>();
+        for (List<Image> cluster : clusters.values()) {
+            if (cluster.size() > 1) {
+                duplicates.add(cluster);
+            }
+        }
+        duplicates.sort(Comparator.comparingInt(cluster -> -cluster.size()));
+        return duplicates;
+    }
+
+    /**
+     * Returns the number of images in the index.
+     *
+     * @return the number of images.
+     */
+    public synchronized int size() {
+        return images.size();
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    private int find(int id) {
+        while (parents[id] != id) {
+            // Path halving keeps the trees flat without recursion
+            parents[id] = parents[parents[id]];
+            id = parents[id];
+        }
+        return id;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            // The older root stays, so a cluster is named after its first image
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
@@ -16,31 +16,38 @@ public class ImageFactory {
      * @return an Image object representing the image extracted from the img or link tag, or null if the image could not be created.
      */
     public static Image createImage(Element imgTag) {
-        String url = null;
-        String domain = null;
-        String name = "None";
-        boolean isLogo = false;
-        boolean isFavicon = false;
-
         if (imgTag.hasAttr("src")) {
-            url = imgTag.absUrl("src");
-            domain = URLUtility.getDomain(url);
-            isLogo = url.contains("logo");
-
-            if (imgTag.hasAttr("alt")) {
-                name = !imgTag.attr("alt").isEmpty() ? imgTag.attr("alt") : "None";
-            }
-
+            return createImage(imgTag.absUrl("src"), imgTag.attr("alt"));
         } else if (imgTag.hasAttr("href")) {
-            url = imgTag.absUrl("href");
-            domain = URLUtility.getDomain(url);
-            isFavicon = true;
-        }
-
-        if (url != null && domain != null) {
-            return new Image(name, domain, isLogo, isFavicon, url);
+            return createFavicon(imgTag.absUrl("href"));
         } else {
             return null;
         }
     }
+
+    /**
+     * Creates an {@link Image} object from the attributes of an img tag, for parsers that do not build elements.
+     *
+     * @param url the absolute URL of the image.
+     * @param alt the alt text of the img tag, or {@code null} if it has none.
+     * @return an Image object representing the image, or null if the domain of the URL cannot be determined.
+     */
+    public static Image createImage(String url, String alt) {
+        String domain = URLUtility.getDomain(url);
+        String name = alt != null && !alt.isEmpty() ? alt : "None";
+
+        return domain != null ? new Image(name, domain, url.contains("logo"), false, url) : null;
+    }
+
+    /**
+     * Creates a favicon {@link Image} object from the href of a link tag, for parsers that do not build elements.
+     *
+     * @param url the absolute URL of the favicon.
+     * @return an Image object representing the favicon, or null if the domain of the URL cannot be determined.
+     */
+    public static Image createFavicon(String url) {
+        String domain = URLUtility.getDomain(url);
+
+        return domain != null ? new Image("None", domain, false, true, url) : null;
+    }
 }
@@ -0,0 +1,110 @@
+package com.github.kyleryxn.imagefinder.util.image;
+
+import java.awt.image.BufferedImage;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the fingerprints used to find duplicate images:
+ * <ul>
+ *     <li>the content hash, the SHA-256 of the file, which is equal only for byte-identical files, and</li>
+ *     <li>the difference hash (dHash) of the pixels, which is close in Hamming distance for images that look alike,
+ *     such as the same picture resized, recompressed or converted to another format.</li>
+ * </ul>
+ * The difference hash shrinks the image to 9 by 8 cells of average brightness and sets one bit per pair of
+ * horizontally adjacent cells, telling whether the left one is brighter. It depends on the gradients of the image
+ * rather than on its size, colors or encoding, and costs a single pass over the pixels.
+ */
+public final class ImageFingerprints {
+    public static final int HASH_BITS = 64;
+
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+
+    private ImageFingerprints() {
+    }
+
+    /**
+     * Returns the content hash of the given bytes.
+     *
+     * @param data the bytes of the image file.
+     * @param length the number of valid bytes in {@code data}.
+     * @return the hex SHA-256 of the bytes.
+     */
+    public static String contentHash(byte[] data, int length) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+        digest.update(data, 0, length);
+
+        byte[] hash = digest.digest();
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Returns the difference hash of the given image. Transparent pixels count as white, so a logo on a transparent
+     * background hashes like the same logo on a white one.
+     *
+     * @param image the decoded image.
+     * @return the 64-bit difference hash, the most significant bit being the top left pair of cells.
+     */
+    public static long differenceHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = new double[COLUMNS * ROWS];
+        double[] weights = new double[COLUMNS * ROWS];
+        int[] row = new int[width];
+
+        // Each pixel adds its brightness to the cell it falls in, which averages over the area of the cell
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = y * ROWS / height;
+            for (int x = 0; x < width; x++) {
+                int cell = cellRow * COLUMNS + x * COLUMNS / width;
+                sums[cell] += brightness(row[x]);
+                weights[cell]++;
+            }
+        }
+
+        long hash = 0;
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLUMNS - 1; c++) {
+                int left = r * COLUMNS + c;
+                hash <<= 1;
+                if (average(sums, weights, left) > average(sums, weights, left + 1)) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the number of bits in which two hashes differ.
+     *
+     * @param a the first hash.
+     * @param b the second hash.
+     * @return the Hamming distance, from 0 to {@link #HASH_BITS}.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static double brightness(int argb) {
+        int alpha = argb >>> 24;
+        double luma = 0.299 * ((argb >> 16) & 0xFF) + 0.587 * ((argb >> 8) & 0xFF) + 0.114 * (argb & 0xFF);
+        return (luma * alpha + 255.0 * (255 - alpha)) / 255.0;
+    }
+
+    private static double average(double[] sums, double[] weights, int cell) {
+        // Images narrower than 9 or shorter than 8 pixels leave cells empty; they count as white
+        return weights[cell] > 0 ? sums[cell] / weights[cell] : 255.0;
+    }
+}
@@ -0,0 +1,287 @@
+package com.github.kyleryxn.imagefinder.util.image;
+
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decodes the format and dimensions of an image from the first bytes of its file, without decoding any pixels. The
+ * format is recognized by its signature, not by the extension or the Content-Type of the file:
+ * <ul>
+ *     <li>PNG: the IHDR chunk, which always directly follows the signature,</li>
+ *     <li>GIF: the logical screen descriptor,</li>
+ *     <li>JPEG: the first start of frame (SOF) segment, after skipping the segments before it,</li>
+ *     <li>ICO: the largest image of the icon directory,</li>
+ *     <li>BMP: the bitmap info header,</li>
+ *     <li>WebP: the header of its lossy, lossless or extended format chunk,</li>
+ *     <li>AVIF: the format only, as its dimensions are in a box that may come after the first bytes, and</li>
+ *     <li>SVG: the width and height attributes of the root element in pixels, or else its viewBox.</li>
+ * </ul>
+ * The dimensions are -1 if the header is not complete within the given bytes, for example a JPEG whose metadata
+ * segments are larger than the part of the file that was fetched.
+ */
+public final class ImageHeaderDecoder {
+    private static final Pattern SVG_TAG = Pattern.compile("<svg\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SVG_WIDTH = Pattern.compile("\\swidth\\s*=\\s*[\"']\\s*([0-9.]+)\\s*(px)?\\s*[\"']");
+    private static final Pattern SVG_HEIGHT = Pattern.compile("\\sheight\\s*=\\s*[\"']\\s*([0-9.]+)\\s*(px)?\\s*[\"']");
+    private static final Pattern SVG_VIEW_BOX = Pattern.compile(
+            "\\sviewBox\\s*=\\s*[\"']\\s*[-0-9.]+[\\s,]+[-0-9.]+[\\s,]+([0-9.]+)[\\s,]+([0-9.]+)\\s*[\"']");
+
+    private ImageHeaderDecoder() {
+    }
+
+    /**
+     * Decodes the header of an image.
+     *
+     * @param data the first bytes of the image file.
+     * @param length the number of valid bytes in {@code data}.
+     * @return the format and dimensions of the image, with a size of -1 and no MIME type; the format is {@code null}
+     *         if the bytes do not start with the signature of a supported format.
+     */
+    public static ImageMetadata decode(byte[] data, int length) {
+        if (startsWith(data, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return decodePng(data, length);
+        }
+        if (startsWith(data, length, 'G', 'I', 'F', '8')) {
+            return decodeGif(data, length);
+        }
+        if (startsWith(data, length, 0xFF, 0xD8)) {
+            return decodeJpeg(data, length);
+        }
+        if (startsWith(data, length, 0, 0, 1, 0)) {
+            return decodeIco(data, length);
+        }
+        if (startsWith(data, length, 'B', 'M')) {
+            return decodeBmp(data, length);
+        }
+        if (startsWith(data, length, 'R', 'I', 'F', 'F') && length >= 12
+                && data[8] == 'W' && data[9] == 'E' && data[10] == 'B' && data[11] == 'P') {
+            return decodeWebp(data, length);
+        }
+        if (length >= 12 && data[4] == 'f' && data[5] == 't' && data[6] == 'y' && data[7] == 'p'
+                && data[8] == 'a' && data[9] == 'v' && data[10] == 'i' && (data[11] == 'f' || data[11] == 's')) {
+            return unknown("avif");
+        }
+        if (looksLikeSvg(data, length)) {
+            return decodeSvg(data, length);
+        }
+        return unknown(null);
+    }
+
+    /**
+     * Returns the MIME type of a format recognized by {@link #decode(byte[], int)}.
+     *
+     * @param format the format.
+     * @return the MIME type, or {@code null} if the format is not supported.
+     */
+    public static String mimeTypeOf(String format) {
+        if (format == null) {
+            return null;
+        }
+
+        switch (format) {
+            case "png":
+                return "image/png";
+            case "gif":
+                return "image/gif";
+            case "jpeg":
+                return "image/jpeg";
+            case "ico":
+                return "image/x-icon";
+            case "svg":
+                return "image/svg+xml";
+            case "bmp":
+                return "image/bmp";
+            case "webp":
+                return "image/webp";
+            case "avif":
+                return "image/avif";
+            default:
+                return null;
+        }
+    }
+
+    private static ImageMetadata decodePng(byte[] data, int length) {
+        // Signature (8), chunk length (4), "IHDR" (4), then width and height as big-endian ints
+        if (length < 24 || data[12] != 'I' || data[13] != 'H' || data[14] != 'D' || data[15] != 'R') {
+            return unknown("png");
+        }
+        return known(bigEndianInt(data, 16), bigEndianInt(data, 20), "png");
+    }
+
+    private static ImageMetadata decodeGif(byte[] data, int length) {
+        if (length < 10) {
+            return unknown("gif");
+        }
+        return known(littleEndianShort(data, 6), littleEndianShort(data, 8), "gif");
+    }
+
+    private static ImageMetadata decodeJpeg(byte[] data, int length) {
+        int i = 2;
+        while (i + 3 < length) {
+            if ((data[i] & 0xFF) != 0xFF) {
+                return unknown("jpeg");
+            }
+
+            int marker = data[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // Fill byte before a marker
+                i++;
+                continue;
+            }
+            if (marker == 0xD8 || marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // Markers without a length
+                i += 2;
+                continue;
+            }
+
+            int segmentLength = bigEndianShort(data, i + 2);
+            if (isStartOfFrame(marker)) {
+                // Length (2), precision (1), then height and width as big-endian shorts
+                if (i + 8 >= length) {
+                    return unknown("jpeg");
+                }
+                return known(bigEndianShort(data, i + 7), bigEndianShort(data, i + 5), "jpeg");
+            }
+            if (marker == 0xDA || segmentLength < 2) {
+                // Start of scan without a frame before it, or a corrupt length
+                return unknown("jpeg");
+            }
+            i += 2 + segmentLength;
+        }
+        return unknown("jpeg");
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        // SOF0 to SOF15, except DHT (C4), JPG (C8) and DAC (CC), which share the range
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static ImageMetadata decodeIco(byte[] data, int length) {
+        int count = length >= 6 ? littleEndianShort(data, 4) : 0;
+        int width = -1;
+        int height = -1;
+
+        // Directory entries of 16 bytes follow the header; a size byte of 0 means 256 pixels
+        for (int entry = 0; entry < count && 6 + entry * 16 + 2 <= length; entry++) {
+            int offset = 6 + entry * 16;
+            int entryWidth = data[offset] == 0 ? 256 : data[offset] & 0xFF;
+            int entryHeight = data[offset + 1] == 0 ? 256 : data[offset + 1] & 0xFF;
+            if (width < 0 || entryWidth * entryHeight > width * height) {
+                width = entryWidth;
+                height = entryHeight;
+            }
+        }
+        return known(width, height, "ico");
+    }
+
+    private static ImageMetadata decodeBmp(byte[] data, int length) {
+        // File header (14), info header size (4), then width and height as little-endian ints; the height is negative
+        // for images stored top-down
+        if (length < 26) {
+            return unknown("bmp");
+        }
+        return known(littleEndianInt(data, 18), Math.abs(littleEndianInt(data, 22)), "bmp");
+    }
+
+    private static ImageMetadata decodeWebp(byte[] data, int length) {
+        // The first chunk follows the RIFF header (12) and tells the format
+        if (length < 30) {
+            return unknown("webp");
+        }
+
+        if (data[12] == 'V' && data[13] == 'P' && data[14] == '8' && data[15] == ' ') {
+            // Lossy: the frame header starts with a start code, then 14-bit width and height
+            return known(littleEndianShort(data, 26) & 0x3FFF, littleEndianShort(data, 28) & 0x3FFF, "webp");
+        }
+        if (data[12] == 'V' && data[13] == 'P' && data[14] == '8' && data[15] == 'L') {
+            // Lossless: a signature byte, then width - 1 and height - 1 packed in 14 bits each
+            int bits = littleEndianInt(data, 21);
+            return known((bits & 0x3FFF) + 1, ((bits >> 14) & 0x3FFF) + 1, "webp");
+        }
+        if (data[12] == 'V' && data[13] == 'P' && data[14] == '8' && data[15] == 'X') {
+            // Extended: canvas width - 1 and height - 1 as 24-bit little-endian numbers
+            return known(littleEndian24(data, 24) + 1, littleEndian24(data, 27) + 1, "webp");
+        }
+        return unknown("webp");
+    }
+
+    private static boolean looksLikeSvg(byte[] data, int length) {
+        String start = new String(data, 0, Math.min(length, 1024), StandardCharsets.UTF_8).trim();
+        return start.startsWith("<") && start.toLowerCase(Locale.ROOT).contains("<svg");
+    }
+
+    private static ImageMetadata decodeSvg(byte[] data, int length) {
+        Matcher tag = SVG_TAG.matcher(new String(data, 0, length, StandardCharsets.UTF_8));
+        if (!tag.find()) {
+            return unknown("svg");
+        }
+
+        // Width and height in percent or other units say nothing about pixels; the viewBox is used instead
+        String root = tag.group();
+        Matcher width = SVG_WIDTH.matcher(root);
+        Matcher height = SVG_HEIGHT.matcher(root);
+        if (width.find() && height.find()) {
+            return known(round(width.group(1)), round(height.group(1)), "svg");
+        }
+
+        Matcher viewBox = SVG_VIEW_BOX.matcher(root);
+        if (viewBox.find()) {
+            return known(round(viewBox.group(1)), round(viewBox.group(2)), "svg");
+        }
+        return unknown("svg");
+    }
+
+    private static int round(String number) {
+        try {
+            return (int) Math.round(Double.parseDouble(number));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ImageMetadata known(int width, int height, String format) {
+        return new ImageMetadata(width, height, -1, null, format);
+    }
+
+    private static ImageMetadata unknown(String format) {
+        return new ImageMetadata(-1, -1, -1, null, format);
+    }
+
+    private static boolean startsWith(byte[] data, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bigEndianInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+                | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+
+    private static int bigEndianShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 8 | (data[offset + 1] & 0xFF);
+    }
+
+    private static int littleEndianInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8
+                | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static int littleEndian24(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16;
+    }
+
+    private static int littleEndianShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+}
@@ -0,0 +1,417 @@
+package com.github.kyleryxn.imagefinder.util.image;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+import com.github.kyleryxn.imagefinder.util.url.FetchResponse;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills in the {@link ImageMetadata} of images found by a crawl without downloading them. Each image is requested with
+ * a {@code Range} header asking for its first {@link #DEFAULT_HEADER_BYTES} bytes only, which are decoded by the
+ * {@link ImageHeaderDecoder}; its size is taken from the Content-Range or Content-Length header and its MIME type from
+ * the Content-Type header. If the server refuses the range, a HEAD request still gets the size and MIME type.
+ * <p>
+ * Probes run on a pool of their own, so they never hold up the crawl workers, and at most a fixed number of probes
+ * run against the same host at once. Every distinct image URL is probed once per prober; images with the same URL
+ * found on other pages share the result. A prober is meant to be used for a single crawl and closed after it.
+ * <p>
+ * A prober created with an {@link ImageDuplicateIndex} downloads every image in full instead, up to the body limit of
+ * its fetcher, to compute its content hash and perceptual hash as well, and adds the image to the index. Images with
+ * more than {@link #MAX_DECODED_PIXELS} pixels are not decoded, so a small file claiming huge dimensions cannot
+ * exhaust the heap; they get a content hash but no perceptual hash.
+ */
+public class ImageProber implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageProber.class);
+    public static final int DEFAULT_THREADS = 8;
+    public static final int DEFAULT_PER_HOST_LIMIT = 4;
+    public static final int DEFAULT_HEADER_BYTES = 64 * 1024;
+    public static final int MAX_QUEUED_PROBES = 100_000;
+    public static final long MAX_DECODED_PIXELS = 4096L * 4096L;
+
+    private final HttpFetcher fetcher;
+    private final int perHostLimit;
+    private final int headerBytes;
+    private final ImageDuplicateIndex index;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, CompletableFuture<ImageMetadata>> probes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Semaphore> hosts = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong failed = new AtomicLong();
+    private final Object idle = new Object();
+
+    /**
+     * Constructor for creating an ImageProber with the shared {@link HttpFetcher} and the default limits.
+     */
+    public ImageProber() {
+        this(HttpFetcher.getDefault(), DEFAULT_THREADS, DEFAULT_PER_HOST_LIMIT, DEFAULT_HEADER_BYTES);
+    }
+
+    /**
+     * Constructor for creating an ImageProber that downloads the images to find duplicates, with the shared
+     * {@link HttpFetcher} and the default limits.
+     *
+     * @param index the index the fingerprinted images are added to.
+     */
+    public ImageProber(ImageDuplicateIndex index) {
+        this(HttpFetcher.getDefault(), DEFAULT_THREADS, DEFAULT_PER_HOST_LIMIT, DEFAULT_HEADER_BYTES, index);
+    }
+
+    /**
+     * Constructor for creating an ImageProber.
+     *
+     * @param fetcher the fetcher used to request the images.
+     * @param threads the number of probes running at once.
+     * @param perHostLimit the number of probes running at once against the same host.
+     * @param headerBytes the number of bytes requested from the start of each image.
+     */
+    public ImageProber(HttpFetcher fetcher, int threads, int perHostLimit, int headerBytes) {
+        this(fetcher, threads, perHostLimit, headerBytes, null);
+    }
+
+    /**
+     * Constructor for creating an ImageProber.
+     *
+     * @param fetcher the fetcher used to request the images.
+     * @param threads the number of probes running at once.
+     * @param perHostLimit the number of probes running at once against the same host.
+     * @param headerBytes the number of bytes requested from the start of each image, unless they are downloaded.
+     * @param index the index the fingerprinted images are added to, or {@code null} to only read their headers.
+     */
+    public ImageProber(HttpFetcher fetcher, int threads, int perHostLimit, int headerBytes,
+                       ImageDuplicateIndex index) {
+        if (threads <= 0 || perHostLimit <= 0 || headerBytes <= 0) {
+            throw new IllegalArgumentException("Thread count, per-host limit and header bytes must be positive");
+        }
+
+        this.fetcher = fetcher;
+        this.perHostLimit = perHostLimit;
+        this.headerBytes = headerBytes;
+        this.index = index;
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_PROBES), r -> {
+                    Thread thread = new Thread(r, "image-prober");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Probes the given images, unless their URLs have been probed before, and sets their metadata once it is known.
+     *
+     * @param images the images to probe.
+     * @return a future completed once the metadata of every image has been set, or has been given up on.
+     */
+    public CompletableFuture<Void> probeAll(Collection<Image> images) {
+        if (images.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[images.size()];
+        int i = 0;
+        for (Image image : images) {
+            futures[i++] = probe(image);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * Probes the given image, unless its URL has been probed before, and sets its metadata once it is known.
+     *
+     * @param image the image to probe.
+     * @return a future completed with the metadata of the image, or with {@code null} if probing failed or the
+     *         queue of the prober was full.
+     */
+    public CompletableFuture<ImageMetadata> probe(Image image) {
+        CompletableFuture<ImageMetadata> result = probes.get(image.getUrl());
+        if (result == null) {
+            CompletableFuture<ImageMetadata> created = new CompletableFuture<>();
+            result = probes.putIfAbsent(image.getUrl(), created);
+            if (result == null) {
+                result = created;
+                submit(image.getUrl(), created);
+            }
+        }
+
+        return result.thenApply(metadata -> {
+            if (metadata != null) {
+                image.setMetadata(metadata);
+                if (index != null) {
+                    index.add(image);
+                }
+            }
+            return metadata;
+        });
+    }
+
+    /**
+     * Waits until every probe submitted so far has finished.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit the time unit of the timeout.
+     * @return {@code true} if all probes finished, {@code false} if the timeout elapsed first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (idle) {
+            while (pending.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                idle.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index the fingerprinted images are added to.
+     *
+     * @return the duplicate index, or {@code null} if images are not downloaded.
+     */
+    public ImageDuplicateIndex getDuplicateIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the number of distinct image URLs submitted for probing.
+     *
+     * @return the number of distinct URLs.
+     */
+    public int getProbedCount() {
+        return probes.size();
+    }
+
+    /**
+     * Returns the number of probes that failed or were rejected because the queue was full.
+     *
+     * @return the number of failed probes.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Stops the prober. Probes that have not started yet are dropped and complete with {@code null}.
+     */
+    @Override
+    public void close() {
+        for (Runnable dropped : executor.shutdownNow()) {
+            ((Probe) dropped).finish(null);
+        }
+    }
+
+    private void submit(String url, CompletableFuture<ImageMetadata> result) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(new Probe(url, result));
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Probe queue full, not probing {}", url);
+            failed.incrementAndGet();
+            new Probe(url, result).finish(null);
+        }
+    }
+
+    /**
+     * Requests the start of the image within the per-host limit, falling back to a HEAD request if the server does
+     * not serve the range.
+     */
+    private ImageMetadata fetch(String url) throws IOException, InterruptedException {
+        Semaphore host = hosts.computeIfAbsent(URLUtility.getAuthority(url), h -> new Semaphore(perHostLimit));
+        host.acquire();
+        try {
+            if (index != null) {
+                return download(url);
+            }
+
+            try (FetchResponse response = fetcher.get(url,
+                    Collections.singletonMap("Range", "bytes=0-" + (headerBytes - 1)))) {
+                if (response.isSuccessful()) {
+                    byte[] data = new byte[headerBytes];
+                    int length = readFully(response.getBody(), data);
+                    ImageMetadata metadata = ImageHeaderDecoder.decode(data, length);
+                    return metadata.withFileInfo(byteSize(response),
+                            mimeType(response, ImageHeaderDecoder.mimeTypeOf(metadata.getFormat())));
+                }
+                if (response.getStatusCode() != 416) {
+                    return null;
+                }
+            }
+
+            // 416 (Range Not Satisfiable): the file is empty or the server only serves it whole
+            try (FetchResponse response = fetcher.head(url)) {
+                return response.isSuccessful()
+                        ? new ImageMetadata(-1, -1, byteSize(response), mimeType(response, null), null)
+                        : null;
+            }
+        } finally {
+            host.release();
+        }
+    }
+
+    /**
+     * Downloads the whole image and decodes its header and fingerprints. Formats that {@link ImageIO} cannot decode,
+     * such as SVG and ICO, and images above the pixel budget still get a content hash but no perceptual hash.
+     */
+    private ImageMetadata download(String url) throws IOException {
+        try (FetchResponse response = fetcher.get(url)) {
+            if (!response.isSuccessful()) {
+                return null;
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(headerBytes);
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = response.getBody().read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            byte[] data = out.toByteArray();
+
+            ImageMetadata metadata = ImageHeaderDecoder.decode(data, data.length);
+            BufferedImage pixels = withinPixelBudget(metadata.getWidth(), metadata.getHeight())
+                    ? decodePixels(data)
+                    : null;
+            return metadata
+                    .withFileInfo(data.length, mimeType(response, ImageHeaderDecoder.mimeTypeOf(metadata.getFormat())))
+                    .withFingerprints(ImageFingerprints.contentHash(data, data.length),
+                            pixels != null ? ImageFingerprints.differenceHash(pixels) : null);
+        }
+    }
+
+    /**
+     * Decodes the pixels of the image, unless the reader finds it larger than the pixel budget, which covers formats
+     * whose dimensions the header decoder does not know.
+     */
+    private static BufferedImage decodePixels(byte[] data) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return withinPixelBudget(reader.getWidth(0), reader.getHeight(0)) ? reader.read(0) : null;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Truncated or corrupt files, which some ImageIO readers report as runtime exceptions
+            return null;
+        }
+    }
+
+    private static boolean withinPixelBudget(int width, int height) {
+        // Unknown dimensions are negative and left to the reader to check
+        return (long) width * height <= MAX_DECODED_PIXELS;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        int n;
+        while (length < buffer.length && (n = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += n;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the size of the whole file: the total of a Content-Range header, or the Content-Length of a response
+     * that is not partial.
+     */
+    private static long byteSize(FetchResponse response) {
+        String range = response.getHeader("Content-Range");
+        if (range != null) {
+            int slash = range.lastIndexOf('/');
+            return slash >= 0 ? parseLong(range.substring(slash + 1)) : -1;
+        }
+        return response.getStatusCode() == 206 ? -1 : parseLong(response.getHeader("Content-Length"));
+    }
+
+    private static String mimeType(FetchResponse response, String fallback) {
+        String mediaType = response.getMediaType();
+        return mediaType.isEmpty() ? fallback : mediaType;
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A probe of a single image URL, completing its future exactly once.
+     */
+    private final class Probe implements Runnable {
+        private final String url;
+        private final CompletableFuture<ImageMetadata> result;
+
+        private Probe(String url, CompletableFuture<ImageMetadata> result) {
+            this.url = url;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            ImageMetadata metadata = null;
+            try {
+                metadata = fetch(url);
+                if (metadata == null) {
+                    failed.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Cannot probe {}: {}", url, e.toString());
+                failed.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finish(metadata);
+            }
+        }
+
+        private void finish(ImageMetadata metadata) {
+            // Completing runs the dependent actions, such as writing the page, before the probe counts as done
+            if (result.complete(metadata)) {
+                synchronized (idle) {
+                    if (pending.decrementAndGet() == 0) {
+                        idle.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package com.github.kyleryxn.imagefinder.util.image;
 
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+import com.github.kyleryxn.imagefinder.util.url.URLClassifier;
+
 import java.net.URL;
-import java.util.Arrays;
-import java.util.List;
 
 /**
  * The ImageUtility class provides utility methods for working with image files and URLs.
@@ -16,16 +17,33 @@ public class ImageUtility {
      * @param url the URL to check for valid image file extension
      * @return true if the URL has a valid image file extension, false otherwise
      * @see URL
+     * @see URLClassifier#isImage(String)
      */
     public static boolean isValidImageExtension(String url) {
-        List<String> validImageExtensions = Arrays.asList(".gif", ".ico", ".jpg", ".jpeg", ".png", ".svg");
+        return URLClassifier.isImage(url);
+    }
 
-        for (String extension : validImageExtensions) {
-            if (url.endsWith(extension)) {
-                return true;
-            }
-        }
+    /**
+     * Checks if the type of the file behind a URL can only be told from its content: the URL has neither an image
+     * extension nor the extension of a known non-image resource, like extension-less CDN URLs or "image.php".
+     *
+     * @param url the URL to check.
+     * @return true if the URL has to be probed to know if it serves an image, false otherwise
+     * @see URLClassifier#isNonImage(String)
+     */
+    public static boolean needsTypeCheck(String url) {
+        return !URLClassifier.isImage(url) && !URLClassifier.isNonImage(url);
+    }
 
-        return false;
+    /**
+     * Checks if a probed file is an image: its header has the signature of a known image format, or the server
+     * declares an image MIME type.
+     *
+     * @param metadata the probed metadata of the file, or {@code null} if probing failed.
+     * @return true if the file is an image, false otherwise
+     */
+    public static boolean isImage(ImageMetadata metadata) {
+        return metadata != null && (metadata.getFormat() != null
+                || (metadata.getMimeType() != null && metadata.getMimeType().startsWith("image/")));
     }
 }
@@ -0,0 +1,248 @@
+package com.github.kyleryxn.imagefinder.util.url;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.util.Locale;
+
+/**
+ * Represents the response to a request made by {@link HttpFetcher}. The body is exposed as a stream that is already
+ * decompressed and counts the bytes read, so it can be handed directly to a parser without being buffered first.
+ * The response must be closed once the body is no longer needed, which returns the connection to the keep-alive pool.
+ */
+public class FetchResponse implements Closeable {
+    private final String url;
+    private final int statusCode;
+    private final HttpURLConnection connection;
+    private final CountingInputStream body;
+    private final long connectNanos;
+    private final long firstByteNanos;
+
+    /**
+     * Constructor for FetchResponse.
+     *
+     * @param url the URL the response was received from, after following redirects.
+     * @param statusCode the HTTP status code of the response.
+     * @param connection the connection the response was received on.
+     * @param body the decompressed response body, or {@code null} if the response has none.
+     * @param maxBodyBytes the maximum number of decompressed bytes exposed by the body.
+     * @param connectNanos the time spent establishing connections, including any DNS lookup, in nanoseconds.
+     * @param firstByteNanos the time from sending the request until the response status was received, in nanoseconds.
+     */
+    FetchResponse(String url, int statusCode, HttpURLConnection connection, InputStream body, long maxBodyBytes,
+                  long connectNanos, long firstByteNanos) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.connection = connection;
+        this.body = body != null ? new CountingInputStream(body, maxBodyBytes) : null;
+        this.connectNanos = connectNanos;
+        this.firstByteNanos = firstByteNanos;
+    }
+
+    /**
+     * Returns the URL the response was received from, after following redirects.
+     *
+     * @return the final URL of the response.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the HTTP status code of the response.
+     *
+     * @return the HTTP status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Checks if the response has a 2xx status code.
+     *
+     * @return {@code true} if the request succeeded, {@code false} otherwise.
+     */
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Returns the value of the given response header.
+     *
+     * @param name the header name, case-insensitive.
+     * @return the header value, or {@code null} if the header is missing.
+     */
+    public String getHeader(String name) {
+        return connection.getHeaderField(name);
+    }
+
+    /**
+     * Returns the media type of the response without parameters, in lowercase.
+     *
+     * @return the media type, or an empty string if the response does not declare one.
+     */
+    public String getMediaType() {
+        String contentType = connection.getContentType();
+        if (contentType == null) {
+            return "";
+        }
+
+        int semicolon = contentType.indexOf(';');
+        String mediaType = semicolon == -1 ? contentType : contentType.substring(0, semicolon);
+        return mediaType.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the charset declared in the Content-Type header of the response. A charset the JVM does not support, or
+     * whose name is not even legal, is treated as if none were declared.
+     *
+     * @return the charset name, or {@code null} if no supported charset is declared and it has to be detected from the
+     *         content.
+     */
+    public String getCharset() {
+        String contentType = connection.getContentType();
+        if (contentType == null) {
+            return null;
+        }
+
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                String charset = trimmed.substring(8).replace("\"", "").trim();
+                return isSupported(charset) ? charset : null;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isSupported(String charset) {
+        try {
+            return !charset.isEmpty() && Charset.isSupported(charset);
+        } catch (IllegalCharsetNameException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the decompressed response body.
+     *
+     * @return the body stream, or an empty stream if the response has none.
+     */
+    public InputStream getBody() {
+        return body != null ? body : EmptyStream.INSTANCE;
+    }
+
+    /**
+     * Returns the number of decompressed body bytes read so far.
+     *
+     * @return the number of bytes read from the body.
+     */
+    public long getBytesRead() {
+        return body != null ? body.count : 0;
+    }
+
+    /**
+     * Returns the time spent reading the body so far, that is waiting for and decompressing its bytes, but not
+     * processing them.
+     *
+     * @return the time spent in reads of the body, in nanoseconds.
+     */
+    public long getReadNanos() {
+        return body != null ? body.nanos : 0;
+    }
+
+    /**
+     * Returns the time spent establishing connections, summed over all redirects. Close to zero when a pooled
+     * keep-alive connection was reused. {@link java.net.HttpURLConnection} resolves the host name while connecting and
+     * does not report how long that took, so the DNS lookup, if any, is part of this time.
+     *
+     * @return the connect time, including the DNS lookup and the TLS handshake, in nanoseconds.
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Returns the time from sending the request until the status line of the response was received, summed over all
+     * redirects.
+     *
+     * @return the time to first byte, in nanoseconds.
+     */
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    /**
+     * Closes the body, allowing the underlying connection to be reused for the next request to the same host.
+     *
+     * @throws IOException if closing the body fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (body != null) {
+            body.close();
+        }
+    }
+
+    /**
+     * Stream counting the bytes read and the time spent reading them, and reporting end of stream once the configured
+     * limit is reached.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+        private long nanos;
+
+        private CountingInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (count >= limit) {
+                return -1;
+            }
+
+            long start = System.nanoTime();
+            int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (count >= limit) {
+                return -1;
+            }
+
+            long start = System.nanoTime();
+            int n = super.read(b, off, (int) Math.min(len, limit - count));
+            nanos += System.nanoTime() - start;
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Stream without content, returned for responses without a body.
+     */
+    private static final class EmptyStream extends InputStream {
+        private static final EmptyStream INSTANCE = new EmptyStream();
+
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
+}
@@ -3,21 +3,38 @@ package com.github.kyleryxn.imagefinder.util.url;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
 import java.net.URL;
 
 /**
  * A simple HTTP client utility for checking the validity of a URL by making a connection to the URL
- * and checking the response code.
+ * and checking the response code. Works for both http and https URLs and shares its connections with the crawler
+ * through {@link HttpFetcher}.
  * @see URL
  */
 public class HTTPClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(HTTPClient.class);
+    private final HttpFetcher fetcher;
     private String successMessage;
     private String failureMessage;
     private boolean isValid;
 
+    /**
+     * Constructor for creating an HTTPClient that uses the shared {@link HttpFetcher}.
+     */
+    public HTTPClient() {
+        this(HttpFetcher.getDefault());
+    }
+
+    /**
+     * Constructor for creating an HTTPClient that uses the given {@link HttpFetcher}.
+     *
+     * @param fetcher the fetcher used to make the connection.
+     */
+    public HTTPClient(HttpFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
     /**
      * Check if a given URL is valid by making a connection to the URL and checking the response code.
      * If the response code is 200 ({@link URLStatus#HTTP_OK}), it sets the success message, sets isValid to true,
@@ -34,15 +51,14 @@ public class HTTPClient {
             return this;
         }
 
-        try {
-            URL aURL = new URL(url);
-            HttpsURLConnection urlConnection = (HttpsURLConnection) aURL.openConnection();
+        try (FetchResponse response = fetcher.get(url)) {
+            int statusCode = response.getStatusCode();
 
-            if (urlConnection.getResponseCode() == URLStatus.HTTP_OK.getStatusCode()) {
-                successMessage = "URL at '" + url + "' returned " + URLStatus.getStatusMessageForStatusCode(urlConnection.getResponseCode());
+            if (statusCode == URLStatus.HTTP_OK.getStatusCode()) {
+                successMessage = "URL at '" + url + "' returned " + URLStatus.getStatusMessageForStatusCode(statusCode);
                 isValid = true;
             } else {
-                failureMessage = "URL at '" + url + "' returned " + URLStatus.getStatusMessageForStatusCode(urlConnection.getResponseCode());
+                failureMessage = "URL at '" + url + "' returned " + URLStatus.getStatusMessageForStatusCode(statusCode);
             }
         } catch (IOException e) {
             LOGGER.error("Failed to connect to URL, {}", e.getMessage());
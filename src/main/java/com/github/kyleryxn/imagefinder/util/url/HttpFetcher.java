@@ -0,0 +1,208 @@
+package com.github.kyleryxn.imagefinder.util.url;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Shared HTTP fetcher used by every component that talks to a web server, so that they all draw from the same pool
+ * of keep-alive connections instead of opening a new TCP and TLS connection per request. Requests negotiate gzip and
+ * deflate compression and the response body is decompressed transparently while it is streamed to the caller.
+ * Redirects are followed manually, including between http and https, up to {@link #MAX_REDIRECTS} hops.
+ * <p>
+ * Connections are pooled by the keep-alive cache of {@link HttpURLConnection}: a connection is reused for the next
+ * request to the same host as soon as the previous {@link FetchResponse} has been closed. Unless configured otherwise
+ * with the {@code http.maxConnections} system property, up to {@link #MAX_IDLE_CONNECTIONS_PER_HOST} idle connections
+ * are kept per host. HTTP/2 and brotli are not offered since the Java 8 HTTP stack supports neither.
+ *
+ * @see FetchResponse
+ */
+public class HttpFetcher {
+    public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/111.0.4044.113 Safari/5370.36 Brave/5035";
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5000;
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 5000;
+    public static final long DEFAULT_MAX_BODY_BYTES = 5L * 1024 * 1024;
+    public static final int MAX_REDIRECTS = 5;
+    public static final int MAX_IDLE_CONNECTIONS_PER_HOST = 32;
+    public static final int MAX_DISCARDED_BYTES = 64 * 1024;
+
+    private static final HttpFetcher DEFAULT;
+
+    static {
+        // Must be set before the keep-alive cache is first used, which reads it once
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", String.valueOf(MAX_IDLE_CONNECTIONS_PER_HOST));
+        }
+        DEFAULT = new HttpFetcher(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long maxBodyBytes;
+
+    /**
+     * Constructor for creating an HttpFetcher object.
+     *
+     * @param connectTimeoutMillis the timeout for establishing a connection, in milliseconds.
+     * @param readTimeoutMillis the timeout for waiting on data from an established connection, in milliseconds.
+     * @param maxBodyBytes the maximum number of decompressed body bytes read per response.
+     */
+    public HttpFetcher(int connectTimeoutMillis, int readTimeoutMillis, long maxBodyBytes) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * Returns the fetcher shared by the application, configured with the default timeouts.
+     *
+     * @return the default fetcher.
+     */
+    public static HttpFetcher getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Sends a GET request to the given URL.
+     *
+     * @param url the URL to fetch.
+     * @return the response, which must be closed by the caller.
+     * @throws IOException if the request fails.
+     */
+    public FetchResponse get(String url) throws IOException {
+        return get(url, Collections.emptyMap());
+    }
+
+    /**
+     * Sends a GET request with additional request headers to the given URL.
+     *
+     * @param url the URL to fetch.
+     * @param headers the additional request headers.
+     * @return the response, which must be closed by the caller.
+     * @throws IOException if the request fails.
+     */
+    public FetchResponse get(String url, Map<String, String> headers) throws IOException {
+        return execute("GET", url, headers);
+    }
+
+    /**
+     * Sends a HEAD request to the given URL.
+     *
+     * @param url the URL to fetch.
+     * @return the response without body, which must be closed by the caller.
+     * @throws IOException if the request fails.
+     */
+    public FetchResponse head(String url) throws IOException {
+        return execute("HEAD", url, Collections.emptyMap());
+    }
+
+    private FetchResponse execute(String method, String url, Map<String, String> headers) throws IOException {
+        String current = url;
+        long connectNanos = 0;
+        long firstByteNanos = 0;
+
+        for (int hop = 0; ; hop++) {
+            HttpURLConnection connection = open(method, current, headers);
+
+            // Time the phases of the request separately; HttpURLConnection resolves the host inside connect(), or leaves
+            // it to the proxy, so the connect time includes the DNS lookup when there is one
+            long start = System.nanoTime();
+            connection.connect();
+            long connected = System.nanoTime();
+            int statusCode = connection.getResponseCode();
+            long received = System.nanoTime();
+
+            connectNanos += connected - start;
+            firstByteNanos += received - connected;
+
+            String location = connection.getHeaderField("Location");
+            if (isRedirect(statusCode) && location != null && hop < MAX_REDIRECTS) {
+                discard(connection, statusCode);
+                current = new URL(new URL(current), location).toString();
+                continue;
+            }
+
+            InputStream body = "HEAD".equals(method) ? null : decode(connection, rawBody(connection, statusCode));
+            return new FetchResponse(current, statusCode, connection, body, maxBodyBytes, connectNanos, firstByteNanos);
+        }
+    }
+
+    private HttpURLConnection open(String method, String url, Map<String, String> headers) throws IOException {
+        URLConnection urlConnection = new URL(url).openConnection();
+        if (!(urlConnection instanceof HttpURLConnection)) {
+            throw new IOException("Not an HTTP URL: " + url);
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) urlConnection;
+        connection.setRequestMethod(method);
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setUseCaches(false);
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+        connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+        connection.setRequestProperty("Connection", "keep-alive");
+        headers.forEach(connection::setRequestProperty);
+
+        return connection;
+    }
+
+    private static InputStream rawBody(HttpURLConnection connection, int statusCode) throws IOException {
+        return statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+    }
+
+    private static InputStream decode(HttpURLConnection connection, InputStream raw) throws IOException {
+        if (raw == null) {
+            return null;
+        }
+
+        String encoding = connection.getContentEncoding();
+        if (encoding == null) {
+            return raw;
+        }
+
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(raw);
+            case "deflate":
+                return new InflaterInputStream(raw);
+            default:
+                return raw;
+        }
+    }
+
+    /**
+     * Reads and closes the body of a response that is not passed on, so its connection can be reused. A body larger
+     * than {@link #MAX_DISCARDED_BYTES} is not worth reading to the end; its connection is closed instead.
+     */
+    private static void discard(HttpURLConnection connection, int statusCode) {
+        try (InputStream body = rawBody(connection, statusCode)) {
+            if (body != null) {
+                byte[] buffer = new byte[4096];
+                long drained = 0;
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    drained += read;
+                    if (drained > MAX_DISCARDED_BYTES) {
+                        connection.disconnect();
+                        return;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+        }
+    }
+
+    private static boolean isRedirect(int statusCode) {
+        return statusCode == 301 || statusCode == 302 || statusCode == 303 || statusCode == 307 || statusCode == 308;
+    }
+}
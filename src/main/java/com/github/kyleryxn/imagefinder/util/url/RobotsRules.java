@@ -0,0 +1,365 @@
+package com.github.kyleryxn.imagefinder.util.url;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rules of a robots.txt file that apply to this crawler, compiled for matching paths against them quickly.
+ * <p>
+ * Rules are read the way RFC 9309 describes: the groups naming {@link #USER_AGENT_TOKEN} apply, or else the groups for
+ * "*". A group names the crawler only if one of its user agents equals the product token of the crawler, compared
+ * case-insensitively, so a group for "image" does not apply to "imagefinder". Of the allow and disallow rules of those
+ * groups, the one with the longest pattern matching the path wins, an allow rule winning a tie. A pattern matches the start of the path and query of a URL; "*" in a pattern matches
+ * any sequence of characters and a trailing "$" anchors it to the end. Crawl-delay and Sitemap lines are kept as well.
+ * <p>
+ * The patterns are compiled into a trie, one node per pattern character with a separate edge for "*", so a path is
+ * matched against all the rules in a single pass over its characters, whatever the number of rules, instead of against
+ * each rule in turn. Instances are immutable and thread-safe.
+ */
+public class RobotsRules {
+    public static final String USER_AGENT_TOKEN = "imagefinder";
+
+    private static final RobotsRules ALLOW_ALL = new RobotsRules(new Node(), -1, Collections.emptyList());
+
+    private final Node root;
+    private final long crawlDelayMillis;
+    private final List<String> sitemaps;
+
+    private RobotsRules(Node root, long crawlDelayMillis, List<String> sitemaps) {
+        this.root = root;
+        this.crawlDelayMillis = crawlDelayMillis;
+        this.sitemaps = sitemaps;
+    }
+
+    /**
+     * Returns rules allowing every path, for hosts without a robots.txt file.
+     *
+     * @return rules allowing every path.
+     */
+    public static RobotsRules allowAll() {
+        return ALLOW_ALL;
+    }
+
+    /**
+     * Parses a robots.txt file for {@link #USER_AGENT_TOKEN}.
+     *
+     * @param robots the content of the file.
+     * @return the rules that apply to this crawler.
+     * @throws IOException if the content cannot be read.
+     */
+    public static RobotsRules parse(Reader robots) throws IOException {
+        return parse(robots, USER_AGENT_TOKEN);
+    }
+
+    /**
+     * Parses a robots.txt file for the given user agent.
+     *
+     * @param robots the content of the file.
+     * @param userAgent the user agent of the crawler, whose product token, the part before any "/" or space, is
+     *                  matched case-insensitively.
+     * @return the rules that apply to the user agent.
+     * @throws IOException if the content cannot be read.
+     */
+    public static RobotsRules parse(Reader robots, String userAgent) throws IOException {
+        String agent = productToken(userAgent).toLowerCase(Locale.ROOT);
+        List<Group> groups = new ArrayList<>();
+        Set<String> sitemaps = new LinkedHashSet<>();
+        Group current = null;
+        boolean readingAgents = false;
+
+        BufferedReader reader = new BufferedReader(robots);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            switch (key) {
+                case "user-agent":
+                    // Consecutive user-agent lines share one group
+                    if (!readingAgents) {
+                        current = new Group();
+                        groups.add(current);
+                        readingAgents = true;
+                    }
+                    current.agents.add(value.toLowerCase(Locale.ROOT));
+                    break;
+                case "allow":
+                case "disallow":
+                    readingAgents = false;
+                    // An empty disallow allows everything, which is what no rule does too
+                    if (current != null && !value.isEmpty()) {
+                        current.rules.add(new Rule(value, key.equals("allow")));
+                    }
+                    break;
+                case "crawl-delay":
+                    readingAgents = false;
+                    if (current != null) {
+                        current.crawlDelayMillis = parseDelay(value);
+                    }
+                    break;
+                case "sitemap":
+                    // Not part of any group
+                    if (!value.isEmpty()) {
+                        sitemaps.add(value);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        List<Group> matching = select(groups, agent);
+        Node root = new Node();
+        long crawlDelayMillis = -1;
+        for (Group group : matching) {
+            for (Rule rule : group.rules) {
+                root.add(rule);
+            }
+            crawlDelayMillis = Math.max(crawlDelayMillis, group.crawlDelayMillis);
+        }
+        return new RobotsRules(root, crawlDelayMillis, Collections.unmodifiableList(new ArrayList<>(sitemaps)));
+    }
+
+    /**
+     * Checks if this crawler may fetch the given URL.
+     *
+     * @param url the absolute URL, or a path starting with "/".
+     * @return {@code true} if no rule disallows the path and query of the URL, {@code false} otherwise.
+     */
+    public boolean isAllowed(String url) {
+        if (root.isEmpty()) {
+            return true;
+        }
+
+        String path = pathOf(url);
+        int bestLength = -1;
+        boolean allowed = true;
+
+        // The nodes reached by the characters read so far; at most one per pattern prefix
+        List<Node> active = new ArrayList<>();
+        List<Node> next = new ArrayList<>();
+        addWithStars(active, root);
+
+        for (int i = 0; ; i++) {
+            for (Node node : active) {
+                Rule rule = node.rule;
+                if (i == path.length() && node.anchored != null && node.anchored.isBetterThan(rule)) {
+                    rule = node.anchored;
+                }
+                if (rule != null && (rule.length > bestLength || (rule.length == bestLength && rule.allow))) {
+                    bestLength = rule.length;
+                    allowed = rule.allow;
+                }
+            }
+            if (i == path.length() || active.isEmpty()) {
+                return allowed;
+            }
+
+            char c = path.charAt(i);
+            next.clear();
+            for (Node node : active) {
+                if (node.isStar) {
+                    // A "*" matches the character as well
+                    addIfAbsent(next, node);
+                }
+                Node child = node.children.get(c);
+                if (child != null) {
+                    addWithStars(next, child);
+                }
+            }
+
+            List<Node> swap = active;
+            active = next;
+            next = swap;
+        }
+    }
+
+    /**
+     * Returns the minimum time between two requests asked for by the Crawl-delay of the rules.
+     *
+     * @return the crawl delay in milliseconds, or -1 if none is set.
+     */
+    public long getCrawlDelayMillis() {
+        return crawlDelayMillis;
+    }
+
+    /**
+     * Returns the URLs of the sitemaps listed in the file, for any user agent.
+     *
+     * @return the sitemap URLs, in the order of the file.
+     */
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    /**
+     * Returns the groups that apply to the user agent: those naming its product token in full, or else those for "*".
+     */
+    private static List<Group> select(List<Group> groups, String agent) {
+        List<Group> named = new ArrayList<>();
+        List<Group> wildcard = new ArrayList<>();
+        for (Group group : groups) {
+            for (String token : group.agents) {
+                if (token.equals("*")) {
+                    wildcard.add(group);
+                    break;
+                }
+                if (token.equals(agent)) {
+                    named.add(group);
+                    break;
+                }
+            }
+        }
+        return named.isEmpty() ? wildcard : named;
+    }
+
+    /**
+     * Returns the product token of a user agent, such as "imagefinder" for "imagefinder/1.0 (+https://example.com)".
+     */
+    private static String productToken(String userAgent) {
+        String agent = userAgent.trim();
+        int end = 0;
+        while (end < agent.length() && agent.charAt(end) != '/' && !Character.isWhitespace(agent.charAt(end))) {
+            end++;
+        }
+        return agent.substring(0, end);
+    }
+
+    private static long parseDelay(String value) {
+        try {
+            double seconds = Double.parseDouble(value);
+            return seconds >= 0 ? (long) (seconds * 1000) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the path and query of a URL, the part robots.txt patterns are matched against.
+     */
+    private static String pathOf(String url) {
+        int start = 0;
+        int scheme = url.indexOf("://");
+        if (scheme >= 0) {
+            start = url.indexOf('/', scheme + 3);
+            if (start < 0) {
+                return "/";
+            }
+        }
+
+        int fragment = url.indexOf('#', start);
+        return url.substring(start, fragment >= 0 ? fragment : url.length());
+    }
+
+    /**
+     * Adds a node to the active nodes, along with the "*" nodes after it, which may match nothing.
+     */
+    private static void addWithStars(List<Node> nodes, Node node) {
+        while (node != null && addIfAbsent(nodes, node)) {
+            node = node.star;
+        }
+    }
+
+    private static boolean addIfAbsent(List<Node> nodes, Node node) {
+        for (Node existing : nodes) {
+            if (existing == node) {
+                return false;
+            }
+        }
+        return nodes.add(node);
+    }
+
+    /**
+     * A node of the trie: the patterns read so far, the rule whose pattern ends here, if any, and the rule whose
+     * pattern ends here with a "$", if any.
+     */
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final boolean isStar;
+        private Node star;
+        private Rule rule;
+        private Rule anchored;
+
+        private Node() {
+            this(false);
+        }
+
+        private Node(boolean isStar) {
+            this.isStar = isStar;
+        }
+
+        private boolean isEmpty() {
+            return children.isEmpty() && star == null && rule == null && anchored == null;
+        }
+
+        private void add(Rule rule) {
+            String pattern = rule.pattern;
+            boolean anchoredRule = pattern.endsWith("$");
+            int end = anchoredRule ? pattern.length() - 1 : pattern.length();
+
+            Node node = this;
+            for (int i = 0; i < end; i++) {
+                char c = pattern.charAt(i);
+                if (c == '*') {
+                    if (node.star == null) {
+                        node.star = new Node(true);
+                    }
+                    node = node.star;
+                } else {
+                    node = node.children.computeIfAbsent(c, k -> new Node());
+                }
+            }
+
+            if (anchoredRule) {
+                node.anchored = rule.isBetterThan(node.anchored) ? rule : node.anchored;
+            } else {
+                node.rule = rule.isBetterThan(node.rule) ? rule : node.rule;
+            }
+        }
+    }
+
+    /**
+     * An allow or disallow rule; its length is that of its pattern, which decides between the rules matching a path.
+     */
+    private static final class Rule {
+        private final String pattern;
+        private final int length;
+        private final boolean allow;
+
+        private Rule(String pattern, boolean allow) {
+            this.pattern = pattern;
+            this.length = pattern.length();
+            this.allow = allow;
+        }
+
+        private boolean isBetterThan(Rule other) {
+            return other == null || length > other.length || (length == other.length && allow && !other.allow);
+        }
+    }
+
+    /**
+     * The user agents of a group, and its rules.
+     */
+    private static final class Group {
+        private final List<String> agents = new ArrayList<>();
+        private final List<Rule> rules = new ArrayList<>();
+        private long crawlDelayMillis = -1;
+    }
+}
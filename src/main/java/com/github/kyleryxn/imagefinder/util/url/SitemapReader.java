@@ -0,0 +1,168 @@
+package com.github.kyleryxn.imagefinder.util.url;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the page URLs listed by the sitemaps of a site, following sitemap index files to the sitemaps they list.
+ * Sitemaps are parsed with a StAX stream reader while they are downloaded, so each URL is handed to the caller as soon
+ * as it is read and a sitemap of 50,000 URLs is never held in memory at once. Gzip compressed sitemaps, usually named
+ * "sitemap.xml.gz", are recognized by their first bytes and decompressed on the fly; sitemaps sent with a gzip
+ * Content-Encoding are already decompressed by the {@link HttpFetcher}.
+ * <p>
+ * DTDs and external entities are not processed. At most {@link #MAX_SITEMAPS} sitemaps are read per call, and reading
+ * stops once the given maximum number of URLs has been read.
+ */
+public class SitemapReader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SitemapReader.class);
+    public static final int DEFAULT_MAX_URLS = 1_000_000;
+    public static final int MAX_SITEMAPS = 1000;
+
+    // The sitemap protocol allows 50 MB of uncompressed XML per sitemap
+    private static final long MAX_SITEMAP_BYTES = 50L * 1024 * 1024;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createFactory();
+
+    private final HttpFetcher fetcher;
+    private final int maxUrls;
+
+    /**
+     * Constructor for creating a SitemapReader with the {@link #DEFAULT_MAX_URLS}.
+     */
+    public SitemapReader() {
+        this(new HttpFetcher(HttpFetcher.DEFAULT_CONNECT_TIMEOUT_MILLIS, HttpFetcher.DEFAULT_READ_TIMEOUT_MILLIS,
+                MAX_SITEMAP_BYTES), DEFAULT_MAX_URLS);
+    }
+
+    /**
+     * Constructor for creating a SitemapReader.
+     *
+     * @param fetcher the fetcher used to retrieve the sitemaps.
+     * @param maxUrls the maximum number of page URLs read per call.
+     */
+    public SitemapReader(HttpFetcher fetcher, int maxUrls) {
+        this.fetcher = fetcher;
+        this.maxUrls = maxUrls;
+    }
+
+    /**
+     * Reads the given sitemaps and the sitemaps listed by those that are sitemap indexes, each at most once. Sitemaps
+     * that cannot be fetched or parsed are logged and skipped.
+     *
+     * @param sitemaps the URLs of the sitemaps to start from.
+     * @param pages receives the URL of each page listed, in the order read.
+     * @return the number of page URLs read.
+     */
+    public int read(Collection<String> sitemaps, Consumer<String> pages) {
+        Deque<String> queue = new ArrayDeque<>(sitemaps);
+        Set<String> visited = new HashSet<>();
+        int[] count = {0};
+        Consumer<String> limited = page -> {
+            if (count[0] < maxUrls) {
+                count[0]++;
+                pages.accept(page);
+            }
+        };
+
+        while (!queue.isEmpty() && visited.size() < MAX_SITEMAPS && count[0] < maxUrls) {
+            String sitemap = queue.poll();
+            if (!visited.add(sitemap)) {
+                continue;
+            }
+
+            try (FetchResponse response = fetcher.get(sitemap)) {
+                if (!response.isSuccessful()) {
+                    LOGGER.debug("Sitemap {} answered {}", sitemap, response.getStatusCode());
+                    continue;
+                }
+                parse(response.getBody(), limited, queue::add);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot read sitemap {} : {}", sitemap, e.getMessage());
+            }
+        }
+
+        return count[0];
+    }
+
+    /**
+     * Parses a sitemap or a sitemap index, plain or gzip compressed.
+     *
+     * @param in the sitemap; not closed.
+     * @param pages receives the URL of each page listed by a sitemap.
+     * @param sitemaps receives the URL of each sitemap listed by a sitemap index.
+     * @throws IOException if the sitemap cannot be read or is not well-formed XML.
+     */
+    public static void parse(InputStream in, Consumer<String> pages, Consumer<String> sitemaps) throws IOException {
+        InputStream body = new BufferedInputStream(in);
+        body.mark(2);
+        int first = body.read();
+        int second = body.read();
+        body.reset();
+        if (first == 0x1f && second == 0x8b) {
+            body = new GZIPInputStream(body);
+        }
+
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(body);
+            String entry = null;
+            String namespace = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("url") || name.equals("sitemap")) {
+                        entry = name;
+                        namespace = reader.getNamespaceURI();
+                    } else if (name.equals("loc") && entry != null
+                            && Objects.equals(namespace, reader.getNamespaceURI())) {
+                        // Extensions such as image:loc are in namespaces of their own
+                        String loc = reader.getElementText().trim();
+                        if (!loc.isEmpty()) {
+                            (entry.equals("url") ? pages : sitemaps).accept(loc);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("url") || name.equals("sitemap")) {
+                        entry = null;
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed sitemap: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    LOGGER.debug("Cannot close sitemap reader : {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.kyleryxn.imagefinder.util.url;
+
+/**
+ * Classifies URLs by scheme and file extension without allocating. The extension is taken from the last segment of
+ * the path only, so query strings and fragments never affect the result, and it is matched case-insensitively. To
+ * avoid building a string per call, an extension of up to four ASCII letters or digits is packed into an int, one
+ * lowercased character per byte, and matched by a switch on precomputed keys.
+ */
+public final class URLClassifier {
+
+    // Extension keys, packed the same way as by extensionKey(String)
+    private static final int GIF = ('g' << 16) | ('i' << 8) | 'f';
+    private static final int ICO = ('i' << 16) | ('c' << 8) | 'o';
+    private static final int JPG = ('j' << 16) | ('p' << 8) | 'g';
+    private static final int JPEG = ('j' << 24) | ('p' << 16) | ('e' << 8) | 'g';
+    private static final int PNG = ('p' << 16) | ('n' << 8) | 'g';
+    private static final int SVG = ('s' << 16) | ('v' << 8) | 'g';
+    private static final int WEBP = ('w' << 24) | ('e' << 16) | ('b' << 8) | 'p';
+    private static final int AVIF = ('a' << 24) | ('v' << 16) | ('i' << 8) | 'f';
+    private static final int BMP = ('b' << 16) | ('m' << 8) | 'p';
+
+    private static final int PDF = ('p' << 16) | ('d' << 8) | 'f';
+    private static final int DOC = ('d' << 16) | ('o' << 8) | 'c';
+    private static final int DOCX = ('d' << 24) | ('o' << 16) | ('c' << 8) | 'x';
+    private static final int CSV = ('c' << 16) | ('s' << 8) | 'v';
+    private static final int XLSX = ('x' << 24) | ('l' << 16) | ('s' << 8) | 'x';
+    private static final int PPT = ('p' << 16) | ('p' << 8) | 't';
+    private static final int PPTX = ('p' << 24) | ('p' << 16) | ('t' << 8) | 'x';
+    private static final int ZIP = ('z' << 16) | ('i' << 8) | 'p';
+    private static final int RAR = ('r' << 16) | ('a' << 8) | 'r';
+    private static final int MP3 = ('m' << 16) | ('p' << 8) | '3';
+    private static final int WAV = ('w' << 16) | ('a' << 8) | 'v';
+    private static final int OGG = ('o' << 16) | ('g' << 8) | 'g';
+    private static final int MP4 = ('m' << 16) | ('p' << 8) | '4';
+    private static final int AVI = ('a' << 16) | ('v' << 8) | 'i';
+    private static final int MOV = ('m' << 16) | ('o' << 8) | 'v';
+    private static final int XML = ('x' << 16) | ('m' << 8) | 'l';
+    private static final int JSON = ('j' << 24) | ('s' << 16) | ('o' << 8) | 'n';
+    private static final int JS = ('j' << 8) | 's';
+    private static final int CSS = ('c' << 16) | ('s' << 8) | 's';
+    private static final int TXT = ('t' << 16) | ('x' << 8) | 't';
+    private static final int HTM = ('h' << 16) | ('t' << 8) | 'm';
+    private static final int HTML = ('h' << 24) | ('t' << 16) | ('m' << 8) | 'l';
+
+    private static final int NO_EXTENSION = 0;
+
+    private URLClassifier() {
+    }
+
+    /**
+     * Checks if the given URL points to an image with one of the supported extensions: gif, ico, jpg, jpeg, png, svg,
+     * webp, avif and bmp.
+     *
+     * @param url the URL to check.
+     * @return {@code true} if the path of the URL ends with a supported image extension, {@code false} otherwise.
+     */
+    public static boolean isImage(String url) {
+        if (url == null) {
+            return false;
+        }
+
+        switch (extensionKey(url)) {
+            case GIF:
+            case ICO:
+            case JPG:
+            case JPEG:
+            case PNG:
+            case SVG:
+            case WEBP:
+            case AVIF:
+            case BMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks if the path of the given URL ends with the extension of a resource that is known not to be an image: a
+     * page, document, archive, media file, script, style sheet or data file. URLs that are neither this nor
+     * {@link #isImage(String)}, such as extension-less CDN URLs or scripts like "image.php", may serve images and
+     * can only be told apart by the content they serve.
+     *
+     * @param url the URL to check.
+     * @return {@code true} if the URL has a known non-image extension, {@code false} otherwise.
+     */
+    public static boolean isNonImage(String url) {
+        if (url == null) {
+            return false;
+        }
+
+        switch (extensionKey(url)) {
+            case PDF: case DOC: case DOCX: case CSV: case XLSX: case PPT: case PPTX:
+            case ZIP: case RAR:
+            case MP3: case WAV: case OGG:
+            case MP4: case AVI: case MOV:
+            case XML: case JSON: case JS: case CSS: case TXT:
+            case HTM: case HTML:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks if the given URL is worth crawling: it is not a javascript, mailto or tel link, not a bare fragment, and
+     * its path does not end with the extension of an image, document, archive, media file or other non-HTML resource.
+     *
+     * @param url the URL to check.
+     * @return {@code true} if the URL may point to an HTML page, {@code false} otherwise.
+     */
+    public static boolean isCrawlable(String url) {
+        if (url == null || url.isEmpty()) {
+            return false;
+        }
+
+        if (url.charAt(0) == '#' || url.charAt(url.length() - 1) == '#'
+                || url.regionMatches(true, 0, "javascript:", 0, 11)
+                || url.regionMatches(true, 0, "mailto:", 0, 7)
+                || url.regionMatches(true, 0, "tel:", 0, 4)) {
+            return false;
+        }
+
+        switch (extensionKey(url)) {
+            case GIF: case ICO: case JPG: case JPEG: case PNG: case SVG: case WEBP: case AVIF: case BMP:
+            case PDF: case DOC: case DOCX: case CSV: case XLSX: case PPT: case PPTX:
+            case ZIP: case RAR:
+            case MP3: case WAV: case OGG:
+            case MP4: case AVI: case MOV:
+            case XML: case JSON: case JS: case CSS: case TXT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Returns the packed, lowercased extension of the last path segment of the URL, or {@link #NO_EXTENSION} if it
+     * has none or the extension is longer than four characters or not alphanumeric ASCII.
+     */
+    private static int extensionKey(String url) {
+        // The path ends at the query or the fragment, whichever comes first
+        int end = url.indexOf('?');
+        int fragment = url.indexOf('#');
+        if (end < 0 || (fragment >= 0 && fragment < end)) {
+            end = fragment < 0 ? url.length() : fragment;
+        }
+
+        int key = 0;
+        for (int i = end - 1, length = 0; i >= 0; i--, length++) {
+            char c = url.charAt(i);
+            if (c == '.') {
+                return length == 0 || !inPath(url, i) ? NO_EXTENSION : key;
+            }
+            if (c == '/' || length == 4) {
+                return NO_EXTENSION;
+            }
+
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                return NO_EXTENSION;
+            }
+            key |= c << (8 * length);
+        }
+
+        return NO_EXTENSION;
+    }
+
+    /**
+     * Checks that the dot at the given index is in the path rather than the host: "https://example.zip" names a host,
+     * not an archive. Relative URLs have no host, so their dots are always in the path.
+     */
+    private static boolean inPath(String url, int dot) {
+        int slash = url.lastIndexOf('/', dot);
+        return slash < 0 ? url.indexOf(':') < 0 : !url.startsWith("://", slash - 2);
+    }
+}
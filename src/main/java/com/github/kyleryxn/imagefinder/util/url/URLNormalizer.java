@@ -0,0 +1,174 @@
+package com.github.kyleryxn.imagefinder.util.url;
+
+/**
+ * Normalizes absolute URLs, so that different spellings of the same address are crawled and stored only once. In a
+ * single pass over the URL, the normalizer
+ * <ul>
+ *     <li>lowercases the scheme and the host, leaving user info, path and query untouched,</li>
+ *     <li>removes the port if it is the default port of the scheme (80 for http, 443 for https),</li>
+ *     <li>resolves the "." and ".." segments of the path as described in RFC 3986, section 5.2.4, and</li>
+ *     <li>removes the fragment.</li>
+ * </ul>
+ * URLs that are already normal are returned as is, without allocating.
+ */
+public final class URLNormalizer {
+
+    private URLNormalizer() {
+    }
+
+    /**
+     * Normalizes the given URL.
+     *
+     * @param url the absolute URL to normalize.
+     * @return the normalized URL, the given instance if it is already normal, or {@code null} if the URL is null.
+     */
+    public static String normalize(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        int length = url.length();
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd <= 0) {
+            return url;
+        }
+
+        // Locate the components: authority, host within it, path, and the end before the fragment
+        int authorityStart = schemeEnd + 3;
+        int fragment = url.indexOf('#', authorityStart);
+        int end = fragment < 0 ? length : fragment;
+
+        int authorityEnd = authorityStart;
+        while (authorityEnd < end) {
+            char c = url.charAt(authorityEnd);
+            if (c == '/' || c == '?') break;
+            authorityEnd++;
+        }
+
+        int hostStart = url.lastIndexOf('@', authorityEnd - 1) + 1;
+        if (hostStart < authorityStart) {
+            hostStart = authorityStart;
+        }
+
+        int portStart = -1;
+        for (int i = authorityEnd - 1; i > hostStart; i--) {
+            char c = url.charAt(i);
+            if (c == ':') {
+                portStart = i;
+                break;
+            }
+            if (c < '0' || c > '9') break;
+        }
+        int hostEnd = portStart < 0 ? authorityEnd : portStart;
+
+        int queryStart = url.indexOf('?', authorityEnd);
+        int pathEnd = queryStart < 0 || queryStart > end ? end : queryStart;
+
+        boolean dropPort = portStart >= 0 && isDefaultPort(url, 0, schemeEnd, portStart + 1, authorityEnd);
+        boolean dotSegments = hasDotSegments(url, authorityEnd, pathEnd);
+
+        if (fragment < 0 && !dropPort && !dotSegments
+                && !hasUpperCase(url, 0, schemeEnd) && !hasUpperCase(url, hostStart, hostEnd)) {
+            return url;
+        }
+
+        StringBuilder normalized = new StringBuilder(end);
+        appendLowerCase(normalized, url, 0, schemeEnd);
+        normalized.append(url, schemeEnd, hostStart);
+        appendLowerCase(normalized, url, hostStart, hostEnd);
+        if (portStart >= 0 && !dropPort) {
+            normalized.append(url, portStart, authorityEnd);
+        }
+
+        if (dotSegments) {
+            appendResolvedPath(normalized, url, authorityEnd, pathEnd);
+        } else {
+            normalized.append(url, authorityEnd, pathEnd);
+        }
+
+        normalized.append(url, pathEnd, end);
+        return normalized.toString();
+    }
+
+    private static boolean isDefaultPort(String url, int schemeStart, int schemeEnd, int portStart, int portEnd) {
+        int schemeLength = schemeEnd - schemeStart;
+        int portLength = portEnd - portStart;
+
+        // An empty port ("http://host:/") is the default port as well
+        if (portLength == 0) {
+            return true;
+        }
+        if (schemeLength == 4 && url.regionMatches(true, schemeStart, "http", 0, 4)) {
+            return portLength == 2 && url.regionMatches(portStart, "80", 0, 2);
+        }
+        if (schemeLength == 5 && url.regionMatches(true, schemeStart, "https", 0, 5)) {
+            return portLength == 3 && url.regionMatches(portStart, "443", 0, 3);
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the path contains a segment that is exactly "." or "..".
+     */
+    private static boolean hasDotSegments(String url, int start, int end) {
+        int segmentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || url.charAt(i) == '/') {
+                int length = i - segmentStart;
+                if ((length == 1 && url.charAt(segmentStart) == '.')
+                        || (length == 2 && url.charAt(segmentStart) == '.' && url.charAt(segmentStart + 1) == '.')) {
+                    return true;
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the path with "." segments removed and each ".." segment removing the segment before it.
+     */
+    private static void appendResolvedPath(StringBuilder out, String url, int start, int end) {
+        int base = out.length();
+        int segmentStart = start;
+
+        // Each segment, the empty first one included, is handled as "/" + name
+        while (segmentStart < end) {
+            int slash = url.indexOf('/', segmentStart + 1);
+            int segmentEnd = slash < 0 || slash > end ? end : slash;
+            int nameStart = url.charAt(segmentStart) == '/' ? segmentStart + 1 : segmentStart;
+            int length = segmentEnd - nameStart;
+            boolean last = segmentEnd == end;
+
+            if (length == 1 && url.charAt(nameStart) == '.') {
+                // Drop the segment, keeping the directory slash if it ends the path
+                if (last) out.append('/');
+            } else if (length == 2 && url.charAt(nameStart) == '.' && url.charAt(nameStart + 1) == '.') {
+                int parent = out.lastIndexOf("/");
+                out.setLength(parent < base ? base : parent);
+                if (last) out.append('/');
+            } else {
+                out.append('/').append(url, nameStart, segmentEnd);
+            }
+
+            segmentStart = segmentEnd;
+        }
+    }
+
+    private static boolean hasUpperCase(String url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendLowerCase(StringBuilder out, String url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            out.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+    }
+}
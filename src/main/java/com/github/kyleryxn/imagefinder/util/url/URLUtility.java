@@ -3,11 +3,7 @@ package com.github.kyleryxn.imagefinder.util.url;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.Arrays;
-import java.util.List;
 
 /**
  * Utility class for working with URLs.
@@ -21,29 +17,22 @@ public class URLUtility {
      *
      * @param url the URL to check for validity
      * @return the URL to check for validity
+     * @see URLClassifier#isCrawlable(String)
      */
     public static boolean isValidLinkToCrawl(String url) {
-        if (url == null || url.isEmpty()) {
-            return false;
-        }
-
-        List<String> invalidExtensions = Arrays.asList(
-                "#", "javascript:", "mailto:", "tel:",              // Invalid link starters
-                ".pdf",                                             // Skip PDFs
-                ".jpg", ".jpeg", ".png", ".gif", ".ico", ".svg",    // Skip images
-                ".doc", ".docx", ".csv", ".xlsx", ".ppt", ".pptx",  // Skip office files
-                ".zip", ".rar",                                     // Skip compressed files
-                ".mp3", ".wav", ".ogg",                             // Skip music files
-                ".mp4", ".avi", ".mov",                             // Skip video files
-                ".xml", ".json", ".js", ".css", ".txt");            // Skip other irrelevant files
-
-        for (String invalidExtension : invalidExtensions) {
-            if (url.startsWith(invalidExtension) || url.endsWith(invalidExtension)) {
-                return false;
-            }
-        }
+        return URLClassifier.isCrawlable(url);
+    }
 
-        return true;
+    /**
+     * Normalizes the given URL by lowercasing its scheme and host, removing a default port, resolving dot-segments
+     * and removing the fragment.
+     *
+     * @param url the URL to normalize.
+     * @return the normalized URL.
+     * @see URLNormalizer#normalize(String)
+     */
+    public static String normalizeURL(String url) {
+        return URLNormalizer.normalize(url);
     }
 
     /**
@@ -55,40 +44,87 @@ public class URLUtility {
     public static String trimURL(String url) {
         if (url == null) return null;
 
-        // Remove query parameters if present
-        int queryIndex = url.indexOf('?');
-        if (queryIndex != -1) {
-            url = url.substring(0, queryIndex);
+        // Cut at the query or the fragment, whichever comes first, then at most one trailing slash
+        int end = url.indexOf('?');
+        int fragment = url.indexOf('#');
+        if (end < 0 || (fragment >= 0 && fragment < end)) {
+            end = fragment < 0 ? url.length() : fragment;
         }
 
-        // Remove URL fragment if present
-        int fragmentIndex = url.indexOf('#');
-        if (fragmentIndex != -1) {
-            url = url.substring(0, fragmentIndex);
+        if (end > 0 && url.charAt(end - 1) == '/') {
+            end--;
         }
 
-        // Remove trailing slash if present
-        if (url.endsWith("/")) {
-            url = url.substring(0, url.length() - 1);
-        }
-
-        return url;
+        return end == url.length() ? url : url.substring(0, end);
     }
 
     /**
-     * Gets the domain of the given URL by parsing the host from the {@link URI} and removing "www." if present.
+     * Gets the domain of the given URL, that is its host with a leading "www." removed.
      *
      * @param url the URL to get the domain from.
-     * @return the domain of the URL, or {@code null} if the URL is invalid.
+     * @return the domain of the URL, or {@code null} if the URL is not absolute.
      */
     public static String getDomain(String url) {
-        try {
-            String domain = new URI(url).getHost();
-            return domain.replace("www.", "");
-        } catch (URISyntaxException e) {
-            LOGGER.error("Failed to parse URL '{}'", e.getMessage());
+        if (url == null) return null;
+
+        int start = url.indexOf("://");
+        if (start <= 0) {
+            LOGGER.error("Failed to parse URL '{}'", url);
             return null;
         }
+        start += 3;
+
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') break;
+            end++;
+        }
+
+        // Drop user info and port if present
+        int at = url.lastIndexOf('@', end - 1);
+        if (at >= start) {
+            start = at + 1;
+        }
+        int colon = url.indexOf(':', start);
+        if (colon >= 0 && colon < end && url.charAt(start) != '[') {
+            end = colon;
+        }
+
+        if (url.startsWith("www.", start)) {
+            start += 4;
+        }
+
+        return start < end ? url.substring(start, end) : null;
+    }
+
+    /**
+     * Gets the authority of the given URL, that is its lowercased host followed by the port if one is present. Unlike
+     * {@link #getDomain(String)}, "www." is kept, since different hosts are served by different origins.
+     *
+     * @param url the URL to get the authority from.
+     * @return the authority of the URL, or an empty string if the URL has none.
+     */
+    public static String getAuthority(String url) {
+        if (url == null) return "";
+
+        int start = url.indexOf("://");
+        start = start == -1 ? 0 : start + 3;
+
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') break;
+            end++;
+        }
+
+        // Drop user info if present
+        int at = url.lastIndexOf('@', end - 1);
+        if (at >= start) {
+            start = at + 1;
+        }
+
+        return url.substring(start, end).toLowerCase();
     }
 
     /**
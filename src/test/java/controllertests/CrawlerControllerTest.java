@@ -1,4 +1,112 @@
 package controllertests;
 
+import com.github.kyleryxn.imagefinder.controller.CrawlerController;
+import com.github.kyleryxn.imagefinder.service.CrawlJob;
+import com.github.kyleryxn.imagefinder.service.CrawlJobService;
+import com.github.kyleryxn.imagefinder.service.CrawlResultCache;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("Crawler Controller Tests")
 public class CrawlerControllerTest {
+    private static final String PAGE = "<html><body><img src=\"/a.png\"><img src=\"/b.png\"><img src=\"/c.png\"></body></html>";
+
+    @TempDir
+    Path outputDir;
+
+    private HttpServer server;
+    private String base;
+    private CrawlJobService jobService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+        jobService = new CrawlJobService(1, 1, outputDir, new CrawlResultCache());
+        mockMvc = MockMvcBuilders.standaloneSetup(new CrawlerController(jobService)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test: Unknown Job Is Not Found")
+    void testUnknownJob() throws Exception {
+        mockMvc.perform(get("/api/crawls/missing")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/crawls/missing/images")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/crawls/missing/metrics")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Test: Submitted Crawl Completes And Pages Images")
+    void testSubmitAndPoll() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/crawls").param("url", base))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String id = jobService.getJobIds().iterator().next();
+        assertTrue(result.getResponse().getContentAsString().contains(id));
+
+        // Either shares the running crawl or, if it already finished, is served from the result cache
+        CrawlJob again = jobService.submit(base);
+        assertTrue(again.getId().equals(id) || again.getStatus() == CrawlJob.Status.COMPLETED);
+
+        CrawlJob job = jobService.getJob(id);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        JsonObject progress = body(mockMvc.perform(get("/api/crawls/" + id)).andExpect(status().isOk()).andReturn());
+        assertEquals("COMPLETED", progress.get("status").getAsString());
+        assertEquals(3, progress.get("imagesFound").getAsInt());
+
+        JsonObject page = body(mockMvc.perform(get("/api/crawls/" + id + "/images").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn());
+        assertEquals(1, page.getAsJsonArray("images").size());
+        assertEquals(3, page.get("totalImages").getAsInt());
+
+        JsonObject metrics = body(mockMvc.perform(get("/api/crawls/" + id + "/metrics")).andExpect(status().isOk())
+                .andReturn());
+        assertTrue(metrics.get("pagesCrawled").getAsInt() >= 1);
+        assertTrue(metrics.getAsJsonObject("phaseLatencies").has("page"));
+    }
+
+    private static JsonObject body(MvcResult result) throws Exception {
+        return new JsonParser().parse(result.getResponse().getContentAsString()).getAsJsonObject();
+    }
 }
@@ -0,0 +1,200 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.BatchCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.Parser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Batch Crawler Tests")
+public class BatchCrawlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test: Crawl Many Seeds On One Pool")
+    void testCrawlAll() throws Exception {
+        List<SyntheticSite> sites = new ArrayList<>();
+        try (BatchCrawler batch = new BatchCrawler(6, tempDir)) {
+            List<String> seeds = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                SyntheticSite site = new SyntheticSite(30 + 10 * i, 3, 2).start();
+                sites.add(site);
+                seeds.add(site.getSeed());
+            }
+
+            Map<String, Integer> finished = new ConcurrentHashMap<>();
+            Map<String, ConcurrentMap<String, Set<Image>>> results = batch.crawlAll(seeds,
+                    (seed, images) -> finished.merge(seed, 1, Integer::sum));
+
+            assertEquals(seeds, new ArrayList<>(results.keySet()));
+            for (int i = 0; i < seeds.size(); i++) {
+                SyntheticSite site = sites.get(i);
+                ConcurrentMap<String, Set<Image>> images = results.get(seeds.get(i));
+
+                // Every seed only holds its own pages and images
+                assertEquals(site.getPageCount(), images.size());
+                assertEquals(site.getImageCount(), countDistinct(images));
+                assertTrue(images.keySet().stream().allMatch(url -> url.startsWith(site.getSeed())));
+                assertEquals(Integer.valueOf(1), finished.get(seeds.get(i)));
+            }
+
+            assertEquals(0, batch.getActiveSeedCount());
+        } finally {
+            for (SyntheticSite site : sites) {
+                site.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Worker Killed By An Error Is Counted Out")
+    void testWorkerError() throws Exception {
+        ConcurrentLinkedQueue<Throwable> uncaught = new ConcurrentLinkedQueue<>();
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+
+        try (SyntheticSite site = new SyntheticSite(20, 3, 1).start()) {
+            String failing = site.getSeed() + SyntheticSite.pathOf(5).substring(1);
+            try (BatchCrawler batch = new BatchCrawler(2, tempDir, seed -> new FailingParser(seed, failing))) {
+                // The crawl goes on without the page, on the worker left
+                ConcurrentMap<String, Set<Image>> images = batch.submit(site.getSeed()).get(30, TimeUnit.SECONDS);
+                assertFalse(images.containsKey(failing));
+                assertFalse(images.isEmpty());
+
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (batch.getWorkerCount() > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertEquals(0, batch.getWorkerCount());
+                assertTrue(uncaught.stream().anyMatch(e -> e instanceof AssertionError), uncaught.toString());
+            }
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Seeds Share The Pool Fairly")
+    void testFairness() throws Exception {
+        try (SyntheticSite large = new SyntheticSite(120, 4, 1).start();
+             SyntheticSite small = new SyntheticSite(20, 3, 1).start();
+             BatchCrawler batch = new BatchCrawler(2, tempDir)) {
+            CompletableFuture<ConcurrentMap<String, Set<Image>>> first = batch.submit(large.getSeed());
+            CompletableFuture<ConcurrentMap<String, Set<Image>>> second = batch.submit(small.getSeed());
+
+            // The small seed is not queued behind the pages of the large one
+            ConcurrentMap<String, Set<Image>> smallImages = second.get(30, TimeUnit.SECONDS);
+            assertFalse(first.isDone());
+            assertEquals(small.getPageCount(), smallImages.size());
+            assertTrue(batch.getWorkerCount() <= 2);
+
+            assertEquals(large.getPageCount(), first.get(60, TimeUnit.SECONDS).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Seed Backing Off Does Not Hold Up The Others")
+    void testBackOff() throws Exception {
+        List<SyntheticSite> sites = new ArrayList<>();
+        try (SyntheticSite throttled = new SyntheticSite(20, 8, 1).withRetryAfter(5, 2).start();
+             BatchCrawler batch = new BatchCrawler(4, tempDir)) {
+            CompletableFuture<ConcurrentMap<String, Set<Image>>> slow = batch.submit(throttled.getSeed());
+            List<CompletableFuture<ConcurrentMap<String, Set<Image>>>> others = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                SyntheticSite site = new SyntheticSite(20, 3, 1).start();
+                sites.add(site);
+                others.add(batch.submit(site.getSeed()));
+            }
+
+            // The workers pass over the throttled host while its Retry-After lasts instead of waiting on it
+            for (int i = 0; i < others.size(); i++) {
+                assertEquals(sites.get(i).getPageCount(), others.get(i).get(4, TimeUnit.SECONDS).size());
+            }
+            assertTrue(throttled.getThrottledCount() > 0);
+            assertFalse(slow.isDone());
+
+            assertEquals(throttled.getPageCount(), slow.get(60, TimeUnit.SECONDS).size());
+        } finally {
+            for (SyntheticSite site : sites) {
+                site.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Invalid Arguments")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchCrawler(0, tempDir));
+        try (BatchCrawler batch = new BatchCrawler(1, tempDir)) {
+            assertThrows(IllegalArgumentException.class, () -> batch.submit("http://localhost/", 0));
+            assertTrue(batch.crawlAll(Collections.<String>emptyList(), null).isEmpty());
+        } catch (InterruptedException e) {
+            fail(e);
+        }
+    }
+
+    private static long countDistinct(Map<String, Set<Image>> images) {
+        return images.values().stream().flatMap(Set::stream).map(Image::getUrl).distinct().count();
+    }
+
+    /**
+     * Parses pages with an {@link HTMLParser}, except for one page, whose parse throws an error.
+     */
+    private static final class FailingParser implements Parser {
+        private final HTMLParser parser;
+        private final String failing;
+
+        private FailingParser(String seed, String failing) {
+            this.parser = new HTMLParser(seed);
+            this.failing = failing;
+        }
+
+        @Override
+        public String getDomain() {
+            return parser.getDomain();
+        }
+
+        @Override
+        public ParsedPage parse(String url) {
+            if (url.equals(failing)) {
+                throw new AssertionError("Cannot parse " + url);
+            }
+            return parser.parse(url);
+        }
+
+        @Override
+        public Set<String> getChildren(String url) {
+            return parser.getChildren(url);
+        }
+
+        @Override
+        public Set<String> getImageLinks(String url) {
+            return parser.getImageLinks(url);
+        }
+
+        @Override
+        public Set<Image> getImageObjects(String url) {
+            return parser.getImageObjects(url);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.BloomSeenSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bloom Seen Set Tests")
+public class BloomSeenSetTest {
+
+    @Test
+    @DisplayName("Test: Claimed URLs Are Never Claimed Again")
+    void testNoDuplicateClaims() {
+        BloomSeenSet seen = new BloomSeenSet(1000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            seen.claim("https://example.com/page/" + i);
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            assertFalse(seen.claim("https://example.com/page/" + i));
+            assertTrue(seen.contains("https://example.com/page/" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: False Positive Rate Stays Within Bound While Growing")
+    void testFalsePositiveRate() {
+        BloomSeenSet seen = new BloomSeenSet(1000, 0.01);
+        int rejected = 0;
+        for (int i = 0; i < 50_000; i++) {
+            if (!seen.claim("https://example.com/page/" + i)) {
+                rejected++;
+            }
+        }
+
+        // 50 times the initial capacity; every rejection of a new URL is a false positive
+        assertTrue(rejected < 500, "False positives: " + rejected);
+        assertEquals(50_000 - rejected, seen.size());
+        assertTrue(seen.getEstimatedFalsePositiveRate() < 0.01);
+        assertTrue(seen.getMemoryBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Test: Invalid Arguments Are Rejected")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomSeenSet(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomSeenSet(100, 1.5));
+    }
+}
@@ -0,0 +1,148 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.cluster.ClusterNode;
+import com.github.kyleryxn.imagefinder.crawler.cluster.ClusterResult;
+import com.github.kyleryxn.imagefinder.crawler.cluster.HashRing;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Cluster Node Tests")
+public class ClusterNodeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test: Consistent Hashing Spreads Keys And Moves Few")
+    void testHashRing() {
+        HashRing four = new HashRing(4);
+        HashRing five = new HashRing(5);
+        int keys = 20_000;
+        int[] counts = new int[4];
+        int moved = 0;
+        for (int i = 0; i < keys; i++) {
+            String key = "http://example.com/page-" + i;
+            int node = four.nodeFor(key);
+            counts[node]++;
+            if (five.nodeFor(key) != node) {
+                moved++;
+            }
+        }
+
+        for (int count : counts) {
+            assertTrue(count > keys / 4 * 0.7 && count < keys / 4 * 1.3, "count " + count);
+        }
+
+        // About a fifth of the keys move to the new node, and no key moves between the old ones
+        assertTrue(moved < keys * 0.3, "moved " + moved);
+        for (int i = 0; i < keys; i++) {
+            String key = "http://example.com/page-" + i;
+            int node = five.nodeFor(key);
+            assertTrue(node == 4 || node == four.nodeFor(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Nodes Crawl Their Part And Merge The Results")
+    void testClusteredCrawl() throws Exception {
+        List<ClusterNode> nodes = new ArrayList<>();
+        try (SyntheticSite site = new SyntheticSite(90, 3, 2).start()) {
+            String seed = site.getSeed();
+            List<InetSocketAddress> members = new ArrayList<>();
+            for (int id = 0; id < 3; id++) {
+                ClusterNode node = new ClusterNode(id, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                nodes.add(node);
+                members.add(node.getAddress());
+            }
+            nodes.forEach(node -> node.join(members));
+
+            long requests = site.getRequestCount();
+            List<CompletableFuture<ClusterResult>> futures = new ArrayList<>();
+            for (ClusterNode node : nodes) {
+                futures.add(node.crawl(seed, new HTMLParser(seed), new PooledCrawlExecution(2),
+                        new HostScheduler(8, 16, 10_000), new JsonResultSink(tempDir.resolve("node-" + node.getId()))));
+            }
+
+            ClusterResult merged = futures.get(0).get(30, TimeUnit.SECONDS);
+            int crawled = 0;
+            for (int id = 1; id < nodes.size(); id++) {
+                ClusterResult own = futures.get(id).get(30, TimeUnit.SECONDS);
+                assertFalse(own.getImages().isEmpty(), "node " + id + " crawled nothing");
+                crawled += own.getImages().size();
+            }
+            assertTrue(crawled < merged.getImages().size());
+
+            // Every page is crawled exactly once across the cluster, besides the check of the seed by each node
+            assertEquals(site.getPageCount(), site.getRequestCount() - requests - nodes.size());
+            assertEquals(site.getPageCount(), merged.getImages().size());
+            assertEquals(site.getPageCount(), merged.getSitemap().size());
+            assertEquals(site.getImageCount(), merged.getImages().values().stream()
+                    .flatMap(Set::stream).map(Image::getUrl).distinct().count());
+
+            long sent = nodes.stream().mapToLong(ClusterNode::getSentCount).sum();
+            long received = nodes.stream().mapToLong(ClusterNode::getReceivedCount).sum();
+            assertTrue(sent > 0);
+            assertEquals(sent, received);
+        } finally {
+            nodes.forEach(ClusterNode::close);
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Malformed Messages Drop The Connection")
+    void testMalformedMessages() throws Exception {
+        ConcurrentLinkedQueue<Throwable> uncaught = new ConcurrentLinkedQueue<>();
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+
+        try (ClusterNode node = new ClusterNode(0, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            // A links message with a negative count, then with a negative and a huge link length
+            assertDropped(node, -1);
+            assertDropped(node, 1, -1);
+            assertDropped(node, 1, Integer.MAX_VALUE);
+            assertDropped(node, 1, ClusterNode.MAX_LINK_BYTES + 1);
+            assertTrue(uncaught.isEmpty(), uncaught.toString());
+            assertEquals(0, node.getReceivedCount());
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    private static void assertDropped(ClusterNode node, int... ints) throws IOException {
+        try (Socket socket = new Socket(node.getAddress().getAddress(), node.getAddress().getPort())) {
+            socket.setSoTimeout(5_000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeByte(1); // Links
+            out.writeInt(1);
+            for (int value : ints) {
+                out.writeInt(value);
+            }
+            out.flush();
+
+            // The node closes the connection without waiting for the rest of the message
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+}
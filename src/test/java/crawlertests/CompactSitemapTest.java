@@ -0,0 +1,95 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.CompactSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.CompactSitemap;
+import com.github.kyleryxn.imagefinder.crawler.URLDictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Compact Sitemap Tests")
+public class CompactSitemapTest {
+
+    @Test
+    @DisplayName("Test: Dictionary Interns Each URL Once")
+    void testDictionary() {
+        URLDictionary dictionary = new URLDictionary();
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, dictionary.intern("https://example.com/page/" + i));
+        }
+
+        assertEquals(5000, dictionary.size());
+        assertEquals(1234, dictionary.intern("https://example.com/page/1234"));
+        assertEquals(4999, dictionary.idOf("https://example.com/page/4999"));
+        assertEquals(-1, dictionary.idOf("https://example.com/missing"));
+        assertEquals("https://example.com/page/42", dictionary.get(42));
+        assertEquals("https://example.com/über", dictionary.get(dictionary.intern("https://example.com/über")));
+    }
+
+    @Test
+    @DisplayName("Test: Seen Set Claims Each URL Once")
+    void testSeenSet() {
+        URLDictionary dictionary = new URLDictionary();
+        CompactSeenSet seen = new CompactSeenSet(dictionary);
+        dictionary.intern("https://example.com/linked");
+
+        assertFalse(seen.contains("https://example.com/linked"));
+        assertTrue(seen.claim("https://example.com/linked"));
+        assertFalse(seen.claim("https://example.com/linked"));
+        assertTrue(seen.claim("https://example.com/other"));
+        assertTrue(seen.contains("https://example.com/other"));
+        assertEquals(2, seen.size());
+    }
+
+    @Test
+    @DisplayName("Test: Sitemap Map View Matches Recorded Links")
+    void testSitemap() {
+        CompactSitemap sitemap = new CompactSitemap(new URLDictionary());
+        Set<String> rootLinks = new LinkedHashSet<>(Arrays.asList("https://example.com/a", "https://example.com/b"));
+        sitemap.put("https://example.com/", rootLinks);
+        sitemap.put("https://example.com/a", Collections.singleton("https://example.com/"));
+        for (int i = 0; i < 1000; i++) {
+            sitemap.put("https://example.com/p" + i, rootLinks);
+        }
+        sitemap.put("https://example.com/a", Collections.emptySet());
+
+        assertEquals(1002, sitemap.size());
+        assertEquals(2002, sitemap.getLinkCount());
+        assertTrue(sitemap.contains("https://example.com/a"));
+        assertFalse(sitemap.contains("https://example.com/b"));
+
+        Map<String, Set<String>> map = sitemap.toMap();
+        assertEquals(1002, map.size());
+        assertEquals(rootLinks, map.get("https://example.com/"));
+        assertEquals(rootLinks, map.get("https://example.com/p999"));
+        assertTrue(map.get("https://example.com/a").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test: Pages Only Sitemap Interns No Links")
+    void testPagesOnly() {
+        URLDictionary dictionary = new URLDictionary();
+        CompactSitemap sitemap = CompactSitemap.pagesOnly(dictionary);
+        for (int i = 0; i < 100; i++) {
+            Set<String> links = new LinkedHashSet<>();
+            for (int k = 0; k < 50; k++) {
+                links.add("https://example.com/p" + i + "/link" + k);
+            }
+            sitemap.put("https://example.com/p" + i, links);
+        }
+
+        // Only the pages are interned, not the 5000 distinct links
+        assertEquals(100, dictionary.size());
+        assertEquals(100, sitemap.size());
+        assertEquals(0, sitemap.getLinkCount());
+        assertTrue(sitemap.contains("https://example.com/p42"));
+        assertTrue(sitemap.toMap().get("https://example.com/p42").isEmpty());
+    }
+}
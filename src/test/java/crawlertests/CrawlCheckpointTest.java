@@ -0,0 +1,262 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.CompactSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.CrawlCheckpoint;
+import com.github.kyleryxn.imagefinder.crawler.Frontier;
+import com.github.kyleryxn.imagefinder.crawler.FrontierSpill;
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.URLDictionary;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Crawl Checkpoint Tests")
+public class CrawlCheckpointTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test: Resume An Interrupted Crawl")
+    void testResume() throws Exception {
+        try (SyntheticSite site = new SyntheticSite(80, 3, 2).start()) {
+            String seed = site.getSeed();
+            Path checkpointDir = tempDir.resolve("checkpoint");
+
+            // The first crawl stops fetching after 30 pages, as if the JVM had died
+            HaltingParser halting = new HaltingParser(new HTMLParser(seed), 30);
+            CrawlCheckpoint first = CrawlCheckpoint.open(checkpointDir, 10);
+            WebCrawler interrupted = newCrawler(seed, halting, "first");
+            interrupted.setCheckpoint(first);
+            interrupted.crawlAsync();
+            try {
+                assertTrue(halting.awaitHalted(10, TimeUnit.SECONDS));
+                first.close();
+            } finally {
+                halting.release();
+            }
+
+            try (CrawlCheckpoint second = CrawlCheckpoint.open(checkpointDir)) {
+                int crawled = second.getCompletedPages().size();
+                assertTrue(crawled > 0 && crawled <= 30, "crawled " + crawled);
+                assertFalse(second.getPendingEntries().isEmpty());
+
+                WebCrawler resumed = newCrawler(seed, new HTMLParser(seed), "second");
+                resumed.setCheckpoint(second);
+                long requests = site.getRequestCount();
+                Map<String, Set<Image>> images = resumed.crawl();
+
+                // Only the pages the checkpoint did not hold are fetched
+                assertEquals(site.getPageCount() - crawled, site.getRequestCount() - requests);
+                assertEquals(site.getPageCount(), resumed.getVisitedCount());
+                assertEquals(site.getImageCount(), countDistinct(images));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Failed Compaction Keeps The Checkpoint Writable")
+    void testFailedCompaction() throws Exception {
+        Path checkpointDir = tempDir.resolve("checkpoint");
+        Path file = checkpointDir.resolve(CrawlCheckpoint.FILE_NAME);
+
+        // A directory in the way of the temporary file makes every compaction fail
+        Path blocker = Files.createDirectories(checkpointDir.resolve(CrawlCheckpoint.FILE_NAME + ".tmp"));
+        Files.createFile(blocker.resolve("keep"));
+
+        try (CrawlCheckpoint checkpoint = CrawlCheckpoint.open(checkpointDir, 10)) {
+            checkpoint.begin("https://example.com/");
+            for (int i = 0; i < 4; i++) {
+                checkpoint.queued("https://example.com/" + i, 1);
+                checkpoint.crawled("https://example.com/" + i, 1, Collections.emptySet(), Collections.emptySet());
+            }
+            Thread.sleep(100);
+
+            // Written to the same file after the compaction failed
+            checkpoint.queued("https://example.com/pending", 1);
+        }
+        assertEquals(10, Files.readAllLines(file).size());
+
+        try (CrawlCheckpoint reopened = CrawlCheckpoint.open(checkpointDir)) {
+            assertEquals(4, reopened.getCompletedPages().size());
+            assertEquals(1, reopened.getPendingEntries().size());
+        }
+
+        // Once the directory is gone, closing compacts the file
+        Files.delete(blocker.resolve("keep"));
+        Files.delete(blocker);
+        CrawlCheckpoint.open(checkpointDir).close();
+        assertEquals(6, Files.readAllLines(file).size());
+        assertFalse(Files.exists(blocker));
+    }
+
+    @Test
+    @DisplayName("Test: Finished Crawl Is Compacted And Not Fetched Again")
+    void testFinishedCrawl() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(40, 3, 2).start()) {
+            String seed = site.getSeed();
+            Path checkpointDir = tempDir.resolve("checkpoint");
+
+            WebCrawler crawler = newCrawler(seed, new HTMLParser(seed), "first");
+            crawler.setCheckpoint(CrawlCheckpoint.open(checkpointDir));
+            crawler.crawl();
+
+            // The seed and one record per page; the frontier records of the pages were compacted away
+            assertEquals(site.getPageCount() + 1,
+                    Files.readAllLines(checkpointDir.resolve(CrawlCheckpoint.FILE_NAME)).size());
+
+            try (CrawlCheckpoint reopened = CrawlCheckpoint.open(checkpointDir)) {
+                assertEquals(seed, reopened.getSeed());
+                assertTrue(reopened.getPendingEntries().isEmpty());
+
+                WebCrawler again = newCrawler(seed, new HTMLParser(seed), "second");
+                again.setCheckpoint(reopened);
+                long requests = site.getRequestCount();
+                Map<String, Set<Image>> images = again.crawl();
+
+                assertEquals(requests, site.getRequestCount());
+                assertEquals(site.getPageCount(), again.getVisitedCount());
+                assertEquals(site.getImageCount(), countDistinct(images));
+
+                WebCrawler other = newCrawler(seed + "page-1", new HTMLParser(seed), "third");
+                assertThrows(IllegalArgumentException.class, () -> other.setCheckpoint(reopened));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Resume With More Pending URLs Than The Frontier Holds")
+    void testResumeIntoSmallFrontier() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(60, 3, 2).start()) {
+            String seed = site.getSeed();
+            Path checkpointDir = tempDir.resolve("checkpoint");
+
+            // A crawl that queued every page and crawled none of them
+            CrawlCheckpoint first = CrawlCheckpoint.open(checkpointDir);
+            first.begin(seed);
+            first.queued(seed, 0);
+            for (int page = 1; page < site.getPageCount(); page++) {
+                first.queued(seed + SyntheticSite.pathOf(page).substring(1), 1);
+            }
+            first.close();
+
+            try (CrawlCheckpoint second = CrawlCheckpoint.open(checkpointDir)) {
+                assertEquals(site.getPageCount(), second.getPendingEntries().size());
+
+                WebCrawler bounded = newCrawler(seed, new Frontier(8), "bounded");
+                assertThrows(IllegalArgumentException.class, () -> bounded.setCheckpoint(second));
+
+                Frontier frontier = new Frontier(8, new FrontierSpill(tempDir.resolve("spill"), 4096));
+                WebCrawler spilling = newCrawler(seed, frontier, "spilling");
+                spilling.setCheckpoint(second);
+                Map<String, Set<Image>> images = spilling.crawl();
+
+                assertEquals(site.getPageCount(), spilling.getVisitedCount());
+                assertEquals(site.getImageCount(), countDistinct(images));
+                assertEquals(0, frontier.getDroppedCount());
+            }
+        }
+    }
+
+    private WebCrawler newCrawler(String seed, Frontier frontier, String output) {
+        return new WebCrawler(seed, new HTMLParser(seed), new PooledCrawlExecution(4), new HostScheduler(8, 16, 10_000),
+                new JsonResultSink(tempDir.resolve(output)), new CompactSeenSet(new URLDictionary()), frontier);
+    }
+
+    private WebCrawler newCrawler(String seed, Parser parser, String output) {
+        return new WebCrawler(seed, parser, new PooledCrawlExecution(4), new HostScheduler(8, 16, 10_000),
+                new JsonResultSink(tempDir.resolve(output)));
+    }
+
+    private static long countDistinct(Map<String, Set<Image>> images) {
+        return images.values().stream().flatMap(Set::stream).map(Image::getUrl).distinct().count();
+    }
+
+    /**
+     * Parses a fixed number of pages, then holds every other parse until released, without fetching the page.
+     */
+    private static final class HaltingParser implements Parser {
+        private final Parser delegate;
+        private final int limit;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch parsed;
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final CountDownLatch halted = new CountDownLatch(1);
+
+        private HaltingParser(Parser delegate, int limit) {
+            this.delegate = delegate;
+            this.limit = limit;
+            this.parsed = new CountDownLatch(limit);
+        }
+
+        @Override
+        public String getDomain() {
+            return delegate.getDomain();
+        }
+
+        @Override
+        public ParsedPage parse(String url) {
+            if (calls.incrementAndGet() <= limit) {
+                try {
+                    return delegate.parse(url);
+                } finally {
+                    parsed.countDown();
+                }
+            }
+
+            halted.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ParsedPage.empty(url);
+        }
+
+        @Override
+        public Set<String> getChildren(String url) {
+            return parse(url).getLinks();
+        }
+
+        @Override
+        public Set<String> getImageLinks(String url) {
+            return delegate.getImageLinks(url);
+        }
+
+        @Override
+        public Set<Image> getImageObjects(String url) {
+            return parse(url).getImages();
+        }
+
+        /**
+         * Waits until the parses before the limit are done and a parse after it is held.
+         */
+        private boolean awaitHalted(long timeout, TimeUnit unit) throws InterruptedException {
+            return parsed.await(timeout, unit) && halted.await(timeout, unit);
+        }
+
+        private void release() {
+            released.countDown();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.CrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PermitCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.Parser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Crawls a large {@link SyntheticSite} with every execution mode and thread count and prints pages per second, the
+ * 99th percentile page latency and the retained heap per 100k pages of each crawl. Excluded from the default build;
+ * run with {@code mvn test -Dgroups=load -DexcludedGroups= -Dtest=CrawlLoadTest}. The size of the site, the thread
+ * counts and the latency of the site can be set with the system properties {@code load.pages},
+ * {@code load.threads} (comma separated) and {@code load.latency} (milliseconds).
+ */
+@Tag("load")
+@DisplayName("Crawl Load Tests")
+public class CrawlLoadTest {
+    private static final int PAGES = Integer.getInteger("load.pages", 20_000);
+    private static final int LATENCY_MILLIS = Integer.getInteger("load.latency", 2);
+    private static final int[] THREADS = Arrays.stream(System.getProperty("load.threads", "4,16,64").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    @DisplayName("Test: Crawl Throughput")
+    void testThroughput() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(PAGES, 8, 5).withLatency(LATENCY_MILLIS)
+                .withSlowPages(0.01, 50).withErrors(0.001).withRedirects(0.01).start()) {
+            System.out.printf("%n%-8s %8s %8s %12s %14s %18s%n",
+                    "mode", "threads", "pages", "pages/sec", "p99 latency ms", "heap MB/100k pages");
+
+            for (String mode : new String[]{"pooled", "permit"}) {
+                for (int threads : THREADS) {
+                    run(site, mode, threads);
+                }
+            }
+        }
+    }
+
+    private void run(SyntheticSite site, String mode, int threads) {
+        String seed = site.getSeed();
+        CrawlExecution execution = "permit".equals(mode)
+                ? new PermitCrawlExecution(threads)
+                : new PooledCrawlExecution(threads);
+        TimedParser parser = new TimedParser(new HTMLParser(seed), site.getReachablePageCount());
+        WebCrawler crawler = new WebCrawler(seed, parser, execution, new HostScheduler(threads, threads, 1_000_000),
+                new JsonResultSink(outputDir.resolve(mode + "-" + threads)));
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        Map<String, Set<Image>> images = crawler.crawl();
+        long elapsed = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+
+        int visited = crawler.getVisitedCount();
+        assertEquals(site.getReachablePageCount(), visited);
+
+        System.out.printf("%-8s %8d %8d %12.1f %14.2f %18.1f%n", mode, threads, visited,
+                visited / (elapsed / 1e9), parser.percentile(0.99) / 1e6,
+                (heapAfter - heapBefore) * (100_000.0 / visited) / (1024 * 1024));
+
+        // Keep the results reachable until the heap has been measured
+        assertEquals(visited, images.size());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * {@link Parser} that records how long fetching and parsing each page takes.
+     */
+    private static class TimedParser implements Parser {
+        private final Parser parser;
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private TimedParser(Parser parser, int capacity) {
+            this.parser = parser;
+            this.latencies = new long[capacity];
+        }
+
+        @Override
+        public String getDomain() {
+            return parser.getDomain();
+        }
+
+        @Override
+        public ParsedPage parse(String url) {
+            long start = System.nanoTime();
+            try {
+                return parser.parse(url);
+            } finally {
+                int i = count.getAndIncrement();
+                if (i < latencies.length) {
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }
+        }
+
+        @Override
+        public Set<String> getChildren(String url) {
+            return parser.getChildren(url);
+        }
+
+        @Override
+        public Set<String> getImageLinks(String url) {
+            return parser.getImageLinks(url);
+        }
+
+        @Override
+        public Set<Image> getImageObjects(String url) {
+            return parser.getImageObjects(url);
+        }
+
+        private long percentile(double p) {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(count.get(), latencies.length));
+            if (sorted.length == 0) {
+                return 0;
+            }
+            Arrays.sort(sorted);
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+        }
+    }
+}
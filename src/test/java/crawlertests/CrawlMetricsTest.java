@@ -0,0 +1,108 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.CrawlMetrics;
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.LatencyHistogram;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.CrawlMetricsSnapshot;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Crawl Metrics Tests")
+public class CrawlMetricsTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    @DisplayName("Test: Histogram Percentiles")
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+
+        // Every percentile is within the 1/16 relative precision of the buckets
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 / 16.0);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 / 16.0);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Records Metrics")
+    void testCrawlMetrics() throws Exception {
+        try (SyntheticSite site = new SyntheticSite(40, 3, 2).withErrors(0.1).withLatency(10).start()) {
+            String seed = site.getSeed();
+            WebCrawler crawler = new WebCrawler(seed, new HTMLParser(seed), new PooledCrawlExecution(4),
+                    new HostScheduler(4, 8, 10_000), new JsonResultSink(outputDir));
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName pattern = new ObjectName("com.github.kyleryxn.imagefinder:type=CrawlMetrics,*");
+            int registeredBefore = server.queryNames(pattern, null).size();
+
+            CompletableFuture<ConcurrentMap<String, Set<Image>>> result = crawler.crawlAsync();
+            assertEquals(registeredBefore + 1, server.queryNames(pattern, null).size());
+            result.get();
+            assertEquals(registeredBefore, server.queryNames(pattern, null).size());
+
+            CrawlMetricsSnapshot metrics = crawler.getMetrics();
+            Map<Integer, Long> statusCounts = metrics.getStatusCounts();
+
+            assertEquals(site.getReachablePageCount(), metrics.getPagesCrawled());
+            assertEquals(site.getErrorCount(), (long) statusCounts.get(500));
+            assertEquals(metrics.getPagesCrawled() - site.getErrorCount(), (long) statusCounts.get(200));
+            assertTrue(metrics.getBytesFetched() > 0);
+            assertEquals(0, metrics.getFrontierDepth());
+            assertEquals(0, metrics.getActiveWorkers());
+            assertTrue(metrics.getPagesPerSecond() > 0 && !Double.isInfinite(metrics.getPagesPerSecond()));
+            assertEquals(1, metrics.getHostRates().size());
+
+            assertEquals(metrics.getPagesCrawled(), metrics.getPhaseLatencies().get("page").getCount());
+            assertEquals(statusCounts.get(200), (Long) metrics.getPhaseLatencies().get("parse").getCount());
+            assertTrue(metrics.getPhaseLatencies().get("first_byte").getP50Millis() >= 10);
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Metrics Are Readable Over JMX")
+    void testMXBean() throws Exception {
+        CrawlMetrics metrics = new CrawlMetrics(() -> 7);
+        metrics.recordPage("example.com", 200, 5_000_000, null);
+        metrics.register("https://example.com/");
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = metrics.getObjectName();
+
+            assertEquals(1L, server.getAttribute(name, "PagesCrawled"));
+            assertEquals(7, server.getAttribute(name, "FrontierDepth"));
+            assertNotNull(server.getAttribute(name, "PhaseLatencies"));
+        } finally {
+            metrics.unregister();
+        }
+
+        assertNull(metrics.getObjectName());
+    }
+}
@@ -0,0 +1,134 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.ConcurrentSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.Frontier;
+import com.github.kyleryxn.imagefinder.crawler.FrontierEntry;
+import com.github.kyleryxn.imagefinder.crawler.FrontierSpill;
+import com.github.kyleryxn.imagefinder.crawler.SeenSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Frontier Tests")
+public class FrontierTest {
+
+    @TempDir
+    Path spillDir;
+
+    @Test
+    @DisplayName("Test: Entries Ordered by Depth then Discovery")
+    void testOrdering() throws InterruptedException {
+        Frontier frontier = new Frontier();
+        frontier.offer("https://example.com/deep", 2, 0, TimeUnit.MILLISECONDS);
+        frontier.offer("https://example.com/a", 1, 0, TimeUnit.MILLISECONDS);
+        frontier.offer("https://example.com/b", 1, 0, TimeUnit.MILLISECONDS);
+
+        assertEquals("https://example.com/a", frontier.poll(0, TimeUnit.MILLISECONDS).getUrl());
+        assertEquals("https://example.com/b", frontier.poll(0, TimeUnit.MILLISECONDS).getUrl());
+        assertEquals("https://example.com/deep", frontier.poll(0, TimeUnit.MILLISECONDS).getUrl());
+        assertNull(frontier.poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Test: Full Frontier Drops Entries")
+    void testBackPressure() throws InterruptedException {
+        Frontier frontier = new Frontier(1);
+
+        assertTrue(frontier.offer("https://example.com/a", 0, 0, TimeUnit.MILLISECONDS));
+        assertFalse(frontier.offer("https://example.com/b", 0, 10, TimeUnit.MILLISECONDS));
+        assertEquals(1, frontier.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Test: Completes When Last Entry Finishes")
+    void testCompletion() throws InterruptedException {
+        Frontier frontier = new Frontier();
+        frontier.offer("https://example.com", 0, 0, TimeUnit.MILLISECONDS);
+
+        FrontierEntry seed = frontier.take();
+        frontier.offer("https://example.com/a", 1, 0, TimeUnit.MILLISECONDS);
+        frontier.complete(seed);
+        assertFalse(frontier.getCompletion().isDone());
+
+        FrontierEntry child = frontier.take();
+        frontier.complete(child);
+        assertTrue(frontier.getCompletion().isDone());
+        assertNull(frontier.take());
+    }
+
+    @Test
+    @DisplayName("Test: Spills Beyond Capacity In Discovery Order")
+    void testSpill() throws Exception {
+        FrontierSpill spill = new FrontierSpill(spillDir, 1024);
+        Frontier frontier = new Frontier(8, spill);
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(frontier.offer("https://example.com/page-" + i, i / 1000, 0, TimeUnit.MILLISECONDS));
+        }
+
+        assertEquals(5000, frontier.size());
+        assertEquals(4992, frontier.getSpilledCount());
+        assertTrue(spill.getSegmentCount() > 1);
+
+        for (int i = 0; i < 5000; i++) {
+            FrontierEntry entry = frontier.take();
+            assertEquals("https://example.com/page-" + i, entry.getUrl());
+            assertEquals(i / 1000, entry.getDepth());
+            frontier.complete(entry);
+        }
+
+        assertTrue(frontier.getCompletion().isDone());
+        assertEquals(0, frontier.getDroppedCount());
+        frontier.close();
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Read Segments Are Unmapped")
+    void testSegmentsUnmapped() throws Exception {
+        Path maps = Paths.get("/proc/self/maps");
+        assumeTrue(Files.isReadable(maps), "needs the memory map of the process");
+
+        try (FrontierSpill spill = new FrontierSpill(spillDir, 1024)) {
+            for (int i = 0; i < 500; i++) {
+                spill.append(new FrontierEntry("https://example.com/page-" + i, 1, i, 0));
+            }
+            assertTrue(mappedSegments(maps) > 1);
+
+            // Only the segment still being written to stays mapped, without waiting for a garbage collection
+            assertEquals(500, spill.drainTo(new ArrayList<>(), 1000));
+            assertEquals(1, mappedSegments(maps));
+        }
+        assertEquals(0, mappedSegments(maps));
+    }
+
+    private long mappedSegments(Path maps) throws IOException {
+        String directory = spillDir.toRealPath().toString();
+        return Files.readAllLines(maps, StandardCharsets.UTF_8).stream()
+                .filter(line -> line.contains(directory))
+                .count();
+    }
+
+    @Test
+    @DisplayName("Test: Seen Set Claims Once")
+    void testClaimOnce() {
+        SeenSet seenSet = new ConcurrentSeenSet();
+
+        assertTrue(seenSet.claim("https://example.com/a"));
+        assertFalse(seenSet.claim("https://example.com/a"));
+        assertEquals(1, seenSet.size());
+    }
+}
@@ -0,0 +1,143 @@
+package crawlertests;
+
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Host Scheduler Tests")
+public class HostSchedulerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    @DisplayName("Test: Parse Retry-After")
+    void testParseRetryAfter() {
+        assertEquals(30_000, HostScheduler.parseRetryAfter("30"));
+        assertEquals(0, HostScheduler.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(-1, HostScheduler.parseRetryAfter("soon"));
+        assertEquals(-1, HostScheduler.parseRetryAfter(null));
+
+        long inTenSeconds = HostScheduler.parseRetryAfter(httpDate(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(10)));
+        assertTrue(inTenSeconds > 8_000 && inTenSeconds <= 10_000, "delay " + inTenSeconds);
+    }
+
+    @Test
+    @DisplayName("Test: Retry-After Is Capped")
+    void testRetryAfterCap() {
+        assertEquals(HostScheduler.MAX_BACKOFF_MILLIS, HostScheduler.parseRetryAfter("999999999"));
+        assertEquals(HostScheduler.MAX_BACKOFF_MILLIS, HostScheduler.parseRetryAfter(String.valueOf(Long.MAX_VALUE)));
+        assertEquals(HostScheduler.MAX_BACKOFF_MILLIS,
+                HostScheduler.parseRetryAfter(httpDate(ZonedDateTime.now(ZoneOffset.UTC).plusYears(3))));
+    }
+
+    @Test
+    @DisplayName("Test: Concurrency Adapts to Outcomes")
+    void testAdaptiveConcurrency() throws InterruptedException {
+        HostScheduler scheduler = new HostScheduler(4, 8, 1000);
+
+        String host = scheduler.acquire("https://Example.com/page");
+        assertEquals("example.com", host);
+        scheduler.release(host, 503, FAST, "0");
+        assertEquals(2, scheduler.getConcurrencyLimit(host));
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.release(scheduler.acquire("https://example.com/page"), 200, FAST, null);
+        }
+        assertTrue(scheduler.getConcurrencyLimit(host) > 2);
+    }
+
+    @Test
+    @DisplayName("Test: Concurrency Limit Holds Back Fetches")
+    void testConcurrencyLimit() throws InterruptedException {
+        HostScheduler scheduler = new HostScheduler(2, 2, 1000);
+
+        // Wait for the bucket to refill, so only the concurrency limit holds the third fetch back
+        String first = scheduler.acquire("http://example.com/a");
+        scheduler.acquire("http://example.com/b");
+        Thread.sleep(20);
+        assertNull(scheduler.tryAcquire("http://example.com/c"));
+
+        // Other hosts have slots of their own
+        assertNotNull(scheduler.tryAcquire("http://example.org/a"));
+
+        scheduler.release(first, 200, FAST, null);
+        assertNotNull(scheduler.tryAcquire("http://example.com/c"));
+    }
+
+    @Test
+    @DisplayName("Test: Token Bucket Refills Over Time")
+    void testTokenBucket() throws InterruptedException {
+        HostScheduler scheduler = new HostScheduler(8, 8, 10);
+
+        // The bucket starts with a single token and refills at 10 per second
+        String host = scheduler.acquire("http://example.com/a");
+        scheduler.release(host, 200, FAST, null);
+        assertNull(scheduler.tryAcquire("http://example.com/b"));
+
+        long start = System.nanoTime();
+        scheduler.release(scheduler.acquire("http://example.com/b"), 200, FAST, null);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis >= 50, "waited " + waitedMillis + " ms");
+
+        Thread.sleep(350);
+        for (int i = 0; i < 3; i++) {
+            String slot = scheduler.tryAcquire("http://example.com/c" + i);
+            assertNotNull(slot, "token " + i);
+            scheduler.release(slot, 200, FAST, null);
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Retry-After Holds The Host Back")
+    void testRetryAfter() throws InterruptedException {
+        HostScheduler scheduler = new HostScheduler(4, 8, 1000);
+
+        String host = scheduler.acquire("http://example.com/a");
+        scheduler.release(host, 429, FAST, "1");
+        assertNull(scheduler.tryAcquire("http://example.com/b"));
+
+        long start = System.nanoTime();
+        scheduler.release(scheduler.acquire("http://example.com/b"), 200, FAST, null);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis >= 800, "waited " + waitedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Test: Retry-After Date Holds The Host Back")
+    void testRetryAfterDate() {
+        HostScheduler scheduler = new HostScheduler(4, 8, 1000);
+
+        String host = scheduler.tryAcquire("http://example.com/a");
+        scheduler.release(host, 503, FAST, httpDate(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30)));
+        assertNull(scheduler.tryAcquire("http://example.com/b"));
+        assertNotNull(scheduler.tryAcquire("http://example.org/b"));
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Delay Spaces Requests")
+    void testCrawlDelay() throws InterruptedException {
+        HostScheduler scheduler = new HostScheduler(4, 8, 1000);
+        scheduler.setCrawlDelay("example.com", 200);
+
+        scheduler.release(scheduler.acquire("http://example.com/a"), 200, FAST, null);
+        assertNull(scheduler.tryAcquire("http://example.com/b"));
+
+        long start = System.nanoTime();
+        scheduler.release(scheduler.acquire("http://example.com/b"), 200, FAST, null);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis >= 150, "waited " + waitedMillis + " ms");
+    }
+
+    private static String httpDate(ZonedDateTime date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(date);
+    }
+}
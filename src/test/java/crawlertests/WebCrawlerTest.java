@@ -1,25 +1,222 @@
 package crawlertests;
 
+import com.github.kyleryxn.imagefinder.crawler.CompactSeenSet;
+import com.github.kyleryxn.imagefinder.crawler.CrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.Frontier;
+import com.github.kyleryxn.imagefinder.crawler.FrontierSpill;
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PermitCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.RobotsCache;
+import com.github.kyleryxn.imagefinder.crawler.URLDictionary;
 import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
 import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.PageCache;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.github.kyleryxn.imagefinder.util.url.SitemapReader;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("Web Crawler Tests")
 public class WebCrawlerTest {
 
+    @TempDir
+    Path outputDir;
+
     @Test
     @DisplayName("Test: Crawl")
-    void testCrawl() {
-        String url = "https://www.cuny.edu/";
-        Map<String, Set<Image>> images = new WebCrawler(url).crawl();
-
-        /*images.forEach((k, v) -> {
-            System.out.println("\nURL '" + k + "':\n\tImages:");
-            v.forEach(img -> System.out.println("\t\t" + img));
-        });*/
+    void testCrawl() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(60, 3, 4).start()) {
+            WebCrawler crawler = newCrawler(site, new PooledCrawlExecution(WebCrawler.MAX_THREADS));
+            Map<String, Set<Image>> images = crawler.crawl();
+
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+            assertEquals(site.getPageCount(), images.size());
+            assertEquals(site.getImageCount(), countDistinct(images.values()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Fetches Every Page Exactly Once")
+    void testFetchesEachPageOnce() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(120, 4, 2).withRedirects(0.2).start()) {
+            WebCrawler crawler = newCrawler(site, new PooledCrawlExecution(WebCrawler.MAX_THREADS));
+            crawler.crawl();
+
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+
+            // The seed is requested once more by the validity check of the constructor
+            assertEquals(2, site.getRequestCount("/"));
+            for (int page = 1; page < site.getPageCount(); page++) {
+                String path = SyntheticSite.pathOf(page);
+                assertEquals(1, site.getRequestCount(path), path);
+                assertTrue(site.getRequestCount("/moved" + path) <= 1, path);
+            }
+            assertEquals(site.getPageCount() + 1 + site.getRedirectCount(), site.getRequestCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl From A Seed With A Mixed Case Host")
+    void testMixedCaseSeed() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(30, 3, 2).start()) {
+            String seed = site.getSeed().replace("127.0.0.1", "LocalHost");
+            WebCrawler crawler = new WebCrawler(seed, new HTMLParser(seed), new PooledCrawlExecution(4),
+                    new HostScheduler(8, 16, 10_000), new JsonResultSink(outputDir));
+            Map<String, Set<Image>> images = crawler.crawl();
+
+            assertEquals(seed.toLowerCase(), crawler.getDomain());
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+            assertEquals(site.getImageCount(), countDistinct(images.values()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl With Permits")
+    void testCrawlWithPermits() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(60, 3, 4).withLatency(5).start()) {
+            WebCrawler crawler = newCrawler(site, new PermitCrawlExecution(8));
+            Map<String, Set<Image>> images = crawler.crawl();
+
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+            assertEquals(site.getImageCount(), countDistinct(images.values()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Stops At Max Depth")
+    void testMaxDepth() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(200, 3, 2).withMaxDepth(2).start()) {
+            WebCrawler crawler = newCrawler(site, new PooledCrawlExecution(4));
+            crawler.crawl();
+
+            // The seed, its 3 children and their 9 children
+            assertEquals(13, site.getReachablePageCount());
+            assertEquals(13, crawler.getVisitedCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Follows Redirects And Survives Errors")
+    void testRedirectsAndErrors() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(120, 3, 2).withRedirects(0.2).withErrors(0.1)
+                .withSlowPages(0.1, 20).start()) {
+            WebCrawler crawler = newCrawler(site, new PooledCrawlExecution(4));
+            Map<String, Set<Image>> images = crawler.crawl();
+
+            assertTrue(site.getRedirectCount() > 0);
+            assertTrue(site.getErrorCount() > 0);
+            assertEquals(site.getReachablePageCount(), crawler.getVisitedCount());
+            assertEquals(site.getImageCount(), countDistinct(images.values()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl With Spilling Frontier")
+    void testSpillingFrontier() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(300, 5, 2).start()) {
+            String seed = site.getSeed();
+            Frontier frontier = new Frontier(4, new FrontierSpill(outputDir.resolve("frontier"), 4096));
+            WebCrawler crawler = new WebCrawler(seed, new HTMLParser(seed), new PooledCrawlExecution(4),
+                    new HostScheduler(8, 16, 10_000), new JsonResultSink(outputDir), new CompactSeenSet(new URLDictionary()), frontier);
+            Map<String, Set<Image>> images = crawler.crawl();
+
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+            assertEquals(site.getImageCount(), countDistinct(images.values()));
+            assertEquals(0, frontier.getDroppedCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Second Crawl Revalidates Cached Pages")
+    void testPageCache() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(40, 3, 2).withETags().start()) {
+            Map<String, Set<Image>> first = newCachingCrawler(site).crawl();
+            assertEquals(0, site.getNotModifiedCount());
+
+            WebCrawler crawler = newCachingCrawler(site);
+            Map<String, Set<Image>> second = crawler.crawl();
+
+            // Only the seed check of the constructor is not conditional
+            assertEquals(site.getPageCount(), site.getNotModifiedCount());
+            assertEquals(site.getPageCount(), crawler.getMetrics().getStatusCounts().get(304).longValue());
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+            assertEquals(first, second);
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Seeded From Sitemaps")
+    void testSitemapSeeding() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(200, 3, 2).withMaxDepth(2).withSitemaps(true).start()) {
+            WebCrawler crawler = newCrawler(site, new PooledCrawlExecution(4));
+            crawler.setSitemapReader(new SitemapReader());
+            Map<String, Set<Image>> images = crawler.crawl();
+
+            // Links only lead to 13 pages, the sitemaps list all of them
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+            assertEquals(site.getPageCount() * 2 + 2, countDistinct(images.values()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Skips Links Disallowed By Robots.txt")
+    void testRobots() throws IOException {
+        String robots = "User-agent: *\nDisallow: /p1\nAllow: /p1$\nCrawl-delay: 0.01\n\n"
+                + "User-agent: otherbot\nDisallow: /\n";
+        try (SyntheticSite site = new SyntheticSite(60, 3, 2).withRobots(robots).start()) {
+            String seed = site.getSeed();
+            HostScheduler scheduler = new HostScheduler(8, 16, 10_000);
+            WebCrawler crawler = new WebCrawler(seed, new HTMLParser(seed), new PooledCrawlExecution(4), scheduler,
+                    new JsonResultSink(outputDir));
+            RobotsCache cache = new RobotsCache(scheduler);
+            crawler.setRobots(cache);
+            crawler.crawl();
+
+            // "/p1" itself is allowed, "/p10" to "/p19" are not, and neither are the pages only they link to
+            Set<String> visited = crawler.getSitemap().keySet();
+            assertTrue(visited.contains(seed + "p1"));
+            assertFalse(visited.stream().anyMatch(url -> url.matches(".*/p1[0-9]+")));
+            assertTrue(cache.getDisallowedCount() > 0);
+            assertTrue(crawler.getVisitedCount() < site.getPageCount());
+        }
+    }
+
+    private WebCrawler newCrawler(SyntheticSite site, CrawlExecution execution) {
+        String seed = site.getSeed();
+        return new WebCrawler(seed, new HTMLParser(seed), execution, new HostScheduler(8, 16, 10_000),
+                new JsonResultSink(outputDir));
+    }
+
+    private WebCrawler newCachingCrawler(SyntheticSite site) throws IOException {
+        String seed = site.getSeed();
+        PageCache cache = PageCache.open(outputDir.resolve("pages"));
+        WebCrawler crawler = new WebCrawler(seed, new HTMLParser(seed, HttpFetcher.getDefault(), cache),
+                new PooledCrawlExecution(4), new HostScheduler(8, 16, 10_000), new JsonResultSink(outputDir));
+        crawler.setPageCache(cache);
+        return crawler;
+    }
+
+    private static int countDistinct(Collection<Set<Image>> images) {
+        return images.stream()
+                .flatMap(Set::stream)
+                .map(Image::getUrl)
+                .collect(Collectors.toSet())
+                .size();
     }
 }
@@ -0,0 +1,109 @@
+package parsertests;
+
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.PageCache;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Page Cache Tests")
+public class PageCacheTest {
+    private static final String ETAG = "\"v1\"";
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private HttpServer server;
+    private String base;
+
+    @TempDir
+    Path cacheDir;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            fullResponses.incrementAndGet();
+            byte[] page = "<html><body><a href=\"/about\">About</a><img src=\"/logo.png\" alt=\"Logo\"></body></html>"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html");
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.sendResponseHeaders(200, page.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(page);
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test: Not Modified Reuses Cached Page")
+    void testConditionalRecrawl() throws IOException {
+        try (PageCache cache = PageCache.open(cacheDir)) {
+            ParsedPage first = new HTMLParser(base, HttpFetcher.getDefault(), cache).parse(base + "/");
+            assertEquals(200, first.getStatusCode());
+            assertEquals(first.getLinks(), cache.get(base + "/").getLinks());
+        }
+
+        // A new crawl reloads the cache from disk
+        try (PageCache cache = PageCache.open(cacheDir)) {
+            ParsedPage second = new HTMLParser(base, HttpFetcher.getDefault(), cache).parse(base + "/");
+
+            assertEquals(304, second.getStatusCode());
+            assertTrue(second.getLinks().contains(base + "/about"));
+            assertEquals(1, second.getImages().size());
+        }
+
+        assertEquals(1, fullResponses.get());
+    }
+
+    @Test
+    @DisplayName("Test: Changes To A Parsed Page Do Not Reach The Cache")
+    void testCachedPageIsCopied() throws IOException {
+        try (PageCache cache = PageCache.open(cacheDir)) {
+            HTMLParser parser = new HTMLParser(base, HttpFetcher.getDefault(), cache);
+
+            // A crawl filters the images of the page it fetched and of the page revalidated from the cache
+            ParsedPage first = parser.parse(base + "/");
+            first.getImages().clear();
+            first.getLinks().clear();
+
+            ParsedPage second = parser.parse(base + "/");
+            assertEquals(304, second.getStatusCode());
+            assertEquals(1, second.getImages().size());
+            second.getImages().iterator().next().setMetadata(new ImageMetadata(1, 1, 1, "image/png", "png"));
+            second.getImages().clear();
+
+            ParsedPage third = parser.parse(base + "/");
+            assertEquals(304, third.getStatusCode());
+            assertTrue(third.getLinks().contains(base + "/about"));
+            assertEquals(1, third.getImages().size());
+            assertNull(third.getImages().iterator().next().getMetadata());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package parsertests;
+
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.parser.StreamingHTMLParser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Streaming HTML Parser Tests")
+public class StreamingHTMLParserTest {
+    private static final String DOMAIN = "https://www.example.com";
+    private static final String LOCATION = "https://www.example.com/blog/post.html";
+
+    private static final String PAGE = "<!DOCTYPE html>\n"
+            + "<HTML><HEAD><TITLE>A <a href=\"/title\"> title</TITLE>\n"
+            + "<base href=\"/static/\">\n"
+            + "<link rel=stylesheet href=\"site.css\">\n"
+            + "<LINK REL='Shortcut Icon' HREF='favicon.ico'>\n"
+            + "<script>document.write('<a href=\"/script\">x</a><img src=\"/script.png\">');</script>\n"
+            + "<style>a::after { content: '<img src=\"/style.png\">'; }</style>\n"
+            + "</HEAD><BODY>\n"
+            + "<!-- <a href=\"/comment\">old</a> <img src=\"/comment.png\"> -->\n"
+            + "<a href=\"../about\">About</a> <a href='/contact?ref=1#form'>Contact</a>\n"
+            + "<a href=https://www.example.com/unquoted/ title=x>Unquoted</a>\n"
+            + "<a href=\"/search?a=1&amp;b=2\">Search</a> <a href=\"https://other.org/\">Other</a>\n"
+            + "<a href=\"mailto:me@example.com\">Mail</a> <a>No href</a> <a href=\"#top\">Top</a>\n"
+            + "<img src=\"logo.png\" alt=\"Our &amp; logo\"> <img alt=\"\" src=\"photos/cat.JPG\">\n"
+            + "<IMG SRC=\"/img/dog.svg\" SRC=\"/img/ignored.svg\" ALT=Dog> <img src=\"data:image/png;base64,AAAA\">\n"
+            + "<image src=\"/img/misspelled.gif\"> <img src=\"/img/page.php\"> <img src=\"\">\n"
+            + "<p>3 < 4 and 5 > 2</p><link rel=icon href=\"/body-icon.png\">\n"
+            + "<textarea><img src=\"/textarea.png\"></textarea>\n"
+            + "</BODY></HTML>";
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    @DisplayName("Test: Extract The Same As The DOM Parser")
+    void testSameAsDomParser() throws IOException {
+        ParsedPage expected = new HTMLParser(DOMAIN).parse(Jsoup.parse(PAGE, LOCATION));
+        ParsedPage actual = new StreamingHTMLParser(DOMAIN).parse(new StringReader(PAGE), LOCATION);
+
+        assertEquals(new TreeSet<>(expected.getLinks()), new TreeSet<>(actual.getLinks()));
+        assertEquals(describe(expected.getImages()), describe(actual.getImages()));
+        assertEquals(expected.getFavicon().getUrl(), actual.getFavicon().getUrl());
+
+        // Spot checks, so a change in both parsers does not go unnoticed
+        assertTrue(actual.getLinks().contains("https://www.example.com/about"));
+        assertEquals("https://www.example.com/static/favicon.ico", actual.getFavicon().getUrl());
+        assertTrue(describe(actual.getImages()).contains("https://www.example.com/static/logo.png|Our & logo|true|false"));
+        // page.php has no image extension, but is kept to be checked by its content type
+        assertTrue(describe(actual.getImages()).contains("https://www.example.com/img/page.php|None|false|false"));
+        assertEquals(6, actual.getImages().size());
+    }
+
+    @Test
+    @DisplayName("Test: Extract Responsive, Lazy, Background And Meta Images")
+    void testImageSources() throws IOException {
+        String page = "<html><head>"
+                + "<meta property=\"og:image\" content=\"/share/card.png\">"
+                + "<meta name=twitter:image content=\"https://cdn.example.com/card\">"
+                + "<meta property=og:title content=\"/not-an-image.png\">"
+                + "</head><body>"
+                + "<img src=\"small.jpg\" srcset=\"small.jpg 320w, large.jpg 1280w, medium.jpg 640w\" alt=Wide>"
+                + "<img src=\"one.png\" srcset=\"one.png, two.png 2x,three.png 3x\">"
+                + "<img src=\"data:image/gif;base64,R0lGOD\" data-src=\"/lazy/photo.webp\" alt=Lazy>"
+                + "<img src=\"\" data-srcset=\"/lazy/a.jpg 1x, /lazy/b.jpg 2x\">"
+                + "<picture><source srcset=\"/pic/hero.avif 1600w\" type=image/avif>"
+                + "<source srcset=\"/pic/hero-small.webp 800w\"><img src=\"/pic/hero.jpg\" alt=Hero></picture>"
+                + "<div style=\"color: red; background-image: url('/bg/tile.png'), url(&quot;/bg/glow.png&quot;)\"></div>"
+                + "<section style=\"background:#fff url(/bg/plain)\"></section>"
+                + "<span style=\"mask: url(/mask.svg)\"></span>"
+                + "<img src=\"/docs/report.pdf\"> <img src=\"/api/image?id=7\">"
+                + "</body></html>";
+
+        ParsedPage expected = new HTMLParser(DOMAIN).parse(Jsoup.parse(page, LOCATION));
+        ParsedPage actual = new StreamingHTMLParser(DOMAIN).parse(new StringReader(page), LOCATION);
+        assertEquals(describe(expected.getImages()), describe(actual.getImages()));
+
+        Set<String> urls = actual.getImages().stream().map(Image::getUrl).collect(Collectors.toSet());
+        Set<String> expectedUrls = new TreeSet<>(Arrays.asList(
+                "https://www.example.com/share/card.png",
+                "https://cdn.example.com/card",
+                "https://www.example.com/blog/large.jpg",
+                "https://www.example.com/blog/three.png",
+                "https://www.example.com/lazy/photo.webp",
+                "https://www.example.com/lazy/b.jpg",
+                "https://www.example.com/pic/hero.avif",
+                "https://www.example.com/bg/tile.png",
+                "https://www.example.com/bg/glow.png",
+                "https://www.example.com/bg/plain",
+                "https://www.example.com/api/image?id=7"));
+        assertEquals(expectedUrls, new TreeSet<>(urls));
+        assertTrue(describe(actual.getImages()).contains("https://www.example.com/pic/hero.avif|Hero|false|false"));
+    }
+
+    @Test
+    @DisplayName("Test: Crawl With Streaming Parser")
+    void testCrawl() throws IOException {
+        try (SyntheticSite site = new SyntheticSite(60, 3, 4).start()) {
+            String seed = site.getSeed();
+            WebCrawler crawler = new WebCrawler(seed, new StreamingHTMLParser(seed), new PooledCrawlExecution(8),
+                    new HostScheduler(8, 16, 10_000), new JsonResultSink(outputDir));
+            Map<String, Set<Image>> images = crawler.crawl();
+
+            assertEquals(site.getPageCount(), crawler.getVisitedCount());
+            assertEquals(site.getImageCount(), images.values().stream()
+                    .flatMap(Set::stream).map(Image::getUrl).distinct().count());
+        }
+    }
+
+    private static Set<String> describe(Set<Image> images) {
+        return images.stream()
+                .map(image -> image.getUrl() + "|" + image.getName() + "|" + image.isLogo() + "|" + image.isFavicon())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @Test
+    @DisplayName("Test: Domain Is Normalized Like The Links")
+    void testNormalizedDomain() throws IOException {
+        String page = "<a href=\"/about\">About</a> <a href=\"https://WWW.EXAMPLE.COM:443/contact\">Contact</a>";
+        String seed = "https://WWW.Example.com:443/";
+
+        ParsedPage dom = new HTMLParser(seed).parse(Jsoup.parse(page, seed));
+        ParsedPage streamed = new StreamingHTMLParser(seed).parse(new StringReader(page), seed);
+
+        assertEquals("https://www.example.com/", new HTMLParser(seed).getDomain());
+        assertEquals("https://www.example.com/", new StreamingHTMLParser(seed).getDomain());
+        Set<String> expected = new TreeSet<>(Arrays.asList("https://www.example.com/about",
+                "https://www.example.com/contact"));
+        assertEquals(expected, new TreeSet<>(dom.getLinks()));
+        assertEquals(expected, new TreeSet<>(streamed.getLinks()));
+    }
+}
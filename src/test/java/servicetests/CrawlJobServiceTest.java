@@ -0,0 +1,129 @@
+package servicetests;
+
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.service.CrawlJob;
+import com.github.kyleryxn.imagefinder.service.CrawlJobService;
+import com.github.kyleryxn.imagefinder.service.CrawlResultCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Crawl Job Service Tests")
+public class CrawlJobServiceTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    @DisplayName("Test: Spellings Of A Seed Share The Cached Result")
+    void testNormalizedCacheKey() {
+        CrawlResultCache cache = new CrawlResultCache();
+        cache.put("http://a.test/", images("a"));
+        cache.put("http://b.test/?page=1", images("b"));
+        CrawlJobService service = new CrawlJobService(1, 1, outputDir, cache);
+
+        try {
+            for (String url : new String[]{"http://A.test", "HTTP://a.test:80/", " http://a.test/#top "}) {
+                CrawlJob job = service.submit(url);
+                assertEquals(CrawlJob.Status.COMPLETED, job.getStatus(), url);
+                assertEquals("http://a.test/", job.getUrl(), url);
+            }
+            assertEquals(CrawlJob.Status.COMPLETED, service.submit("http://B.test?page=1").getStatus());
+        } finally {
+            service.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Spellings Of A Running Seed Share One Job")
+    void testNormalizedSingleFlight() throws IOException, InterruptedException {
+        try (SyntheticSite site = new SyntheticSite(4, 2, 1).withLatency(100).start()) {
+            String seed = site.getSeed();
+            String bare = seed.substring(0, seed.length() - 1);
+            CrawlJobService service = new CrawlJobService(1, 1, outputDir, new CrawlResultCache());
+
+            try {
+                CrawlJob job = service.submit(seed);
+                assertSame(job, service.submit(bare));
+                assertSame(job, service.submit("HTTP" + bare.substring(4)));
+                awaitFinished(job);
+                assertEquals(CrawlJob.Status.COMPLETED, job.getStatus());
+            } finally {
+                service.destroy();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Jobs Share The Host Scheduler")
+    void testSharedScheduler() throws IOException, InterruptedException {
+        try (SyntheticSite site = new SyntheticSite(4, 2, 1).start()) {
+            HostScheduler scheduler = new HostScheduler();
+            CrawlJobService service = new CrawlJobService(1, 1, outputDir, new CrawlResultCache(), null, scheduler);
+
+            try {
+                awaitFinished(service.submit(site.getSeed()));
+                assertEquals(1, scheduler.getHostCount());
+            } finally {
+                service.destroy();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Evicted Job Results Are Deleted")
+    void testEvictionDeletesResults() throws IOException, InterruptedException {
+        try (SyntheticSite site = new SyntheticSite(4, 2, 1).start()) {
+            CrawlResultCache cache = new CrawlResultCache();
+            CrawlJobService service = new CrawlJobService(1, 1, outputDir, cache);
+
+            try {
+                CrawlJob crawled = service.submit(site.getSeed());
+                awaitFinished(crawled);
+                Path results = outputDir.resolve(crawled.getId());
+                assertTrue(Files.isDirectory(results));
+
+                // Cached seeds finish later than the crawl, so the crawl is the oldest job and is evicted first
+                Thread.sleep(5);
+                for (int i = 0; i < CrawlJobService.MAX_RETAINED_JOBS; i++) {
+                    String seed = "http://" + i + ".test/";
+                    cache.put(seed, images(String.valueOf(i)));
+                    service.submit(seed);
+                }
+
+                assertNull(service.getJob(crawled.getId()));
+                assertFalse(Files.exists(results));
+                assertEquals(CrawlJobService.MAX_RETAINED_JOBS, service.getJobIds().size());
+            } finally {
+                service.destroy();
+            }
+        }
+    }
+
+    private static void awaitFinished(CrawlJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(job.isFinished(), "job did not finish");
+    }
+
+    private static List<Image> images(String site) {
+        String url = "https://" + site + ".test/0.png";
+        return Collections.singletonList(new Image("0.png", site + ".test", false, false, url));
+    }
+}
@@ -0,0 +1,91 @@
+package servicetests;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.service.CrawlJob;
+import com.github.kyleryxn.imagefinder.service.CrawlJobService;
+import com.github.kyleryxn.imagefinder.service.CrawlResultCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Crawl Result Cache Tests")
+public class CrawlResultCacheTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    @DisplayName("Test: Entries Expire After TTL")
+    void testExpiry() throws InterruptedException {
+        CrawlResultCache cache = new CrawlResultCache(50, 10, Long.MAX_VALUE);
+        cache.put("https://a.test/", images("a", 2));
+
+        assertEquals(2, cache.get("https://a.test/").size());
+        Thread.sleep(100);
+        assertNull(cache.get("https://a.test/"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    @DisplayName("Test: Least Recently Used Entry Is Evicted")
+    void testEviction() {
+        CrawlResultCache cache = new CrawlResultCache(60_000, 2, Long.MAX_VALUE);
+        cache.put("https://a.test/", images("a", 1));
+        cache.put("https://b.test/", images("b", 1));
+        cache.get("https://a.test/");
+        cache.put("https://c.test/", images("c", 1));
+
+        assertNotNull(cache.get("https://a.test/"));
+        assertNull(cache.get("https://b.test/"));
+        assertNotNull(cache.get("https://c.test/"));
+    }
+
+    @Test
+    @DisplayName("Test: Byte Limit Is Enforced")
+    void testByteLimit() {
+        CrawlResultCache cache = new CrawlResultCache(60_000, 100, 2_000);
+        cache.put("https://huge.test/", images("huge", 100));
+        assertNull(cache.get("https://huge.test/"));
+
+        for (int i = 0; i < 20; i++) {
+            cache.put("https://" + i + ".test/", images(String.valueOf(i), 2));
+        }
+        assertTrue(cache.getTotalBytes() <= 2_000);
+        assertTrue(cache.size() < 20);
+        assertNotNull(cache.get("https://19.test/"));
+    }
+
+    @Test
+    @DisplayName("Test: Cached Seed Completes Without Crawling")
+    void testServiceUsesCache() {
+        CrawlResultCache cache = new CrawlResultCache();
+        cache.put("https://a.test/", images("a", 3));
+        CrawlJobService service = new CrawlJobService(1, 1, outputDir, cache);
+
+        try {
+            CrawlJob job = service.submit(" https://a.test/ ");
+            assertEquals(CrawlJob.Status.COMPLETED, job.getStatus());
+            assertEquals(3, job.getProgress().getImagesFound());
+            assertNotEquals(job.getId(), service.submit("https://a.test/").getId());
+        } finally {
+            service.destroy();
+        }
+    }
+
+    private static List<Image> images(String site, int count) {
+        List<Image> images = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String url = "https://" + site + ".test/" + i + ".png";
+            images.add(new Image(i + ".png", site + ".test", false, false, url));
+        }
+        return Collections.unmodifiableList(images);
+    }
+}
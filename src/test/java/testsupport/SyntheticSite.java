@@ -0,0 +1,566 @@
+package testsupport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process web site with a generated page graph, served over HTTP on the loopback interface, so crawls can be
+ * tested and benchmarked without touching the network. Page 0 is served at "/" and page i at "/p{i}". Page i links to
+ * pages {@code i * fanOut + 1} up to {@code i * fanOut + fanOut} that exist, which makes every page reachable from the
+ * seed, and back to the seed. Every page shows a shared logo, a favicon and {@code imagesPerPage} images of its own.
+ * <p>
+ * Before the site is started it can be configured to behave more like a real one: a maximum link depth, a latency for
+ * every response, slow pages, pages that fail with 500 (Internal Server Error) and pages that are only reachable
+ * through a 301 redirect to "/moved/p{i}". Which pages are slow, failing or redirected is derived from the page
+ * number, so the same configuration always produces the same site and {@link #getReachablePageCount()} and
+ * {@link #getImageCount()} tell exactly what a complete crawl finds. The seed is never slow, failing or redirected.
+ * <p>
+ * Pages can be served with an ETag, in which case a request whose If-None-Match names it is answered with 304 (Not
+ * Modified), as the pages never change.
+ * <p>
+ * The site can also serve a robots.txt file and a sitemap index at "/sitemap.xml", pointing to two sitemaps, plain or
+ * gzip compressed, that list every page whether it is linked or not.
+ */
+public class SyntheticSite implements Closeable {
+    private static final int SLOW = 1;
+    private static final int ERROR = 2;
+    private static final int REDIRECT = 3;
+
+    static {
+        // Without TCP_NODELAY, delayed acknowledgements add tens of milliseconds to each loopback response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final int pages;
+    private final int fanOut;
+    private final int imagesPerPage;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final ConcurrentMap<String, AtomicInteger> requestsByPath = new ConcurrentHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong redirects = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private long latencyMillis;
+    private double slowRate;
+    private long slowLatencyMillis;
+    private double errorRate;
+    private double redirectRate;
+    private String robots;
+    private boolean sitemaps;
+    private boolean gzipSitemaps;
+    private boolean etags;
+    private long retryAfterSeconds;
+    private int retryAfterCount;
+
+    /**
+     * Constructor for SyntheticSite. The site is started with {@link #start()}.
+     *
+     * @param pages the number of pages of the site.
+     * @param fanOut the number of child pages each page links to.
+     * @param imagesPerPage the number of images of each page, not counting the logo and the favicon.
+     * @throws IOException if the server cannot be bound.
+     */
+    public SyntheticSite(int pages, int fanOut, int imagesPerPage) throws IOException {
+        this.pages = pages;
+        this.fanOut = fanOut;
+        this.imagesPerPage = imagesPerPage;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "synthetic-site");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Stops linking pages deeper than the given depth, the seed being at depth 0. Deeper pages still exist but are
+     * never reached by a crawl.
+     *
+     * @param depth the depth of the deepest linked pages.
+     * @return this site.
+     */
+    public SyntheticSite withMaxDepth(int depth) {
+        this.maxDepth = depth;
+        return this;
+    }
+
+    /**
+     * Delays every response, including errors and redirects, by the given time.
+     *
+     * @param millis the latency of each response, in milliseconds.
+     * @return this site.
+     */
+    public SyntheticSite withLatency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Makes a share of the pages respond slowly, on top of the latency of every response.
+     *
+     * @param rate the share of pages that are slow, between 0 and 1.
+     * @param millis the additional latency of a slow page, in milliseconds.
+     * @return this site.
+     */
+    public SyntheticSite withSlowPages(double rate, long millis) {
+        this.slowRate = rate;
+        this.slowLatencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Makes a share of the pages always fail with 500 (Internal Server Error), which hides their links and images.
+     *
+     * @param rate the share of pages that fail, between 0 and 1.
+     * @return this site.
+     */
+    public SyntheticSite withErrors(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    /**
+     * Makes a share of the pages answer with a 301 redirect to "/moved/p{i}", where the page is served.
+     *
+     * @param rate the share of pages that are redirected, between 0 and 1.
+     * @return this site.
+     */
+    public SyntheticSite withRedirects(double rate) {
+        this.redirectRate = rate;
+        return this;
+    }
+
+    /**
+     * Serves the given content at "/robots.txt"; without it, "/robots.txt" is not found.
+     *
+     * @param content the content of the robots.txt file.
+     * @return this site.
+     */
+    public SyntheticSite withRobots(String content) {
+        this.robots = content;
+        return this;
+    }
+
+    /**
+     * Serves every page with an ETag and answers conditional requests for it with 304 (Not Modified).
+     *
+     * @return this site.
+     */
+    public SyntheticSite withETags() {
+        this.etags = true;
+        return this;
+    }
+
+    /**
+     * Answers the first requests of pages other than the seed with 429 (Too Many Requests) and the given Retry-After,
+     * until the given number of them have been, and serves every page normally after that.
+     *
+     * @param seconds the value of the Retry-After header, in seconds.
+     * @param count the number of requests answered with 429.
+     * @return this site.
+     */
+    public SyntheticSite withRetryAfter(long seconds, int count) {
+        this.retryAfterSeconds = seconds;
+        this.retryAfterCount = count;
+        return this;
+    }
+
+    /**
+     * Serves a sitemap index at "/sitemap.xml" pointing to "/sitemap-0.xml" and "/sitemap-1.xml", or their ".gz"
+     * versions, which list the even and the odd pages.
+     *
+     * @param gzip whether the sitemaps are gzip compressed.
+     * @return this site.
+     */
+    public SyntheticSite withSitemaps(boolean gzip) {
+        this.sitemaps = true;
+        this.gzipSitemaps = gzip;
+        return this;
+    }
+
+    /**
+     * Starts serving the site.
+     *
+     * @return this site.
+     */
+    public SyntheticSite start() {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Returns the URL of the first page, which is the seed of a crawl of the whole site.
+     *
+     * @return the seed URL, ending with a slash.
+     */
+    public String getSeed() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Returns the number of pages of the site.
+     *
+     * @return the number of pages.
+     */
+    public int getPageCount() {
+        return pages;
+    }
+
+    /**
+     * Returns the number of pages a complete crawl from the seed visits: every linked page within the maximum depth
+     * whose parent did not fail, failing pages included.
+     *
+     * @return the number of reachable pages.
+     */
+    public int getReachablePageCount() {
+        return countReachable()[0];
+    }
+
+    /**
+     * Returns the number of distinct images a complete crawl from the seed finds, counting the shared logo and
+     * favicon once.
+     *
+     * @return the number of images.
+     */
+    public int getImageCount() {
+        int[] counts = countReachable();
+        return (counts[0] - counts[1]) * imagesPerPage + 2;
+    }
+
+    /**
+     * Returns the number of requests served so far.
+     *
+     * @return the number of requests.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of requests served so far for the given path.
+     *
+     * @param path the path of the request, "/" for the seed.
+     * @return the number of requests for the path.
+     */
+    public int getRequestCount(String path) {
+        AtomicInteger count = requestsByPath.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Returns the path of the given page, "/" for the seed, as linked from the other pages.
+     *
+     * @param page the number of the page.
+     * @return the path of the page.
+     */
+    public static String pathOf(int page) {
+        return page == 0 ? "/" : "/p" + page;
+    }
+
+    /**
+     * Returns the number of 500 responses served so far.
+     *
+     * @return the number of failed requests.
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * Returns the number of redirects served so far.
+     *
+     * @return the number of redirects.
+     */
+    public long getRedirectCount() {
+        return redirects.get();
+    }
+
+    /**
+     * Returns the number of 304 (Not Modified) responses served so far.
+     *
+     * @return the number of conditional requests answered without a body.
+     */
+    public long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    /**
+     * Stops the server.
+     */
+    /**
+     * Returns the number of 429 responses served so far.
+     *
+     * @return the number of throttled requests.
+     */
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        requestsByPath.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        if (serveFile(exchange, path)) {
+            return;
+        }
+
+        boolean moved = path.startsWith("/moved/");
+        int page = pageOf(moved ? path.substring(6) : path);
+
+        if (page < 0 || (moved && behaviourOf(page) != REDIRECT)) {
+            send(exchange, 404, "<html><body>Not found</body></html>");
+            return;
+        }
+
+        if (page != 0 && throttled.get() < retryAfterCount && throttled.incrementAndGet() <= retryAfterCount) {
+            exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+            send(exchange, 429, "<html><body>Too many requests</body></html>");
+            return;
+        }
+
+        int behaviour = behaviourOf(page);
+        try {
+            sleep(latencyMillis + (behaviour == SLOW ? slowLatencyMillis : 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+            return;
+        }
+
+        if (behaviour == ERROR) {
+            errors.incrementAndGet();
+            send(exchange, 500, "<html><body>Internal server error</body></html>");
+        } else if (behaviour == REDIRECT && !moved) {
+            redirects.incrementAndGet();
+            exchange.getResponseHeaders().add("Location", "/moved/p" + page);
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        } else if (etags) {
+            String etag = "\"p" + page + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", etag);
+            send(exchange, 200, render(page));
+        } else {
+            send(exchange, 200, render(page));
+        }
+    }
+
+    /**
+     * Serves robots.txt and the sitemaps, if configured.
+     *
+     * @return {@code true} if the path was one of them, {@code false} otherwise.
+     */
+    private boolean serveFile(HttpExchange exchange, String path) throws IOException {
+        if (robots != null && path.equals("/robots.txt")) {
+            send(exchange, 200, "text/plain", robots.getBytes(StandardCharsets.UTF_8));
+            return true;
+        }
+        if (!sitemaps) {
+            return false;
+        }
+
+        String suffix = gzipSitemaps ? ".xml.gz" : ".xml";
+        if (path.equals("/sitemap.xml")) {
+            StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                    .append("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+            for (int part = 0; part < 2; part++) {
+                xml.append("<sitemap><loc>").append(getSeed()).append("sitemap-").append(part).append(suffix)
+                        .append("</loc></sitemap>");
+            }
+            byte[] body = xml.append("</sitemapindex>").toString().getBytes(StandardCharsets.UTF_8);
+            send(exchange, 200, "application/xml", body);
+            return true;
+        }
+
+        for (int part = 0; part < 2; part++) {
+            if (path.equals("/sitemap-" + part + suffix)) {
+                StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                        .append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+                for (int page = part; page < pages; page += 2) {
+                    xml.append("<url><loc>").append(getSeed()).append(page == 0 ? "" : "p" + page)
+                            .append("</loc><changefreq>daily</changefreq></url>");
+                }
+                byte[] body = xml.append("</urlset>").toString().getBytes(StandardCharsets.UTF_8);
+                if (gzipSitemaps) {
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                        gzip.write(body);
+                    }
+                    send(exchange, 200, "application/gzip", compressed.toByteArray());
+                } else {
+                    send(exchange, 200, "application/xml", body);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String render(int page) {
+        StringBuilder html = new StringBuilder(512)
+                .append("<!DOCTYPE html><html><head><title>Page ").append(page).append("</title>")
+                .append("<link rel=\"icon\" href=\"/favicon.ico\"></head><body>")
+                .append("<header><a href=\"/\"><img src=\"/img/logo.png\" alt=\"Logo\"></a></header><main>");
+
+        for (int child : childrenOf(page)) {
+            html.append("<a href=\"/p").append(child).append("\">Page ").append(child).append("</a>");
+        }
+
+        for (int k = 0; k < imagesPerPage; k++) {
+            html.append("<img src=\"/img/").append(page).append('-').append(k).append(".jpg\" alt=\"Image ")
+                    .append(k).append("\">");
+        }
+
+        return html.append("</main></body></html>").toString();
+    }
+
+    /**
+     * Walks the page graph from the seed the way a crawl does, not following the links of failing pages.
+     *
+     * @return the number of reachable pages and the number of those that fail.
+     */
+    private int[] countReachable() {
+        int reachable = 0;
+        int failed = 0;
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+
+        while (!queue.isEmpty()) {
+            int page = queue.poll();
+            reachable++;
+            if (behaviourOf(page) == ERROR) {
+                failed++;
+                continue;
+            }
+            for (int child : childrenOf(page)) {
+                queue.add(child);
+            }
+        }
+
+        return new int[]{reachable, failed};
+    }
+
+    /**
+     * Returns the pages linked from the given page, none if it is at the maximum depth.
+     */
+    private int[] childrenOf(int page) {
+        if (depthOf(page) >= maxDepth) {
+            return new int[0];
+        }
+
+        int first = page * fanOut + 1;
+        int count = Math.max(0, Math.min(fanOut, pages - first));
+        int[] children = new int[count];
+        for (int k = 0; k < count; k++) {
+            children[k] = first + k;
+        }
+        return children;
+    }
+
+    private int depthOf(int page) {
+        int depth = 0;
+        while (page > 0) {
+            page = (page - 1) / fanOut;
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Picks the behaviour of a page from a hash of its number: each behaviour takes its share of the range [0, 1).
+     */
+    private int behaviourOf(int page) {
+        if (page == 0) {
+            return 0;
+        }
+
+        double draw = (mix(page) >>> 11) * 0x1.0p-53;
+        if (draw < errorRate) {
+            return ERROR;
+        }
+        if (draw < errorRate + redirectRate) {
+            return REDIRECT;
+        }
+        if (draw < errorRate + redirectRate + slowRate) {
+            return SLOW;
+        }
+        return 0;
+    }
+
+    /**
+     * The splitmix64 finalizer, spreading consecutive page numbers over the whole range of a long.
+     */
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    private int pageOf(String path) {
+        if ("/".equals(path)) {
+            return 0;
+        }
+        if (!path.startsWith("/p")) {
+            return -1;
+        }
+
+        try {
+            int page = Integer.parseInt(path.substring(2));
+            return page > 0 && page < pages ? page : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String html) throws IOException {
+        send(exchange, status, "text/html; charset=UTF-8", html.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
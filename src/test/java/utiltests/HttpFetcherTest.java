@@ -0,0 +1,139 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.model.ParsedPage;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.util.url.FetchResponse;
+import com.github.kyleryxn.imagefinder.util.url.HTTPClient;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HTTP Fetcher Tests")
+public class HttpFetcherTest {
+    private static final String PAGE = "<html><body><a href=\"/a\">a</a></body></html>";
+
+    private HttpServer server;
+    private String base;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(PAGE.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream body = exchange.getResponseBody()) {
+                compressed.writeTo(body);
+            }
+        });
+        server.createContext("/bogus", exchange -> {
+            String charset = exchange.getRequestURI().getQuery();
+            byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=" + charset);
+            exchange.sendResponseHeaders(200, page.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(page);
+            }
+        });
+        server.createContext("/moved-large", exchange -> {
+            byte[] filler = new byte[1024 * 1024];
+            exchange.getResponseHeaders().add("Location", "/gzip");
+            exchange.sendResponseHeaders(301, filler.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(filler);
+            } catch (IOException ignored) {
+                // The fetcher stops reading the body and closes the connection
+            }
+        });
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/gzip");
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test: Decompresses Gzip Body")
+    void testGzip() throws IOException {
+        try (FetchResponse response = HttpFetcher.getDefault().get(base + "/gzip")) {
+            assertEquals(200, response.getStatusCode());
+            assertEquals("text/html", response.getMediaType());
+            assertEquals("UTF-8", response.getCharset());
+            assertEquals(PAGE, read(response.getBody()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Follows Redirects")
+    void testRedirect() throws IOException {
+        try (FetchResponse response = HttpFetcher.getDefault().get(base + "/moved")) {
+            assertEquals(200, response.getStatusCode());
+            assertEquals(base + "/gzip", response.getUrl());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Follows Redirect With Large Body")
+    void testRedirectWithLargeBody() throws IOException {
+        try (FetchResponse response = HttpFetcher.getDefault().get(base + "/moved-large")) {
+            assertEquals(200, response.getStatusCode());
+            assertEquals(PAGE, read(response.getBody()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Unsupported Charset Is Ignored")
+    void testBogusCharset() throws IOException {
+        for (String charset : new String[]{"bogus", "b@d"}) {
+            try (FetchResponse response = HttpFetcher.getDefault().get(base + "/bogus?" + charset)) {
+                assertEquals(200, response.getStatusCode());
+                assertNull(response.getCharset(), charset);
+            }
+
+            // The charset is detected from the content instead and the page is parsed
+            ParsedPage page = new HTMLParser(base + "/").parse(base + "/bogus?" + charset);
+            assertEquals(200, page.getStatusCode(), charset);
+            assertTrue(page.getLinks().contains(base + "/a"), charset);
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Check Plain HTTP URL")
+    void testCheckHttpURL() {
+        assertTrue(new HTTPClient().checkURL(base + "/gzip").isValid());
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+import com.github.kyleryxn.imagefinder.util.image.HammingIndex;
+import com.github.kyleryxn.imagefinder.util.image.ImageDuplicateIndex;
+import com.github.kyleryxn.imagefinder.util.image.ImageFingerprints;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Image Duplicate Index Tests")
+public class ImageDuplicateIndexTest {
+
+    @Test
+    @DisplayName("Test: Images Are Equal By URL")
+    void testImageEquality() {
+        Set<Image> images = new HashSet<>();
+        images.add(new Image("Logo", "example.com", true, false, "https://example.com/logo.png"));
+        images.add(new Image("Home", "example.com", false, false, "https://example.com/logo.png"));
+        images.add(new Image("Logo", "example.com", true, false, "https://example.com/logo-2x.png"));
+
+        assertEquals(2, images.size());
+    }
+
+    @Test
+    @DisplayName("Test: Difference Hash Survives Resizing")
+    void testDifferenceHash() {
+        BufferedImage picture = picture(Color.ORANGE, 40, 400, 300);
+        long hash = ImageFingerprints.differenceHash(picture);
+
+        assertTrue(ImageFingerprints.distance(hash, ImageFingerprints.differenceHash(resize(picture, 120, 90))) <= 4);
+        assertTrue(ImageFingerprints.distance(hash, ImageFingerprints.differenceHash(picture(Color.BLUE, 260, 400, 300)))
+                > ImageDuplicateIndex.DEFAULT_MAX_DISTANCE);
+    }
+
+    @Test
+    @DisplayName("Test: Index Search Matches A Linear Scan")
+    void testHammingIndex() {
+        Random random = new Random(42);
+        HammingIndex<Integer> index = new HammingIndex<>();
+        long[] hashes = new long[20_000];
+        for (int i = 0; i < hashes.length; i++) {
+            // Nearby variants of a few hundred bases, like resized copies of the same images
+            hashes[i] = i % 2 == 0 ? random.nextLong() : hashes[i - 1] ^ (1L << random.nextInt(64));
+            index.add(hashes[i], i);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            long query = hashes[random.nextInt(hashes.length)] ^ (1L << random.nextInt(64));
+            for (int radius : new int[]{0, 3, 6, 10}) {
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < hashes.length; i++) {
+                    if (ImageFingerprints.distance(query, hashes[i]) <= radius) {
+                        expected.add(i);
+                    }
+                }
+
+                List<Integer> found = index.search(query, radius);
+                Collections.sort(found);
+                assertEquals(expected, found);
+            }
+        }
+        assertEquals(hashes.length, index.size());
+    }
+
+    @Test
+    @DisplayName("Test: Cluster Exact And Near Duplicates")
+    void testClusters() {
+        long logo = ImageFingerprints.differenceHash(picture(Color.ORANGE, 40, 400, 300));
+        long logoSmall = ImageFingerprints.differenceHash(resize(picture(Color.ORANGE, 40, 400, 300), 100, 75));
+        long photo = ImageFingerprints.differenceHash(picture(Color.BLUE, 260, 400, 300));
+
+        ImageDuplicateIndex index = new ImageDuplicateIndex();
+        assertTrue(index.add(image("https://cdn-1.example.com/logo.png", "a", logo)));
+        assertFalse(index.add(image("https://cdn-1.example.com/logo.png", "a", logo)));
+        assertTrue(index.add(image("https://cdn-2.example.com/logo.png", "a", logo)));
+        assertTrue(index.add(image("https://example.com/logo-small.png", "b", logoSmall)));
+        assertTrue(index.add(image("https://example.com/photo.jpg", "c", photo)));
+        assertFalse(index.add(new Image("Unprobed", "example.com", false, false, "https://example.com/x.png")));
+
+        List<List<Image>> clusters = index.getClusters();
+        assertEquals(1, clusters.size());
+        assertEquals(3, clusters.get(0).size());
+        assertEquals("https://cdn-1.example.com/logo.png", clusters.get(0).get(0).getUrl());
+        assertEquals(4, index.size());
+        assertEquals(2, index.findSimilar(logo).size());
+    }
+
+    private static Image image(String url, String contentHash, long perceptualHash) {
+        Image image = new Image("Image", "example.com", false, false, url);
+        image.setMetadata(new ImageMetadata(400, 300, 1000, "image/png", "png", contentHash, perceptualHash));
+        return image;
+    }
+
+    /**
+     * Draws a picture with a gradient background and a filled circle, so it has structure for the hash to capture.
+     */
+    private static BufferedImage picture(Color color, int circleX, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int x = 0; x < width; x++) {
+            int shade = 255 * x / width;
+            g.setColor(new Color(shade, shade, 255 - shade));
+            g.drawLine(x, 0, x, height);
+        }
+        g.setColor(color);
+        g.fillOval(circleX, height / 4, width / 3, height / 2);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,91 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+import com.github.kyleryxn.imagefinder.util.image.ImageHeaderDecoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DisplayName("Image Header Decoder Tests")
+public class ImageHeaderDecoderTest {
+
+    @Test
+    @DisplayName("Test: Decode PNG, GIF And JPEG Headers")
+    void testRasterFormats() throws IOException {
+        assertDecoded(encode("png", 120, 45), 120, 45, "png");
+        assertDecoded(encode("gif", 16, 300), 16, 300, "gif");
+        assertDecoded(encode("jpg", 640, 480), 640, 480, "jpeg");
+    }
+
+    @Test
+    @DisplayName("Test: Decode From The First Bytes Only")
+    void testTruncated() throws IOException {
+        byte[] jpeg = encode("jpg", 320, 200);
+
+        // The frame header of a JPEG written by ImageIO follows its quantization tables, within the first 200 bytes
+        assertDecoded(Arrays.copyOf(jpeg, 200), 320, 200, "jpeg");
+
+        ImageMetadata cut = ImageHeaderDecoder.decode(jpeg, 20);
+        assertEquals("jpeg", cut.getFormat());
+        assertEquals(-1, cut.getWidth());
+    }
+
+    @Test
+    @DisplayName("Test: Decode ICO Directory")
+    void testIco() {
+        byte[] ico = new byte[6 + 2 * 16];
+        ico[2] = 1;
+        ico[4] = 2;
+        ico[6] = 16;
+        ico[7] = 16;
+        ico[22] = 0; // 256 pixels
+        ico[23] = 0;
+
+        assertDecoded(ico, 256, 256, "ico");
+    }
+
+    @Test
+    @DisplayName("Test: Decode SVG Size")
+    void testSvg() {
+        assertDecoded(svg("<?xml version=\"1.0\"?><svg xmlns=\"http://www.w3.org/2000/svg\" width=\"24px\" height='32'>"),
+                24, 32, "svg");
+        assertDecoded(svg("<svg width=\"100%\" height=\"100%\" viewBox=\"0 0 96.5 48\"><path d=\"\"/></svg>"),
+                97, 48, "svg");
+    }
+
+    @Test
+    @DisplayName("Test: Unknown Format")
+    void testUnknown() {
+        ImageMetadata metadata = ImageHeaderDecoder.decode(svg("<html><body></body></html>"), 26);
+
+        assertNull(metadata.getFormat());
+        assertEquals(-1, metadata.getWidth());
+    }
+
+    private static void assertDecoded(byte[] data, int width, int height, String format) {
+        ImageMetadata metadata = ImageHeaderDecoder.decode(data, data.length);
+
+        assertEquals(format, metadata.getFormat());
+        assertEquals(width, metadata.getWidth());
+        assertEquals(height, metadata.getHeight());
+    }
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] svg(String markup) {
+        return markup.getBytes(StandardCharsets.UTF_8);
+    }
+}
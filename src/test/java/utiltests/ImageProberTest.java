@@ -0,0 +1,274 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
+import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.model.ImageMetadata;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import com.github.kyleryxn.imagefinder.util.image.ImageDuplicateIndex;
+import com.github.kyleryxn.imagefinder.util.image.ImageProber;
+import com.github.kyleryxn.imagefinder.util.url.HttpFetcher;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Image Prober Tests")
+public class ImageProberTest {
+    private static final String PAGE = "<html><body><img src=\"/photo.jpg\" alt=\"Photo\"><img src=\"/icon.png\">"
+            + "<a href=\"/second\">Second</a></body></html>";
+    private static final String SECOND = "<html><body><img src=\"/photo.jpg\" alt=\"Photo again\"></body></html>";
+    private static final String DUPLICATES = "<html><body><img src=\"/photo.jpg\"><img src=\"/copy.jpg\">"
+            + "</body></html>";
+    private static final String UNTYPED = "<html><body><img src=\"/photo.jpg\"><img src=\"/cdn/photo\">"
+            + "<img src=\"/cdn/banner\"></body></html>";
+
+    @TempDir
+    Path outputDir;
+
+    private HttpServer server;
+    private String base;
+    private byte[] photo;
+    private final AtomicInteger imageRequests = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        photo = encode("jpg", 800, 600);
+        byte[] icon = encode("png", 32, 32);
+        byte[] huge = withDimensions(encode("png", 1, 1), 20_000, 20_000);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> sendHtml(exchange, PAGE));
+        server.createContext("/second", exchange -> sendHtml(exchange, SECOND));
+        server.createContext("/untyped", exchange -> sendHtml(exchange, UNTYPED));
+        server.createContext("/duplicates", exchange -> sendHtml(exchange, DUPLICATES));
+        server.createContext("/huge.png", exchange -> sendRange(exchange, huge, "image/png"));
+        server.createContext("/cdn/photo", exchange -> sendRange(exchange, icon, "application/octet-stream"));
+        server.createContext("/cdn/banner", exchange -> sendHtml(exchange, "<html><body>Banner</body></html>"));
+        server.createContext("/photo.jpg", exchange -> sendRange(exchange, photo, "image/jpeg"));
+        server.createContext("/copy.jpg", exchange -> sendRange(exchange, photo, "image/jpeg"));
+        server.createContext("/icon.png", exchange -> sendRange(exchange, icon, "image/png"));
+        server.createContext("/whole.png", exchange -> {
+            // Refuses every range, like a server that only serves files whole
+            imageRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(icon.length));
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(416, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test: Probe Reads Only The Header")
+    void testProbe() throws Exception {
+        try (ImageProber prober = new ImageProber(HttpFetcher.getDefault(), 2, 1, 1024)) {
+            Image image = new Image("Photo", "127.0.0.1", false, false, base + "photo.jpg");
+            ImageMetadata metadata = prober.probe(image).get(5, TimeUnit.SECONDS);
+
+            assertSame(metadata, image.getMetadata());
+            assertEquals(800, metadata.getWidth());
+            assertEquals(600, metadata.getHeight());
+            assertEquals(photo.length, metadata.getByteSize());
+            assertEquals("image/jpeg", metadata.getMimeType());
+            assertEquals("jpeg", metadata.getFormat());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Probe Falls Back To HEAD")
+    void testHeadFallback() throws Exception {
+        try (ImageProber prober = new ImageProber()) {
+            ImageMetadata metadata = prober.probe(new Image("Whole", "127.0.0.1", false, false, base + "whole.png"))
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(-1, metadata.getWidth());
+            assertEquals("image/png", metadata.getMimeType());
+            assertTrue(metadata.getByteSize() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Each URL Is Probed Once")
+    void testDedup() throws Exception {
+        try (ImageProber prober = new ImageProber()) {
+            List<Image> images = Arrays.asList(
+                    new Image("A", "127.0.0.1", false, false, base + "icon.png"),
+                    new Image("B", "127.0.0.1", false, false, base + "icon.png"),
+                    new Image("C", "127.0.0.1", false, false, base + "icon.png"));
+            prober.probeAll(images).get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, imageRequests.get());
+            assertEquals(1, prober.getProbedCount());
+            images.forEach(image -> assertEquals(32, image.getMetadata().getWidth()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Probe With Index Downloads And Clusters Images")
+    void testDuplicateIndex() throws Exception {
+        ImageDuplicateIndex index = new ImageDuplicateIndex();
+        try (ImageProber prober = new ImageProber(index)) {
+            Image original = new Image("Photo", "127.0.0.1", false, false, base + "photo.jpg");
+            Image copy = new Image("Copy", "127.0.0.1", false, false, base + "copy.jpg");
+            prober.probeAll(Arrays.asList(original, copy)).get(5, TimeUnit.SECONDS);
+
+            assertEquals(800, original.getMetadata().getWidth());
+            assertEquals(photo.length, original.getMetadata().getByteSize());
+            assertNotNull(original.getMetadata().getPerceptualHash());
+            assertEquals(original.getMetadata().getContentHash(), copy.getMetadata().getContentHash());
+            assertEquals(Collections.singletonList(Arrays.asList(original, copy)), index.getClusters()
+                    .stream().map(cluster -> cluster.stream().sorted().collect(Collectors.toList()))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Images Above The Pixel Budget Are Not Decoded")
+    void testPixelBudget() throws Exception {
+        try (ImageProber prober = new ImageProber(new ImageDuplicateIndex())) {
+            Image image = new Image("Huge", "127.0.0.1", false, false, base + "huge.png");
+            ImageMetadata metadata = prober.probe(image).get(5, TimeUnit.SECONDS);
+
+            assertEquals(20_000, metadata.getWidth());
+            assertEquals(20_000, metadata.getHeight());
+            assertNotNull(metadata.getContentHash());
+            assertNull(metadata.getPerceptualHash());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Writes Duplicate Clusters")
+    void testCrawlWritesDuplicates() throws IOException {
+        WebCrawler crawler = new WebCrawler(base + "duplicates", new HTMLParser(base), new PooledCrawlExecution(2),
+                new HostScheduler(), new JsonResultSink(outputDir));
+        crawler.setImageProber(new ImageProber(new ImageDuplicateIndex()));
+        crawler.crawl();
+
+        JsonArray clusters = new JsonParser().parse(new String(
+                Files.readAllBytes(outputDir.resolve("duplicates.json")), StandardCharsets.UTF_8)).getAsJsonArray();
+        assertEquals(1, clusters.size());
+        Set<String> urls = new HashSet<>();
+        clusters.get(0).getAsJsonArray().forEach(image -> urls.add(image.getAsJsonObject().get("url").getAsString()));
+        assertEquals(new HashSet<>(Arrays.asList(base + "photo.jpg", base + "copy.jpg")), urls);
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Writes Probed Images")
+    void testCrawlWithProber() throws IOException {
+        WebCrawler crawler = new WebCrawler(base, new HTMLParser(base), new PooledCrawlExecution(2),
+                new HostScheduler(), new JsonResultSink(outputDir));
+        crawler.setImageProber(new ImageProber());
+        Map<String, Set<Image>> images = crawler.crawl();
+
+        images.values().stream().flatMap(Set::stream).forEach(image -> assertNotNull(image.getMetadata()));
+        assertEquals(2, imageRequests.get());
+
+        String written = new String(Files.readAllBytes(outputDir.resolve("images.ndjson")), StandardCharsets.UTF_8);
+        assertTrue(written.contains("\"width\":800"));
+    }
+
+    @Test
+    @DisplayName("Test: Crawl Checks The Content Of URLs Without An Image Extension")
+    void testCrawlChecksContentType() throws IOException {
+        WebCrawler crawler = new WebCrawler(base + "untyped", new HTMLParser(base), new PooledCrawlExecution(2),
+                new HostScheduler(), new JsonResultSink(outputDir));
+        Map<String, Set<Image>> images = crawler.crawl();
+
+        // The PNG is recognized by its signature, the HTML page is dropped, and photo.jpg is kept without a request
+        assertEquals(new HashSet<>(Arrays.asList(base + "photo.jpg", base + "cdn/photo")),
+                images.get(base + "untyped").stream().map(Image::getUrl).collect(Collectors.toSet()));
+        assertEquals(1, imageRequests.get());
+
+        String written = new String(Files.readAllBytes(outputDir.resolve("images.ndjson")), StandardCharsets.UTF_8);
+        assertTrue(written.contains("cdn/photo"));
+        assertFalse(written.contains("cdn/banner"));
+    }
+
+    private void sendRange(HttpExchange exchange, byte[] data, String contentType) throws IOException {
+        imageRequests.incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        byte[] body = data;
+        int status = 200;
+        if (range != null && range.startsWith("bytes=0-")) {
+            int end = Math.min(data.length - 1, Integer.parseInt(range.substring(8)));
+            body = Arrays.copyOf(data, end + 1);
+            status = 206;
+            exchange.getResponseHeaders().add("Content-Range", "bytes 0-" + end + "/" + data.length);
+        }
+
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendHtml(HttpExchange exchange, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Rewrites the dimensions in the IHDR chunk of a PNG file, leaving its pixel data as it is.
+     */
+    private static byte[] withDimensions(byte[] png, int width, int height) {
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+        buffer.putInt(16, width).putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+        return png;
+    }
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+}
@@ -4,6 +4,7 @@ import com.github.kyleryxn.imagefinder.util.image.ImageUtility;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -18,4 +19,16 @@ public class ImageUtilityTest {
 
         assertTrue(result);
     }
+
+    @Test
+    @DisplayName("Test: Modern Image Extensions")
+    void testModernExtensions() {
+        assertTrue(ImageUtility.isValidImageExtension("https://example.com/photo.webp"));
+        assertTrue(ImageUtility.isValidImageExtension("https://example.com/photo.avif"));
+        assertTrue(ImageUtility.isValidImageExtension("https://example.com/photo.bmp"));
+        assertTrue(ImageUtility.isValidImageExtension("https://example.com/photo.JPG"));
+        assertTrue(ImageUtility.isValidImageExtension("https://example.com/photo.png?v=2"));
+        assertFalse(ImageUtility.isValidImageExtension("https://example.com/photo.php"));
+        assertFalse(ImageUtility.isValidImageExtension("https://example.com/page.html#logo.png"));
+    }
 }
@@ -0,0 +1,78 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JSON Result Sink Tests")
+public class JsonResultSinkTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    @DisplayName("Test: Pages Streamed as NDJSON")
+    void testWritePages() throws IOException {
+        Image image = new Image("Logo", "example.com", true, false, "https://example.com/logo.png");
+
+        try (JsonResultSink sink = new JsonResultSink(outputDir)) {
+            sink.writePage("https://example.com", Collections.singleton("https://example.com/a"), Collections.singleton(image));
+
+            // Lines are durable before the sink is closed
+            List<String> lines = Files.readAllLines(outputDir.resolve("images.ndjson"));
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).startsWith("{\"url\":\"https://example.com\",\"images\":[{"));
+        }
+
+        assertEquals(1, Files.readAllLines(outputDir.resolve("sitemap.ndjson")).size());
+    }
+
+    @Test
+    @DisplayName("Test: Sink Recovers When A Result File Cannot Be Opened")
+    void testOpenFailure() throws IOException {
+        // A directory in the way of the sitemap file
+        Path blocker = Files.createDirectories(outputDir.resolve("sitemap.ndjson"));
+
+        try (JsonResultSink sink = new JsonResultSink(outputDir)) {
+            sink.writePage("https://example.com", Collections.emptySet(), Collections.emptySet());
+            assertFalse(Files.isRegularFile(outputDir.resolve("sitemap.ndjson")));
+
+            Files.delete(blocker);
+            sink.writePage("https://example.com/a", Collections.emptySet(), Collections.emptySet());
+        }
+
+        assertEquals(1, Files.readAllLines(outputDir.resolve("images.ndjson")).size());
+        assertEquals(1, Files.readAllLines(outputDir.resolve("sitemap.ndjson")).size());
+    }
+
+    @Test
+    @DisplayName("Test: Gzip Mode")
+    void testGzip() throws IOException {
+        try (JsonResultSink sink = new JsonResultSink(outputDir, true)) {
+            sink.writePage("https://example.com", Collections.singleton("https://example.com/a"), Collections.emptySet());
+            sink.writePage("https://example.com/a", Collections.emptySet(), Collections.emptySet());
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(outputDir.resolve("sitemap.ndjson.gz"))), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().collect(Collectors.toList());
+            assertEquals("{\"url\":\"https://example.com\",\"links\":[\"https://example.com/a\"]}", lines.get(0));
+            assertEquals(2, lines.size());
+        }
+    }
+}
@@ -1,28 +1,51 @@
 package utiltests;
 
+import com.github.kyleryxn.imagefinder.crawler.HostScheduler;
+import com.github.kyleryxn.imagefinder.crawler.PooledCrawlExecution;
 import com.github.kyleryxn.imagefinder.crawler.WebCrawler;
 import com.github.kyleryxn.imagefinder.model.Image;
+import com.github.kyleryxn.imagefinder.parser.HTMLParser;
+import com.github.kyleryxn.imagefinder.util.JsonResultSink;
 import com.github.kyleryxn.imagefinder.util.ResourceUtility;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testsupport.SyntheticSite;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("Resource Utility Tests")
 public class ResourceUtilityTest {
 
+    @TempDir
+    Path outputDir;
+
     @Test
     @DisplayName("Test: Write to JSON")
-    void testWriteToJSON() {
-        String url = "https://www.avant-gardner.com";
-        Map<String, Set<Image>> images = new WebCrawler(url).crawl();
-        ResourceUtility.writeMapToJson("images.json", images);
-        File file = new File("src/main/webapp/WEB-INF/images.json");
+    void testWriteToJSON() throws IOException {
+        Map<String, Set<Image>> images;
+        try (SyntheticSite site = new SyntheticSite(20, 3, 2).start()) {
+            String seed = site.getSeed();
+            images = new WebCrawler(seed, new HTMLParser(seed), new PooledCrawlExecution(4),
+                    new HostScheduler(8, 16, 10_000), new JsonResultSink(outputDir.resolve("results"))).crawl();
+        }
+
+        ResourceUtility.writeMapToJson(outputDir, "images.json", images);
+        Path file = outputDir.resolve("images.json");
 
-        assertTrue(file.exists());
+        assertTrue(Files.exists(file));
+        JsonObject json = new JsonParser().parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        assertEquals(20, json.size());
     }
 }
@@ -0,0 +1,94 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.util.url.RobotsRules;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Robots Rules Tests")
+public class RobotsRulesTest {
+
+    private static final String ROBOTS = "# Example\n"
+            + "User-agent: otherbot\n"
+            + "Disallow: /\n"
+            + "\n"
+            + "User-agent: *\n"
+            + "Disallow: /private\n"
+            + "Allow: /private/public\n"
+            + "Disallow: /*.php$\n"
+            + "Disallow: /search*q=\n"
+            + "Disallow:\n"
+            + "Crawl-delay: 2.5\n"
+            + "\n"
+            + "Sitemap: https://example.com/sitemap.xml\n"
+            + "Sitemap: https://example.com/news.xml\n";
+
+    @Test
+    @DisplayName("Test: Longest Matching Rule Wins")
+    void testLongestMatch() throws IOException {
+        RobotsRules rules = RobotsRules.parse(new StringReader(ROBOTS));
+
+        assertTrue(rules.isAllowed("https://example.com/"));
+        assertTrue(rules.isAllowed("https://example.com"));
+        assertFalse(rules.isAllowed("https://example.com/private"));
+        assertFalse(rules.isAllowed("https://example.com/private/secret.html"));
+        assertTrue(rules.isAllowed("https://example.com/private/public/page.html"));
+        assertTrue(rules.isAllowed("https://example.com/public"));
+    }
+
+    @Test
+    @DisplayName("Test: Wildcards And End Anchors")
+    void testWildcards() throws IOException {
+        RobotsRules rules = RobotsRules.parse(new StringReader(ROBOTS));
+
+        assertFalse(rules.isAllowed("https://example.com/index.php"));
+        assertFalse(rules.isAllowed("https://example.com/a/b/c.php"));
+        assertTrue(rules.isAllowed("https://example.com/index.php?page=2"));
+        assertTrue(rules.isAllowed("https://example.com/index.phps"));
+        assertFalse(rules.isAllowed("https://example.com/search?lang=en&q=cats"));
+        assertTrue(rules.isAllowed("https://example.com/search?lang=en"));
+        assertTrue(rules.isAllowed("https://example.com/index.html#top.php"));
+    }
+
+    @Test
+    @DisplayName("Test: Groups, Crawl-delay And Sitemaps")
+    void testGroups() throws IOException {
+        RobotsRules rules = RobotsRules.parse(new StringReader(ROBOTS));
+        assertEquals(2500, rules.getCrawlDelayMillis());
+        assertEquals(Arrays.asList("https://example.com/sitemap.xml", "https://example.com/news.xml"),
+                rules.getSitemaps());
+
+        RobotsRules other = RobotsRules.parse(new StringReader(ROBOTS), "OtherBot/1.0");
+        assertFalse(other.isAllowed("https://example.com/"));
+        assertEquals(-1, other.getCrawlDelayMillis());
+
+        // A named group replaces the "*" group; an allow wins a tie
+        RobotsRules named = RobotsRules.parse(new StringReader("User-agent: *\nDisallow: /\n\n"
+                + "User-agent: ImageFinder\nDisallow: /a\nAllow: /a\n"));
+        assertTrue(named.isAllowed("/a"));
+        assertTrue(named.isAllowed("/b"));
+
+        assertTrue(RobotsRules.allowAll().isAllowed("https://example.com/private"));
+    }
+
+    @Test
+    @DisplayName("Test: User Agent Is Matched In Full")
+    void testUserAgentMatch() throws IOException {
+        String robots = "User-agent: image\nDisallow: /\n\n"
+                + "User-agent: imagefinderbot\nDisallow: /\n\n"
+                + "User-agent: *\nDisallow: /private\n";
+
+        // Neither a prefix nor an extension of the product token names the crawler, so the "*" group applies
+        RobotsRules rules = RobotsRules.parse(new StringReader(robots));
+        assertTrue(rules.isAllowed("/"));
+        assertFalse(rules.isAllowed("/private"));
+
+        RobotsRules named = RobotsRules.parse(new StringReader(robots), "IMAGE/2.0 (+https://example.com)");
+        assertFalse(named.isAllowed("/"));
+    }
+}
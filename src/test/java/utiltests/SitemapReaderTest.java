@@ -0,0 +1,70 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.util.url.SitemapReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Sitemap Reader Tests")
+public class SitemapReaderTest {
+
+    private static final String URLSET = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\""
+            + " xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">"
+            + "<url><loc>https://example.com/</loc><lastmod>2024-01-01</lastmod></url>"
+            + "<url><loc>\n  https://example.com/a?x=1&amp;y=2\n</loc>"
+            + "<image:image><image:loc>https://example.com/a.png</image:loc></image:image></url>"
+            + "</urlset>";
+
+    private static final String INDEX = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">"
+            + "<sitemap><loc>https://example.com/sitemap-1.xml.gz</loc></sitemap>"
+            + "</sitemapindex>";
+
+    @Test
+    @DisplayName("Test: Parse Sitemap")
+    void testParseSitemap() throws IOException {
+        List<String> pages = new ArrayList<>();
+        List<String> sitemaps = new ArrayList<>();
+        SitemapReader.parse(new ByteArrayInputStream(URLSET.getBytes(StandardCharsets.UTF_8)), pages::add,
+                sitemaps::add);
+
+        // Image locations are not pages
+        assertEquals(Arrays.asList("https://example.com/", "https://example.com/a?x=1&y=2"), pages);
+        assertTrue(sitemaps.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test: Parse Gzip Compressed Sitemap Index")
+    void testParseIndex() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(INDEX.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<String> pages = new ArrayList<>();
+        List<String> sitemaps = new ArrayList<>();
+        SitemapReader.parse(new ByteArrayInputStream(compressed.toByteArray()), pages::add, sitemaps::add);
+
+        assertTrue(pages.isEmpty());
+        assertEquals(Arrays.asList("https://example.com/sitemap-1.xml.gz"), sitemaps);
+    }
+
+    @Test
+    @DisplayName("Test: Malformed Sitemap")
+    void testMalformed() {
+        byte[] malformed = "<urlset><url><loc>https://example.com/</url>".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> SitemapReader.parse(new ByteArrayInputStream(malformed),
+                page -> { }, sitemap -> { }));
+    }
+}
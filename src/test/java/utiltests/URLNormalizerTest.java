@@ -0,0 +1,63 @@
+package utiltests;
+
+import com.github.kyleryxn.imagefinder.util.url.URLClassifier;
+import com.github.kyleryxn.imagefinder.util.url.URLNormalizer;
+import com.github.kyleryxn.imagefinder.util.url.URLUtility;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("URL Normalizer Tests")
+public class URLNormalizerTest {
+
+    @Test
+    @DisplayName("Test: Normal URL Is Returned As Is")
+    void testAlreadyNormal() {
+        String url = "https://example.com/Path/To/Page?q=A";
+        assertSame(url, URLNormalizer.normalize(url));
+    }
+
+    @Test
+    @DisplayName("Test: Scheme And Host Are Lowercased, Default Port Removed")
+    void testSchemeHostPort() {
+        assertEquals("https://example.com/Page", URLNormalizer.normalize("HTTPS://Example.COM:443/Page"));
+        assertEquals("http://example.com/", URLNormalizer.normalize("http://example.com:80/"));
+        assertEquals("http://example.com:8080/", URLNormalizer.normalize("http://Example.com:8080/"));
+        assertEquals("https://User@example.com/", URLNormalizer.normalize("https://User@EXAMPLE.com/#top"));
+    }
+
+    @Test
+    @DisplayName("Test: Dot Segments Are Resolved")
+    void testDotSegments() {
+        assertEquals("https://a.com/a/c/d", URLNormalizer.normalize("https://a.com/a/b/../c/./d"));
+        assertEquals("https://a.com/", URLNormalizer.normalize("https://a.com/a/.."));
+        assertEquals("https://a.com/b/", URLNormalizer.normalize("https://a.com/../../b/."));
+        assertEquals("https://a.com/x?p=../y", URLNormalizer.normalize("https://a.com/q/../x?p=../y#f"));
+        assertEquals("https://a.com/..a/.b", URLNormalizer.normalize("https://a.com/..a/.b"));
+    }
+
+    @Test
+    @DisplayName("Test: Classifier Uses Path Extension Only")
+    void testClassifier() {
+        assertTrue(URLClassifier.isImage("https://a.com/logo.PNG"));
+        assertTrue(URLClassifier.isImage("https://a.com/photo.jpeg?w=200#x"));
+        assertFalse(URLClassifier.isImage("https://a.com/image.php?file=a.png"));
+        assertFalse(URLClassifier.isImage("https://a.com/png"));
+
+        assertFalse(URLClassifier.isCrawlable("https://a.com/report.PDF?download=1"));
+        assertFalse(URLClassifier.isCrawlable("MAILTO:someone@a.com"));
+        assertTrue(URLClassifier.isCrawlable("https://a.com/page.php?file=a.pdf"));
+        assertTrue(URLClassifier.isCrawlable("https://example.zip"));
+        assertTrue(URLClassifier.isCrawlable("https://a.com/archive.html"));
+    }
+
+    @Test
+    @DisplayName("Test: Trim And Domain Without Parsing")
+    void testTrimAndDomain() {
+        assertEquals("https://a.com/page", URLUtility.trimURL("https://a.com/page/?q=1#f"));
+        assertEquals("https://a.com/page", URLUtility.trimURL("https://a.com/page#f?x"));
+        assertEquals("example.com", URLUtility.getDomain("https://user@www.example.com:8443/a.png"));
+        assertNull(URLUtility.getDomain("a.png"));
+    }
+}